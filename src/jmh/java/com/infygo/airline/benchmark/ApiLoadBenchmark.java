@@ -0,0 +1,121 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.api.FlightApiServer;
+import com.infygo.airline.repository.FlightRepository;
+import com.infygo.airline.service.BookingServiceImpl;
+import com.infygo.airline.service.CityDirectory;
+import com.infygo.airline.service.FareAlertNotifier;
+import com.infygo.airline.service.FareAlertService;
+import com.infygo.airline.service.FareAlertServiceImpl;
+import com.infygo.airline.service.FlightService;
+import com.infygo.airline.service.SeatInventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Local load test of the HTTP API: many client threads issuing searches and catalog page
+ * requests over keep-alive connections against a server on the loopback interface.
+ *
+ * Throughput mode reports requests per millisecond (x1000 for requests per second);
+ * sample mode reports the latency distribution in milliseconds, including p99, p99.9
+ * and p99.99. Raise the concurrency with -t, e.g. -Djmh.args="ApiLoadBenchmark -t 512".
+ */
+@BenchmarkMode({ Mode.Throughput, Mode.SampleTime })
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g", "-Dsun.net.httpserver.nodelay=true" })
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@Threads(64)
+public class ApiLoadBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Server {
+        @Param({ "100000" })
+        int catalogSize;
+
+        @Param({ "true" })
+        boolean virtualThreads;
+
+        FlightApiServer server;
+        HttpClient client;
+        String baseUrl;
+
+        @Setup
+        public void setUp() {
+            FlightRepository repository = BenchmarkCatalog.repository("memory");
+            BenchmarkCatalog.load(repository, catalogSize);
+            FlightService flightService = BenchmarkCatalog.service(repository, true);
+            CityDirectory cityDirectory = new CityDirectory(repository, "", "");
+            FareAlertService fareAlertService = new FareAlertServiceImpl(cityDirectory,
+                    new StaticListableBeanFactory().getBeanProvider(FareAlertNotifier.class), 10000, 31, 365, true);
+            server = new FlightApiServer(flightService, new BookingServiceImpl(repository, new SeatInventory(), 600, 3600, 100, 1024),
+                    cityDirectory, fareAlertService, repository, 0, virtualThreads, 200, 4096, 1000, 1024 * 1024,
+                    false);
+            server.start();
+            baseUrl = "http://127.0.0.1:" + server.getPort();
+            client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        }
+
+        @TearDown
+        public void tearDown() {
+            server.stop();
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Requests {
+        private final SplittableRandom random = new SplittableRandom();
+
+        HttpRequest search(Server server) {
+            int route = random.nextInt(BenchmarkCatalog.routeCount());
+            int day = random.nextInt(BenchmarkCatalog.SCHEDULE_DAYS);
+            return HttpRequest.newBuilder(URI.create(server.baseUrl + "/api/flights/search?source="
+                    + BenchmarkCatalog.source(route) + "&destination=" + BenchmarkCatalog.destination(route)
+                    + "&date=" + BenchmarkCatalog.date(day))).build();
+        }
+
+        HttpRequest page(Server server) {
+            int after = random.nextInt(server.catalogSize);
+            return HttpRequest.newBuilder(URI.create(server.baseUrl + "/api/flights?limit=20&after="
+                    + BenchmarkCatalog.flightId(after))).build();
+        }
+    }
+
+    @Benchmark
+    public int search(Server server, Requests requests) throws IOException, InterruptedException {
+        return send(server, requests.search(server));
+    }
+
+    @Benchmark
+    public int listPage(Server server, Requests requests) throws IOException, InterruptedException {
+        return send(server, requests.page(server));
+    }
+
+    private static int send(Server server, HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<byte[]> response = server.client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + " for " + request.uri());
+        }
+        return response.body().length;
+    }
+}
@@ -0,0 +1,114 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.repository.FlightRepository;
+import com.infygo.airline.repository.FlightRepositoryImpl;
+import com.infygo.airline.service.CityDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * City name lookups against a directory of tens of thousands of made-up airport names:
+ * exact resolution (done on every search), prefix autocomplete and typo suggestions.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class AutocompleteBenchmark {
+
+    private static final String[] SYLLABLES = {
+            "ba", "ka", "la", "ma", "na", "pa", "ra", "sa", "ta", "va", "de", "go", "hi", "ju", "ko",
+            "lu", "mi", "no", "pu", "ri", "shi", "ti", "ur", "ya", "zo", "bad", "pur", "nag", "gar", "kot"
+    };
+
+    @Param({ "50000" })
+    private int cityCount;
+
+    private CityDirectory directory;
+    private String[] names;
+    private String[] prefixes;
+    private String[] typos;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        names = new String[cityCount];
+        for (int i = 0; i < cityCount; i++) {
+            names[i] = name(i);
+        }
+
+        // One flight per pair of neighbouring names, so every name is a city of the catalog
+        FlightRepository repository = new FlightRepositoryImpl();
+        List<Flight> flights = new ArrayList<>(cityCount);
+        for (int i = 0; i < cityCount; i++) {
+            flights.add(new Flight(BenchmarkCatalog.flightId(i), BenchmarkCatalog.AIRLINES[i % 5], names[i],
+                    names[(i + 1) % cityCount], 1000.0, BenchmarkCatalog.FIRST_DATE, 100));
+        }
+        repository.addFlights(flights);
+        directory = new CityDirectory(repository, "", "");
+
+        SplittableRandom random = new SplittableRandom(42);
+        prefixes = new String[1024];
+        typos = new String[1024];
+        for (int i = 0; i < prefixes.length; i++) {
+            String name = names[random.nextInt(cityCount)];
+            prefixes[i] = name.substring(0, Math.min(name.length(), 3));
+            // Swap two adjacent letters in the middle of the name
+            int at = name.length() / 2;
+            typos[i] = name.substring(0, at - 1) + name.charAt(at) + name.charAt(at - 1) + name.substring(at + 1);
+        }
+    }
+
+    /**
+     * Distinct pronounceable name for each index: four syllables chosen by a bijective
+     * scramble of the index, so beginnings and endings are both spread evenly
+     */
+    private static String name(int index) {
+        int base = SYLLABLES.length;
+        int value = (int) ((index * 7919L) % (base * base * base * base));
+        StringBuilder name = new StringBuilder();
+        for (int i = 0; i < 4; i++) {
+            name.append(SYLLABLES[value % base]);
+            value /= base;
+        }
+        name.setCharAt(0, Character.toUpperCase(name.charAt(0)));
+        return name.toString();
+    }
+
+    private int nextIndex() {
+        next = (next + 1) & 1023;
+        return next;
+    }
+
+    @Benchmark
+    public String resolve() {
+        return directory.resolveCity(names[nextIndex() * 37 % cityCount]);
+    }
+
+    @Benchmark
+    public List<String> complete() {
+        return directory.completeCities(prefixes[nextIndex()], 10);
+    }
+
+    @Benchmark
+    public List<String> suggest() {
+        return directory.suggestCities(typos[nextIndex()]);
+    }
+}
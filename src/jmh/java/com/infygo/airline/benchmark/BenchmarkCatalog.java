@@ -0,0 +1,159 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.aspect.LoggingAspect;
+import com.infygo.airline.audit.AuditLog;
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.repository.ColumnarFlightRepository;
+import com.infygo.airline.repository.FlightRepository;
+import com.infygo.airline.repository.FlightRepositoryImpl;
+import com.infygo.airline.repository.OffHeapFlightRepository;
+import com.infygo.airline.repository.PartitionedFlightRepository;
+import com.infygo.airline.service.CityDirectory;
+import com.infygo.airline.service.FlightCatalogListener;
+import com.infygo.airline.service.FlightService;
+import com.infygo.airline.service.FlightServiceImpl;
+import com.infygo.airline.service.SearchResultCache;
+import com.infygo.airline.service.SeatInventory;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deterministic synthetic catalog shared by the benchmarks.
+ * Flight i is always the same flight, so runs at the same size are comparable.
+ * One route (the hot route) carries 10% of all flights.
+ */
+final class BenchmarkCatalog {
+
+    static final String[] CITIES = {
+            "Delhi", "Mumbai", "Bangalore", "Chennai", "Kolkata", "Hyderabad", "Pune", "Ahmedabad",
+            "Jaipur", "Lucknow", "Kochi", "Goa", "Chandigarh", "Indore", "Nagpur", "Patna",
+            "Bhopal", "Guwahati", "Srinagar", "Varanasi", "Amritsar", "Coimbatore", "Madurai", "Ranchi"
+    };
+
+    static final String[] AIRLINES = { "Air India", "IndiGo", "SpiceJet", "Vistara", "Akasa" };
+
+    // Days of schedule the catalog is spread over
+    static final int SCHEDULE_DAYS = 365;
+
+    static final LocalDate FIRST_DATE = LocalDate.now().plusDays(1);
+
+    // Audit log behind every LoggingAspect proxy, with the application's default settings
+    static final AuditLog AUDIT_LOG = new AuditLog(8192, 1.0, 100, 10);
+
+    private BenchmarkCatalog() {
+    }
+
+    static String flightId(int index) {
+        return "FLT" + index;
+    }
+
+    static Flight flight(int index) {
+        int route = index % 10 == 0 ? 0 : mix(index) % routeCount();
+        return new Flight(
+                flightId(index),
+                AIRLINES[index % AIRLINES.length],
+                source(route),
+                destination(route),
+                2000.0 + mix(index * 31) % 8000,
+                date(mix(index * 17) % SCHEDULE_DAYS),
+                100 + index % 150);
+    }
+
+    static int routeCount() {
+        return CITIES.length * (CITIES.length - 1);
+    }
+
+    static String source(int route) {
+        return CITIES[route / (CITIES.length - 1)];
+    }
+
+    static String destination(int route) {
+        int source = route / (CITIES.length - 1);
+        int destination = route % (CITIES.length - 1);
+        return CITIES[destination >= source ? destination + 1 : destination];
+    }
+
+    static LocalDate date(int day) {
+        return FIRST_DATE.plusDays(day);
+    }
+
+    // Flights per addFlights call when preloading a catalog
+    private static final int LOAD_BATCH_SIZE = 100_000;
+
+    /**
+     * An empty repository of the given storage mode, as named by infygo.repository.mode
+     */
+    static FlightRepository repository(String mode) {
+        switch (mode) {
+            case "memory":
+                return new FlightRepositoryImpl();
+            case "columnar":
+                return new ColumnarFlightRepository();
+            case "offheap":
+                return new OffHeapFlightRepository();
+            case "partitioned":
+                return new PartitionedFlightRepository(0, new String[0], 5000);
+            default:
+                throw new IllegalArgumentException("Unknown repository mode: " + mode);
+        }
+    }
+
+    /**
+     * Fill a repository with flights 0 .. size - 1
+     */
+    static void load(FlightRepository repository, int size) {
+        List<Flight> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        for (int i = 0; i < size; i++) {
+            batch.add(flight(i));
+            if (batch.size() == LOAD_BATCH_SIZE) {
+                repository.addFlights(batch);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            repository.addFlights(batch);
+        }
+    }
+
+    /**
+     * A FlightService over the repository without a search cache, optionally behind the
+     * LoggingAspect proxy
+     */
+    static FlightService service(FlightRepository repository, boolean loggingProxy) {
+        return service(repository, new SearchResultCache(0, 60), loggingProxy);
+    }
+
+    /**
+     * A FlightService over the repository using the search cache, optionally behind the
+     * LoggingAspect proxy. The cache and the city directory are registered as catalog listeners,
+     * as in the application.
+     */
+    static FlightService service(FlightRepository repository, SearchResultCache searchCache, boolean loggingProxy) {
+        StaticListableBeanFactory listeners = new StaticListableBeanFactory();
+        CityDirectory cityDirectory = new CityDirectory(repository, "", "");
+        listeners.addBean("searchResultCache", searchCache);
+        listeners.addBean("cityDirectory", cityDirectory);
+        FlightService service = new FlightServiceImpl(repository, new SeatInventory(), searchCache, cityDirectory,
+                listeners.getBeanProvider(FlightCatalogListener.class), 1000);
+        if (!loggingProxy) {
+            return service;
+        }
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(service);
+        proxyFactory.addAspect(new LoggingAspect(AUDIT_LOG));
+        return proxyFactory.getProxy();
+    }
+
+    /**
+     * Cheap integer hash so flights spread evenly over routes, dates and fares
+     */
+    static int mix(int value) {
+        int h = value * 0x9E3779B9;
+        h ^= h >>> 16;
+        return h & Integer.MAX_VALUE;
+    }
+}
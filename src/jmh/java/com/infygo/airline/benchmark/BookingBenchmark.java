@@ -0,0 +1,105 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.domain.Booking;
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.SeatHold;
+import com.infygo.airline.repository.FlightRepositoryImpl;
+import com.infygo.airline.service.BookingServiceImpl;
+import com.infygo.airline.service.SeatInventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking throughput under contention: every core books on one hot flight
+ * (flightCount = 1) or spread over many flights.
+ *
+ * bookAndCancel reports bookings per second in steady state. holdAndRelease does the
+ * same with seat holds, each scheduled on and cancelled from the expiry timing wheel.
+ * oversubscribe hammers small flights until they sell out and fails the run if any
+ * flight is overbooked.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+public class BookingBenchmark {
+
+    // Capacity of the flights used by oversubscribe
+    private static final int SMALL_FLIGHT_SEATS = 180;
+
+    @Param({ "1", "1000" })
+    private int flightCount;
+
+    private FlightRepositoryImpl repository;
+    private SeatInventory seatInventory;
+    private BookingServiceImpl bookingService;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        repository = new FlightRepositoryImpl();
+        LocalDate date = LocalDate.now().plusDays(30);
+        for (int i = 0; i < flightCount; i++) {
+            repository.addFlight(new Flight("BIG" + i, "IndiGo", "Delhi", "Mumbai", 5000.0, date,
+                    Integer.MAX_VALUE));
+            repository.addFlight(new Flight("SMALL" + i, "IndiGo", "Delhi", "Chennai", 5000.0, date,
+                    SMALL_FLIGHT_SEATS));
+        }
+        seatInventory = new SeatInventory();
+        bookingService = new BookingServiceImpl(repository, seatInventory, 600, 3600, 100, 1024);
+    }
+
+    @TearDown(Level.Iteration)
+    public void checkNoOverbooking() {
+        bookingService.close();
+        for (int i = 0; i < flightCount; i++) {
+            int booked = seatInventory.getBookedSeats("SMALL" + i);
+            if (booked > SMALL_FLIGHT_SEATS) {
+                throw new IllegalStateException("Flight SMALL" + i + " overbooked: " + booked);
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public Booking bookAndCancel(Picker picker) {
+        Booking booking = bookingService.bookSeats("BIG" + picker.random.nextInt(flightCount), 1);
+        bookingService.cancelBooking(booking.getBookingId());
+        return booking;
+    }
+
+    @Benchmark
+    public SeatHold holdAndRelease(Picker picker) {
+        SeatHold hold = bookingService.holdSeats("BIG" + picker.random.nextInt(flightCount), 1);
+        bookingService.releaseHold(hold.getHoldId());
+        return hold;
+    }
+
+    @Benchmark
+    public boolean oversubscribe(Picker picker) {
+        int flight = picker.random.nextInt(flightCount);
+        return seatInventory.tryReserve("SMALL" + flight, SMALL_FLIGHT_SEATS, 1 + picker.random.nextInt(4));
+    }
+}
@@ -0,0 +1,116 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.service.SeatInventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whether booking serializes: seat reservations through the per-flight compare-and-set
+ * SeatInventory against the same counters behind one global lock, the design it replaced.
+ *
+ * Run with increasing thread counts, e.g. -t 1, -t 2, -t 4, -t 8. Spread over many flights
+ * the lock-free inventory should scale with the threads while the global lock stays flat;
+ * on one hot flight both contend on a single counter. Every reservation is released again,
+ * and the run fails if any counter is left off balance.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class BookingContentionBenchmark {
+
+    // Large enough that a reservation never fails for lack of seats
+    private static final int CAPACITY = Integer.MAX_VALUE / 2;
+
+    @Param({ "1", "1000" })
+    private int flightCount;
+
+    @Param({ "lockFree", "globalLock" })
+    private String inventory;
+
+    private String[] flightIds;
+    private SeatInventory seatInventory;
+    private GlobalLockInventory globalLockInventory;
+
+    @Setup
+    public void setUp() {
+        flightIds = new String[flightCount];
+        for (int i = 0; i < flightCount; i++) {
+            flightIds[i] = "FLT" + i;
+        }
+        seatInventory = new SeatInventory();
+        globalLockInventory = new GlobalLockInventory();
+    }
+
+    @TearDown
+    public void checkBalanced() {
+        for (String flightId : flightIds) {
+            int booked = "lockFree".equals(inventory)
+                    ? seatInventory.getBookedSeats(flightId)
+                    : globalLockInventory.getBookedSeats(flightId);
+            if (booked != 0) {
+                throw new IllegalStateException("Flight " + flightId + " left with " + booked + " seats booked");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Picker {
+        private final SplittableRandom random = new SplittableRandom();
+    }
+
+    @Benchmark
+    public boolean reserveAndRelease(Picker picker) {
+        String flightId = flightIds[picker.random.nextInt(flightCount)];
+        int seats = 1 + picker.random.nextInt(4);
+        if ("lockFree".equals(inventory)) {
+            boolean reserved = seatInventory.tryReserve(flightId, CAPACITY, seats);
+            seatInventory.release(flightId, seats);
+            return reserved;
+        }
+        boolean reserved = globalLockInventory.tryReserve(flightId, CAPACITY, seats);
+        globalLockInventory.release(flightId, seats);
+        return reserved;
+    }
+
+    /**
+     * Booked seats per flight behind a single lock - the baseline every booking would queue on
+     */
+    private static final class GlobalLockInventory {
+        private final Map<String, Integer> bookedSeats = new HashMap<>();
+
+        synchronized boolean tryReserve(String flightId, int capacity, int seats) {
+            int booked = bookedSeats.getOrDefault(flightId, 0);
+            if (booked + seats > capacity) {
+                return false;
+            }
+            bookedSeats.put(flightId, booked + seats);
+            return true;
+        }
+
+        synchronized void release(String flightId, int seats) {
+            bookedSeats.merge(flightId, -seats, Integer::sum);
+        }
+
+        synchronized int getBookedSeats(String flightId) {
+            return bookedSeats.getOrDefault(flightId, 0);
+        }
+    }
+}
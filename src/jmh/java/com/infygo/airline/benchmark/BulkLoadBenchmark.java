@@ -0,0 +1,59 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.repository.FlightRepository;
+import com.infygo.airline.repository.PartitionedFlightRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to load a catalog into an empty repository in import-sized batches. With the
+ * partitioned repository each batch is split by route and applied on every partition's
+ * writer thread at once, so the load scales with the number of cores.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms4g", "-Xmx8g" })
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class BulkLoadBenchmark {
+
+    @Param({ "1000000" })
+    private int catalogSize;
+
+    @Param({ "memory", "partitioned" })
+    private String repositoryMode;
+
+    private FlightRepository repository;
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        repository = BenchmarkCatalog.repository(repositoryMode);
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+        if (repository instanceof PartitionedFlightRepository) {
+            ((PartitionedFlightRepository) repository).close();
+        }
+    }
+
+    @Benchmark
+    public FlightRepository load() {
+        BenchmarkCatalog.load(repository, catalogSize);
+        return repository;
+    }
+}
@@ -0,0 +1,227 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.repository.FlightRepositoryImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Stress check for the snapshot-based FlightRepositoryImpl.
+ * Readers search and page through the catalog while a writer keeps adding flights;
+ * every read validates the snapshot it saw, the writer checks each flight is visible
+ * once added, and any inconsistency fails the run.
+ *
+ * The moves group checks the two indexes against each other: writers keep moving flights
+ * to other routes and dates, replacing and removing them, while checkers take a single
+ * snapshot and verify that its ID lookup and its route search agree.
+ *
+ * Read scaling: run readOnly with increasing thread counts, e.g. -t 1, -t 2, -t 4, -t 8.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx8g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ConcurrentCatalogBenchmark {
+
+    // Flights returned per page by the paging readers
+    private static final int PAGE_SIZE = 100;
+
+    // Flights moved per upsertFlights call by the moves group's writers
+    private static final int MOVE_BATCH_SIZE = 8;
+
+    @State(Scope.Group)
+    public static class Catalog extends SharedCatalog {
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedCatalog {
+        @Param({ "100000" })
+        int catalogSize;
+
+        FlightRepositoryImpl repository;
+        AtomicInteger nextFlight;
+
+        @Setup
+        public void setUp() {
+            repository = new FlightRepositoryImpl();
+            BenchmarkCatalog.load(repository, catalogSize);
+            nextFlight = new AtomicInteger(catalogSize);
+        }
+    }
+
+    @State(Scope.Group)
+    public static class MovingCatalog extends SharedCatalog {
+    }
+
+    @State(Scope.Thread)
+    public static class Writer {
+        private final SplittableRandom random = new SplittableRandom();
+        private int step;
+    }
+
+    @State(Scope.Thread)
+    public static class Reader {
+        private final SplittableRandom random = new SplittableRandom();
+        private long lastVersion;
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public int search(Catalog catalog, Reader reader) {
+        return checkedSearch(catalog, reader);
+    }
+
+    @Benchmark
+    public int readOnly(SharedCatalog catalog, Reader reader) {
+        return checkedSearch(catalog, reader);
+    }
+
+    private static int checkedSearch(SharedCatalog catalog, Reader reader) {
+        int route = reader.random.nextInt(BenchmarkCatalog.routeCount());
+        LocalDate date = BenchmarkCatalog.date(reader.random.nextInt(BenchmarkCatalog.SCHEDULE_DAYS));
+        String source = BenchmarkCatalog.source(route);
+        String destination = BenchmarkCatalog.destination(route);
+
+        List<Flight> flights = catalog.repository.searchFlights(source, destination, date);
+
+        // A consistent bucket holds only this route and date, strictly ordered by flight ID
+        String previousId = null;
+        for (Flight flight : flights) {
+            if (!flight.getSource().equals(source) || !flight.getDestination().equals(destination)
+                    || !flight.getJourneyDate().equals(date)) {
+                throw new IllegalStateException("Flight " + flight.getFlightId() + " in the wrong bucket");
+            }
+            if (previousId != null && previousId.compareTo(flight.getFlightId()) >= 0) {
+                throw new IllegalStateException("Bucket out of order at " + flight.getFlightId());
+            }
+            previousId = flight.getFlightId();
+        }
+
+        checkVersion(catalog, reader);
+        return flights.size();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public int page(Catalog catalog, Reader reader) {
+        String cursor = BenchmarkCatalog.flightId(reader.random.nextInt(catalog.catalogSize));
+        List<Flight> flights = catalog.repository.getFlights(cursor, PAGE_SIZE);
+
+        String previousId = cursor;
+        for (Flight flight : flights) {
+            if (previousId.compareTo(flight.getFlightId()) >= 0) {
+                throw new IllegalStateException("Page out of order at " + flight.getFlightId());
+            }
+            previousId = flight.getFlightId();
+        }
+
+        checkVersion(catalog, reader);
+        return flights.size();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void write(Catalog catalog) {
+        Flight flight = BenchmarkCatalog.flight(catalog.nextFlight.getAndIncrement());
+        catalog.repository.addFlight(flight);
+
+        // A published write is visible at once, in its bucket and in the ID index
+        if (!catalog.repository.searchFlights(flight.getSource(), flight.getDestination(), flight.getJourneyDate())
+                .contains(flight) || catalog.repository.findFlight(flight.getFlightId()).orElse(null) != flight) {
+            throw new IllegalStateException("Flight " + flight.getFlightId() + " lost after it was written");
+        }
+    }
+
+    @Benchmark
+    @Group("moves")
+    @GroupThreads(3)
+    public Flight checkLookup(MovingCatalog catalog, Reader reader) {
+        Flight flight = catalog.repository.checkConsistency(
+                BenchmarkCatalog.flightId(reader.random.nextInt(catalog.catalogSize)));
+        checkVersion(catalog, reader);
+        return flight;
+    }
+
+    @Benchmark
+    @Group("moves")
+    @GroupThreads(3)
+    public int checkBucket(MovingCatalog catalog, Reader reader) {
+        // The hot route half of the time, where most moves land and leave
+        int route = reader.random.nextBoolean() ? 0 : reader.random.nextInt(BenchmarkCatalog.routeCount());
+        int size = catalog.repository.checkConsistency(BenchmarkCatalog.source(route),
+                BenchmarkCatalog.destination(route),
+                BenchmarkCatalog.date(reader.random.nextInt(BenchmarkCatalog.SCHEDULE_DAYS)));
+        checkVersion(catalog, reader);
+        return size;
+    }
+
+    @Benchmark
+    @Group("moves")
+    @GroupThreads(2)
+    public void move(MovingCatalog catalog, Writer writer) {
+        int index = writer.random.nextInt(catalog.catalogSize);
+        String flightId = BenchmarkCatalog.flightId(index);
+        switch (writer.step++ % 4) {
+            case 0:
+                catalog.repository.addFlight(moved(flightId, writer));
+                break;
+            case 1:
+                catalog.repository.updateFlight(moved(flightId, writer));
+                break;
+            case 2:
+                // Gone for a while, then back on another route
+                catalog.repository.removeFlight(flightId);
+                catalog.repository.addFlight(moved(flightId, writer));
+                break;
+            default:
+                List<Flight> batch = new ArrayList<>(MOVE_BATCH_SIZE);
+                for (int i = 0; i < MOVE_BATCH_SIZE; i++) {
+                    batch.add(moved(BenchmarkCatalog.flightId(writer.random.nextInt(catalog.catalogSize)), writer));
+                }
+                catalog.repository.upsertFlights(batch);
+                break;
+        }
+    }
+
+    /**
+     * A new version of the flight with the route, date and fare of another catalog flight
+     */
+    private static Flight moved(String flightId, Writer writer) {
+        Flight template = BenchmarkCatalog.flight(writer.random.nextInt(Integer.MAX_VALUE));
+        return new Flight(flightId, template.getAirlines(), template.getSource(), template.getDestination(),
+                template.getFare(), template.getJourneyDate(), template.getSeatCount());
+    }
+
+    /**
+     * Published versions only move forward for any single reader
+     */
+    private static void checkVersion(SharedCatalog catalog, Reader reader) {
+        long version = catalog.repository.getCatalogVersion();
+        if (version < reader.lastVersion) {
+            throw new IllegalStateException("Catalog version went back from " + reader.lastVersion + " to " + version);
+        }
+        reader.lastVersion = version;
+    }
+}
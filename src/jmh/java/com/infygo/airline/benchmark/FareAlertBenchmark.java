@@ -0,0 +1,94 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.domain.FareAlert;
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.repository.FlightRepositoryImpl;
+import com.infygo.airline.service.CityDirectory;
+import com.infygo.airline.service.FareAlertNotifier;
+import com.infygo.airline.service.FareAlertServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * What fare alerts add to every stored flight: matching a flight against the alert
+ * index and queueing its notifications, with no alerts and with a million of them.
+ *
+ * Alerts are spread over every route of the benchmark catalog with week-long windows
+ * and fare ceilings below most fares, so about one flight in ten matches anything.
+ * Notifications are delivered to a notifier that discards them.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx4g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FareAlertBenchmark {
+
+    // Flights cycled through - enough to spread over every route and day
+    private static final int FLIGHTS = 1 << 16;
+
+    private static final int WINDOW_DAYS = 7;
+
+    @Param({ "0", "1000000" })
+    private int alertCount;
+
+    private FareAlertServiceImpl fareAlerts;
+    private Flight[] flights;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        StaticListableBeanFactory notifiers = new StaticListableBeanFactory();
+        notifiers.addBean("discardingNotifier", (FareAlertNotifier) (alert, flight) -> {
+        });
+        fareAlerts = new FareAlertServiceImpl(new CityDirectory(new FlightRepositoryImpl(), "", ""),
+                notifiers.getBeanProvider(FareAlertNotifier.class), 10000, 31, 365, true);
+
+        List<FareAlert> alerts = new ArrayList<>(alertCount);
+        for (int i = 0; i < alertCount; i++) {
+            int route = BenchmarkCatalog.mix(i) % BenchmarkCatalog.routeCount();
+            LocalDate from = BenchmarkCatalog.date(BenchmarkCatalog.mix(i * 7) % (BenchmarkCatalog.SCHEDULE_DAYS
+                    - WINDOW_DAYS));
+            String airlines = i % 4 == 0 ? BenchmarkCatalog.AIRLINES[i % BenchmarkCatalog.AIRLINES.length] : null;
+            alerts.add(new FareAlert(null, "user" + i + "@example.com", BenchmarkCatalog.source(route),
+                    BenchmarkCatalog.destination(route), from, from.plusDays(WINDOW_DAYS - 1),
+                    1500 + BenchmarkCatalog.mix(i * 13) % 1500, airlines));
+        }
+        fareAlerts.subscribeAll(alerts);
+
+        flights = new Flight[FLIGHTS];
+        for (int i = 0; i < FLIGHTS; i++) {
+            flights[i] = BenchmarkCatalog.flight(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fareAlerts.close();
+        System.out.printf("%n%d alerts, %d index entries: %d notifications matched, %d dropped%n",
+                fareAlerts.getAlertCount(), fareAlerts.getIndexEntries(), fareAlerts.getMatched(),
+                fareAlerts.getDropped());
+    }
+
+    @Benchmark
+    public void flightAdded() {
+        fareAlerts.onFlightAdded(flights[next++ & (FLIGHTS - 1)]);
+    }
+}
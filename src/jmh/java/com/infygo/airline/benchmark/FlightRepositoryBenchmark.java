@@ -0,0 +1,137 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import com.infygo.airline.repository.FlightRepository;
+import com.infygo.airline.service.FlightService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hot paths of FlightService and each FlightRepository backend at catalog sizes from
+ * 10k to 10M flights, called directly and through the LoggingAspect proxy.
+ * The *Concurrent variants run on every available core.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx16g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FlightRepositoryBenchmark {
+
+    @Param({ "10000", "100000", "1000000", "10000000" })
+    private int catalogSize;
+
+    @Param({ "false", "true" })
+    private boolean loggingProxy;
+
+    @Param({ "memory", "columnar", "offheap", "partitioned" })
+    private String repositoryMode;
+
+    private FlightService flightService;
+
+    // IDs for flights added during the run, after the preloaded catalog
+    private AtomicInteger nextFlight;
+
+    @Setup
+    public void setUp() {
+        FlightRepository repository = BenchmarkCatalog.repository(repositoryMode);
+        BenchmarkCatalog.load(repository, catalogSize);
+        flightService = BenchmarkCatalog.service(repository, loggingProxy);
+        nextFlight = new AtomicInteger(catalogSize);
+    }
+
+    /**
+     * Per-thread query generator
+     */
+    @State(Scope.Thread)
+    public static class Queries {
+        private final SplittableRandom random = new SplittableRandom(42);
+
+        int route() {
+            // Route 0 is the hot route, so skip it for the uniform queries
+            return 1 + random.nextInt(BenchmarkCatalog.routeCount() - 1);
+        }
+
+        int day() {
+            return random.nextInt(BenchmarkCatalog.SCHEDULE_DAYS);
+        }
+    }
+
+    @Benchmark
+    public void addFlight() {
+        flightService.addFlight(BenchmarkCatalog.flight(nextFlight.getAndIncrement()));
+    }
+
+    @Benchmark
+    public List<Flight> searchHit(Queries queries) {
+        int route = queries.route();
+        return flightService.searchFlights(BenchmarkCatalog.source(route), BenchmarkCatalog.destination(route),
+                BenchmarkCatalog.date(queries.day()));
+    }
+
+    @Benchmark
+    public List<Flight> searchMiss(Queries queries) {
+        // Known route, date outside the schedule
+        int route = queries.route();
+        return flightService.searchFlights(BenchmarkCatalog.source(route), BenchmarkCatalog.destination(route),
+                BenchmarkCatalog.date(BenchmarkCatalog.SCHEDULE_DAYS + queries.day()));
+    }
+
+    @Benchmark
+    public List<Flight> searchHotRoute(Queries queries) {
+        return flightService.searchFlights(BenchmarkCatalog.source(0), BenchmarkCatalog.destination(0),
+                BenchmarkCatalog.date(queries.day()));
+    }
+
+    @Benchmark
+    public List<Flight> queryCheapestWeek(Queries queries) {
+        // Filtered top-10 over a week of the route - scans every flight in the range
+        int route = queries.route();
+        LocalDate from = BenchmarkCatalog.date(queries.day());
+        FlightQuery query = new FlightQuery(BenchmarkCatalog.source(route), BenchmarkCatalog.destination(route),
+                from, from.plusDays(6));
+        query.setMaxFare(6000.0);
+        return flightService.queryFlights(query);
+    }
+
+    @Benchmark
+    public List<Flight> getAllFlights() {
+        return flightService.getAllFlights();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Flight> searchHitConcurrent(Queries queries) {
+        return searchHit(queries);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Flight> searchHotRouteConcurrent(Queries queries) {
+        return searchHotRoute(queries);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void addFlightConcurrent() {
+        addFlight();
+    }
+}
@@ -0,0 +1,79 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.aspect.MetricsAspect;
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.metrics.MetricsRegistry;
+import com.infygo.airline.metrics.OperationMetrics;
+import com.infygo.airline.repository.FlightRepository;
+import com.infygo.airline.service.FlightService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of recording metrics: one record() call, single-threaded and on every core, and a
+ * search through the MetricsAspect proxy compared with the same search called directly.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgsAppend = { "-Xms1g", "-Xmx2g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetricsBenchmark {
+
+    private static final int CATALOG_SIZE = 100_000;
+
+    private OperationMetrics metrics;
+    private FlightService plainService;
+    private FlightService measuredService;
+
+    @Setup
+    public void setUp() {
+        MetricsRegistry registry = new MetricsRegistry(false);
+        metrics = registry.operation("benchmark");
+
+        FlightRepository repository = BenchmarkCatalog.repository("memory");
+        BenchmarkCatalog.load(repository, CATALOG_SIZE);
+        plainService = BenchmarkCatalog.service(repository, false);
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(plainService);
+        proxyFactory.addAspect(new MetricsAspect(registry));
+        measuredService = proxyFactory.getProxy();
+    }
+
+    @Benchmark
+    public void record() {
+        metrics.record(1_234, false);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void recordConcurrent() {
+        metrics.record(1_234, false);
+    }
+
+    @Benchmark
+    public List<Flight> searchDirect() {
+        return plainService.searchFlights(BenchmarkCatalog.source(1), BenchmarkCatalog.destination(1),
+                BenchmarkCatalog.date(7));
+    }
+
+    @Benchmark
+    public List<Flight> searchMeasured() {
+        return measuredService.searchFlights(BenchmarkCatalog.source(1), BenchmarkCatalog.destination(1),
+                BenchmarkCatalog.date(7));
+    }
+}
@@ -0,0 +1,68 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.service.PricingService;
+import com.infygo.airline.service.PricingServiceImpl;
+import com.infygo.airline.service.SeatInventory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of pricing a search result list with every rule type configured.
+ * Run with -prof gc to check the allocation per priced list.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PricingBenchmark {
+
+    @Param({ "10", "100" })
+    private int resultSize;
+
+    private PricingService pricingService;
+    private List<Flight> results;
+
+    @Setup
+    public void setUp() {
+        SeatInventory seatInventory = new SeatInventory();
+        pricingService = new PricingServiceImpl(seatInventory,
+                "12-01:01-31:1.20,05-01:06-15:1.10",
+                "FRIDAY:1.05,SUNDAY:1.08",
+                "3:1.30,7:1.15,14:1.05",
+                "0.5:1.05,0.8:1.15,0.95:1.30",
+                400);
+
+        results = new ArrayList<>(resultSize);
+        for (int i = 0; i < resultSize; i++) {
+            Flight flight = BenchmarkCatalog.flight(i);
+            seatInventory.tryReserve(flight.getFlightId(), flight.getSeatCount(), i % flight.getSeatCount());
+            results.add(flight);
+        }
+    }
+
+    @Benchmark
+    public double[] priceAll() {
+        return pricingService.priceAll(results);
+    }
+
+    @Benchmark
+    public double priceOne() {
+        return pricingService.price(results.get(0));
+    }
+}
@@ -0,0 +1,145 @@
+package com.infygo.airline.benchmark;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.repository.FlightRepository;
+import com.infygo.airline.service.FlightService;
+import com.infygo.airline.service.SearchResultCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Search throughput with and without the SearchResultCache on skewed traffic, where a
+ * few dozen route/date pairs receive most searches, and a stress check of the cache
+ * while flights are added to the same hot pairs.
+ *
+ * The readWrite group fails the run if a search misses a flight whose addFlight call
+ * returned before the search started - i.e. if the cache ever served a stale result.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = { "-Xms2g", "-Xmx8g" })
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class SearchCacheBenchmark {
+
+    // Route/date pairs that receive the hot share of the searches
+    private static final int HOT_PAIRS = 32;
+
+    // Percentage of searches that go to a hot pair
+    private static final int HOT_PERCENT = 90;
+
+    @State(Scope.Group)
+    public static class Catalog extends SharedCatalog {
+    }
+
+    @State(Scope.Benchmark)
+    public static class SharedCatalog {
+        @Param({ "1000000" })
+        int catalogSize;
+
+        @Param({ "0", "10000" })
+        int cacheEntries;
+
+        @Param({ "memory", "columnar", "offheap" })
+        String repositoryMode;
+
+        FlightService flightService;
+        SearchResultCache searchCache;
+        AtomicInteger nextFlight;
+
+        // Last flight added per hot pair, published only after addFlight returned
+        AtomicReferenceArray<String> lastAdded;
+
+        @Setup
+        public void setUp() {
+            FlightRepository repository = BenchmarkCatalog.repository(repositoryMode);
+            BenchmarkCatalog.load(repository, catalogSize);
+            searchCache = new SearchResultCache(cacheEntries, 60);
+            flightService = BenchmarkCatalog.service(repository, searchCache, false);
+            nextFlight = new AtomicInteger(catalogSize);
+            lastAdded = new AtomicReferenceArray<>(HOT_PAIRS);
+        }
+
+        @TearDown(Level.Trial)
+        public void report() {
+            System.out.printf("%ncache hits=%d misses=%d evictions=%d invalidations=%d%n", searchCache.getHits(),
+                    searchCache.getMisses(), searchCache.getEvictions(), searchCache.getInvalidations());
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Queries {
+        private final SplittableRandom random = new SplittableRandom();
+
+        int pair() {
+            return random.nextInt(100) < HOT_PERCENT
+                    ? random.nextInt(HOT_PAIRS)
+                    : HOT_PAIRS + random.nextInt(BenchmarkCatalog.routeCount() * BenchmarkCatalog.SCHEDULE_DAYS
+                            - HOT_PAIRS);
+        }
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public List<Flight> skewedSearch(SharedCatalog catalog, Queries queries) {
+        return search(catalog, queries.pair());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public int checkedSearch(Catalog catalog, Queries queries) {
+        int pair = queries.random.nextInt(HOT_PAIRS);
+        String expected = catalog.lastAdded.get(pair);
+        List<Flight> flights = search(catalog, pair);
+        if (expected != null && flights.stream().noneMatch(flight -> flight.getFlightId().equals(expected))) {
+            throw new IllegalStateException("Stale search result: " + expected + " missing");
+        }
+        return flights.size();
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void addToHotPair(Catalog catalog, Queries queries) {
+        int pair = queries.random.nextInt(HOT_PAIRS);
+        int route = pair % BenchmarkCatalog.routeCount();
+        int day = pair / BenchmarkCatalog.routeCount();
+        Flight flight = BenchmarkCatalog.flight(catalog.nextFlight.getAndIncrement());
+        flight.setSource(BenchmarkCatalog.source(route));
+        flight.setDestination(BenchmarkCatalog.destination(route));
+        flight.setJourneyDate(BenchmarkCatalog.date(day));
+        catalog.flightService.addFlight(flight);
+        catalog.lastAdded.set(pair, flight.getFlightId());
+    }
+
+    /**
+     * Search one route/date pair: pair = day * routeCount + route
+     */
+    private static List<Flight> search(SharedCatalog catalog, int pair) {
+        int route = pair % BenchmarkCatalog.routeCount();
+        int day = pair / BenchmarkCatalog.routeCount();
+        return catalog.flightService.searchFlights(BenchmarkCatalog.source(route),
+                BenchmarkCatalog.destination(route), BenchmarkCatalog.date(day));
+    }
+}
@@ -1,5 +1,6 @@
 package com.infygo.airline;
 
+import com.infygo.airline.startup.StartupTimings;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
@@ -7,12 +8,20 @@ import org.springframework.context.annotation.EnableAspectJAutoProxy;
 
 /**
  * Main entry point for the InfyGo Airline Booking application.
- * Configured to run without a database and with AOP support.
+ * Configured to run without a database and with AOP support, and reports how long
+ * each startup phase took.
  */
 @SpringBootApplication(exclude = { DataSourceAutoConfiguration.class })
 @EnableAspectJAutoProxy
 public class AirlineBookingApplication {
     public static void main(String[] args) {
-        SpringApplication.run(AirlineBookingApplication.class, args);
+        // Created first, so the startup report also covers the time Spring itself takes
+        StartupTimings startupTimings = new StartupTimings();
+
+        SpringApplication application = new SpringApplication(AirlineBookingApplication.class);
+        application.addListeners(startupTimings);
+        application.addInitializers(
+                context -> context.getBeanFactory().registerSingleton("startupTimings", startupTimings));
+        application.run(args);
     }
 }
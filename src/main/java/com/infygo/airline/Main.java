@@ -1,14 +1,39 @@
 package com.infygo.airline;
 
+import com.infygo.airline.api.FlightApiServer;
+import com.infygo.airline.audit.AuditLog;
+import com.infygo.airline.domain.Booking;
+import com.infygo.airline.domain.FareCalendarDay;
 import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import com.infygo.airline.domain.Itinerary;
+import com.infygo.airline.importer.ImportReport;
+import com.infygo.airline.importer.ScheduleImporter;
+import com.infygo.airline.metrics.MetricsRegistry;
+import com.infygo.airline.metrics.OperationMetrics;
+import com.infygo.airline.repository.CatalogImage;
+import com.infygo.airline.service.BookingService;
+import com.infygo.airline.service.CityDirectory;
+import com.infygo.airline.service.ConnectionSearchService;
+import com.infygo.airline.service.FareAlertServiceImpl;
 import com.infygo.airline.service.FlightService;
+import com.infygo.airline.service.PricingService;
+import com.infygo.airline.service.SearchResultCache;
+import com.infygo.airline.startup.StartupTimings;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.Formatter;
 import java.util.List;
 import java.util.Scanner;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -18,17 +43,56 @@ import java.util.concurrent.atomic.AtomicInteger;
  * Provides a text-based UI for interacting with the system.
  */
 @Component
+@ConditionalOnProperty(name = "infygo.cli.enabled", havingValue = "true", matchIfMissing = true)
 public class Main implements CommandLineRunner {
 
+    // Number of flights shown per page when listing the catalog
+    private static final int PAGE_SIZE = 20;
+
+    // Number of itineraries shown for a connecting flight search
+    private static final int MAX_ITINERARIES = 5;
+
+    // Number of rejected rows listed after a schedule import
+    private static final int MAX_REJECTIONS_SHOWN = 10;
+
+    // Number of city names offered when a typed name is ambiguous
+    private static final int MAX_CITY_SUGGESTIONS = 8;
+
     // Dependencies and configuration
     private final FlightService flightService;
+    private final BookingService bookingService;
+    private final ConnectionSearchService connectionSearchService;
+    private final PricingService pricingService;
+    private final ScheduleImporter scheduleImporter;
+    private final MetricsRegistry metricsRegistry;
+    private final SearchResultCache searchCache;
+    private final AuditLog auditLog;
+    private final FareAlertServiceImpl fareAlerts;
+    private final CityDirectory cityDirectory;
+    private final ObjectProvider<FlightApiServer> apiServer;
+    private final ObjectProvider<StartupTimings> startupTimings;
     private final Scanner scanner = new Scanner(System.in);
     private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("yyyy-MM-dd");
     private final AtomicInteger flightIdGenerator = new AtomicInteger(1000);
 
     @Autowired
-    public Main(FlightService flightService) {
+    public Main(FlightService flightService, BookingService bookingService,
+            ConnectionSearchService connectionSearchService, PricingService pricingService,
+            ScheduleImporter scheduleImporter, MetricsRegistry metricsRegistry, SearchResultCache searchCache,
+            AuditLog auditLog, FareAlertServiceImpl fareAlerts, CityDirectory cityDirectory,
+            ObjectProvider<FlightApiServer> apiServer, ObjectProvider<StartupTimings> startupTimings) {
         this.flightService = flightService;
+        this.bookingService = bookingService;
+        this.connectionSearchService = connectionSearchService;
+        this.pricingService = pricingService;
+        this.scheduleImporter = scheduleImporter;
+        this.metricsRegistry = metricsRegistry;
+        this.searchCache = searchCache;
+        this.auditLog = auditLog;
+        this.fareAlerts = fareAlerts;
+        this.cityDirectory = cityDirectory;
+        this.apiServer = apiServer;
+        this.startupTimings = startupTimings;
     }
 
     /**
@@ -36,8 +100,18 @@ public class Main implements CommandLineRunner {
      */
     @Override
     public void run(String... args) {
-        // Add sample flights at startup
-        addSampleFlights();
+        // Building this runner built the services and the views they keep of the catalog
+        startupTimings.ifAvailable(timings -> timings.end("Services and catalog views"));
+
+        // Continue numbering after flights kept from an earlier run or restored from a catalog image,
+        // or add sample flights to an empty catalog
+        if (flightService.getFlights(null, 1).isEmpty()) {
+            addSampleFlights();
+            startupTimings.ifAvailable(timings -> timings.end("Sample flights"));
+        } else {
+            seedFlightIdGenerator();
+        }
+        startupTimings.ifAvailable(StartupTimings::report);
 
         // Main program loop
         runMainMenu();
@@ -67,7 +141,39 @@ public class Main implements CommandLineRunner {
                     displayAllFlights();
                     break;
                 case 4:
+                    searchFareCalendar();
+                    break;
+                case 5:
+                    bookSeats();
+                    break;
+                case 6:
+                    cancelBooking();
+                    break;
+                case 7:
+                    searchConnectingFlights();
+                    break;
+                case 8:
+                    findBestFlights();
+                    break;
+                case 9:
+                    importSchedule();
+                    break;
+                case 10:
+                    showMetrics();
+                    break;
+                case 11:
+                    saveCatalogImage();
+                    break;
+                case 12:
+                    rescheduleFlight();
+                    break;
+                case 13:
+                    cancelFlight();
+                    break;
+                case 14:
                     exit = true;
+                    // The HTTP server's threads would otherwise keep the application running
+                    apiServer.ifAvailable(FlightApiServer::stop);
                     System.out.println("Thank you for using InfyGo. Goodbye!");
                     break;
                 default:
@@ -84,7 +190,17 @@ public class Main implements CommandLineRunner {
         System.out.println("1. Add Flight");
         System.out.println("2. Search Flights");
         System.out.println("3. Display All Flights");
-        System.out.println("4. Exit");
+        System.out.println("4. Fare Calendar (Flexible Dates)");
+        System.out.println("5. Book Seats");
+        System.out.println("6. Cancel Booking");
+        System.out.println("7. Search Connecting Flights");
+        System.out.println("8. Find Cheapest Flights (Filtered)");
+        System.out.println("9. Import Schedule (CSV)");
+        System.out.println("10. Show Metrics");
+        System.out.println("11. Save Catalog Image");
+        System.out.println("12. Reschedule Flight");
+        System.out.println("13. Cancel Flight");
+        System.out.println("14. Exit");
         System.out.println("========================================");
     }
 
@@ -117,6 +233,46 @@ public class Main implements CommandLineRunner {
         }
     }
 
+    /**
+     * Workflow: Replace a flight's details - its route, fare, date or seats
+     */
+    private void rescheduleFlight() {
+        System.out.println("\n----- Reschedule Flight -----");
+
+        String flightId = getStringInput("Enter Flight ID: ").trim();
+        String airlines = getStringInput("Enter Airlines Name: ");
+        String source = getStringInput("Enter Source: ");
+        String destination = getStringInput("Enter Destination: ");
+        Double fare = getDoubleInput("Enter Fare: ");
+        LocalDate journeyDate = getDateInput("Enter Journey Date (yyyy-MM-dd): ");
+        Integer seatCount = getIntInput("Enter Seat Count: ");
+
+        try {
+            Flight previous = flightService.updateFlight(
+                    new Flight(flightId, airlines, source, destination, fare, journeyDate, seatCount));
+            System.out.println("Flight rescheduled successfully! (was " + previous.getSource() + " to "
+                    + previous.getDestination() + " on " + previous.getJourneyDate() + ")");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Workflow: Remove a flight from the catalog; its bookings can still be cancelled
+     */
+    private void cancelFlight() {
+        System.out.println("\n----- Cancel Flight -----");
+
+        String flightId = getStringInput("Enter Flight ID: ");
+
+        try {
+            Flight removed = flightService.removeFlight(flightId);
+            System.out.println("Flight " + removed.getFlightId() + " cancelled successfully!");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
     /**
      * Workflow: Search for flights by route and date
      */
@@ -124,8 +280,8 @@ public class Main implements CommandLineRunner {
         System.out.println("\n----- Search Flights -----");
 
         // Collect search criteria
-        String source = getStringInput("Enter Source: ");
-        String destination = getStringInput("Enter Destination: ");
+        String source = getCityInput("Enter Source: ");
+        String destination = getCityInput("Enter Destination: ");
         LocalDate journeyDate = getDateInput("Enter Journey Date (yyyy-MM-dd): ");
 
         // Perform the search
@@ -136,81 +292,333 @@ public class Main implements CommandLineRunner {
             return;
         }
 
-        // Calculate peak season pricing
-        boolean isPeakSeason = isPeakSeason(journeyDate);
-        displaySearchResults(flights, isPeakSeason);
+        displaySearchResults(flights, journeyDate);
     }
 
     /**
-     * Display search results with conditional peak season pricing
+     * Workflow: Show the cheapest fare per day around a preferred date
      */
-    private void displaySearchResults(List<Flight> flights, boolean isPeakSeason) {
-        if (isPeakSeason) {
-            System.out.println("\nNote: Festival season rates apply (20% fare increase)");
+    private void searchFareCalendar() {
+        System.out.println("\n----- Fare Calendar -----");
+
+        // Collect search criteria
+        String source = getCityInput("Enter Source: ");
+        String destination = getCityInput("Enter Destination: ");
+        LocalDate journeyDate = getDateInput("Enter Preferred Journey Date (yyyy-MM-dd): ");
+        int flexDays = getIntInput("Enter Flexible Days (+/-): ");
+
+        List<FareCalendarDay> calendar = flightService.searchFlexibleDates(source, destination, journeyDate,
+                flexDays);
+
+        if (calendar.isEmpty()) {
+            System.out.println("No flights found for the given criteria.");
+            return;
         }
 
-        System.out.println("\nAvailable Flights:");
-        printFlightTableHeader();
+        System.out.printf("%-12s %-10s %-10s %-15s %-10s\n", "Journey Date", "Flights", "Flight ID", "Airlines",
+                "Lowest Fare");
+        System.out.println("-------------------------------------------------------------");
 
-        for (Flight flight : flights) {
-            double displayFare = flight.getFare();
-            if (isPeakSeason) {
-                displayFare = displayFare * 1.2; // Apply 20% increase for display only
+        for (FareCalendarDay day : calendar) {
+            Flight cheapest = day.getCheapestFlight();
+            double displayFare = pricingService.price(cheapest);
+
+            System.out.printf("%-12s %-10d %-10s %-15s Rs %-9.2f\n",
+                    day.getJourneyDate(),
+                    day.getFlights().size(),
+                    cheapest.getFlightId(),
+                    cheapest.getAirlines(),
+                    displayFare);
+        }
+    }
+
+    /**
+     * Workflow: Bulk load flights from a CSV schedule file
+     */
+    private void importSchedule() {
+        System.out.println("\n----- Import Schedule -----");
+        System.out.println("Format: flightId,airlines,source,destination,fare,journeyDate(yyyy-MM-dd),seatCount");
+
+        Path file = Paths.get(getStringInput("Enter CSV File Path: "));
+
+        try {
+            ImportReport report = scheduleImporter.importCsv(file);
+            System.out.printf("Imported %d of %d rows in %d ms (%.0f rows/s), %d rejected\n",
+                    report.getRowsImported(), report.getRowsRead(), report.getElapsedMillis(),
+                    report.getRowsPerSecond(), report.getRowsRejected());
+
+            // Show the first few rejections only
+            report.getRejections().stream()
+                    .limit(MAX_REJECTIONS_SHOWN)
+                    .forEach(rejection -> System.out.println("  " + rejection));
+        } catch (IOException e) {
+            System.out.println("Error: Could not read " + file + ": " + e.getMessage());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Workflow: Write the catalog as a binary image for fast restarts (infygo.startup.catalog-image)
+     */
+    private void saveCatalogImage() {
+        System.out.println("\n----- Save Catalog Image -----");
+
+        Path file = Paths.get(getStringInput("Enter Image File Path: "));
+
+        try {
+            long start = System.nanoTime();
+            List<Flight> flights = flightService.getAllFlights();
+            CatalogImage.write(file, flights);
+            System.out.printf("Saved %d flights to %s in %d ms\n", flights.size(), file,
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            System.out.println("Error: Could not write " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Workflow: Live call counts and latencies of the flight service and repository
+     */
+    private void showMetrics() {
+        System.out.println("\n----- Metrics -----");
+        List<OperationMetrics> operations = metricsRegistry.getOperations();
+        if (operations.isEmpty()) {
+            System.out.println("No calls recorded yet.");
+        } else {
+            Formatter table = new Formatter();
+            table.format("%-34s %10s %7s %10s %10s %10s %10s %10s%n", "Operation", "Calls", "Errors", "Calls/s",
+                    "p50 us", "p99 us", "p99.9 us", "Max us");
+            for (OperationMetrics operation : operations) {
+                table.format("%-34s %10d %7d %10.1f %10.1f %10.1f %10.1f %10.1f%n", operation.getName(),
+                        operation.getCalls(), operation.getErrors(), operation.getCallsPerSecond(),
+                        operation.getP50Micros(), operation.getP99Micros(), operation.getP999Micros(),
+                        operation.getMaxMicros());
             }
+            System.out.print(table);
+        }
+
+        System.out.printf("Search cache: %d entries, %d hits, %d misses, %d evictions, %d expirations, "
+                + "%d invalidations\n", searchCache.size(), searchCache.getHits(), searchCache.getMisses(),
+                searchCache.getEvictions(), searchCache.getExpirations(), searchCache.getInvalidations());
+        System.out.printf("Audit log: %d queued, %d written, %d dropped, %d searches not sampled (buffer %d, "
+                + "search sample rate %.2f)\n", auditLog.getPublished(), auditLog.getWritten(), auditLog.getDropped(),
+                auditLog.getSampledOut(), auditLog.getBufferSize(), auditLog.getSearchSampleRate());
+        System.out.printf("Fare alerts: %d active, %d index entries, %d matched, %d delivered, %d dropped, "
+                + "%d flights queued\n", fareAlerts.getAlertCount(), fareAlerts.getIndexEntries(),
+                fareAlerts.getMatched(), fareAlerts.getDelivered(), fareAlerts.getDropped(),
+                fareAlerts.getQueuedDeliveries());
+    }
 
-            printFlightDetails(flight, displayFare);
+    /**
+     * Workflow: Top-K flights on a route with optional airline, fare and seat filters
+     */
+    private void findBestFlights() {
+        System.out.println("\n----- Find Cheapest Flights -----");
+
+        // Collect search criteria
+        String source = getCityInput("Enter Source: ");
+        String destination = getCityInput("Enter Destination: ");
+        LocalDate journeyDate = getDateInput("Enter Journey Date (yyyy-MM-dd): ");
+        FlightQuery query = new FlightQuery(source, destination, journeyDate);
+
+        // Optional filters - blank means no filter
+        System.out.print("Enter Airlines Name (blank for any): ");
+        String airlines = scanner.nextLine().trim();
+        if (!airlines.isEmpty()) {
+            query.setAirlines(airlines);
+        }
+        double maxFare = getDoubleInput("Enter Maximum Fare (0 for no limit): ");
+        if (maxFare > 0) {
+            query.setMaxFare(maxFare);
+        }
+        query.setMinSeats(getIntInput("Enter Minimum Available Seats: "));
+        query.setSortBy(getIntInput("Sort by (1 = Fare, 2 = Available Seats): ") == 2
+                ? FlightQuery.SortBy.SEATS
+                : FlightQuery.SortBy.FARE);
+        query.setLimit(Math.max(1, getIntInput("Enter Number of Results: ")));
+
+        try {
+            List<Flight> flights = flightService.queryFlights(query);
+
+            if (flights.isEmpty()) {
+                System.out.println("No flights found for the given criteria.");
+                return;
+            }
+
+            displaySearchResults(flights, journeyDate);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
         }
     }
 
     /**
-     * Determines if a date falls in the peak season (December or January)
+     * Workflow: Search itineraries with connecting flights
      */
-    private boolean isPeakSeason(LocalDate date) {
-        int month = date.getMonthValue();
-        return month == 12 || month == 1; // December or January
+    private void searchConnectingFlights() {
+        System.out.println("\n----- Search Connecting Flights -----");
+
+        // Collect search criteria
+        String source = getCityInput("Enter Source: ");
+        String destination = getCityInput("Enter Destination: ");
+        LocalDate journeyDate = getDateInput("Enter Journey Date (yyyy-MM-dd): ");
+        int maxLegs = getIntInput("Enter Maximum Number of Flights: ");
+        int sortChoice = getIntInput("Sort by (1 = Total Fare, 2 = Travel Time): ");
+
+        try {
+            List<Itinerary> itineraries = connectionSearchService.searchConnections(source, destination,
+                    journeyDate, maxLegs,
+                    sortChoice == 2 ? ConnectionSearchService.SortBy.TRAVEL_TIME
+                            : ConnectionSearchService.SortBy.TOTAL_FARE,
+                    MAX_ITINERARIES);
+
+            if (itineraries.isEmpty()) {
+                System.out.println("No itineraries found for the given criteria.");
+                return;
+            }
+
+            Formatter table = new Formatter(new StringBuilder());
+            int option = 1;
+            for (Itinerary itinerary : itineraries) {
+                table.format("\nOption %d: %d flight(s), total Rs %.2f, arrives %s\n", option++,
+                        itinerary.getLegs().size(), itinerary.getTotalFare(), itinerary.getArrivalDate());
+                appendFlightTableHeader(table);
+                for (Flight leg : itinerary.getLegs()) {
+                    appendFlightDetails(table, leg, leg.getFare());
+                }
+            }
+            System.out.print(table);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Workflow: Book seats on one flight or on every flight of an itinerary
+     */
+    private void bookSeats() {
+        System.out.println("\n----- Book Seats -----");
+
+        String[] flightIds = getStringInput("Enter Flight ID(s), comma separated for an itinerary: ").split(",");
+        int passengers = getIntInput("Enter Number of Passengers: ");
+
+        try {
+            List<Booking> bookings = flightIds.length == 1
+                    ? List.of(bookingService.bookSeats(flightIds[0].trim(), passengers))
+                    : bookingService.bookItinerary(Arrays.asList(flightIds), passengers);
+
+            for (Booking booking : bookings) {
+                System.out.println("Booking confirmed: " + booking.getBookingId() + " (" + booking.getFlightId()
+                        + ", " + booking.getPassengerCount() + " seat(s))");
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
     }
 
     /**
-     * Workflow: Display all available flights
+     * Workflow: Cancel a booking and release its seats
+     */
+    private void cancelBooking() {
+        System.out.println("\n----- Cancel Booking -----");
+
+        String bookingId = getStringInput("Enter Booking ID: ");
+
+        try {
+            bookingService.cancelBooking(bookingId);
+            System.out.println("Booking cancelled successfully!");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Error: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Display search results at today's prices
+     */
+    private void displaySearchResults(List<Flight> flights, LocalDate journeyDate) {
+        double seasonMultiplier = pricingService.getSeasonMultiplier(journeyDate);
+        if (seasonMultiplier > 1.0) {
+            System.out.printf("\nNote: Festival season rates apply (%.0f%% fare increase)\n",
+                    (seasonMultiplier - 1.0) * 100);
+        }
+
+        System.out.println("\nAvailable Flights:");
+
+        // Price the whole list in one pass, then render it into one buffer and write it once
+        double[] fares = pricingService.priceAll(flights);
+        Formatter table = new Formatter(new StringBuilder());
+        appendFlightTableHeader(table);
+
+        for (int i = 0; i < fares.length; i++) {
+            appendFlightDetails(table, flights.get(i), fares[i]);
+        }
+        System.out.print(table);
+    }
+
+    /**
+     * Workflow: Display all available flights, one page at a time
      */
     private void displayAllFlights() {
         System.out.println("\n----- All Available Flights -----");
 
-        List<Flight> flights = flightService.getAllFlights();
+        List<Flight> page = flightService.getFlights(null, PAGE_SIZE);
 
-        if (flights.isEmpty()) {
+        if (page.isEmpty()) {
             System.out.println("No flights available.");
             return;
         }
 
-        printFlightTableHeader();
+        int pageNumber = 1;
+        while (true) {
+            // Each page is rendered into one buffer, so memory and output cost stay per page
+            Formatter table = new Formatter(new StringBuilder());
+            table.format("Page %d\n", pageNumber);
+            appendFlightTableHeader(table);
+            for (Flight flight : page) {
+                appendFlightDetails(table, flight, flight.getFare());
+            }
+            System.out.print(table);
+
+            if (page.size() < PAGE_SIZE) {
+                return;
+            }
 
-        for (Flight flight : flights) {
-            printFlightDetails(flight, flight.getFare());
+            // Fetch ahead so we don't offer a next page that turns out to be empty
+            String cursor = page.get(page.size() - 1).getFlightId();
+            page = flightService.getFlights(cursor, PAGE_SIZE);
+            if (page.isEmpty()) {
+                return;
+            }
+
+            System.out.print("Press Enter for the next page or 'q' to return to the menu: ");
+            if (scanner.nextLine().trim().equalsIgnoreCase("q")) {
+                return;
+            }
+            pageNumber++;
         }
     }
 
     /**
-     * Print the header row for flight tables
+     * Append the header row for flight tables
      */
-    private void printFlightTableHeader() {
-        System.out.printf("%-10s %-15s %-10s %-15s %-10s %-12s %-10s\n",
+    private void appendFlightTableHeader(Formatter table) {
+        table.format("%-10s %-15s %-10s %-15s %-10s %-12s %-10s\n",
                 "Flight ID", "Airlines", "Source", "Destination", "Fare", "Journey Date", "Seats");
-        System.out.println("---------------------------------------------------------------------------------");
+        table.format("---------------------------------------------------------------------------------\n");
     }
 
     /**
-     * Print details of a single flight
+     * Append details of a single flight
      */
-    private void printFlightDetails(Flight flight, double fare) {
-        System.out.printf("%-10s %-15s %-10s %-15s Rs %-9.2f %-12s %-10d\n",
+    private void appendFlightDetails(Formatter table, Flight flight, double fare) {
+        table.format("%-10s %-15s %-10s %-15s Rs %-9.2f %-12s %-10d\n",
                 flight.getFlightId(),
                 flight.getAirlines(),
                 flight.getSource(),
                 flight.getDestination(),
                 fare,
                 flight.getJourneyDate(),
-                flight.getSeatCount());
+                bookingService.getAvailableSeats(flight.getFlightId()));
     }
 
     /**
@@ -224,7 +632,8 @@ public class Main implements CommandLineRunner {
                 { "IndiGo", "Mumbai", "Kolkata", "3500", "180" },
                 { "SpiceJet", "Bangalore", "Chennai", "4000", "150" },
                 { "Vistara", "Chennai", "Hyderabad", "6000", "100" },
-                { "Air India", "Mumbai", "Delhi", "5200", "110" } // Return flight
+                { "Air India", "Mumbai", "Delhi", "5200", "110" }, // Return flight
+                { "IndiGo", "Mumbai", "Chennai", "4500", "160" } // Connects with Delhi-Mumbai
         };
 
         // Dates (regular and peak season)
@@ -253,6 +662,31 @@ public class Main implements CommandLineRunner {
         }
     }
 
+    /**
+     * Start generated IDs after the highest "FLT" number already in the catalog
+     */
+    private void seedFlightIdGenerator() {
+        // IDs are ordered as strings, so page through the "FLT" range and compare numerically
+        String cursor = "FLT";
+        List<Flight> page = flightService.getFlights(cursor, PAGE_SIZE * 50);
+        while (!page.isEmpty()) {
+            for (Flight flight : page) {
+                String flightId = flight.getFlightId();
+                if (!flightId.startsWith("FLT")) {
+                    return;
+                }
+                try {
+                    int number = Integer.parseInt(flightId.substring(3));
+                    flightIdGenerator.accumulateAndGet(number, Math::max);
+                } catch (NumberFormatException e) {
+                    // Not a generated ID
+                }
+            }
+            cursor = page.get(page.size() - 1).getFlightId();
+            page = flightService.getFlights(cursor, PAGE_SIZE * 50);
+        }
+    }
+
     /**
      * Get a non-empty string input from the user
      */
@@ -268,6 +702,38 @@ public class Main implements CommandLineRunner {
         return input;
     }
 
+    /**
+     * Get a city name from the user, resolved to the catalog's spelling.
+     * An alias or a unique prefix or typo is accepted with a notice; an ambiguous name
+     * lists the candidates and asks again. Names the catalog does not know are kept as typed.
+     */
+    private String getCityInput(String prompt) {
+        while (true) {
+            String input = getStringInput(prompt);
+            String city = cityDirectory.resolveCity(input);
+            if (city != null) {
+                if (!city.equalsIgnoreCase(input)) {
+                    System.out.println("Using " + city + " for " + input + ".");
+                }
+                return city;
+            }
+
+            // A typo first, then the start of a name
+            List<String> candidates = cityDirectory.suggestCities(input);
+            if (candidates.isEmpty()) {
+                candidates = cityDirectory.completeCities(input, MAX_CITY_SUGGESTIONS);
+            }
+            if (candidates.isEmpty()) {
+                return input;
+            }
+            if (candidates.size() == 1) {
+                System.out.println("Using " + candidates.get(0) + " for " + input + ".");
+                return candidates.get(0);
+            }
+            System.out.println("Did you mean: " + String.join(", ", candidates) + "?");
+        }
+    }
+
     /**
      * Get a positive integer input from the user
      */
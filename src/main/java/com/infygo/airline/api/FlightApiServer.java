@@ -0,0 +1,691 @@
+package com.infygo.airline.api;
+
+import com.infygo.airline.domain.Booking;
+import com.infygo.airline.domain.FareAlert;
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.SeatHold;
+import com.infygo.airline.json.JsonReader;
+import com.infygo.airline.json.JsonWriter;
+import com.infygo.airline.repository.FlightRepository;
+import com.infygo.airline.service.BookingService;
+import com.infygo.airline.service.CityDirectory;
+import com.infygo.airline.service.FareAlertService;
+import com.infygo.airline.service.FlightService;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * HTTP JSON API over FlightService, BookingService and FareAlertService, served by the JDK's built-in
+ * HTTP server.
+ *
+ * <pre>
+ * GET    /api/flights?after=&amp;limit=                      flights in ID order, one page
+ * POST   /api/flights                                    add a flight (JSON body)
+ * PUT    /api/flights                                    add or replace a batch of flights (JSON array)
+ * PUT    /api/flights/{flightId}                         replace a flight, e.g. reschedule it
+ * DELETE /api/flights/{flightId}                         remove a flight, answering it
+ * GET    /api/flights/search?source=&amp;destination=&amp;date=   direct flights on a route and date
+ * GET    /api/flights/{flightId}/seats                   seats still available
+ * POST   /api/bookings                                   book seats: {"flightId":..,"passengerCount":..}
+ * DELETE /api/bookings/{bookingId}                       cancel a booking
+ * POST   /api/holds                                      hold seats: {"flightId":..,"passengerCount":..,"holdSeconds":..}
+ * POST   /api/holds/{holdId}/confirm                     turn a hold into a booking
+ * DELETE /api/holds/{holdId}                             release a hold
+ * GET    /api/cities?prefix=&amp;limit=                      city names for autocomplete
+ * GET    /api/airlines?prefix=&amp;limit=                    airline names for autocomplete
+ * POST   /api/alerts                                     subscribe a fare alert (JSON body)
+ * GET    /api/alerts/{alertId}                           an active fare alert
+ * DELETE /api/alerts/{alertId}                           unsubscribe a fare alert
+ * </pre>
+ *
+ * Autocomplete answers the names or aliases starting with the prefix; when there are
+ * none it answers the names within one typo of it instead, e.g. Delhi for "Dehli".
+ *
+ * With infygo.api.partition-enabled the node can also serve as a remote shard of a
+ * partitioned repository (see RemoteFlightRepository). These endpoints go straight to
+ * the FlightRepository, without validation, so only enable them on a trusted network:
+ *
+ * <pre>
+ * POST   /api/partition/flights                          add a batch of flights (JSON array)
+ * PUT    /api/partition/flights                          add or replace a batch, answering the replaced versions
+ * PUT    /api/partition/flights/{flightId}               replace a flight, answering the old version, or 404
+ * DELETE /api/partition/flights/{flightId}               remove a flight, answering it, or 404
+ * GET    /api/partition/flights?after=&amp;limit=            flights in ID order, one page
+ * GET    /api/partition/flights/{flightId}               one flight, or 404
+ * GET    /api/partition/search?source=&amp;destination=&amp;from=&amp;to=   flights by date, then ID
+ * </pre>
+ *
+ * Each request runs on its own virtual thread when the JVM has them (Java 21+), so
+ * thousands of concurrent requests do not each hold a platform thread; on older JVMs a
+ * fixed pool of platform threads is used instead. Invalid input is answered with 400,
+ * a conflict such as a full flight with 409, both with {"error": message}.
+ */
+@Component
+@ConditionalOnProperty(name = "infygo.api.enabled", havingValue = "true")
+public class FlightApiServer implements SmartLifecycle {
+
+    private static final Logger logger = LoggerFactory.getLogger(FlightApiServer.class);
+
+    private static final String FLIGHTS = "/api/flights";
+    private static final String SEARCH = "/api/flights/search";
+    private static final String BOOKINGS = "/api/bookings";
+    private static final String HOLDS = "/api/holds";
+    private static final String CITIES = "/api/cities";
+    private static final String AIRLINES = "/api/airlines";
+    private static final String ALERTS = "/api/alerts";
+    private static final String PARTITION_FLIGHTS = "/api/partition/flights";
+    private static final String PARTITION_SEARCH = "/api/partition/search";
+
+    // Largest body accepted by the public endpoints - each one is a single small object
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+
+    // Largest batch accepted by a partition - room for about 100k flights. Partition endpoints
+    // only serve the trusted nodes of a partitioned repository.
+    private static final int MAX_PARTITION_BATCH_BYTES = 16 * 1024 * 1024;
+
+    private static final int DEFAULT_PAGE_SIZE = 100;
+
+    // Names offered by autocomplete when the request does not say, and at most
+    private static final int DEFAULT_NAME_LIMIT = 10;
+    private static final int MAX_NAME_LIMIT = 100;
+
+    private static final String NO_DELAY_PROPERTY = "sun.net.httpserver.nodelay";
+
+    private final FlightService flightService;
+    private final BookingService bookingService;
+    private final CityDirectory cityDirectory;
+    private final FareAlertService fareAlertService;
+    private final FlightRepository flightRepository;
+    private final int port;
+    private final boolean virtualThreads;
+    private final int platformThreads;
+    private final int backlog;
+    private final int maxPageSize;
+    private final int maxBatchBytes;
+    private final boolean partitionEnabled;
+
+    private HttpServer server;
+    private ExecutorService executor;
+    private volatile boolean running;
+
+    /**
+     * @param port             Port to listen on, 0 for any free port
+     * @param virtualThreads   Use virtual threads when the JVM supports them
+     * @param platformThreads  Size of the platform thread pool used otherwise
+     * @param backlog          Connections the OS queues before the server accepts them
+     * @param maxPageSize      Most flights returned by one list request
+     * @param maxBatchBytes    Largest body of a public batch of flights
+     * @param partitionEnabled Also serve the repository as a shard of a partitioned repository
+     */
+    @Autowired
+    public FlightApiServer(FlightService flightService, BookingService bookingService,
+            CityDirectory cityDirectory, FareAlertService fareAlertService, FlightRepository flightRepository,
+            @Value("${infygo.api.port:8080}") int port,
+            @Value("${infygo.api.virtual-threads:true}") boolean virtualThreads,
+            @Value("${infygo.api.platform-threads:200}") int platformThreads,
+            @Value("${infygo.api.backlog:1024}") int backlog,
+            @Value("${infygo.api.max-page-size:1000}") int maxPageSize,
+            @Value("${infygo.api.max-batch-bytes:1048576}") int maxBatchBytes,
+            @Value("${infygo.api.partition-enabled:false}") boolean partitionEnabled) {
+        if (port < 0 || port > 65535 || platformThreads <= 0 || backlog < 0 || maxPageSize <= 0
+                || maxBatchBytes <= 0) {
+            throw new IllegalArgumentException("Invalid HTTP API settings");
+        }
+        this.flightService = flightService;
+        this.bookingService = bookingService;
+        this.cityDirectory = cityDirectory;
+        this.fareAlertService = fareAlertService;
+        this.flightRepository = flightRepository;
+        this.port = port;
+        this.virtualThreads = virtualThreads;
+        this.platformThreads = platformThreads;
+        this.backlog = backlog;
+        this.maxPageSize = maxPageSize;
+        this.maxBatchBytes = maxBatchBytes;
+        this.partitionEnabled = partitionEnabled;
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        // Responses go out as two writes (headers, then body); with Nagle's algorithm on, the
+        // body waits for the client's delayed ACK - about 40 ms per keep-alive request.
+        // The JDK server only takes TCP_NODELAY from this JVM-wide flag, so it is left to the
+        // command line rather than changed under every other HttpServer in the process.
+        if (!Boolean.getBoolean(NO_DELAY_PROPERTY)) {
+            logger.warn("{} is not set - keep-alive responses may wait about 40 ms for delayed ACKs; "
+                    + "start the JVM with -D{}=true", NO_DELAY_PROPERTY, NO_DELAY_PROPERTY);
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), backlog);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not start the HTTP API on port " + port, e);
+        }
+        executor = newExecutor();
+        server.setExecutor(executor);
+        createContext(FLIGHTS, this::flights);
+        createContext(SEARCH, this::search);
+        createContext(BOOKINGS, this::bookings);
+        createContext(HOLDS, this::holds);
+        createContext(CITIES, (cities, path) -> names(cities, path, CITIES, cityDirectory::completeCities,
+                cityDirectory::suggestCities));
+        createContext(AIRLINES, (airlines, path) -> names(airlines, path, AIRLINES,
+                cityDirectory::completeAirlines, cityDirectory::suggestAirlines));
+        createContext(ALERTS, this::alerts);
+        if (partitionEnabled) {
+            createContext(PARTITION_FLIGHTS, this::partitionFlights);
+            createContext(PARTITION_SEARCH, this::partitionSearch);
+        }
+        createContext("/", (unknown, path) -> sendError(unknown, 404, "Not found"));
+        server.start();
+        running = true;
+        logger.info("HTTP API listening on port {} using {}", server.getAddress().getPort(),
+                executor instanceof ThreadPoolExecutor ? platformThreads + " platform threads" : "virtual threads");
+    }
+
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        // Give requests in flight a moment to finish
+        server.stop(1);
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * The port the server listens on - the one chosen by the OS when configured as 0
+     */
+    public int getPort() {
+        if (!running) {
+            throw new IllegalStateException("HTTP API is not running");
+        }
+        return server.getAddress().getPort();
+    }
+
+    private ExecutorService newExecutor() {
+        if (virtualThreads) {
+            try {
+                // Looked up by name so the application still builds and runs on Java 17
+                return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // Before Java 21 the method is missing or a disabled preview feature
+                logger.info("Virtual threads are not available on Java {}, using {} platform threads",
+                        Runtime.version().feature(), platformThreads);
+            }
+        }
+        AtomicInteger threadNumber = new AtomicInteger();
+        return Executors.newFixedThreadPool(platformThreads, runnable -> {
+            Thread thread = new Thread(runnable, "http-api-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Handles one request of an endpoint
+     */
+    @FunctionalInterface
+    private interface Endpoint {
+        void handle(HttpExchange exchange, String path) throws IOException;
+    }
+
+    /**
+     * Serve an endpoint at the context path and the paths below it. The JDK server matches
+     * contexts by plain string prefix, so /api/flightsXYZ would reach /api/flights - such
+     * paths are answered 404 here, before the endpoint sees them.
+     */
+    private void createContext(String contextPath, Endpoint endpoint) {
+        server.createContext(contextPath, exchange -> {
+            String path = exchange.getRequestURI().getPath();
+            if (!contextPath.endsWith("/") && !path.equals(contextPath) && !path.startsWith(contextPath + "/")) {
+                handle(exchange, (unknown, unknownPath) -> sendError(unknown, 404, "Not found"));
+            } else {
+                handle(exchange, endpoint);
+            }
+        });
+    }
+
+    private void handle(HttpExchange exchange, Endpoint endpoint) {
+        try {
+            endpoint.handle(exchange, exchange.getRequestURI().getPath());
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendError(exchange, 400, e.getMessage());
+        } catch (IllegalStateException e) {
+            sendError(exchange, 409, e.getMessage());
+        } catch (IOException e) {
+            // The client went away - nothing left to answer
+            logger.debug("HTTP API request failed", e);
+        } catch (RuntimeException e) {
+            logger.error("HTTP API request failed: {} {}", exchange.getRequestMethod(), exchange.getRequestURI(), e);
+            sendError(exchange, 500, "Internal error");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * /api/flights, /api/flights/{flightId} and /api/flights/{flightId}/seats
+     */
+    private void flights(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.equals(FLIGHTS) || path.equals(FLIGHTS + "/")) {
+            if ("GET".equals(method)) {
+                listFlights(exchange);
+            } else if ("POST".equals(method)) {
+                addFlight(exchange);
+            } else if ("PUT".equals(method)) {
+                upsertFlights(exchange);
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+            return;
+        }
+
+        String rest = path.substring(FLIGHTS.length() + 1);
+        int slash = rest.indexOf('/');
+        if (slash < 0) {
+            if ("PUT".equals(method)) {
+                Flight flight = readFlight(exchange, rest);
+                flightService.updateFlight(flight);
+                send(exchange, 200, JsonWriter.forFlights(1).flight(flight));
+            } else if ("DELETE".equals(method)) {
+                send(exchange, 200, JsonWriter.forFlights(1).flight(flightService.removeFlight(rest)));
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+            return;
+        }
+        if (slash > 0 && rest.substring(slash).equals("/seats")) {
+            if (!"GET".equals(method)) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            int seats = bookingService.getAvailableSeats(rest.substring(0, slash));
+            JsonWriter json = new JsonWriter(64);
+            json.raw("{\"flightId\":");
+            json.string(rest.substring(0, slash));
+            json.raw(",\"availableSeats\":");
+            json.number(seats);
+            json.raw('}');
+            send(exchange, 200, json);
+            return;
+        }
+        sendError(exchange, 404, "Not found");
+    }
+
+    private void listFlights(HttpExchange exchange) throws IOException {
+        Map<String, String> query = query(exchange);
+        List<Flight> flights = flightService.getFlights(query.get("after"), pageSize(query));
+        send(exchange, 200, JsonWriter.forFlights(flights.size()).flights(flights));
+    }
+
+    private int pageSize(Map<String, String> query) {
+        if (!query.containsKey("limit")) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        int limit = Integer.parseInt(query.get("limit"));
+        if (limit <= 0 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        return limit;
+    }
+
+    private void addFlight(HttpExchange exchange) throws IOException {
+        Flight flight = JsonReader.toFlight(JsonReader.parseObject(readBody(exchange)));
+        flightService.addFlight(flight);
+        send(exchange, 201, JsonWriter.forFlights(1).flight(flight));
+    }
+
+    private void upsertFlights(HttpExchange exchange) throws IOException {
+        List<Flight> flights = readFlights(exchange, maxBatchBytes);
+        List<Flight> replaced = flightService.upsertFlights(flights);
+        JsonWriter json = new JsonWriter(48);
+        json.raw("{\"count\":");
+        json.number(flights.size());
+        json.raw(",\"replaced\":");
+        json.number(replaced.size());
+        json.raw('}');
+        send(exchange, 200, json);
+    }
+
+    /**
+     * The flight in the body of a request to /{flightId} - the IDs must agree
+     */
+    private static Flight readFlight(HttpExchange exchange, String flightId) throws IOException {
+        Flight flight = JsonReader.toFlight(JsonReader.parseObject(readBody(exchange)));
+        if (!flightId.equals(flight.getFlightId())) {
+            throw new IllegalArgumentException("Flight ID in the body does not match the path: " + flightId);
+        }
+        return flight;
+    }
+
+    /**
+     * A JSON array of flights in the body, of at most maxBytes
+     */
+    private static List<Flight> readFlights(HttpExchange exchange, int maxBytes) throws IOException {
+        List<Map<String, String>> objects = JsonReader.parseArray(readBody(exchange, maxBytes));
+        List<Flight> flights = new ArrayList<>(objects.size());
+        for (Map<String, String> object : objects) {
+            flights.add(JsonReader.toFlight(object));
+        }
+        return flights;
+    }
+
+    /**
+     * /api/flights/search
+     */
+    private void search(HttpExchange exchange, String path) throws IOException {
+        if (!path.equals(SEARCH)) {
+            sendError(exchange, 404, "Not found");
+            return;
+        }
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        Map<String, String> query = query(exchange);
+        String source = query.get("source");
+        String destination = query.get("destination");
+        String date = query.get("date");
+        if (source == null || destination == null || date == null) {
+            throw new IllegalArgumentException("source, destination and date are required");
+        }
+        List<Flight> flights = flightService.searchFlights(source, destination, LocalDate.parse(date));
+        send(exchange, 200, JsonWriter.forFlights(flights.size()).flights(flights));
+    }
+
+    /**
+     * /api/bookings and /api/bookings/{bookingId}
+     */
+    private void bookings(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.equals(BOOKINGS) || path.equals(BOOKINGS + "/")) {
+            if (!"POST".equals(method)) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            Map<String, String> body = JsonReader.parseObject(readBody(exchange));
+            String passengers = body.get("passengerCount");
+            if (passengers == null) {
+                throw new IllegalArgumentException("passengerCount is required");
+            }
+            Booking booking = bookingService.bookSeats(body.get("flightId"), Integer.parseInt(passengers));
+            send(exchange, 201, new JsonWriter(96).booking(booking));
+            return;
+        }
+
+        String bookingId = path.substring(BOOKINGS.length() + 1);
+        if (bookingId.indexOf('/') >= 0) {
+            sendError(exchange, 404, "Not found");
+        } else if (!"DELETE".equals(method)) {
+            sendError(exchange, 405, "Method not allowed");
+        } else {
+            bookingService.cancelBooking(bookingId);
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    /**
+     * /api/holds, /api/holds/{holdId} and /api/holds/{holdId}/confirm
+     */
+    private void holds(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.equals(HOLDS) || path.equals(HOLDS + "/")) {
+            if (!"POST".equals(method)) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            Map<String, String> body = JsonReader.parseObject(readBody(exchange));
+            String passengers = body.get("passengerCount");
+            if (passengers == null) {
+                throw new IllegalArgumentException("passengerCount is required");
+            }
+            String seconds = body.get("holdSeconds");
+            SeatHold hold = seconds == null
+                    ? bookingService.holdSeats(body.get("flightId"), Integer.parseInt(passengers))
+                    : bookingService.holdSeats(body.get("flightId"), Integer.parseInt(passengers),
+                            Duration.ofSeconds(Long.parseLong(seconds)));
+            send(exchange, 201, new JsonWriter(128).seatHold(hold));
+            return;
+        }
+
+        String holdId = path.substring(HOLDS.length() + 1);
+        if (holdId.endsWith("/confirm") && holdId.indexOf('/') == holdId.length() - "/confirm".length()) {
+            if (!"POST".equals(method)) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            Booking booking = bookingService.confirmHold(holdId.substring(0, holdId.indexOf('/')));
+            send(exchange, 201, new JsonWriter(96).booking(booking));
+        } else if (holdId.indexOf('/') >= 0) {
+            sendError(exchange, 404, "Not found");
+        } else if (!"DELETE".equals(method)) {
+            sendError(exchange, 405, "Method not allowed");
+        } else {
+            bookingService.releaseHold(holdId);
+            exchange.sendResponseHeaders(204, -1);
+        }
+    }
+
+    /**
+     * /api/alerts and /api/alerts/{alertId}
+     */
+    private void alerts(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.equals(ALERTS) || path.equals(ALERTS + "/")) {
+            if (!"POST".equals(method)) {
+                sendError(exchange, 405, "Method not allowed");
+                return;
+            }
+            FareAlert request = JsonReader.toFareAlert(JsonReader.parseObject(readBody(exchange)));
+            FareAlert alert = fareAlertService.subscribe(request);
+            send(exchange, 201, new JsonWriter(256).fareAlert(alert));
+            return;
+        }
+
+        String alertId = path.substring(ALERTS.length() + 1);
+        if (alertId.indexOf('/') >= 0) {
+            sendError(exchange, 404, "Not found");
+        } else if ("GET".equals(method)) {
+            send(exchange, 200, new JsonWriter(256).fareAlert(fareAlertService.getAlert(alertId)));
+        } else if ("DELETE".equals(method)) {
+            fareAlertService.unsubscribe(alertId);
+            exchange.sendResponseHeaders(204, -1);
+        } else {
+            sendError(exchange, 405, "Method not allowed");
+        }
+    }
+
+    /**
+     * /api/cities and /api/airlines - a JSON array of names
+     */
+    private void names(HttpExchange exchange, String path, String endpoint,
+            BiFunction<String, Integer, List<String>> complete, Function<String, List<String>> suggest)
+            throws IOException {
+        if (!path.equals(endpoint)) {
+            sendError(exchange, 404, "Not found");
+            return;
+        }
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        Map<String, String> query = query(exchange);
+        String prefix = query.getOrDefault("prefix", "").trim();
+        int limit = DEFAULT_NAME_LIMIT;
+        if (query.containsKey("limit")) {
+            limit = Integer.parseInt(query.get("limit"));
+            if (limit <= 0 || limit > MAX_NAME_LIMIT) {
+                throw new IllegalArgumentException("limit must be between 1 and " + MAX_NAME_LIMIT);
+            }
+        }
+
+        List<String> names = complete.apply(prefix, limit);
+        if (names.isEmpty()) {
+            names = suggest.apply(prefix);
+            names = names.subList(0, Math.min(limit, names.size()));
+        }
+        send(exchange, 200, new JsonWriter(16 + names.size() * 24).strings(names));
+    }
+
+    /**
+     * /api/partition/flights and /api/partition/flights/{flightId} - changes of a single
+     * flight answer the version that was stored before
+     */
+    private void partitionFlights(HttpExchange exchange, String path) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (path.equals(PARTITION_FLIGHTS)) {
+            if ("GET".equals(method)) {
+                Map<String, String> query = query(exchange);
+                List<Flight> flights = flightRepository.getFlights(query.get("after"), pageSize(query));
+                send(exchange, 200, JsonWriter.forFlights(flights.size()).flights(flights));
+            } else if ("POST".equals(method)) {
+                flightRepository.addFlights(readFlights(exchange, MAX_PARTITION_BATCH_BYTES));
+                exchange.sendResponseHeaders(204, -1);
+            } else if ("PUT".equals(method)) {
+                List<Flight> replaced = flightRepository.upsertFlights(
+                        readFlights(exchange, MAX_PARTITION_BATCH_BYTES));
+                send(exchange, 200, JsonWriter.forFlights(replaced.size()).flights(replaced));
+            } else {
+                sendError(exchange, 405, "Method not allowed");
+            }
+            return;
+        }
+
+        String flightId = path.substring(PARTITION_FLIGHTS.length() + 1);
+        Optional<Flight> flight;
+        if ("GET".equals(method)) {
+            flight = flightRepository.findFlight(flightId);
+        } else if ("PUT".equals(method)) {
+            flight = flightRepository.updateFlight(readFlight(exchange, flightId));
+        } else if ("DELETE".equals(method)) {
+            flight = flightRepository.removeFlight(flightId);
+        } else {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        if (flight.isPresent()) {
+            send(exchange, 200, JsonWriter.forFlights(1).flight(flight.get()));
+        } else {
+            sendError(exchange, 404, "Flight not found: " + flightId);
+        }
+    }
+
+    /**
+     * /api/partition/search - every flight of the route in the date range, by date and then ID
+     */
+    private void partitionSearch(HttpExchange exchange, String path) throws IOException {
+        if (!"GET".equals(exchange.getRequestMethod())) {
+            sendError(exchange, 405, "Method not allowed");
+            return;
+        }
+        Map<String, String> query = query(exchange);
+        String source = query.get("source");
+        String destination = query.get("destination");
+        String from = query.get("from");
+        String to = query.get("to");
+        if (source == null || destination == null || from == null || to == null) {
+            throw new IllegalArgumentException("source, destination, from and to are required");
+        }
+        Collection<List<Flight>> days = flightRepository
+                .searchFlightsBetween(source, destination, LocalDate.parse(from), LocalDate.parse(to)).values();
+        List<Flight> flights = new ArrayList<>();
+        for (List<Flight> day : days) {
+            flights.addAll(day);
+        }
+        send(exchange, 200, JsonWriter.forFlights(flights.size()).flights(flights));
+    }
+
+    /**
+     * Decoded query parameters; the first value wins when a name repeats
+     */
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : query.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            parameters.putIfAbsent(name, value);
+        }
+        return parameters;
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        return readBody(exchange, MAX_BODY_BYTES);
+    }
+
+    private static String readBody(HttpExchange exchange, int maxBytes) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(maxBytes + 1);
+            if (body.length > maxBytes) {
+                throw new IllegalArgumentException("Request body is larger than " + maxBytes + " bytes");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, JsonWriter json) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, json.length());
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(json.buffer(), 0, json.length());
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            send(exchange, status, new JsonWriter(64).error(message));
+        } catch (IOException e) {
+            logger.debug("Could not send HTTP API error response", e);
+        }
+    }
+}
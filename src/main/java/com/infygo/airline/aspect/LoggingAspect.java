@@ -1,55 +1,84 @@
 package com.infygo.airline.aspect;
 
+import com.infygo.airline.audit.AuditLog;
 import com.infygo.airline.domain.Flight;
-import org.aspectj.lang.JoinPoint;
-import org.aspectj.lang.annotation.After;
+import org.aspectj.lang.annotation.AfterReturning;
 import org.aspectj.lang.annotation.Aspect;
-import org.aspectj.lang.annotation.Before;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
 /**
  * Aspect for cross-cutting logging concerns.
- * Uses AOP to inject logging at key points in the application.
+ * Records catalog changes and searches in the audit log, which writes them out on a
+ * background thread so callers never wait on logging.
  */
 @Aspect
 @Component
 public class LoggingAspect {
 
-    private static final Logger logger = LoggerFactory.getLogger(LoggingAspect.class);
+    private final AuditLog auditLog;
+
+    @Autowired
+    public LoggingAspect(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
 
     /**
-     * Log before adding a flight
+     * Audit a flight once it has been added
      */
-    @Before("execution(* com.infygo.airline.service.FlightService.addFlight(..)) && args(flight)")
-    public void logBeforeAddFlight(Flight flight) {
+    @AfterReturning("execution(* com.infygo.airline.service.FlightService.addFlight(..)) && args(flight)")
+    public void logAddFlight(Flight flight) {
         if (flight != null) {
-            logger.info("Adding flight: {} from {} to {} on {}",
-                    flight.getFlightId(),
-                    flight.getSource(),
-                    flight.getDestination(),
-                    flight.getJourneyDate());
+            auditLog.flightAdded(flight);
         }
     }
 
     /**
-     * Log after successfully adding a flight
+     * Audit a bulk add as a single event
      */
-    @After("execution(* com.infygo.airline.service.FlightService.addFlight(..))")
-    public void logAfterAddFlight(JoinPoint joinPoint) {
-        Object[] args = joinPoint.getArgs();
-        if (args.length > 0 && args[0] instanceof Flight) {
-            Flight flight = (Flight) args[0];
-            logger.info("Flight added successfully: {}", flight.getFlightId());
+    @AfterReturning("execution(* com.infygo.airline.service.FlightService.addFlights(..)) && args(flights)")
+    public void logAddFlights(Collection<Flight> flights) {
+        if (flights != null) {
+            auditLog.flightsAdded(flights);
         }
     }
 
     /**
-     * Log before searching for flights
+     * Audit a bulk add-or-replace as a single event
+     */
+    @AfterReturning(pointcut = "execution(* com.infygo.airline.service.FlightService.upsertFlights(..)) "
+            + "&& args(flights)", returning = "replaced")
+    public void logUpsertFlights(Collection<Flight> flights, List<Flight> replaced) {
+        auditLog.flightsUpserted(flights, replaced.size());
+    }
+
+    /**
+     * Audit a flight once its new version is stored
+     */
+    @AfterReturning("execution(* com.infygo.airline.service.FlightService.updateFlight(..)) && args(flight)")
+    public void logUpdateFlight(Flight flight) {
+        auditLog.flightUpdated(flight);
+    }
+
+    /**
+     * Audit a removed flight
+     */
+    @AfterReturning(pointcut = "execution(* com.infygo.airline.service.FlightService.removeFlight(..))",
+            returning = "removed")
+    public void logRemoveFlight(Flight removed) {
+        auditLog.flightRemoved(removed);
+    }
+
+    /**
+     * Audit a search and how many flights it found
      */
-    @Before("execution(* com.infygo.airline.service.FlightService.searchFlights(..)) && args(source, destination, journeyDate)")
-    public void logBeforeSearchFlights(String source, String destination, Object journeyDate) {
-        logger.info("Searching flights from {} to {} on {}", source, destination, journeyDate);
+    @AfterReturning(pointcut = "execution(* com.infygo.airline.service.FlightService.searchFlights(..)) "
+            + "&& args(source, destination, journeyDate)", returning = "flights")
+    public void logSearchFlights(String source, String destination, LocalDate journeyDate, List<Flight> flights) {
+        auditLog.search(source, destination, journeyDate, flights.size());
     }
 }
@@ -0,0 +1,73 @@
+package com.infygo.airline.aspect;
+
+import com.infygo.airline.metrics.MetricsRegistry;
+import com.infygo.airline.metrics.OperationMetrics;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Aspect that measures every FlightService and FlightRepository call.
+ * Runs outermost, so the recorded latency is what the caller sees, including other aspects.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class MetricsAspect {
+
+    private final MetricsRegistry registry;
+
+    // Metrics per advised method, resolved once per method rather than by name on every call
+    private final ConcurrentHashMap<Method, OperationMetrics> metricsByMethod = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MetricsAspect(MetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Measure FlightService calls
+     */
+    @Around("execution(* com.infygo.airline.service.FlightService.*(..))")
+    public Object measureService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return measure(joinPoint, "FlightService");
+    }
+
+    /**
+     * Measure FlightRepository calls, whichever storage mode is active
+     */
+    @Around("execution(* com.infygo.airline.repository.FlightRepository.*(..))")
+    public Object measureRepository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return measure(joinPoint, "FlightRepository");
+    }
+
+    /**
+     * Time the call and count it, and count it as an error if it throws
+     */
+    private Object measure(ProceedingJoinPoint joinPoint, String type) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        OperationMetrics metrics = metricsByMethod.get(method);
+        if (metrics == null) {
+            // Named after the interface method, e.g. FlightService.searchFlights
+            metrics = metricsByMethod.computeIfAbsent(method, m -> registry.operation(type + "." + m.getName()));
+        }
+
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            metrics.record(System.nanoTime() - start, failed);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.infygo.airline.audit;
+
+import java.time.LocalDate;
+
+/**
+ * One audit record, captured on the calling thread and written out by the audit writer.
+ * Holds references only, so creating one costs a single small allocation.
+ */
+final class AuditEvent {
+
+    enum Type {
+        FLIGHT_ADDED,
+        FLIGHTS_ADDED,
+        FLIGHTS_UPSERTED,
+        FLIGHT_UPDATED,
+        FLIGHT_REMOVED,
+        SEARCH
+    }
+
+    final Type type;
+    final long timestampMillis;
+
+    // Flight ID for a single change; first and last IDs of a bulk change
+    final String flightId;
+    final String lastFlightId;
+
+    final String source;
+    final String destination;
+    final LocalDate journeyDate;
+
+    // Flights added in a bulk add, or flights returned by a search
+    final int count;
+
+    // Stored versions replaced by a bulk upsert
+    final int replaced;
+
+    private AuditEvent(Type type, String flightId, String lastFlightId, String source, String destination,
+            LocalDate journeyDate, int count, int replaced) {
+        this.type = type;
+        this.timestampMillis = System.currentTimeMillis();
+        this.flightId = flightId;
+        this.lastFlightId = lastFlightId;
+        this.source = source;
+        this.destination = destination;
+        this.journeyDate = journeyDate;
+        this.count = count;
+        this.replaced = replaced;
+    }
+
+    static AuditEvent flightAdded(String flightId, String source, String destination, LocalDate journeyDate) {
+        return new AuditEvent(Type.FLIGHT_ADDED, flightId, null, source, destination, journeyDate, 1, 0);
+    }
+
+    static AuditEvent flightsAdded(int count, String firstFlightId, String lastFlightId) {
+        return new AuditEvent(Type.FLIGHTS_ADDED, firstFlightId, lastFlightId, null, null, null, count, 0);
+    }
+
+    static AuditEvent flightsUpserted(int count, String firstFlightId, String lastFlightId, int replaced) {
+        return new AuditEvent(Type.FLIGHTS_UPSERTED, firstFlightId, lastFlightId, null, null, null, count,
+                replaced);
+    }
+
+    /**
+     * A flight replaced by a new version - route and date are the new version's
+     */
+    static AuditEvent flightUpdated(String flightId, String source, String destination, LocalDate journeyDate) {
+        return new AuditEvent(Type.FLIGHT_UPDATED, flightId, null, source, destination, journeyDate, 1, 0);
+    }
+
+    static AuditEvent flightRemoved(String flightId, String source, String destination, LocalDate journeyDate) {
+        return new AuditEvent(Type.FLIGHT_REMOVED, flightId, null, source, destination, journeyDate, 1, 0);
+    }
+
+    static AuditEvent search(String source, String destination, LocalDate journeyDate, int results) {
+        return new AuditEvent(Type.SEARCH, null, null, source, destination, journeyDate, results, 0);
+    }
+}
@@ -0,0 +1,300 @@
+package com.infygo.airline.audit;
+
+import com.infygo.airline.domain.Flight;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous audit trail of catalog changes and searches.
+ *
+ * Callers only build a small event and offer it to a lock-free ring buffer; a background
+ * thread drains the buffer and writes one structured key=value line per event. Searches
+ * are sampled, and single adds that queue up together (a burst of adds) are merged into
+ * one line. When the buffer is full the event is dropped and counted rather than making
+ * the caller wait, and the writer records each gap in the trail.
+ */
+@Component
+public class AuditLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuditLog.class);
+
+    private final AuditRingBuffer<AuditEvent> buffer;
+    private final double searchSampleRate;
+    private final int addBatchSize;
+    private final long flushIntervalNanos;
+    private final Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final LongAdder written = new LongAdder();
+
+    // Writer thread only - the run of single adds being merged into one line
+    private AuditEvent firstPendingAdd;
+    private AuditEvent lastPendingAdd;
+    private int pendingAdds;
+    private long droppedReported;
+
+    /**
+     * @param bufferSize          Events that can wait for the writer, rounded up to a power of two
+     * @param searchSampleRate    Fraction of searches recorded, 0 to 1
+     * @param addBatchSize        Most queued single adds merged into one line
+     * @param flushIntervalMillis How long the writer sleeps when the buffer is empty
+     */
+    @Autowired
+    public AuditLog(@Value("${infygo.audit.buffer-size:8192}") int bufferSize,
+            @Value("${infygo.audit.search-sample-rate:1.0}") double searchSampleRate,
+            @Value("${infygo.audit.add-batch-size:100}") int addBatchSize,
+            @Value("${infygo.audit.flush-interval-millis:10}") long flushIntervalMillis) {
+        if (searchSampleRate < 0 || searchSampleRate > 1 || addBatchSize <= 0 || flushIntervalMillis <= 0) {
+            throw new IllegalArgumentException("Invalid audit log settings");
+        }
+        this.buffer = new AuditRingBuffer<>(bufferSize);
+        this.searchSampleRate = searchSampleRate;
+        this.addBatchSize = addBatchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis);
+        this.writer = new Thread(this::writeLoop, "audit-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /**
+     * Record a flight added on its own
+     */
+    public void flightAdded(Flight flight) {
+        publish(AuditEvent.flightAdded(flight.getFlightId(), flight.getSource(), flight.getDestination(),
+                flight.getJourneyDate()));
+    }
+
+    /**
+     * Record a bulk add as one event, whatever its size
+     */
+    public void flightsAdded(Collection<Flight> flights) {
+        if (flights.isEmpty()) {
+            return;
+        }
+        publish(AuditEvent.flightsAdded(flights.size(), first(flights).getFlightId(), last(flights).getFlightId()));
+    }
+
+    /**
+     * Record a bulk add-or-replace as one event, with how many stored versions it replaced
+     */
+    public void flightsUpserted(Collection<Flight> flights, int replaced) {
+        if (flights.isEmpty()) {
+            return;
+        }
+        publish(AuditEvent.flightsUpserted(flights.size(), first(flights).getFlightId(),
+                last(flights).getFlightId(), replaced));
+    }
+
+    /**
+     * Record a flight replaced by a new version
+     */
+    public void flightUpdated(Flight flight) {
+        publish(AuditEvent.flightUpdated(flight.getFlightId(), flight.getSource(), flight.getDestination(),
+                flight.getJourneyDate()));
+    }
+
+    /**
+     * Record a removed flight
+     */
+    public void flightRemoved(Flight flight) {
+        publish(AuditEvent.flightRemoved(flight.getFlightId(), flight.getSource(), flight.getDestination(),
+                flight.getJourneyDate()));
+    }
+
+    private static Flight first(Collection<Flight> flights) {
+        return flights instanceof List ? ((List<Flight>) flights).get(0) : flights.iterator().next();
+    }
+
+    private static Flight last(Collection<Flight> flights) {
+        if (flights instanceof List) {
+            List<Flight> list = (List<Flight>) flights;
+            return list.get(list.size() - 1);
+        }
+        Iterator<Flight> iterator = flights.iterator();
+        Flight last = iterator.next();
+        while (iterator.hasNext()) {
+            last = iterator.next();
+        }
+        return last;
+    }
+
+    /**
+     * Record a search, if it falls in the sample
+     */
+    public void search(String source, String destination, LocalDate journeyDate, int results) {
+        if (searchSampleRate < 1 && ThreadLocalRandom.current().nextDouble() >= searchSampleRate) {
+            sampledOut.increment();
+            return;
+        }
+        publish(AuditEvent.search(source, destination, journeyDate, results));
+    }
+
+    /**
+     * Events accepted into the buffer
+     */
+    public long getPublished() {
+        return published.sum();
+    }
+
+    /**
+     * Events lost because the buffer was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Searches left out by sampling
+     */
+    public long getSampledOut() {
+        return sampledOut.sum();
+    }
+
+    /**
+     * Events the writer has logged, counting each merged add
+     */
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public int getBufferSize() {
+        return buffer.capacity();
+    }
+
+    public double getSearchSampleRate() {
+        return searchSampleRate;
+    }
+
+    /**
+     * Stop the writer after it has logged everything already queued
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        LockSupport.unpark(writer);
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void publish(AuditEvent event) {
+        if (buffer.offer(event)) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private void writeLoop() {
+        while (true) {
+            // Read before draining, so events queued before close are still written
+            boolean stopping = closed;
+            if (drain() == 0) {
+                if (stopping) {
+                    return;
+                }
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+        }
+    }
+
+    /**
+     * Write out everything currently in the buffer
+     *
+     * @return The number of events taken from the buffer
+     */
+    private int drain() {
+        int drained = 0;
+        AuditEvent event;
+        while ((event = buffer.poll()) != null) {
+            drained++;
+            if (event.type == AuditEvent.Type.FLIGHT_ADDED) {
+                if (pendingAdds == 0) {
+                    firstPendingAdd = event;
+                }
+                lastPendingAdd = event;
+                if (++pendingAdds == addBatchSize) {
+                    flushAdds();
+                }
+            } else {
+                // Keep the trail in order - merged adds go out before the next other event
+                flushAdds();
+                write(event);
+            }
+        }
+        flushAdds();
+
+        long lost = dropped.sum();
+        if (lost != droppedReported) {
+            logger.warn("event=audit_dropped count={} total={}", lost - droppedReported, lost);
+            droppedReported = lost;
+        }
+        return drained;
+    }
+
+    private void flushAdds() {
+        if (pendingAdds == 1) {
+            write(firstPendingAdd);
+        } else if (pendingAdds > 1) {
+            logger.info("event=flights_added at={} count={} first={} last={}",
+                    Instant.ofEpochMilli(firstPendingAdd.timestampMillis), pendingAdds,
+                    firstPendingAdd.flightId, lastPendingAdd.flightId);
+            written.add(pendingAdds);
+        }
+        pendingAdds = 0;
+        firstPendingAdd = null;
+        lastPendingAdd = null;
+    }
+
+    private void write(AuditEvent event) {
+        Instant at = Instant.ofEpochMilli(event.timestampMillis);
+        switch (event.type) {
+            case FLIGHT_ADDED:
+                logger.info("event=flight_added at={} flightId={} source={} destination={} date={}", at,
+                        event.flightId, event.source, event.destination, event.journeyDate);
+                break;
+            case FLIGHTS_ADDED:
+                logger.info("event=flights_added at={} count={} first={} last={}", at, event.count,
+                        event.flightId, event.lastFlightId);
+                break;
+            case FLIGHTS_UPSERTED:
+                logger.info("event=flights_upserted at={} count={} replaced={} first={} last={}", at, event.count,
+                        event.replaced, event.flightId, event.lastFlightId);
+                break;
+            case FLIGHT_UPDATED:
+                logger.info("event=flight_updated at={} flightId={} source={} destination={} date={}", at,
+                        event.flightId, event.source, event.destination, event.journeyDate);
+                break;
+            case FLIGHT_REMOVED:
+                logger.info("event=flight_removed at={} flightId={} source={} destination={} date={}", at,
+                        event.flightId, event.source, event.destination, event.journeyDate);
+                break;
+            case SEARCH:
+                logger.info("event=search at={} source={} destination={} date={} results={} sampleRate={}", at,
+                        event.source, event.destination, event.journeyDate, event.count, searchSampleRate);
+                break;
+            default:
+                throw new IllegalStateException("Unknown audit event: " + event.type);
+        }
+        written.increment();
+    }
+}
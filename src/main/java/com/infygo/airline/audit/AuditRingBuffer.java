@@ -0,0 +1,90 @@
+package com.infygo.airline.audit;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * Each slot carries a sequence number. A producer claims a position with one CAS on the
+ * tail, fills the slot and publishes it by advancing the slot's sequence; the consumer
+ * takes a slot once its sequence shows it published and hands it back a lap later.
+ * When every slot is taken offer fails at once instead of waiting for the consumer.
+ */
+final class AuditRingBuffer<E> {
+
+    private final Object[] items;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+
+    // Only the consumer thread reads and writes the head
+    private long head;
+
+    /**
+     * @param capacity Number of slots, rounded up to a power of two
+     */
+    AuditRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > 1 << 30) {
+            throw new IllegalArgumentException("Ring buffer capacity must be between 1 and 2^30: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity - 1) << 1;
+        if (size == 0) {
+            size = 1;
+        }
+        items = new Object[size];
+        sequences = new AtomicLongArray(size);
+        mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    int capacity() {
+        return items.length;
+    }
+
+    /**
+     * Add an element, from any thread
+     *
+     * @return False if the buffer is full
+     */
+    boolean offer(E item) {
+        long position = tail.get();
+        while (true) {
+            int slot = (int) position & mask;
+            long difference = sequences.get(slot) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    items[slot] = item;
+                    // Publishes the item - the consumer reads the sequence before the slot
+                    sequences.set(slot, position + 1);
+                    return true;
+                }
+                position = tail.get();
+            } else if (difference < 0) {
+                // The slot still holds an item from the previous lap
+                return false;
+            } else {
+                // Another producer claimed this position first
+                position = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Take the oldest element, or null if none is published yet. Consumer thread only.
+     */
+    @SuppressWarnings("unchecked")
+    E poll() {
+        int slot = (int) head & mask;
+        if (sequences.get(slot) != head + 1) {
+            return null;
+        }
+        E item = (E) items[slot];
+        items[slot] = null;
+        sequences.set(slot, head + items.length);
+        head++;
+        return item;
+    }
+}
@@ -0,0 +1,54 @@
+package com.infygo.airline.domain;
+
+import java.util.Objects;
+
+/**
+ * A confirmed reservation of one or more seats on a single flight.
+ */
+public class Booking {
+    private final String bookingId;
+    private final String flightId;
+    private final int passengerCount;
+
+    public Booking(String bookingId, String flightId, int passengerCount) {
+        this.bookingId = bookingId;
+        this.flightId = flightId;
+        this.passengerCount = passengerCount;
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public int getPassengerCount() {
+        return passengerCount;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        Booking booking = (Booking) o;
+        return Objects.equals(bookingId, booking.bookingId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(bookingId);
+    }
+
+    @Override
+    public String toString() {
+        return "Booking{" +
+                "bookingId='" + bookingId + '\'' +
+                ", flightId='" + flightId + '\'' +
+                ", passengerCount=" + passengerCount +
+                '}';
+    }
+}
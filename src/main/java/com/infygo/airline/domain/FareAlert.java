@@ -0,0 +1,97 @@
+package com.infygo.airline.domain;
+
+import java.time.LocalDate;
+import java.util.Objects;
+
+/**
+ * A standing request to be told when a flight appears on a route, within a range of
+ * journey dates (inclusive), at or below a fare - optionally only on one airline.
+ */
+public class FareAlert {
+    private final String alertId;
+    private final String subscriber;
+    private final String source;
+    private final String destination;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private final double maxFare;
+    private final String airlines;
+
+    /**
+     * @param alertId    Assigned by the service when subscribing; null in a request
+     * @param subscriber Who is notified, e.g. an e-mail address
+     * @param airlines   Only flights of this airline, or null for any
+     */
+    public FareAlert(String alertId, String subscriber, String source, String destination, LocalDate fromDate,
+            LocalDate toDate, double maxFare, String airlines) {
+        this.alertId = alertId;
+        this.subscriber = subscriber;
+        this.source = source;
+        this.destination = destination;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+        this.maxFare = maxFare;
+        this.airlines = airlines;
+    }
+
+    public String getAlertId() {
+        return alertId;
+    }
+
+    public String getSubscriber() {
+        return subscriber;
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public double getMaxFare() {
+        return maxFare;
+    }
+
+    public String getAirlines() {
+        return airlines;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        FareAlert fareAlert = (FareAlert) o;
+        return Objects.equals(alertId, fareAlert.alertId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(alertId);
+    }
+
+    @Override
+    public String toString() {
+        return "FareAlert{" +
+                "alertId='" + alertId + '\'' +
+                ", subscriber='" + subscriber + '\'' +
+                ", source='" + source + '\'' +
+                ", destination='" + destination + '\'' +
+                ", fromDate=" + fromDate +
+                ", toDate=" + toDate +
+                ", maxFare=" + maxFare +
+                ", airlines='" + airlines + '\'' +
+                '}';
+    }
+}
@@ -0,0 +1,47 @@
+package com.infygo.airline.domain;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * One day of a fare calendar: the flights on that day and the cheapest of them.
+ */
+public class FareCalendarDay {
+    private final LocalDate journeyDate;
+    private final List<Flight> flights;
+    private final Flight cheapestFlight;
+
+    public FareCalendarDay(LocalDate journeyDate, List<Flight> flights, Flight cheapestFlight) {
+        this.journeyDate = journeyDate;
+        this.flights = flights;
+        this.cheapestFlight = cheapestFlight;
+    }
+
+    public LocalDate getJourneyDate() {
+        return journeyDate;
+    }
+
+    /**
+     * Flights on this day, sorted by flight ID
+     */
+    public List<Flight> getFlights() {
+        return flights;
+    }
+
+    public Flight getCheapestFlight() {
+        return cheapestFlight;
+    }
+
+    public double getCheapestFare() {
+        return cheapestFlight.getFare();
+    }
+
+    @Override
+    public String toString() {
+        return "FareCalendarDay{" +
+                "journeyDate=" + journeyDate +
+                ", flights=" + flights.size() +
+                ", cheapestFare=" + cheapestFlight.getFare() +
+                '}';
+    }
+}
@@ -0,0 +1,131 @@
+package com.infygo.airline.domain;
+
+import java.time.LocalDate;
+
+/**
+ * Criteria for a filtered, ranked flight search.
+ * Route and dates are required; airline, fare ceiling and minimum seats are optional
+ * filters. Results are ordered by the sort order and cut off at the limit.
+ */
+public class FlightQuery {
+
+    /**
+     * Ranking applied to query results
+     */
+    public enum SortBy {
+        // Cheapest first
+        FARE,
+        // Most available seats first
+        SEATS
+    }
+
+    private final String source;
+    private final String destination;
+    private final LocalDate fromDate;
+    private final LocalDate toDate;
+    private String airlines;
+    private Double maxFare;
+    private int minSeats;
+    private SortBy sortBy = SortBy.FARE;
+    private int limit = 10;
+
+    /**
+     * Query for flights on a route over a range of dates (inclusive)
+     */
+    public FlightQuery(String source, String destination, LocalDate fromDate, LocalDate toDate) {
+        this.source = source;
+        this.destination = destination;
+        this.fromDate = fromDate;
+        this.toDate = toDate;
+    }
+
+    /**
+     * Query for flights on a route on a single date
+     */
+    public FlightQuery(String source, String destination, LocalDate journeyDate) {
+        this(source, destination, journeyDate, journeyDate);
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public String getDestination() {
+        return destination;
+    }
+
+    public LocalDate getFromDate() {
+        return fromDate;
+    }
+
+    public LocalDate getToDate() {
+        return toDate;
+    }
+
+    public String getAirlines() {
+        return airlines;
+    }
+
+    /**
+     * Only return flights of this airline (case-insensitive); null for any airline
+     */
+    public void setAirlines(String airlines) {
+        this.airlines = airlines;
+    }
+
+    public Double getMaxFare() {
+        return maxFare;
+    }
+
+    /**
+     * Only return flights at or below this fare; null for no ceiling
+     */
+    public void setMaxFare(Double maxFare) {
+        this.maxFare = maxFare;
+    }
+
+    public int getMinSeats() {
+        return minSeats;
+    }
+
+    /**
+     * Only return flights with at least this many seats available
+     */
+    public void setMinSeats(int minSeats) {
+        this.minSeats = minSeats;
+    }
+
+    public SortBy getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(SortBy sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    /**
+     * Maximum number of flights to return
+     */
+    public void setLimit(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public String toString() {
+        return "FlightQuery{" +
+                "source='" + source + '\'' +
+                ", destination='" + destination + '\'' +
+                ", fromDate=" + fromDate +
+                ", toDate=" + toDate +
+                ", airlines='" + airlines + '\'' +
+                ", maxFare=" + maxFare +
+                ", minSeats=" + minSeats +
+                ", sortBy=" + sortBy +
+                ", limit=" + limit +
+                '}';
+    }
+}
@@ -0,0 +1,58 @@
+package com.infygo.airline.domain;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * A journey made of one or more connecting flights.
+ */
+public class Itinerary {
+    private final List<Flight> legs;
+    private final double totalFare;
+
+    public Itinerary(List<Flight> legs) {
+        this.legs = List.copyOf(legs);
+        double fare = 0;
+        for (Flight leg : this.legs) {
+            fare += leg.getFare();
+        }
+        this.totalFare = fare;
+    }
+
+    /**
+     * Flights in travel order
+     */
+    public List<Flight> getLegs() {
+        return legs;
+    }
+
+    public double getTotalFare() {
+        return totalFare;
+    }
+
+    public LocalDate getDepartureDate() {
+        return legs.get(0).getJourneyDate();
+    }
+
+    public LocalDate getArrivalDate() {
+        return legs.get(legs.size() - 1).getJourneyDate();
+    }
+
+    /**
+     * Days between the first and the last leg - flights only carry a journey date
+     */
+    public long getTravelDays() {
+        return ChronoUnit.DAYS.between(getDepartureDate(), getArrivalDate());
+    }
+
+    @Override
+    public String toString() {
+        return "Itinerary{" +
+                "legs=" + legs.size() +
+                ", totalFare=" + totalFare +
+                ", departureDate=" + getDepartureDate() +
+                ", arrivalDate=" + getArrivalDate() +
+                '}';
+    }
+}
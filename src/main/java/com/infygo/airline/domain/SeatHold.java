@@ -0,0 +1,64 @@
+package com.infygo.airline.domain;
+
+import java.time.Instant;
+import java.util.Objects;
+
+/**
+ * Seats set aside on a flight for a limited time, e.g. while the customer pays.
+ * A hold is either confirmed into a booking, released, or expires and its seats go back
+ * to the flight.
+ */
+public class SeatHold {
+    private final String holdId;
+    private final String flightId;
+    private final int passengerCount;
+    private final Instant expiresAt;
+
+    public SeatHold(String holdId, String flightId, int passengerCount, Instant expiresAt) {
+        this.holdId = holdId;
+        this.flightId = flightId;
+        this.passengerCount = passengerCount;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getHoldId() {
+        return holdId;
+    }
+
+    public String getFlightId() {
+        return flightId;
+    }
+
+    public int getPassengerCount() {
+        return passengerCount;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+        SeatHold seatHold = (SeatHold) o;
+        return Objects.equals(holdId, seatHold.holdId);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(holdId);
+    }
+
+    @Override
+    public String toString() {
+        return "SeatHold{" +
+                "holdId='" + holdId + '\'' +
+                ", flightId='" + flightId + '\'' +
+                ", passengerCount=" + passengerCount +
+                ", expiresAt=" + expiresAt +
+                '}';
+    }
+}
@@ -0,0 +1,88 @@
+package com.infygo.airline.importer;
+
+import java.util.List;
+
+/**
+ * Outcome of a bulk schedule import: row counts, throughput and why rows were rejected.
+ */
+public class ImportReport {
+
+    /**
+     * A rejected input row
+     */
+    public static class Rejection {
+        private final long lineNumber;
+        private final String reason;
+
+        public Rejection(long lineNumber, String reason) {
+            this.lineNumber = lineNumber;
+            this.reason = reason;
+        }
+
+        public long getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getReason() {
+            return reason;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + lineNumber + ": " + reason;
+        }
+    }
+
+    private final long rowsRead;
+    private final long rowsImported;
+    private final long rowsRejected;
+    private final List<Rejection> rejections;
+    private final long elapsedNanos;
+
+    public ImportReport(long rowsRead, long rowsImported, long rowsRejected, List<Rejection> rejections,
+            long elapsedNanos) {
+        this.rowsRead = rowsRead;
+        this.rowsImported = rowsImported;
+        this.rowsRejected = rowsRejected;
+        this.rejections = rejections;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRowsRead() {
+        return rowsRead;
+    }
+
+    public long getRowsImported() {
+        return rowsImported;
+    }
+
+    public long getRowsRejected() {
+        return rowsRejected;
+    }
+
+    /**
+     * Rejected rows in file order - capped, so it may hold fewer entries than getRowsRejected()
+     */
+    public List<Rejection> getRejections() {
+        return rejections;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedNanos / 1_000_000;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" +
+                "rowsRead=" + rowsRead +
+                ", rowsImported=" + rowsImported +
+                ", rowsRejected=" + rowsRejected +
+                ", elapsedMillis=" + getElapsedMillis() +
+                ", rowsPerSecond=" + (long) getRowsPerSecond() +
+                '}';
+    }
+}
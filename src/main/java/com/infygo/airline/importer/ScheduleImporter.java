@@ -0,0 +1,379 @@
+package com.infygo.airline.importer;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.service.FlightService;
+import com.infygo.airline.service.FlightValidator;
+import com.infygo.airline.service.SeatInventory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk loader for airline schedules in CSV format:
+ * flightId,airlines,source,destination,fare,journeyDate(yyyy-MM-dd),seatCount
+ *
+ * The file is split into line-aligned chunks that are memory-mapped and parsed on all
+ * cores. Valid rows are inserted in large batches through FlightService.addFlights, so
+ * there is no per-row logging or index publication; invalid rows are reported with
+ * their line number and reason. A row with the ID of a stored flight replaces it, so
+ * re-importing a changed schedule updates it, unless it would leave the flight fewer seats
+ * than are already booked - such a row is rejected like an invalid one. Fields are split
+ * on commas - quoted fields are not supported.
+ */
+@Service
+public class ScheduleImporter {
+
+    // Rejections kept in the report - the count is always exact
+    private static final int MAX_REPORTED_REJECTIONS = 1000;
+
+    // Chunk size bounds - small files still get one chunk, huge files stay mappable
+    private static final long MIN_CHUNK_BYTES = 1L << 20;
+    private static final long MAX_CHUNK_BYTES = 64L << 20;
+
+    private static final int FIELD_COUNT = 7;
+
+    private final FlightService flightService;
+    private final SeatInventory seatInventory;
+    private final int batchSize;
+    private final int threads;
+
+    @Autowired
+    public ScheduleImporter(FlightService flightService, SeatInventory seatInventory,
+            @Value("${infygo.import.batch-size:50000}") int batchSize,
+            @Value("${infygo.import.threads:0}") int threads) {
+        this.flightService = flightService;
+        this.seatInventory = seatInventory;
+        this.batchSize = batchSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Import every valid row of a CSV file
+     * 
+     * @param file The CSV file, with or without a header row
+     * @return Row counts, throughput and rejected rows
+     */
+    public ImportReport importCsv(Path file) throws IOException {
+        long start = System.nanoTime();
+        ExecutorService parsers = Executors.newFixedThreadPool(threads);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // Parse chunks in parallel; insert them in file order as they complete
+            List<Future<ChunkResult>> results = new ArrayList<>();
+            for (long[] chunk : splitIntoChunks(channel)) {
+                results.add(parsers.submit(() -> parseChunk(channel, chunk[0], chunk[1])));
+            }
+
+            long rowsRead = 0;
+            Insertion insertion = new Insertion();
+
+            for (Future<ChunkResult> future : results) {
+                ChunkResult result = future.get();
+                rowsRead += result.rows;
+
+                // Chunk-local line numbers become file line numbers
+                for (int i = 0; i < result.rejectedLines.size(); i++) {
+                    insertion.reject(insertion.lineOffset + result.rejectedLines.get(i), result.rejectionReasons.get(i));
+                }
+
+                for (int i = 0; i < result.flights.size(); i++) {
+                    Flight flight = result.flights.get(i);
+                    long line = insertion.lineOffset + result.flightLines.get(i);
+                    int booked = seatInventory.getBookedSeats(flight.getFlightId());
+                    if (flight.getSeatCount() < booked) {
+                        insertion.reject(line, "Seat count is below the " + booked + " seats already booked");
+                        continue;
+                    }
+                    insertion.batch.add(flight);
+                    insertion.batchLines.add(line);
+                    if (insertion.batch.size() == batchSize) {
+                        insert(insertion);
+                    }
+                }
+                insertion.lineOffset += result.lines;
+            }
+
+            if (!insertion.batch.isEmpty()) {
+                insert(insertion);
+            }
+
+            insertion.rejections.sort(Comparator.comparingLong(ImportReport.Rejection::getLineNumber));
+            return new ImportReport(rowsRead, insertion.rowsImported, insertion.rowsRejected, insertion.rejections,
+                    System.nanoTime() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Failed to parse " + file, e.getCause());
+        } finally {
+            parsers.shutdownNow();
+        }
+    }
+
+    /**
+     * Store the pending batch. A booking can land between a row's capacity check and the
+     * batch write, making the service refuse the whole batch; the batch is then stored row
+     * by row so that only the refused rows are rejected.
+     */
+    private void insert(Insertion insertion) {
+        try {
+            flightService.addFlights(insertion.batch);
+            insertion.rowsImported += insertion.batch.size();
+        } catch (IllegalArgumentException e) {
+            for (int i = 0; i < insertion.batch.size(); i++) {
+                try {
+                    flightService.addFlights(List.of(insertion.batch.get(i)));
+                    insertion.rowsImported++;
+                } catch (IllegalArgumentException rowProblem) {
+                    insertion.reject(insertion.batchLines.get(i), rowProblem.getMessage());
+                }
+            }
+        }
+        insertion.batch = new ArrayList<>(batchSize);
+        insertion.batchLines = new ArrayList<>(batchSize);
+    }
+
+    /**
+     * Split the file into [start, end) ranges that each end just after a newline
+     */
+    private List<long[]> splitIntoChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        long target = Math.max(MIN_CHUNK_BYTES, Math.min(MAX_CHUNK_BYTES, size / (threads * 4L)));
+
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        long start = 0;
+        while (start < size) {
+            long end = Math.min(size, start + target);
+
+            // Move the boundary forward to the end of the current line
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end);
+                int newline = -1;
+                for (int i = 0; i < read && newline < 0; i++) {
+                    if (probe.get(i) == '\n') {
+                        newline = i;
+                    }
+                }
+                if (newline >= 0) {
+                    end += newline + 1;
+                    break;
+                }
+                end += Math.max(read, 0);
+            }
+
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * Parse and validate one chunk - runs on a parser thread
+     */
+    private ChunkResult parseChunk(FileChannel channel, long start, long end) throws IOException {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+        ChunkResult result = new ChunkResult();
+        byte[] line = new byte[256];
+        int length = 0;
+
+        while (buffer.hasRemaining()) {
+            byte b = buffer.get();
+            if (b == '\n') {
+                parseLine(line, length, start == 0 && result.lines == 0, result);
+                length = 0;
+            } else {
+                if (length == line.length) {
+                    line = Arrays.copyOf(line, length * 2);
+                }
+                line[length++] = b;
+            }
+        }
+        if (length > 0) {
+            parseLine(line, length, start == 0 && result.lines == 0, result);
+        }
+        return result;
+    }
+
+    private void parseLine(byte[] line, int length, boolean firstLineOfFile, ChunkResult result) {
+        result.lines++;
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        if (isBlank(line, length)) {
+            return;
+        }
+
+        // Field boundaries - stop counting after the expected number of fields
+        int[] starts = new int[FIELD_COUNT];
+        int[] ends = new int[FIELD_COUNT];
+        int fields = 0;
+        int fieldStart = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || line[i] == ',') {
+                if (fields < FIELD_COUNT) {
+                    starts[fields] = fieldStart;
+                    ends[fields] = i;
+                }
+                fields++;
+                fieldStart = i + 1;
+            }
+        }
+
+        String flightId = field(line, starts[0], fields > 0 ? ends[0] : 0);
+        if (firstLineOfFile && flightId.equalsIgnoreCase("flightId")) {
+            return; // header row
+        }
+
+        result.rows++;
+        if (fields != FIELD_COUNT) {
+            result.reject("Expected " + FIELD_COUNT + " fields but found " + fields);
+            return;
+        }
+
+        String fareText = field(line, starts[4], ends[4]);
+        Double fare;
+        try {
+            fare = Double.parseDouble(fareText);
+        } catch (NumberFormatException e) {
+            result.reject("Invalid fare: " + fareText);
+            return;
+        }
+
+        String dateText = field(line, starts[5], ends[5]);
+        LocalDate journeyDate = parseDate(dateText);
+        if (journeyDate == null) {
+            result.reject("Invalid journey date: " + dateText);
+            return;
+        }
+
+        String seatText = field(line, starts[6], ends[6]);
+        Integer seatCount;
+        try {
+            seatCount = Integer.parseInt(seatText);
+        } catch (NumberFormatException e) {
+            result.reject("Invalid seat count: " + seatText);
+            return;
+        }
+
+        Flight flight = new Flight(flightId, field(line, starts[1], ends[1]), field(line, starts[2], ends[2]),
+                field(line, starts[3], ends[3]), fare, journeyDate, seatCount);
+        String problem = FlightValidator.findProblem(flight);
+        if (problem != null) {
+            result.reject(problem);
+            return;
+        }
+        result.flights.add(flight);
+        result.flightLines.add(result.lines);
+    }
+
+    /**
+     * Trimmed field text
+     */
+    private static String field(byte[] line, int start, int end) {
+        while (start < end && line[start] == ' ') {
+            start++;
+        }
+        while (end > start && line[end - 1] == ' ') {
+            end--;
+        }
+        return new String(line, start, end - start, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Parses yyyy-MM-dd without a formatter; null if malformed
+     */
+    private static LocalDate parseDate(String text) {
+        if (text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            return null;
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (year < 0 || month < 0 || day < 0) {
+            return null;
+        }
+        try {
+            return LocalDate.of(year, month, day);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isBlank(byte[] line, int length) {
+        for (int i = 0; i < length; i++) {
+            if (line[i] != ' ' && line[i] != '\t') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Progress of the file-order insertion: the pending batch and its file line numbers,
+     * and the counts for the report
+     */
+    private final class Insertion {
+        private List<Flight> batch = new ArrayList<>(batchSize);
+        private List<Long> batchLines = new ArrayList<>(batchSize);
+        private final List<ImportReport.Rejection> rejections = new ArrayList<>();
+        private long lineOffset;
+        private long rowsImported;
+        private long rowsRejected;
+
+        void reject(long line, String reason) {
+            rowsRejected++;
+            if (rejections.size() < MAX_REPORTED_REJECTIONS) {
+                rejections.add(new ImportReport.Rejection(line, reason));
+            }
+        }
+    }
+
+    /**
+     * Parsed rows of one chunk, with line numbers relative to the chunk
+     */
+    private static final class ChunkResult {
+        private final List<Flight> flights = new ArrayList<>();
+        private final List<Long> flightLines = new ArrayList<>();
+        private final List<Long> rejectedLines = new ArrayList<>();
+        private final List<String> rejectionReasons = new ArrayList<>();
+        private long lines;
+        private long rows;
+
+        void reject(String reason) {
+            rejectedLines.add(lines);
+            rejectionReasons.add(reason);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package com.infygo.airline.json;
+
+import com.infygo.airline.domain.FareAlert;
+import com.infygo.airline.domain.Flight;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Parses flat JSON objects, and arrays of them: string, number, boolean and null members,
+ * no nesting. Numbers and booleans are returned as their text and null members are left
+ * out, so callers convert only the fields they use.
+ */
+public final class JsonReader {
+
+    private final String text;
+    private int position;
+
+    private JsonReader(String text) {
+        this.text = text;
+    }
+
+    /**
+     * Members of a flat JSON object
+     *
+     * @throws IllegalArgumentException If the text is not such an object
+     */
+    public static Map<String, String> parseObject(String text) {
+        JsonReader reader = new JsonReader(text);
+        Map<String, String> members = reader.object();
+        reader.skipWhitespace();
+        if (reader.position != text.length()) {
+            throw reader.error("Unexpected content after the object");
+        }
+        return members;
+    }
+
+    /**
+     * Members of each object in a JSON array of flat objects
+     *
+     * @throws IllegalArgumentException If the text is not such an array
+     */
+    public static List<Map<String, String>> parseArray(String text) {
+        JsonReader reader = new JsonReader(text);
+        List<Map<String, String>> objects = new ArrayList<>();
+        reader.skipWhitespace();
+        reader.expect('[');
+        reader.skipWhitespace();
+        if (reader.peek() == ']') {
+            reader.position++;
+        } else {
+            while (true) {
+                objects.add(reader.object());
+                reader.skipWhitespace();
+                char c = reader.next();
+                if (c == ']') {
+                    break;
+                }
+                if (c != ',') {
+                    throw reader.error("Expected ',' or ']'");
+                }
+            }
+        }
+        reader.skipWhitespace();
+        if (reader.position != text.length()) {
+            throw reader.error("Unexpected content after the array");
+        }
+        return objects;
+    }
+
+    /**
+     * A flight from the members JsonWriter.flight writes; absent members stay null
+     *
+     * @throws IllegalArgumentException If a number or date member is malformed
+     */
+    public static Flight toFlight(Map<String, String> members) {
+        try {
+            return new Flight(
+                    members.get("flightId"),
+                    members.get("airlines"),
+                    members.get("source"),
+                    members.get("destination"),
+                    members.containsKey("fare") ? Double.valueOf(members.get("fare")) : null,
+                    members.containsKey("journeyDate") ? LocalDate.parse(members.get("journeyDate")) : null,
+                    members.containsKey("seatCount") ? Integer.valueOf(members.get("seatCount")) : null);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid journeyDate: " + members.get("journeyDate"), e);
+        }
+    }
+
+    /**
+     * A fare alert request from the members JsonWriter.fareAlert writes, without its ID;
+     * absent members stay null, and a missing maxFare is left to validation as zero
+     *
+     * @throws IllegalArgumentException If a number or date member is malformed
+     */
+    public static FareAlert toFareAlert(Map<String, String> members) {
+        String fromDate = members.get("fromDate");
+        String toDate = members.get("toDate");
+        try {
+            return new FareAlert(
+                    null,
+                    members.get("subscriber"),
+                    members.get("source"),
+                    members.get("destination"),
+                    fromDate != null ? LocalDate.parse(fromDate) : null,
+                    toDate != null ? LocalDate.parse(toDate) : null,
+                    members.containsKey("maxFare") ? Double.parseDouble(members.get("maxFare")) : 0,
+                    members.get("airlines"));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid alert date: " + e.getParsedString(), e);
+        }
+    }
+
+    private Map<String, String> object() {
+        Map<String, String> members = new HashMap<>();
+        skipWhitespace();
+        expect('{');
+        skipWhitespace();
+        if (peek() == '}') {
+            position++;
+            return members;
+        }
+        while (true) {
+            skipWhitespace();
+            String name = string();
+            skipWhitespace();
+            expect(':');
+            skipWhitespace();
+            String value = value();
+            if (value != null) {
+                members.put(name, value);
+            }
+            skipWhitespace();
+            char c = next();
+            if (c == '}') {
+                return members;
+            }
+            if (c != ',') {
+                throw error("Expected ',' or '}'");
+            }
+        }
+    }
+
+    private String value() {
+        char c = peek();
+        if (c == '"') {
+            return string();
+        }
+        if (c == '{' || c == '[') {
+            throw error("Nested values are not supported");
+        }
+        int start = position;
+        while (position < text.length() && "-+.eE0123456789truefalsn".indexOf(text.charAt(position)) >= 0) {
+            position++;
+        }
+        String literal = text.substring(start, position);
+        if (literal.isEmpty()) {
+            throw error("Expected a value");
+        }
+        return "null".equals(literal) ? null : literal;
+    }
+
+    private String string() {
+        expect('"');
+        StringBuilder value = new StringBuilder();
+        while (true) {
+            char c = next();
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            char escaped = next();
+            switch (escaped) {
+                case '"':
+                case '\\':
+                case '/':
+                    value.append(escaped);
+                    break;
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("Incomplete escape");
+                    }
+                    try {
+                        value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    } catch (NumberFormatException e) {
+                        throw error("Invalid escape");
+                    }
+                    position += 4;
+                    break;
+                default:
+                    throw error("Invalid escape");
+            }
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            position++;
+        }
+    }
+
+    private char peek() {
+        if (position >= text.length()) {
+            throw error("Unexpected end of JSON");
+        }
+        return text.charAt(position);
+    }
+
+    private char next() {
+        char c = peek();
+        position++;
+        return c;
+    }
+
+    private void expect(char expected) {
+        if (next() != expected) {
+            throw error("Expected '" + expected + "'");
+        }
+    }
+
+    private IllegalArgumentException error(String problem) {
+        return new IllegalArgumentException("Invalid JSON at position " + position + ": " + problem);
+    }
+}
@@ -0,0 +1,298 @@
+package com.infygo.airline.json;
+
+import com.infygo.airline.domain.Booking;
+import com.infygo.airline.domain.FareAlert;
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.SeatHold;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Writes JSON straight into a UTF-8 byte array, sized up front for the response.
+ *
+ * Flights are written field by field with no reflection, no intermediate Strings and no
+ * per-field objects: numbers and dates are formatted digit by digit, and ASCII text (every
+ * ID and most city names) is copied a character at a time. The finished array is handed
+ * to the HTTP exchange as is.
+ */
+public final class JsonWriter {
+
+    // Typical encoded flight, used to size the buffer so a response is rarely copied
+    private static final int FLIGHT_SIZE_ESTIMATE = 160;
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private byte[] buffer;
+    private int length;
+
+    public JsonWriter(int capacity) {
+        buffer = new byte[Math.max(16, capacity)];
+    }
+
+    /**
+     * A writer sized for a list of the given number of flights
+     */
+    public static JsonWriter forFlights(int count) {
+        return new JsonWriter(32 + count * FLIGHT_SIZE_ESTIMATE);
+    }
+
+    public byte[] buffer() {
+        return buffer;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public JsonWriter flights(List<Flight> flights) {
+        raw('[');
+        for (int i = 0; i < flights.size(); i++) {
+            if (i > 0) {
+                raw(',');
+            }
+            flight(flights.get(i));
+        }
+        raw(']');
+        return this;
+    }
+
+    public JsonWriter strings(List<String> values) {
+        raw('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                raw(',');
+            }
+            string(values.get(i));
+        }
+        raw(']');
+        return this;
+    }
+
+    public JsonWriter flight(Flight flight) {
+        raw("{\"flightId\":");
+        string(flight.getFlightId());
+        raw(",\"airlines\":");
+        string(flight.getAirlines());
+        raw(",\"source\":");
+        string(flight.getSource());
+        raw(",\"destination\":");
+        string(flight.getDestination());
+        raw(",\"fare\":");
+        fare(flight.getFare());
+        raw(",\"journeyDate\":");
+        date(flight.getJourneyDate());
+        raw(",\"seatCount\":");
+        if (flight.getSeatCount() == null) {
+            raw("null");
+        } else {
+            number(flight.getSeatCount());
+        }
+        raw('}');
+        return this;
+    }
+
+    public JsonWriter booking(Booking booking) {
+        raw("{\"bookingId\":");
+        string(booking.getBookingId());
+        raw(",\"flightId\":");
+        string(booking.getFlightId());
+        raw(",\"passengerCount\":");
+        number(booking.getPassengerCount());
+        raw('}');
+        return this;
+    }
+
+    public JsonWriter fareAlert(FareAlert alert) {
+        raw("{\"alertId\":");
+        string(alert.getAlertId());
+        raw(",\"subscriber\":");
+        string(alert.getSubscriber());
+        raw(",\"source\":");
+        string(alert.getSource());
+        raw(",\"destination\":");
+        string(alert.getDestination());
+        raw(",\"fromDate\":");
+        date(alert.getFromDate());
+        raw(",\"toDate\":");
+        date(alert.getToDate());
+        raw(",\"maxFare\":");
+        fare(alert.getMaxFare());
+        raw(",\"airlines\":");
+        string(alert.getAirlines());
+        raw('}');
+        return this;
+    }
+
+    public JsonWriter seatHold(SeatHold hold) {
+        raw("{\"holdId\":");
+        string(hold.getHoldId());
+        raw(",\"flightId\":");
+        string(hold.getFlightId());
+        raw(",\"passengerCount\":");
+        number(hold.getPassengerCount());
+        raw(",\"expiresAt\":");
+        string(hold.getExpiresAt().toString());
+        raw('}');
+        return this;
+    }
+
+    public JsonWriter error(String message) {
+        raw("{\"error\":");
+        string(message);
+        raw('}');
+        return this;
+    }
+
+    /**
+     * A quoted, escaped string, or null
+     */
+    public void string(String value) {
+        if (value == null) {
+            raw("null");
+            return;
+        }
+        ensure(value.length() + 2);
+        buffer[length++] = '"';
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c >= 0x20 && c < 0x80 && c != '"' && c != '\\') {
+                ensure(1);
+                buffer[length++] = (byte) c;
+            } else if (c == '"' || c == '\\') {
+                raw('\\');
+                raw(c);
+            } else if (c < 0x20) {
+                raw("\\u00");
+                raw(HEX[c >> 4]);
+                raw(HEX[c & 0xF]);
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                    && Character.isLowSurrogate(value.charAt(i + 1))) {
+                codePoint(Character.toCodePoint(c, value.charAt(++i)));
+            } else {
+                // Lone surrogates cannot be encoded - write the replacement character
+                codePoint(Character.isSurrogate(c) ? 0xFFFD : c);
+            }
+        }
+        raw('"');
+    }
+
+    /**
+     * A whole number, written without going through a String
+     */
+    public void number(long value) {
+        if (value == Long.MIN_VALUE) {
+            raw(Long.toString(value));
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value != 0);
+        reverse(start, length - 1);
+    }
+
+    /**
+     * A fare, exactly as stored - fares in whole paise, the usual case, are written
+     * digit by digit, anything else falls back to Double.toString
+     */
+    public void fare(Double fare) {
+        if (fare == null || fare.isNaN() || fare.isInfinite()) {
+            raw("null");
+            return;
+        }
+        double value = fare;
+        long paise = Math.round(value * 100);
+        if (Math.abs(paise) >= 1L << 50 || paise / 100.0 != value) {
+            raw(Double.toString(value));
+            return;
+        }
+        if (paise < 0) {
+            raw('-');
+            paise = -paise;
+        }
+        number(paise / 100);
+        raw('.');
+        raw((char) ('0' + paise % 100 / 10));
+        raw((char) ('0' + paise % 10));
+    }
+
+    /**
+     * A quoted ISO date such as "2025-03-14"
+     */
+    public void date(LocalDate date) {
+        if (date == null) {
+            raw("null");
+            return;
+        }
+        int year = date.getYear();
+        if (year < 0 || year > 9999) {
+            string(date.toString());
+            return;
+        }
+        ensure(12);
+        buffer[length++] = '"';
+        buffer[length++] = (byte) ('0' + year / 1000);
+        buffer[length++] = (byte) ('0' + year / 100 % 10);
+        buffer[length++] = (byte) ('0' + year / 10 % 10);
+        buffer[length++] = (byte) ('0' + year % 10);
+        buffer[length++] = '-';
+        buffer[length++] = (byte) ('0' + date.getMonthValue() / 10);
+        buffer[length++] = (byte) ('0' + date.getMonthValue() % 10);
+        buffer[length++] = '-';
+        buffer[length++] = (byte) ('0' + date.getDayOfMonth() / 10);
+        buffer[length++] = (byte) ('0' + date.getDayOfMonth() % 10);
+        buffer[length++] = '"';
+    }
+
+    /**
+     * ASCII text written as is - field names and punctuation only
+     */
+    public void raw(String ascii) {
+        ensure(ascii.length());
+        for (int i = 0; i < ascii.length(); i++) {
+            buffer[length++] = (byte) ascii.charAt(i);
+        }
+    }
+
+    public void raw(char ascii) {
+        ensure(1);
+        buffer[length++] = (byte) ascii;
+    }
+
+    private void codePoint(int codePoint) {
+        ensure(4);
+        if (codePoint < 0x800) {
+            buffer[length++] = (byte) (0xC0 | codePoint >> 6);
+        } else if (codePoint < 0x10000) {
+            buffer[length++] = (byte) (0xE0 | codePoint >> 12);
+            buffer[length++] = (byte) (0x80 | (codePoint >> 6 & 0x3F));
+        } else {
+            buffer[length++] = (byte) (0xF0 | codePoint >> 18);
+            buffer[length++] = (byte) (0x80 | (codePoint >> 12 & 0x3F));
+            buffer[length++] = (byte) (0x80 | (codePoint >> 6 & 0x3F));
+        }
+        buffer[length++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+
+    private void reverse(int from, int to) {
+        while (from < to) {
+            byte b = buffer[from];
+            buffer[from++] = buffer[to];
+            buffer[to--] = b;
+        }
+    }
+
+    private void ensure(int extra) {
+        if (length + extra > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + extra));
+        }
+    }
+}
@@ -0,0 +1,416 @@
+package com.infygo.airline.loadgen;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.metrics.LatencyHistogram;
+import com.infygo.airline.service.FlightService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Macro load test of the whole application context, for sizing hardware.
+ *
+ * With infygo.loadgen.enabled=true the application loads a SyntheticCatalog through
+ * FlightService, then drives a mix of adds, route searches and catalog pages from many
+ * threads at a fixed total rate, and logs a report and exits. Every call goes through
+ * the same FlightService bean as the menu and the HTTP API - validation, search cache,
+ * catalog listeners, and the logging and metrics aspects included.
+ *
+ * The rate is open-loop: operation n is due at start + n / rate whether or not earlier
+ * ones have finished. Response times are measured from that intended start, so a stall
+ * is charged to every operation that should have started during it instead of only the
+ * one that was running (coordinated omission). Service times, from the actual start, are
+ * reported alongside for comparison.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "infygo.loadgen.enabled", havingValue = "true")
+public class LoadGenerator implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoadGenerator.class);
+
+    // Flights per addFlights call while loading the catalog
+    private static final int LOAD_BATCH_SIZE = 50_000;
+
+    // Head start so every worker is running before the first operation is due
+    private static final long START_DELAY_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    // Workers park until this close to an operation's start, then spin - a parked thread
+    // wakes tens of microseconds late, which would otherwise be reported as response time
+    private static final long SPIN_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private static final double[] QUANTILES = { 0.5, 0.9, 0.99, 0.999, 0.9999 };
+
+    enum Operation {
+        ADD, SEARCH, LIST
+    }
+
+    private final FlightService flightService;
+    private final ConfigurableApplicationContext context;
+    private final SyntheticCatalog catalog;
+    private final int catalogSize;
+    private final int threads;
+    private final double rate;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final int[] mix;
+    private final int pageSize;
+    private final long seed;
+
+    // Index of the next flight to add - added flights continue after the catalog
+    private final AtomicLong nextFlightIndex = new AtomicLong();
+
+    /**
+     * @param catalogSize   Flights loaded before the test
+     * @param cities        Cities of the synthetic catalog
+     * @param scheduleDays  Days of schedule from tomorrow
+     * @param routeExponent Zipf exponent of route popularity, for flights and searches
+     * @param dateExponent  Zipf exponent of date popularity, for flights and searches
+     * @param threads       Threads issuing operations
+     * @param rate          Target operations per second, over all threads
+     * @param mix           Relative weights as operation:weight, e.g. add:5,search:85,list:10
+     * @param pageSize      Flights per catalog page
+     */
+    @Autowired
+    public LoadGenerator(FlightService flightService, ConfigurableApplicationContext context,
+            @Value("${infygo.loadgen.catalog-size:1000000}") int catalogSize,
+            @Value("${infygo.loadgen.cities:38}") int cities,
+            @Value("${infygo.loadgen.schedule-days:365}") int scheduleDays,
+            @Value("${infygo.loadgen.route-exponent:1.0}") double routeExponent,
+            @Value("${infygo.loadgen.date-exponent:0.8}") double dateExponent,
+            @Value("${infygo.loadgen.threads:16}") int threads,
+            @Value("${infygo.loadgen.rate:20000}") double rate,
+            @Value("${infygo.loadgen.warmup-seconds:10}") int warmupSeconds,
+            @Value("${infygo.loadgen.duration-seconds:30}") int durationSeconds,
+            @Value("${infygo.loadgen.mix:add:5,search:85,list:10}") String mix,
+            @Value("${infygo.loadgen.page-size:20}") int pageSize,
+            @Value("${infygo.loadgen.seed:42}") long seed) {
+        if (catalogSize <= 0 || threads <= 0 || rate <= 0 || durationSeconds <= 0 || warmupSeconds < 0
+                || pageSize <= 0) {
+            throw new IllegalArgumentException("Catalog size, threads, rate, duration and page size must be "
+                    + "greater than zero");
+        }
+        this.flightService = flightService;
+        this.context = context;
+        this.catalog = new SyntheticCatalog(cities, scheduleDays, routeExponent, dateExponent, seed);
+        this.catalogSize = catalogSize;
+        this.threads = threads;
+        this.rate = rate;
+        this.warmupSeconds = warmupSeconds;
+        this.durationSeconds = durationSeconds;
+        this.mix = parseMix(mix);
+        this.pageSize = pageSize;
+        this.seed = seed;
+        nextFlightIndex.set(catalogSize);
+    }
+
+    @Override
+    public void run(String... args) throws InterruptedException {
+        loadCatalog();
+
+        if (warmupSeconds > 0) {
+            logger.info("Warming up for {} s at {} ops/s", warmupSeconds, (long) rate);
+            runPhase(TimeUnit.SECONDS.toNanos(warmupSeconds), 1);
+        }
+        logger.info("Measuring for {} s at {} ops/s", durationSeconds, (long) rate);
+        Phase measured = runPhase(TimeUnit.SECONDS.toNanos(durationSeconds), 2);
+        logger.info(report(measured));
+
+        System.exit(SpringApplication.exit(context));
+    }
+
+    private void loadCatalog() {
+        List<Flight> first = flightService.getFlights(SyntheticCatalog.FLIGHT_ID_PREFIX, 1);
+        if (!first.isEmpty() && first.get(0).getFlightId().startsWith(SyntheticCatalog.FLIGHT_ID_PREFIX)) {
+            throw new IllegalStateException("The repository already holds load test flights - "
+                    + "run the load test against an empty repository");
+        }
+
+        long start = System.nanoTime();
+        List<Flight> batch = new ArrayList<>(LOAD_BATCH_SIZE);
+        for (int i = 0; i < catalogSize; i++) {
+            batch.add(catalog.flight(i));
+            if (batch.size() == LOAD_BATCH_SIZE) {
+                flightService.addFlights(batch);
+                batch = new ArrayList<>(LOAD_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flightService.addFlights(batch);
+        }
+        long nanos = System.nanoTime() - start;
+        logger.info("Loaded {} synthetic flights on {} routes in {} ms ({} flights/s)", catalogSize,
+                catalog.getRouteCount(), TimeUnit.NANOSECONDS.toMillis(nanos),
+                (long) (catalogSize * 1e9 / nanos));
+    }
+
+    /**
+     * Run the operation mix at the target rate for the given time, on fresh worker threads
+     */
+    private Phase runPhase(long durationNanos, long phaseSeed) throws InterruptedException {
+        Phase phase = new Phase();
+        long start = System.nanoTime() + START_DELAY_NANOS;
+        long end = start + durationNanos;
+        double intervalNanos = 1e9 / rate;
+
+        Map<Long, Long> otherThreadsBefore = allocatedBytesByThread();
+        long[] gcBefore = gcCountAndMillis();
+
+        Thread[] workers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            int worker = i;
+            SplittableRandom random = new SplittableRandom(seed * 31 + phaseSeed * 1_000_003 + worker);
+            workers[i] = new Thread(() -> work(phase, worker, random, start, end, intervalNanos), "loadgen-" + i);
+            workers[i].start();
+        }
+        for (Thread worker : workers) {
+            worker.join();
+        }
+
+        phase.elapsedNanos = System.nanoTime() - start;
+        Map<Long, Long> otherThreadsAfter = allocatedBytesByThread();
+        for (Map.Entry<Long, Long> entry : otherThreadsAfter.entrySet()) {
+            Long before = otherThreadsBefore.get(entry.getKey());
+            if (before != null && before >= 0 && entry.getValue() >= 0) {
+                phase.otherAllocatedBytes += entry.getValue() - before;
+            }
+        }
+        long[] gcAfter = gcCountAndMillis();
+        phase.gcCount = gcAfter[0] - gcBefore[0];
+        phase.gcMillis = gcAfter[1] - gcBefore[1];
+        return phase;
+    }
+
+    /**
+     * One worker: operations worker, worker + threads, worker + 2 * threads, ... of the schedule
+     */
+    private void work(Phase phase, int worker, SplittableRandom random, long start, long end, double intervalNanos) {
+        long allocatedBefore = currentThreadAllocatedBytes();
+        int totalWeight = mix[mix.length - 1];
+
+        for (long sequence = worker;; sequence += threads) {
+            long intended = start + (long) (sequence * intervalNanos);
+            if (intended >= end) {
+                break;
+            }
+            // Behind schedule: start at once, and the lateness counts towards the response time
+            long now;
+            while ((now = System.nanoTime()) < intended) {
+                if (intended - now > SPIN_NANOS) {
+                    LockSupport.parkNanos(intended - now - SPIN_NANOS);
+                } else {
+                    Thread.onSpinWait();
+                }
+            }
+
+            int choice = random.nextInt(totalWeight);
+            Operation operation = choice < mix[0] ? Operation.ADD
+                    : choice < mix[1] ? Operation.SEARCH : Operation.LIST;
+            boolean failed = false;
+            try {
+                execute(operation, random);
+            } catch (RuntimeException e) {
+                failed = true;
+            }
+            long done = System.nanoTime();
+            phase.stats[operation.ordinal()].record(done - intended, done - now, failed);
+        }
+
+        long allocatedAfter = currentThreadAllocatedBytes();
+        if (allocatedBefore >= 0 && allocatedAfter >= 0) {
+            phase.workerAllocatedBytes.add(allocatedAfter - allocatedBefore);
+        }
+    }
+
+    private void execute(Operation operation, SplittableRandom random) {
+        switch (operation) {
+            case ADD:
+                flightService.addFlight(catalog.flight(nextFlightIndex.getAndIncrement()));
+                break;
+            case SEARCH:
+                int route = catalog.sampleRoute(random);
+                flightService.searchFlights(catalog.source(route), catalog.destination(route),
+                        catalog.sampleDate(random));
+                break;
+            case LIST:
+                flightService.getFlights(SyntheticCatalog.flightId(random.nextInt(catalogSize)), pageSize);
+                break;
+            default:
+                throw new IllegalStateException("Unknown operation: " + operation);
+        }
+    }
+
+    private String report(Phase phase) {
+        double seconds = phase.elapsedNanos / 1e9;
+        long operations = 0;
+        long errors = 0;
+        for (OperationStats stats : phase.stats) {
+            operations += stats.count.sum();
+            errors += stats.errors.sum();
+        }
+
+        StringBuilder report = new StringBuilder("Load test results:");
+        report.append(String.format("%n  %-22s %d flights, %d threads, %d s measured after %d s warm-up",
+                "Setup", catalogSize, threads, durationSeconds, warmupSeconds));
+        report.append(String.format("%n  %-22s %.0f ops/s", "Target rate", rate));
+        report.append(String.format("%n  %-22s %.0f ops/s (%d operations, %d errors)", "Achieved rate",
+                operations / seconds, operations, errors));
+
+        report.append(String.format("%n  Response time from intended start, corrected for coordinated omission (us):"));
+        appendLatencies(report, phase, true);
+        report.append(String.format("%n  Service time from actual start, uncorrected (us):"));
+        appendLatencies(report, phase, false);
+
+        long workerBytes = phase.workerAllocatedBytes.sum();
+        report.append(String.format("%n  %-22s %.1f MB/s on load threads (%.0f bytes/op), %.1f MB/s on other threads",
+                "Allocation", workerBytes / seconds / 1e6, operations == 0 ? 0.0 : (double) workerBytes / operations,
+                phase.otherAllocatedBytes / seconds / 1e6));
+        report.append(String.format("%n  %-22s %d collections, %d ms", "GC", phase.gcCount, phase.gcMillis));
+        return report.toString();
+    }
+
+    private static void appendLatencies(StringBuilder report, Phase phase, boolean corrected) {
+        report.append(String.format("%n    %-8s %10s %7s %9s %9s %9s %9s %9s %9s", "", "count", "errors",
+                "p50", "p90", "p99", "p99.9", "p99.99", "max"));
+        for (Operation operation : Operation.values()) {
+            OperationStats stats = phase.stats[operation.ordinal()];
+            if (stats.count.sum() == 0) {
+                continue;
+            }
+            LatencyHistogram histogram = corrected ? stats.responseTime : stats.serviceTime;
+            report.append(String.format("%n    %-8s %10d %7d", operation.name().toLowerCase(), stats.count.sum(),
+                    stats.errors.sum()));
+            for (double quantile : QUANTILES) {
+                report.append(String.format(" %9.1f", histogram.getValueAtQuantile(quantile) / 1000.0));
+            }
+            report.append(String.format(" %9.1f", histogram.getMax() / 1000.0));
+        }
+    }
+
+    /**
+     * Parses "operation:weight,..." into cumulative weights in Operation order
+     */
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[Operation.values().length];
+        for (String entry : mix.split(",")) {
+            String[] fields = entry.trim().split(":");
+            if (fields.length != 2) {
+                throw new IllegalArgumentException("Invalid operation mix entry: " + entry);
+            }
+            Operation operation;
+            try {
+                operation = Operation.valueOf(fields[0].trim().toUpperCase());
+                weights[operation.ordinal()] = Integer.parseInt(fields[1].trim());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid operation mix entry: " + entry, e);
+            }
+            if (weights[operation.ordinal()] < 0) {
+                throw new IllegalArgumentException("Operation weights cannot be negative: " + entry);
+            }
+        }
+
+        for (int i = 1; i < weights.length; i++) {
+            weights[i] += weights[i - 1];
+        }
+        if (weights[weights.length - 1] <= 0) {
+            throw new IllegalArgumentException("The operation mix needs at least one positive weight");
+        }
+        return weights;
+    }
+
+    /**
+     * Bytes allocated so far by the calling thread, or -1 where the JVM cannot tell
+     */
+    private static long currentThreadAllocatedBytes() {
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * Bytes allocated so far by every live thread, by thread ID; empty where the JVM cannot tell
+     */
+    private static Map<Long, Long> allocatedBytesByThread() {
+        Map<Long, Long> allocated = new HashMap<>();
+        java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            long[] ids = threadBean.getAllThreadIds();
+            long[] bytes = ((com.sun.management.ThreadMXBean) threadBean).getThreadAllocatedBytes(ids);
+            for (int i = 0; i < ids.length; i++) {
+                allocated.put(ids[i], bytes[i]);
+            }
+        }
+        return allocated;
+    }
+
+    private static long[] gcCountAndMillis() {
+        long count = 0;
+        long millis = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, collector.getCollectionCount());
+            millis += Math.max(0, collector.getCollectionTime());
+        }
+        return new long[] { count, millis };
+    }
+
+    /**
+     * Counters of one warm-up or measured run
+     */
+    private static final class Phase {
+
+        final OperationStats[] stats = new OperationStats[Operation.values().length];
+        final LongAdder workerAllocatedBytes = new LongAdder();
+
+        // Set once the workers have finished
+        long elapsedNanos;
+        long otherAllocatedBytes;
+        long gcCount;
+        long gcMillis;
+
+        Phase() {
+            for (int i = 0; i < stats.length; i++) {
+                stats[i] = new OperationStats();
+            }
+        }
+    }
+
+    private static final class OperationStats {
+
+        final LongAdder count = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LatencyHistogram responseTime = new LatencyHistogram();
+        final LatencyHistogram serviceTime = new LatencyHistogram();
+
+        void record(long responseNanos, long serviceNanos, boolean failed) {
+            count.increment();
+            if (failed) {
+                errors.increment();
+            }
+            responseTime.record(responseNanos);
+            serviceTime.record(serviceNanos);
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.infygo.airline.loadgen;
+
+import com.infygo.airline.domain.Flight;
+
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Deterministic synthetic flight catalog in the shape of the sample flights, at any size.
+ *
+ * Cities start with the sample's (Delhi, Mumbai, Bangalore, ...) and continue with other
+ * Indian cities, then numbered made-up ones. Routes are ranked by a gravity model - the
+ * route between the i-th and j-th city ranks by (i + 1) * (j + 1), so Delhi-Mumbai is the
+ * busiest - and dates by how soon they are, with peak-season days (20 December to
+ * 10 January) counted four times closer. Both are drawn from Zipf distributions over
+ * those rankings, for flights and for searches alike, so searches hit the routes and
+ * dates that have the most flights. Fares and seat counts are in the sample's ranges.
+ *
+ * Flight i is always the same flight for the same seed and size, so runs are comparable.
+ */
+public final class SyntheticCatalog {
+
+    static final String[] CITIES = {
+            "Delhi", "Mumbai", "Bangalore", "Chennai", "Kolkata", "Hyderabad", "Pune", "Ahmedabad",
+            "Jaipur", "Lucknow", "Kochi", "Goa", "Chandigarh", "Indore", "Nagpur", "Patna",
+            "Bhopal", "Guwahati", "Srinagar", "Varanasi", "Amritsar", "Coimbatore", "Madurai", "Ranchi",
+            "Bhubaneswar", "Visakhapatnam", "Thiruvananthapuram", "Mangalore", "Raipur", "Dehradun",
+            "Udaipur", "Jodhpur", "Vadodara", "Surat", "Trichy", "Leh", "Port Blair", "Imphal"
+    };
+
+    static final String[] AIRLINES = { "Air India", "IndiGo", "SpiceJet", "Vistara", "Akasa" };
+
+    // Flight IDs are this prefix and the flight's index, so they never clash with FLT numbers
+    static final String FLIGHT_ID_PREFIX = "LG";
+
+    private static final MonthDay PEAK_START = MonthDay.of(12, 20);
+    private static final MonthDay PEAK_END = MonthDay.of(1, 10);
+    private static final int PEAK_WEIGHT = 4;
+
+    private final long seed;
+    private final String[] cities;
+    private final int[] routeSources;
+    private final int[] routeDestinations;
+    private final LocalDate[] dates;
+    private final ZipfDistribution routeDistribution;
+    private final ZipfDistribution dateDistribution;
+
+    /**
+     * @param cityCount     Cities served; routes connect every pair of them
+     * @param scheduleDays  Days of schedule from tomorrow
+     * @param routeExponent Zipf exponent of route popularity
+     * @param dateExponent  Zipf exponent of date popularity
+     * @param seed          Seed of every random choice
+     */
+    public SyntheticCatalog(int cityCount, int scheduleDays, double routeExponent, double dateExponent, long seed) {
+        if (cityCount < 2) {
+            throw new IllegalArgumentException("At least two cities are needed");
+        }
+        if (scheduleDays <= 0) {
+            throw new IllegalArgumentException("Schedule days must be greater than zero");
+        }
+        this.seed = seed;
+
+        cities = new String[cityCount];
+        for (int i = 0; i < cityCount; i++) {
+            cities[i] = i < CITIES.length ? CITIES[i] : String.format("City %04d", i);
+        }
+
+        // Gravity model: busiest between the biggest cities, ties broken by source then destination
+        List<int[]> routes = new ArrayList<>(cityCount * (cityCount - 1));
+        for (int source = 0; source < cityCount; source++) {
+            for (int destination = 0; destination < cityCount; destination++) {
+                if (source != destination) {
+                    routes.add(new int[] { source, destination });
+                }
+            }
+        }
+        routes.sort(Comparator.<int[]>comparingLong(route -> (long) (route[0] + 1) * (route[1] + 1))
+                .thenComparingInt(route -> route[0])
+                .thenComparingInt(route -> route[1]));
+        routeSources = new int[routes.size()];
+        routeDestinations = new int[routes.size()];
+        for (int rank = 0; rank < routes.size(); rank++) {
+            routeSources[rank] = routes.get(rank)[0];
+            routeDestinations[rank] = routes.get(rank)[1];
+        }
+
+        // Sooner is busier; peak season counts as much closer than it is
+        LocalDate firstDate = LocalDate.now().plusDays(1);
+        List<LocalDate> days = new ArrayList<>(scheduleDays);
+        for (int day = 0; day < scheduleDays; day++) {
+            days.add(firstDate.plusDays(day));
+        }
+        days.sort(Comparator.comparingDouble(date -> {
+            double distance = date.toEpochDay() - firstDate.toEpochDay();
+            return isPeakSeason(date) ? distance / PEAK_WEIGHT : distance;
+        }));
+        dates = days.toArray(new LocalDate[0]);
+
+        routeDistribution = new ZipfDistribution(routeSources.length, routeExponent);
+        dateDistribution = new ZipfDistribution(dates.length, dateExponent);
+    }
+
+    private static boolean isPeakSeason(LocalDate date) {
+        MonthDay day = MonthDay.from(date);
+        return !day.isBefore(PEAK_START) || !day.isAfter(PEAK_END);
+    }
+
+    public static String flightId(long index) {
+        return FLIGHT_ID_PREFIX + index;
+    }
+
+    /**
+     * The flight with the given index
+     */
+    public Flight flight(long index) {
+        SplittableRandom random = new SplittableRandom(seed ^ (index * 0x9E3779B97F4A7C15L));
+        int route = routeDistribution.sample(random);
+        // The same route keeps a stable base fare; each flight varies around it by up to 20%
+        double baseFare = 3500 + Math.floorMod(route * 0x9E3779B9, 2500);
+        double fare = Math.round(baseFare * (0.8 + 0.4 * random.nextDouble()));
+        return new Flight(
+                flightId(index),
+                AIRLINES[random.nextInt(AIRLINES.length)],
+                cities[routeSources[route]],
+                cities[routeDestinations[route]],
+                fare,
+                dates[dateDistribution.sample(random)],
+                100 + 10 * random.nextInt(9));
+    }
+
+    /**
+     * Draw a route rank for a search, with the same skew as the flights
+     */
+    public int sampleRoute(SplittableRandom random) {
+        return routeDistribution.sample(random);
+    }
+
+    /**
+     * Draw a journey date for a search, with the same skew as the flights
+     */
+    public LocalDate sampleDate(SplittableRandom random) {
+        return dates[dateDistribution.sample(random)];
+    }
+
+    public String source(int route) {
+        return cities[routeSources[route]];
+    }
+
+    public String destination(int route) {
+        return cities[routeDestinations[route]];
+    }
+
+    public int getRouteCount() {
+        return routeSources.length;
+    }
+}
@@ -0,0 +1,67 @@
+package com.infygo.airline.metrics;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the metrics of every measured operation and publishes each one over JMX as
+ * com.infygo.airline:type=Metrics,name=&lt;Interface.method&gt;.
+ */
+@Component
+public class MetricsRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(MetricsRegistry.class);
+
+    private final ConcurrentHashMap<String, OperationMetrics> operations = new ConcurrentHashMap<>();
+    private final boolean jmxEnabled;
+
+    @Autowired
+    public MetricsRegistry(@Value("${infygo.metrics.jmx-enabled:true}") boolean jmxEnabled) {
+        this.jmxEnabled = jmxEnabled;
+    }
+
+    /**
+     * Metrics for the named operation, created and registered on first use
+     */
+    public OperationMetrics operation(String name) {
+        return operations.computeIfAbsent(name, this::register);
+    }
+
+    /**
+     * All operations seen so far, by name
+     */
+    public List<OperationMetrics> getOperations() {
+        List<OperationMetrics> all = new ArrayList<>(operations.values());
+        all.sort(Comparator.comparing(OperationMetrics::getName));
+        return all;
+    }
+
+    private OperationMetrics register(String name) {
+        OperationMetrics metrics = new OperationMetrics(name);
+        if (jmxEnabled) {
+            try {
+                MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+                ObjectName objectName = new ObjectName("com.infygo.airline:type=Metrics,name=" + name);
+                if (!server.isRegistered(objectName)) {
+                    server.registerMBean(metrics, objectName);
+                }
+            } catch (JMException e) {
+                // Metrics still work without JMX
+                logger.warn("Could not register metrics for {} over JMX", name, e);
+            }
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,87 @@
+package com.infygo.airline.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Call count, error count and latency distribution of one operation.
+ * Recording takes no locks: counters are striped LongAdders and latencies go to a
+ * lock-free histogram.
+ */
+public class OperationMetrics implements OperationMetricsMXBean {
+
+    private final String name;
+    private final long createdAt = System.nanoTime();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LatencyHistogram latencies = new LatencyHistogram();
+
+    public OperationMetrics(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record one call
+     *
+     * @param nanos  How long the call took
+     * @param failed True if the call threw an exception
+     */
+    public void record(long nanos, boolean failed) {
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        latencies.record(nanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Average throughput since the operation was first called
+     */
+    @Override
+    public double getCallsPerSecond() {
+        double seconds = (System.nanoTime() - createdAt) / (double) TimeUnit.SECONDS.toNanos(1);
+        return seconds > 0 ? getCalls() / seconds : 0;
+    }
+
+    @Override
+    public double getMeanMicros() {
+        long count = getCalls();
+        return count == 0 ? 0 : totalNanos.sum() / (count * 1000.0);
+    }
+
+    @Override
+    public double getP50Micros() {
+        return latencies.getValueAtQuantile(0.5) / 1000.0;
+    }
+
+    @Override
+    public double getP99Micros() {
+        return latencies.getValueAtQuantile(0.99) / 1000.0;
+    }
+
+    @Override
+    public double getP999Micros() {
+        return latencies.getValueAtQuantile(0.999) / 1000.0;
+    }
+
+    @Override
+    public double getMaxMicros() {
+        return latencies.getMax() / 1000.0;
+    }
+}
@@ -0,0 +1,23 @@
+package com.infygo.airline.metrics;
+
+/**
+ * JMX view of one operation's metrics - latencies are in microseconds
+ */
+public interface OperationMetricsMXBean {
+
+    long getCalls();
+
+    long getErrors();
+
+    double getCallsPerSecond();
+
+    double getMeanMicros();
+
+    double getP50Micros();
+
+    double getP99Micros();
+
+    double getP999Micros();
+
+    double getMaxMicros();
+}
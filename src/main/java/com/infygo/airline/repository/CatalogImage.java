@@ -0,0 +1,36 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Prebuilt binary image of a flight catalog, for restoring a catalog at startup without
+ * replaying it flight by flight through the services.
+ *
+ * An image uses the snapshot format of durable storage, so a snapshot file taken by
+ * DurableFlightRepository can also be used as an image.
+ */
+public final class CatalogImage {
+
+    private CatalogImage() {
+    }
+
+    /**
+     * Write an image atomically - a restarting instance sees the old image or the new one
+     *
+     * @param flights Flights in flight ID order, e.g. from getAllFlights
+     */
+    public static void write(Path file, List<Flight> flights) throws IOException {
+        SnapshotStore.write(file, 0, flights);
+    }
+
+    /**
+     * Read an image; the flights come back in flight ID order
+     */
+    public static List<Flight> read(Path file) throws IOException {
+        return SnapshotStore.read(file).getFlights();
+    }
+}
@@ -0,0 +1,166 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, versioned view of the flight catalog.
+ * Readers work against one snapshot for the whole call; writers derive a new
+ * snapshot and publish it, so a reader never sees a half-applied change.
+ */
+final class CatalogSnapshot {
+
+    static final CatalogSnapshot EMPTY = new CatalogSnapshot(0, FlightIdIndex.EMPTY, new StringDictionary(true),
+            RouteIndex.EMPTY);
+
+    private final long version;
+    private final FlightIdIndex flightsById;
+
+    // City codes, matched ignoring case, and routes keyed by code pair - read-only once published
+    private final StringDictionary cities;
+    private final RouteIndex routeIndex;
+
+    private CatalogSnapshot(long version, FlightIdIndex flightsById, StringDictionary cities, RouteIndex routeIndex) {
+        this.version = version;
+        this.flightsById = flightsById;
+        this.cities = cities;
+        this.routeIndex = routeIndex;
+    }
+
+    long getVersion() {
+        return version;
+    }
+
+    FlightIdIndex getFlightsById() {
+        return flightsById;
+    }
+
+    /**
+     * Date index for a route, or an empty schedule - never null.
+     * City names are resolved to codes in place, so the lookup allocates nothing.
+     */
+    RouteSchedule getRoute(String source, String destination) {
+        int sourceCode = cities.find(source);
+        int destinationCode = cities.find(destination);
+        if (sourceCode == StringDictionary.NOT_FOUND || destinationCode == StringDictionary.NOT_FOUND) {
+            return RouteSchedule.EMPTY;
+        }
+        return routeIndex.get(RouteIndex.key(sourceCode, destinationCode));
+    }
+
+    /**
+     * Returns the next version with the flight added, replacing the stored flight with its ID.
+     * Copies the ID index chunk and the route index path leading to the touched route, plus
+     * that route's date index - O(log routes + dates on the route). Everything else is shared
+     * with this snapshot.
+     *
+     * @param previous The stored flight with the same ID, or null if there is none
+     */
+    CatalogSnapshot withFlight(Flight flight, Flight previous) {
+        StringDictionary nextCities = withCities(cities, flight);
+        long key = routeKey(nextCities, flight);
+        RouteIndex routes = routeIndex;
+        if (previous == null) {
+            routes = routes.with(key, routes.get(key).withFlight(flight));
+        } else {
+            // The previous version leaves the bucket it was indexed under, wherever the flight moved to
+            FlightIdIndex.Entry stored = flightsById.entry(flight.getFlightId());
+            Map<LocalDate, List<Flight>> removed = Map.of(stored.date, List.of(stored.flight));
+            if (stored.routeKey == key) {
+                routes = routes.with(key, routes.get(key).withChanges(List.of(flight), removed));
+            } else {
+                routes = routes.with(stored.routeKey, routes.get(stored.routeKey)
+                        .withChanges(Collections.emptyList(), removed));
+                routes = routes.with(key, routes.get(key).withFlight(flight));
+            }
+        }
+
+        return new CatalogSnapshot(version + 1, flightsById.put(new FlightIdIndex.Entry(flight, key)), nextCities,
+                routes);
+    }
+
+    /**
+     * Returns the next version without the flight
+     *
+     * @param flight The stored flight to remove
+     */
+    CatalogSnapshot withoutFlight(Flight flight) {
+        FlightIdIndex.Entry stored = flightsById.entry(flight.getFlightId());
+        RouteIndex routes = routeIndex.with(stored.routeKey, routeIndex.get(stored.routeKey)
+                .withChanges(Collections.emptyList(), Map.of(stored.date, List.of(stored.flight))));
+        // City codes stay - a dictionary only ever grows
+        return new CatalogSnapshot(version + 1, flightsById.remove(stored.flightId), cities, routes);
+    }
+
+    /**
+     * Returns the next version with a whole batch added - one new version per batch.
+     * Stored flights with the IDs of batch flights are replaced and leave their routes.
+     *
+     * @param sortedById     The batch sorted by flight ID, without duplicate IDs
+     * @param flightsByRoute The batch grouped by route, ignoring the case of city names
+     * @param replaced       Receives the stored flights the batch replaced, in flight ID order
+     */
+    CatalogSnapshot withFlights(Flight[] sortedById, Collection<List<Flight>> flightsByRoute, List<Flight> replaced) {
+        StringDictionary nextCities = cities;
+        for (List<Flight> route : flightsByRoute) {
+            nextCities = withCities(nextCities, route.get(0));
+        }
+
+        FlightIdIndex.Entry[] entries = new FlightIdIndex.Entry[sortedById.length];
+        for (int i = 0; i < sortedById.length; i++) {
+            entries[i] = new FlightIdIndex.Entry(sortedById[i], routeKey(nextCities, sortedById[i]));
+        }
+        List<FlightIdIndex.Entry> replacedEntries = new ArrayList<>();
+        FlightIdIndex nextById = flightsById.putAll(entries, replacedEntries);
+
+        // Replaced flights are found by the ID merge, so only a batch that replaces any pays for this
+        // Replaced is in ID order, so every removal list stays in ID order
+        Map<Long, Map<LocalDate, List<Flight>>> removedByRoute = new HashMap<>();
+        for (FlightIdIndex.Entry stored : replacedEntries) {
+            replaced.add(stored.flight);
+            removedByRoute.computeIfAbsent(stored.routeKey, k -> new HashMap<>())
+                    .computeIfAbsent(stored.date, d -> new ArrayList<>()).add(stored.flight);
+        }
+
+        RouteIndex routes = routeIndex;
+        for (List<Flight> route : flightsByRoute) {
+            long key = routeKey(nextCities, route.get(0));
+            Map<LocalDate, List<Flight>> removed = removedByRoute.remove(key);
+            routes = routes.with(key, routes.get(key).withChanges(route,
+                    removed == null ? Collections.emptyMap() : removed));
+        }
+        for (Map.Entry<Long, Map<LocalDate, List<Flight>>> route : removedByRoute.entrySet()) {
+            routes = routes.with(route.getKey(), routes.get(route.getKey()).withChanges(Collections.emptyList(),
+                    route.getValue()));
+        }
+
+        return new CatalogSnapshot(version + 1, nextById, nextCities, routes);
+    }
+
+    private static long routeKey(StringDictionary cities, Flight flight) {
+        return RouteIndex.key(cities.find(flight.getSource()), cities.find(flight.getDestination()));
+    }
+
+    /**
+     * The dictionary with the flight's cities in it - a copy if either city is new,
+     * since the current dictionary may already be visible to readers
+     */
+    private StringDictionary withCities(StringDictionary dictionary, Flight flight) {
+        if (dictionary.find(flight.getSource()) != StringDictionary.NOT_FOUND
+                && dictionary.find(flight.getDestination()) != StringDictionary.NOT_FOUND) {
+            return dictionary;
+        }
+        // A batch copies at most once - later cities go into the copy it already made
+        StringDictionary next = dictionary == cities ? dictionary.copy() : dictionary;
+        next.intern(flight.getSource());
+        next.intern(flight.getDestination());
+        return next;
+    }
+}
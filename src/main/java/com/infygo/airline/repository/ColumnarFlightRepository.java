@@ -0,0 +1,545 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * Column-oriented implementation of the FlightRepository interface.
+ *
+ * Flights are stored as rows across primitive column arrays instead of as objects:
+ * airline and city names become dictionary codes, fares are doubles, seats ints and
+ * journey dates epoch days. Flight objects are only created for the results a caller
+ * gets back, so a large catalog costs a fraction of the memory and almost no GC work,
+ * and filters run as tight loops over the columns.
+ *
+ * Each route keeps its rows ordered by (journey date, flight ID), so a date or date range
+ * is one contiguous run of rows. Reads share a read lock; writes take the write lock.
+ */
+@Repository
+@ConditionalOnProperty(name = "infygo.repository.mode", havingValue = "columnar")
+public class ColumnarFlightRepository implements FlightRepository {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Flight ID dictionary - a flight's code is its row number
+    private final StringDictionary flightIds = new StringDictionary(false);
+
+    // Airline and city name codes
+    private final NameDictionary airlines = new NameDictionary();
+    private final NameDictionary cities = new NameDictionary();
+
+    // Columns, indexed by row
+    private int[] airline = new int[INITIAL_CAPACITY];
+    private int[] source = new int[INITIAL_CAPACITY];
+    private int[] destination = new int[INITIAL_CAPACITY];
+    private double[] fares = new double[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private int[] seats = new int[INITIAL_CAPACITY];
+    // Rows of removed flights - off their routes, and skipped by ID lookups and listings.
+    // A removed flight's row is reused if its ID is added again.
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+    private int rowCount;
+
+    // Rows in flight ID order; rows added since the last merge are appended lazily on read
+    private int[] byId = new int[0];
+    private int sortedCount;
+
+    // Route (source key, destination key) -> rows on that route
+    private final RouteTable routes = new RouteTable();
+
+    // Row orderings used by the indexes
+    private final IntBinaryOperator idOrder = (a, b) -> flightIds.get(a).compareTo(flightIds.get(b));
+    private final IntBinaryOperator routeOrder = (a, b) -> days[a] != days[b]
+            ? Integer.compare(days[a], days[b])
+            : idOrder.applyAsInt(a, b);
+
+    @Override
+    public void addFlight(Flight flight) {
+        lock.writeLock().lock();
+        try {
+            int row = store(flight, new ArrayList<>());
+            routeFor(row).insert(row, routeOrder);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addFlights(Collection<Flight> flights) {
+        upsertFlights(flights);
+    }
+
+    @Override
+    public List<Flight> upsertFlights(Collection<Flight> flights) {
+        lock.writeLock().lock();
+        try {
+            // Append to each route, then sort every touched route once
+            List<Flight> displaced = new ArrayList<>();
+            List<RouteRows> touched = new ArrayList<>();
+            for (Flight flight : flights) {
+                int row = store(flight, displaced);
+                RouteRows rows = routeFor(row);
+                if (rows.sorted) {
+                    rows.sorted = false;
+                    touched.add(rows);
+                }
+                rows.append(row);
+            }
+            for (RouteRows rows : touched) {
+                rows.sort(routeOrder);
+            }
+            return displaced;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Flight> updateFlight(Flight flight) {
+        lock.writeLock().lock();
+        try {
+            int row = flightIds.find(flight.getFlightId());
+            if (row == StringDictionary.NOT_FOUND || removed[row]) {
+                return Optional.empty();
+            }
+            List<Flight> displaced = new ArrayList<>(1);
+            store(flight, displaced);
+            routeFor(row).insert(row, routeOrder);
+            return Optional.of(displaced.get(0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Flight> removeFlight(String flightId) {
+        lock.writeLock().lock();
+        try {
+            int row = flightIds.find(flightId);
+            if (row == StringDictionary.NOT_FOUND || removed[row]) {
+                return Optional.empty();
+            }
+            Flight previous = toFlight(row);
+            routeFor(row).remove(row, routeOrder);
+            removed[row] = true;
+            return Optional.of(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Flight> findFlight(String flightId) {
+        lock.readLock().lock();
+        try {
+            int row = flightIds.find(flightId);
+            return row == StringDictionary.NOT_FOUND || removed[row] ? Optional.empty() : Optional.of(toFlight(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> searchFlights(String source, String destination, LocalDate journeyDate) {
+        lock.readLock().lock();
+        try {
+            RouteRows rows = findRoute(source, destination);
+            if (rows == null) {
+                return Collections.emptyList();
+            }
+            int day = (int) journeyDate.toEpochDay();
+            List<Flight> flights = new ArrayList<>();
+            for (int i = rows.firstOnOrAfter(day, days); i < rows.size && days[rows.rows[i]] == day; i++) {
+                flights.add(toFlight(rows.rows[i]));
+            }
+            return Collections.unmodifiableList(flights);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public NavigableMap<LocalDate, List<Flight>> searchFlightsBetween(String source, String destination,
+            LocalDate fromDate, LocalDate toDate) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDate, List<Flight>> flightsByDate = new TreeMap<>();
+            RouteRows rows = findRoute(source, destination);
+            if (rows == null) {
+                return Collections.unmodifiableNavigableMap(flightsByDate);
+            }
+
+            int lastDay = (int) toDate.toEpochDay();
+            int i = rows.firstOnOrAfter((int) fromDate.toEpochDay(), days);
+            while (i < rows.size && days[rows.rows[i]] <= lastDay) {
+                // One bucket per run of rows with the same day
+                int day = days[rows.rows[i]];
+                List<Flight> bucket = new ArrayList<>();
+                for (; i < rows.size && days[rows.rows[i]] == day; i++) {
+                    bucket.add(toFlight(rows.rows[i]));
+                }
+                flightsByDate.put(LocalDate.ofEpochDay(day), Collections.unmodifiableList(bucket));
+            }
+            return Collections.unmodifiableNavigableMap(flightsByDate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> queryFlights(FlightQuery query, ToIntFunction<Flight> availableSeats) {
+        lock.readLock().lock();
+        try {
+            RouteRows rows = findRoute(query.getSource(), query.getDestination());
+            int airlineKey = query.getAirlines() == null ? StringDictionary.NOT_FOUND
+                    : airlines.findKey(query.getAirlines());
+            if (rows == null || (query.getAirlines() != null && airlineKey == StringDictionary.NOT_FOUND)) {
+                return Collections.emptyList();
+            }
+
+            // Fare and airline are checked on the columns; a Flight is built only for a likely result
+            double maxFare = query.getMaxFare() == null ? Double.POSITIVE_INFINITY : query.getMaxFare();
+            int lastDay = (int) query.getToDate().toEpochDay();
+            TopKFlights topK = new TopKFlights(query, availableSeats);
+            for (int i = rows.firstOnOrAfter((int) query.getFromDate().toEpochDay(), days); i < rows.size; i++) {
+                int row = rows.rows[i];
+                if (days[row] > lastDay) {
+                    break;
+                }
+                if (fares[row] > maxFare
+                        || (airlineKey != StringDictionary.NOT_FOUND && airlines.keyOf(airline[row]) != airlineKey)) {
+                    continue;
+                }
+                if (topK.mayAccept(fares[row])) {
+                    topK.offer(toFlight(row));
+                }
+            }
+            return topK.results();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> getAllFlights() {
+        mergeIdOrder();
+        lock.readLock().lock();
+        try {
+            List<Flight> flights = new ArrayList<>(sortedCount);
+            for (int i = 0; i < sortedCount; i++) {
+                if (!removed[byId[i]]) {
+                    flights.add(toFlight(byId[i]));
+                }
+            }
+            return flights;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> getFlights(String afterFlightId, int limit) {
+        mergeIdOrder();
+        lock.readLock().lock();
+        try {
+            int from = 0;
+            if (afterFlightId != null) {
+                // First row with an ID after the cursor
+                int low = 0;
+                int high = sortedCount;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (flightIds.get(byId[mid]).compareTo(afterFlightId) <= 0) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                from = low;
+            }
+
+            List<Flight> flights = new ArrayList<>(Math.max(0, Math.min(limit, sortedCount - from)));
+            for (int i = from; i < sortedCount && flights.size() < limit; i++) {
+                if (!removed[byId[i]]) {
+                    flights.add(toFlight(byId[i]));
+                }
+            }
+            return flights;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write a flight into its row - a new row for a new ID, the existing row (taken off its
+     * route first) for a known one. The caller adds the row to its route.
+     *
+     * @param displaced Receives the flight previously in the row, if it was not removed
+     */
+    private int store(Flight flight, List<Flight> displaced) {
+        int row = flightIds.intern(flight.getFlightId());
+        if (row == rowCount) {
+            ensureCapacity(row + 1);
+            rowCount++;
+        } else if (removed[row]) {
+            removed[row] = false;
+        } else {
+            displaced.add(toFlight(row));
+            routeFor(row).remove(row, routeOrder);
+        }
+
+        airline[row] = airlines.intern(flight.getAirlines());
+        source[row] = cities.intern(flight.getSource());
+        destination[row] = cities.intern(flight.getDestination());
+        fares[row] = flight.getFare();
+        days[row] = (int) flight.getJourneyDate().toEpochDay();
+        seats[row] = flight.getSeatCount();
+        return row;
+    }
+
+    /**
+     * The row's route, created if it is the first flight on it
+     */
+    private RouteRows routeFor(int row) {
+        return routes.getOrCreate(routeKey(cities.keyOf(source[row]), cities.keyOf(destination[row])));
+    }
+
+    /**
+     * Rows on a route, or null - city names are matched ignoring case, without allocating
+     */
+    private RouteRows findRoute(String sourceCity, String destinationCity) {
+        int sourceKey = cities.findKey(sourceCity);
+        int destinationKey = cities.findKey(destinationCity);
+        if (sourceKey == StringDictionary.NOT_FOUND || destinationKey == StringDictionary.NOT_FOUND) {
+            return null;
+        }
+        return routes.get(routeKey(sourceKey, destinationKey));
+    }
+
+    private static long routeKey(int sourceKey, int destinationKey) {
+        return ((long) sourceKey << 32) | (destinationKey & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Build the Flight object for a row - only done for results
+     */
+    private Flight toFlight(int row) {
+        return new Flight(flightIds.get(row), airlines.get(airline[row]), cities.get(source[row]),
+                cities.get(destination[row]), fares[row], LocalDate.ofEpochDay(days[row]), seats[row]);
+    }
+
+    /**
+     * Bring rows added since the last call into the ID ordering.
+     * Done on read so a run of single adds costs one merge instead of one shift per add.
+     */
+    private void mergeIdOrder() {
+        lock.readLock().lock();
+        try {
+            if (sortedCount == rowCount) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            int added = rowCount - sortedCount;
+            if (added == 0) {
+                return;
+            }
+            int[] newRows = new int[added];
+            for (int i = 0; i < added; i++) {
+                newRows[i] = sortedCount + i;
+            }
+            RowSort.sort(newRows, 0, added, idOrder);
+
+            int[] merged = new int[rowCount];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < merged.length; k++) {
+                merged[k] = j == added || (i < sortedCount && idOrder.applyAsInt(byId[i], newRows[j]) < 0)
+                        ? byId[i++]
+                        : newRows[j++];
+            }
+            byId = merged;
+            sortedCount = rowCount;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureCapacity(int rows) {
+        if (rows <= fares.length) {
+            return;
+        }
+        int capacity = Math.max(rows, fares.length + (fares.length >> 1));
+        airline = Arrays.copyOf(airline, capacity);
+        source = Arrays.copyOf(source, capacity);
+        destination = Arrays.copyOf(destination, capacity);
+        fares = Arrays.copyOf(fares, capacity);
+        days = Arrays.copyOf(days, capacity);
+        seats = Arrays.copyOf(seats, capacity);
+        removed = Arrays.copyOf(removed, capacity);
+    }
+
+    /**
+     * Rows of one route, ordered by (journey date, flight ID) whenever the write lock is free
+     */
+    private static final class RouteRows {
+        private int[] rows = new int[8];
+        private int size;
+        private boolean sorted = true;
+
+        void append(int row) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+            }
+            rows[size++] = row;
+        }
+
+        void insert(int row, IntBinaryOperator order) {
+            int pos = search(row, order);
+            append(row);
+            int insertAt = pos >= 0 ? pos : -pos - 1;
+            System.arraycopy(rows, insertAt, rows, insertAt + 1, size - 1 - insertAt);
+            rows[insertAt] = row;
+        }
+
+        void remove(int row, IntBinaryOperator order) {
+            int pos;
+            if (sorted) {
+                pos = search(row, order);
+            } else {
+                // Mid-batch the rows are unordered
+                pos = -1;
+                for (int i = 0; i < size && pos < 0; i++) {
+                    pos = rows[i] == row ? i : -1;
+                }
+            }
+            if (pos >= 0) {
+                System.arraycopy(rows, pos + 1, rows, pos, size - pos - 1);
+                size--;
+            }
+        }
+
+        void sort(IntBinaryOperator order) {
+            RowSort.sort(rows, 0, size, order);
+            sorted = true;
+        }
+
+        /**
+         * Position of the first row on or after the day
+         */
+        int firstOnOrAfter(int day, int[] days) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (days[rows[mid]] < day) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * Binary search, same contract as Arrays.binarySearch
+         */
+        private int search(int row, IntBinaryOperator order) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int cmp = order.applyAsInt(rows[mid], row);
+                if (cmp < 0) {
+                    low = mid + 1;
+                } else if (cmp > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+    }
+
+    /**
+     * Open-addressing map from a primitive route key to its rows - no boxed keys on lookup
+     */
+    private static final class RouteTable {
+        private long[] keys = new long[64];
+        private RouteRows[] values = new RouteRows[64];
+        private int size;
+
+        RouteRows get(long key) {
+            int mask = keys.length - 1;
+            for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) {
+                    return values[slot];
+                }
+            }
+            return null;
+        }
+
+        RouteRows getOrCreate(long key) {
+            RouteRows rows = get(key);
+            if (rows != null) {
+                return rows;
+            }
+            if ((size + 1) * 2 > keys.length) {
+                grow();
+            }
+            rows = new RouteRows();
+            put(keys, values, key, rows);
+            size++;
+            return rows;
+        }
+
+        private void grow() {
+            long[] oldKeys = keys;
+            RouteRows[] oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = new RouteRows[oldValues.length * 2];
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldValues[i] != null) {
+                    put(keys, values, oldKeys[i], oldValues[i]);
+                }
+            }
+        }
+
+        private static void put(long[] keys, RouteRows[] values, long key, RouteRows rows) {
+            int mask = keys.length - 1;
+            int slot = slot(key, mask);
+            while (values[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = key;
+            values[slot] = rows;
+        }
+
+        private static int slot(long key, int mask) {
+            return (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+        }
+    }
+}
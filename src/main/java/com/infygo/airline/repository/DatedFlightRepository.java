@@ -0,0 +1,432 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * FlightRepository split by journey date into segments of a fixed number of days
+ * (a week by default, starting on Monday), each an in-memory FlightRepositoryImpl.
+ *
+ * A search for a date goes to the one segment holding that date, and a date range only
+ * visits the segments it overlaps. A background task drops every segment whose days have
+ * all departed and hands its flights to the expiry listener, so the service can forget
+ * what it keeps about them too - memory is bounded by the booking horizon rather than by
+ * how long the service has been running. Dropped segments can be archived first, as
+ * snapshot files that also load as a catalog image (see README).
+ *
+ * One hash map from flight ID to segment finds the segment of a flight for a lookup,
+ * update or removal in a single probe. Dropping a segment only unlinks it and marks it
+ * retired, so the write lock is held for no per-flight work; IDs still mapped to a retired
+ * segment read as absent until the expiry thread clears them, off the lock. Reads take no
+ * lock; writes are serialized.
+ */
+@Repository
+@ConditionalOnProperty(name = "infygo.repository.mode", havingValue = "dated")
+public class DatedFlightRepository implements FlightRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatedFlightRepository.class);
+
+    // Epoch day 0 is a Thursday - shifting by 3 days makes 7-day segments start on Monday
+    private static final int MONDAY_OFFSET = 3;
+
+    private final int segmentDays;
+    private final int retentionDays;
+    private final Path archiveDirectory;
+    private final Clock clock;
+
+    // Segment number -> segment; a segment covers segmentDays consecutive days
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    // Flight ID -> segment holding it, or a retired segment; changed under the write lock,
+    // read without it, and cleared of retired entries by the expiry thread
+    private final ConcurrentHashMap<String, Segment> segmentById = new ConcurrentHashMap<>();
+
+    private volatile Consumer<List<Flight>> expiryListener = flights -> {
+    };
+
+    // Serializes writers, and expiry with them
+    private final Object writeLock = new Object();
+
+    private final AtomicLong expiredSegments = new AtomicLong();
+    private final AtomicLong expiredFlights = new AtomicLong();
+
+    private final ScheduledExecutorService expirer;
+
+    /**
+     * @param segmentDays           Days per segment - 7 for weekly, 1 for daily segments
+     * @param retentionDays         Days a flight is kept after its journey date
+     * @param expiryIntervalMinutes How often departed segments are looked for
+     * @param archiveDirectory      Directory departed segments are written to before they
+     *                              are dropped, blank to drop them without an archive
+     */
+    @Autowired
+    public DatedFlightRepository(@Value("${infygo.dated.segment-days:7}") int segmentDays,
+            @Value("${infygo.dated.retention-days:1}") int retentionDays,
+            @Value("${infygo.dated.expiry-interval-minutes:60}") long expiryIntervalMinutes,
+            @Value("${infygo.dated.archive-directory:}") String archiveDirectory) throws IOException {
+        this(segmentDays, retentionDays, archiveDirectory, Clock.systemDefaultZone());
+        if (expiryIntervalMinutes <= 0) {
+            throw new IllegalArgumentException("Invalid dated repository settings");
+        }
+        expirer.scheduleWithFixedDelay(this::expireQuietly, expiryIntervalMinutes, expiryIntervalMinutes,
+                TimeUnit.MINUTES);
+    }
+
+    /**
+     * Dated repository without scheduled expiry - call expireDeparted to drop segments
+     */
+    public DatedFlightRepository(int segmentDays, int retentionDays, String archiveDirectory, Clock clock)
+            throws IOException {
+        if (segmentDays <= 0 || retentionDays < 0) {
+            throw new IllegalArgumentException("Invalid dated repository settings");
+        }
+        this.segmentDays = segmentDays;
+        this.retentionDays = retentionDays;
+        this.clock = clock;
+        this.archiveDirectory = archiveDirectory == null || archiveDirectory.isBlank() ? null
+                : Paths.get(archiveDirectory);
+        if (this.archiveDirectory != null) {
+            Files.createDirectories(this.archiveDirectory);
+        }
+        expirer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flight-expiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void addFlight(Flight flight) {
+        upsertFlights(List.of(flight));
+    }
+
+    @Override
+    public void addFlights(Collection<Flight> flights) {
+        upsertFlights(flights);
+    }
+
+    @Override
+    public List<Flight> upsertFlights(Collection<Flight> flights) {
+        // Last flight with an ID wins, as in one repository
+        List<Flight> displaced = new ArrayList<>();
+        Map<String, Flight> latest = new LinkedHashMap<>();
+        for (Flight flight : flights) {
+            Flight earlier = latest.put(flight.getFlightId(), flight);
+            if (earlier != null) {
+                displaced.add(earlier);
+            }
+        }
+
+        Map<Long, List<Flight>> bySegment = new HashMap<>();
+        for (Flight flight : latest.values()) {
+            bySegment.computeIfAbsent(segmentOf(flight.getJourneyDate()), k -> new ArrayList<>()).add(flight);
+        }
+
+        synchronized (writeLock) {
+            // Flights whose date moved to another segment leave their old one
+            Map<Segment, List<String>> movedAway = new HashMap<>();
+            for (Map.Entry<Long, List<Flight>> entry : bySegment.entrySet()) {
+                for (Flight flight : entry.getValue()) {
+                    Segment holder = holderOf(flight.getFlightId());
+                    if (holder != null && holder.number != entry.getKey()) {
+                        movedAway.computeIfAbsent(holder, k -> new ArrayList<>()).add(flight.getFlightId());
+                    }
+                }
+            }
+
+            // New versions go in before old ones come out, so a reader never misses the flight
+            for (Map.Entry<Long, List<Flight>> entry : bySegment.entrySet()) {
+                Segment segment = segments.computeIfAbsent(entry.getKey(), Segment::new);
+                displaced.addAll(segment.flights.upsertFlights(entry.getValue()));
+                for (Flight flight : entry.getValue()) {
+                    segmentById.put(flight.getFlightId(), segment);
+                }
+            }
+            for (Map.Entry<Segment, List<String>> entry : movedAway.entrySet()) {
+                for (String flightId : entry.getValue()) {
+                    remove(entry.getKey(), flightId).ifPresent(displaced::add);
+                }
+            }
+        }
+        return displaced;
+    }
+
+    @Override
+    public Optional<Flight> updateFlight(Flight flight) {
+        synchronized (writeLock) {
+            Segment holder = holderOf(flight.getFlightId());
+            if (holder == null) {
+                return Optional.empty();
+            }
+            long number = segmentOf(flight.getJourneyDate());
+            if (holder.number == number) {
+                return holder.flights.updateFlight(flight);
+            }
+            Segment segment = segments.computeIfAbsent(number, Segment::new);
+            segment.flights.addFlight(flight);
+            segmentById.put(flight.getFlightId(), segment);
+            return remove(holder, flight.getFlightId());
+        }
+    }
+
+    @Override
+    public Optional<Flight> removeFlight(String flightId) {
+        synchronized (writeLock) {
+            Segment holder = holderOf(flightId);
+            if (holder == null) {
+                return Optional.empty();
+            }
+            segmentById.remove(flightId, holder);
+            return remove(holder, flightId);
+        }
+    }
+
+    /**
+     * Remove a flight from a segment, dropping the segment if that was its last flight.
+     * The caller has already pointed the flight ID elsewhere, or removed it.
+     */
+    private Optional<Flight> remove(Segment segment, String flightId) {
+        Optional<Flight> removed = segment.flights.removeFlight(flightId);
+        if (segment.size() == 0) {
+            segments.remove(segment.number, segment);
+        }
+        return removed;
+    }
+
+    @Override
+    public Optional<Flight> findFlight(String flightId) {
+        Segment holder = holderOf(flightId);
+        return holder == null ? Optional.empty() : holder.flights.findFlight(flightId);
+    }
+
+    /**
+     * The live segment holding the flight, or null
+     */
+    private Segment holderOf(String flightId) {
+        Segment holder = segmentById.get(flightId);
+        return holder == null || holder.retired ? null : holder;
+    }
+
+    @Override
+    public List<Flight> searchFlights(String source, String destination, LocalDate journeyDate) {
+        Segment segment = segments.get(segmentOf(journeyDate));
+        return segment == null ? Collections.emptyList()
+                : segment.flights.searchFlights(source, destination, journeyDate);
+    }
+
+    @Override
+    public NavigableMap<LocalDate, List<Flight>> searchFlightsBetween(String source, String destination,
+            LocalDate fromDate, LocalDate toDate) {
+        Collection<Segment> overlapping = overlapping(fromDate, toDate);
+        if (overlapping.size() == 1) {
+            return overlapping.iterator().next().flights.searchFlightsBetween(source, destination, fromDate, toDate);
+        }
+        // Segments hold disjoint dates - their answers only need to be put side by side
+        NavigableMap<LocalDate, List<Flight>> flightsByDate = new TreeMap<>();
+        for (Segment segment : overlapping) {
+            flightsByDate.putAll(segment.flights.searchFlightsBetween(source, destination, fromDate, toDate));
+        }
+        return Collections.unmodifiableNavigableMap(flightsByDate);
+    }
+
+    @Override
+    public List<Flight> queryFlights(FlightQuery query, ToIntFunction<Flight> availableSeats) {
+        Collection<Segment> overlapping = overlapping(query.getFromDate(), query.getToDate());
+        if (overlapping.size() == 1) {
+            return overlapping.iterator().next().flights.queryFlights(query, availableSeats);
+        }
+        // The best K overall are among the best K of each segment
+        TopKFlights topK = new TopKFlights(query, availableSeats);
+        for (Segment segment : overlapping) {
+            for (Flight flight : segment.flights.queryFlights(query, availableSeats)) {
+                topK.offer(flight);
+            }
+        }
+        return topK.results();
+    }
+
+    private Collection<Segment> overlapping(LocalDate fromDate, LocalDate toDate) {
+        if (fromDate.isAfter(toDate)) {
+            return Collections.emptyList();
+        }
+        return segments.subMap(segmentOf(fromDate), true, segmentOf(toDate), true).values();
+    }
+
+    @Override
+    public List<Flight> getAllFlights() {
+        List<List<Flight>> lists = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            lists.add(segment.flights.getAllFlights());
+        }
+        return FlightIdMerge.merge(lists, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Flight> getFlights(String afterFlightId, int limit) {
+        // Every segment's next page - the merged page can draw on any of them
+        List<List<Flight>> pages = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            pages.add(segment.flights.getFlights(afterFlightId, limit));
+        }
+        return FlightIdMerge.merge(pages, limit);
+    }
+
+    @Override
+    public void setExpiryListener(Consumer<List<Flight>> listener) {
+        this.expiryListener = listener;
+    }
+
+    /**
+     * Drop every segment whose days have all departed, archiving it first if configured,
+     * then pass its flights to the expiry listener
+     *
+     * @return The number of flights dropped
+     */
+    public long expireDeparted() throws IOException {
+        long keepFrom = segmentOf(LocalDate.now(clock).minusDays(retentionDays));
+        long dropped = 0;
+        for (Segment segment : segments.headMap(keepFrom, false).values()) {
+            // Unlinked and retired first, so no write can reach the segment while it is archived
+            synchronized (writeLock) {
+                if (!segments.remove(segment.number, segment)) {
+                    continue;
+                }
+                segment.retired = true;
+            }
+            List<Flight> flights = segment.flights.getAllFlights();
+            if (archiveDirectory != null) {
+                try {
+                    archive(segment, flights);
+                } catch (IOException e) {
+                    restore(segment, flights);
+                    throw e;
+                }
+            }
+            expiredSegments.incrementAndGet();
+            expiredFlights.addAndGet(flights.size());
+            dropped += flights.size();
+            logger.info("Dropped {} departed flights of {} to {}", flights.size(), firstDay(segment.number),
+                    firstDay(segment.number).plusDays(segmentDays - 1));
+            expiryListener.accept(Collections.unmodifiableList(flights));
+
+            // Entries already read as absent; removed only if still pointing at this segment
+            for (Flight flight : flights) {
+                segmentById.remove(flight.getFlightId(), segment);
+            }
+        }
+        return dropped;
+    }
+
+    private void archive(Segment segment, List<Flight> flights) throws IOException {
+        Path file = archiveDirectory.resolve("flights-" + firstDay(segment.number) + ".snapshot");
+        SnapshotStore.write(file, 0, flights);
+    }
+
+    /**
+     * Put back the flights of a segment that could not be archived - except those stored
+     * again meanwhile, whose newer versions win - into the segment for their days
+     */
+    private void restore(Segment segment, List<Flight> flights) {
+        synchronized (writeLock) {
+            List<Flight> kept = new ArrayList<>(flights.size());
+            for (Flight flight : flights) {
+                if (holderOf(flight.getFlightId()) == null) {
+                    kept.add(flight);
+                }
+            }
+            if (kept.isEmpty()) {
+                return;
+            }
+            Segment target = segments.computeIfAbsent(segment.number, Segment::new);
+            target.flights.addFlights(kept);
+            for (Flight flight : kept) {
+                segmentById.put(flight.getFlightId(), target);
+            }
+        }
+    }
+
+    private void expireQuietly() {
+        try {
+            expireDeparted();
+        } catch (IOException | RuntimeException e) {
+            logger.error("Expiry of departed flights failed", e);
+        }
+    }
+
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    public long getExpiredSegments() {
+        return expiredSegments.get();
+    }
+
+    public long getExpiredFlights() {
+        return expiredFlights.get();
+    }
+
+    private long segmentOf(LocalDate date) {
+        return Math.floorDiv(date.toEpochDay() + MONDAY_OFFSET, segmentDays);
+    }
+
+    private LocalDate firstDay(long segment) {
+        return LocalDate.ofEpochDay(segment * segmentDays - MONDAY_OFFSET);
+    }
+
+    @PreDestroy
+    public void close() {
+        expirer.shutdownNow();
+    }
+
+    /**
+     * The flights of one run of days
+     */
+    private static final class Segment {
+        private final long number;
+        private final FlightRepositoryImpl flights = new FlightRepositoryImpl();
+
+        // Set under the write lock once the segment is dropped
+        private volatile boolean retired;
+
+        Segment(long number) {
+            this.number = number;
+        }
+
+        int size() {
+            return flights.currentSnapshot().getFlightsById().size();
+        }
+    }
+}
@@ -0,0 +1,445 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PreDestroy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Persistent implementation of the FlightRepository interface.
+ *
+ * Serves every read from an in-memory FlightRepositoryImpl, and makes every write durable
+ * by appending it to a write-ahead log before acknowledging it. A change reaches the
+ * catalog only once its log record is fsynced, so readers never see a write a crash could
+ * lose, and a write reported as failed is never seen at all. Changes are applied in log
+ * order; writers waiting on the same group commit apply theirs one after another. A
+ * background task writes a snapshot of the catalog and deletes the log segments it covers,
+ * so a restart only loads the snapshot and replays the short log tail.
+ */
+@Repository
+@ConditionalOnProperty(name = "infygo.repository.mode", havingValue = "durable")
+public class DurableFlightRepository implements FlightRepository {
+
+    private static final Logger logger = LoggerFactory.getLogger(DurableFlightRepository.class);
+
+    private static final String SNAPSHOT_FILE = "flights.snapshot";
+
+    // Replayed log records are applied to the catalog in batches of this size
+    private static final int REPLAY_BATCH_SIZE = 100_000;
+
+    private final FlightRepositoryImpl catalog = new FlightRepositoryImpl();
+    private final Path directory;
+    private final long snapshotAfterRecords;
+    private final WriteAheadLog log;
+    private final ScheduledExecutorService snapshotter;
+
+    // Serializes log appends and the decisions they are based on
+    private final Object writeLock = new Object();
+
+    // Logged changes not yet in the catalog, by flight ID, so that a write decides on what
+    // the catalog will hold once they land - guarded by writeLock
+    private final Map<String, PendingChange> pending = new HashMap<>();
+
+    // Records appended since the last snapshot started, and the sequence it covers - guarded by writeLock
+    private long recordsSinceSnapshot;
+    private long snapshotSequence;
+
+    // Turns handed to logged writes in log order - guarded by writeLock
+    private long issuedTurns;
+
+    // Last turn applied to the catalog (or skipped, if its commit failed) and the last log
+    // sequence it covered - guarded by publishLock
+    private final Object publishLock = new Object();
+    private long publishedTurn;
+    private long publishedSequence;
+
+    // Prevents a second snapshot from starting while one is being written
+    private final AtomicBoolean snapshotRunning = new AtomicBoolean();
+
+    @Autowired
+    public DurableFlightRepository(@Value("${infygo.durable.directory:data}") String directory,
+            @Value("${infygo.durable.group-commit-millis:2}") long groupCommitMillis,
+            @Value("${infygo.durable.snapshot-interval-seconds:300}") long snapshotIntervalSeconds,
+            @Value("${infygo.durable.snapshot-after-records:1000000}") long snapshotAfterRecords) throws IOException {
+        if (groupCommitMillis < 0 || snapshotIntervalSeconds <= 0 || snapshotAfterRecords <= 0) {
+            throw new IllegalArgumentException("Invalid durable repository settings");
+        }
+        this.directory = Paths.get(directory);
+        this.snapshotAfterRecords = snapshotAfterRecords;
+        Files.createDirectories(this.directory);
+
+        long lastSequence = recover();
+        this.publishedSequence = lastSequence;
+        this.log = new WriteAheadLog(this.directory, lastSequence, TimeUnit.MILLISECONDS.toNanos(groupCommitMillis));
+
+        snapshotter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "flight-snapshot");
+            thread.setDaemon(true);
+            return thread;
+        });
+        snapshotter.scheduleWithFixedDelay(this::snapshotQuietly, snapshotIntervalSeconds, snapshotIntervalSeconds,
+                TimeUnit.SECONDS);
+    }
+
+    @Override
+    public void addFlight(Flight flight) {
+        upsertFlights(List.of(flight));
+    }
+
+    @Override
+    public void addFlights(Collection<Flight> flights) {
+        upsertFlights(flights);
+    }
+
+    @Override
+    public List<Flight> upsertFlights(Collection<Flight> flights) {
+        if (flights.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long sequence = 0;
+        long turn;
+        int logged = 0;
+        RuntimeException failure = null;
+        Map<String, PendingChange> changes = new LinkedHashMap<>();
+        synchronized (writeLock) {
+            for (Flight flight : flights) {
+                try {
+                    sequence = append(WriteAheadLog.OP_ADD, flight);
+                } catch (RuntimeException e) {
+                    failure = e;
+                    break;
+                }
+                logged++;
+                PendingChange change = new PendingChange(flight);
+                changes.put(flight.getFlightId(), change);
+                pending.put(flight.getFlightId(), change);
+            }
+            if (logged == 0) {
+                throw failure;
+            }
+            recordsSinceSnapshot += logged;
+            turn = ++issuedTurns;
+        }
+        // One fsync covers the whole batch; a batch only partly logged is not applied at all
+        List<Flight> displaced = commit(turn, sequence, failure, changes, () -> catalog.upsertFlights(flights));
+        snapshotIfDue();
+        return displaced;
+    }
+
+    @Override
+    public Optional<Flight> updateFlight(Flight flight) {
+        long sequence;
+        long turn;
+        PendingChange change = new PendingChange(flight);
+        synchronized (writeLock) {
+            // Only a flight that exists is logged - replay applies an update as an add
+            if (current(flight.getFlightId()).isEmpty()) {
+                return Optional.empty();
+            }
+            sequence = append(WriteAheadLog.OP_ADD, flight);
+            pending.put(flight.getFlightId(), change);
+            recordsSinceSnapshot++;
+            turn = ++issuedTurns;
+        }
+        Optional<Flight> previous = commit(turn, sequence, null, Map.of(flight.getFlightId(), change),
+                () -> catalog.updateFlight(flight));
+        snapshotIfDue();
+        return previous;
+    }
+
+    @Override
+    public Optional<Flight> removeFlight(String flightId) {
+        long sequence;
+        long turn;
+        PendingChange change = new PendingChange(null);
+        synchronized (writeLock) {
+            Optional<Flight> stored = current(flightId);
+            if (stored.isEmpty()) {
+                return Optional.empty();
+            }
+            sequence = append(WriteAheadLog.OP_REMOVE, stored.get());
+            pending.put(flightId, change);
+            recordsSinceSnapshot++;
+            turn = ++issuedTurns;
+        }
+        Optional<Flight> previous = commit(turn, sequence, null, Map.of(flightId, change),
+                () -> catalog.removeFlight(flightId));
+        snapshotIfDue();
+        return previous;
+    }
+
+    /**
+     * The flight as it will be once every logged change has landed - caller holds writeLock
+     */
+    private Optional<Flight> current(String flightId) {
+        PendingChange change = pending.get(flightId);
+        return change != null ? Optional.ofNullable(change.flight) : catalog.findFlight(flightId);
+    }
+
+    /**
+     * Wait until the write's records are durable, then apply its change to the catalog on
+     * its turn, so changes land in log order. If logging or the commit failed the change is
+     * skipped - the turn is still taken, so later writes are not held up - and the failure
+     * is thrown.
+     */
+    private <T> T commit(long turn, long sequence, RuntimeException appendFailure, Map<String, PendingChange> changes,
+            Supplier<T> change) {
+        RuntimeException failure = appendFailure;
+        if (failure == null) {
+            try {
+                awaitDurable(sequence);
+            } catch (UncheckedIOException e) {
+                failure = e;
+            }
+        }
+        T result = null;
+        boolean interrupted = false;
+        try {
+            synchronized (publishLock) {
+                while (publishedTurn != turn - 1) {
+                    try {
+                        publishLock.wait();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+                try {
+                    if (failure == null) {
+                        result = change.get();
+                    }
+                } finally {
+                    publishedTurn = turn;
+                    publishedSequence = sequence;
+                    publishLock.notifyAll();
+                }
+            }
+        } finally {
+            synchronized (writeLock) {
+                for (Map.Entry<String, PendingChange> entry : changes.entrySet()) {
+                    pending.remove(entry.getKey(), entry.getValue());
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return result;
+    }
+
+    @Override
+    public Optional<Flight> findFlight(String flightId) {
+        return catalog.findFlight(flightId);
+    }
+
+    @Override
+    public List<Flight> searchFlights(String source, String destination, LocalDate journeyDate) {
+        return catalog.searchFlights(source, destination, journeyDate);
+    }
+
+    @Override
+    public NavigableMap<LocalDate, List<Flight>> searchFlightsBetween(String source, String destination,
+            LocalDate fromDate, LocalDate toDate) {
+        return catalog.searchFlightsBetween(source, destination, fromDate, toDate);
+    }
+
+    @Override
+    public List<Flight> queryFlights(FlightQuery query, ToIntFunction<Flight> availableSeats) {
+        return catalog.queryFlights(query, availableSeats);
+    }
+
+    @Override
+    public List<Flight> getAllFlights() {
+        return catalog.getAllFlights();
+    }
+
+    @Override
+    public List<Flight> getFlights(String afterFlightId, int limit) {
+        return catalog.getFlights(afterFlightId, limit);
+    }
+
+    /**
+     * Write a snapshot of the current catalog and delete the log segments it covers
+     */
+    public void snapshot() throws IOException {
+        if (!snapshotRunning.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long sequence;
+            long rotation;
+            FlightIdIndex flights;
+            synchronized (writeLock) {
+                // Catalog and sequence captured together - the snapshot holds exactly the records up to sequence
+                synchronized (publishLock) {
+                    sequence = publishedSequence;
+                    flights = catalog.currentSnapshot().getFlightsById();
+                }
+                if (sequence == snapshotSequence) {
+                    return; // nothing changed since the last snapshot
+                }
+                recordsSinceSnapshot = 0;
+                rotation = log.requestRotation();
+            }
+
+            long start = System.nanoTime();
+            SnapshotStore.write(directory.resolve(SNAPSHOT_FILE), sequence, flights.toList());
+            synchronized (writeLock) {
+                snapshotSequence = sequence;
+            }
+            log.awaitRotation(rotation);
+            log.deleteSegmentsUpTo(sequence);
+            logger.info("Snapshot of {} flights at sequence {} written in {} ms", flights.size(), sequence,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        } finally {
+            snapshotRunning.set(false);
+        }
+    }
+
+    /**
+     * Final snapshot on shutdown, so the next start has no log to replay
+     */
+    @PreDestroy
+    public void close() throws IOException {
+        // Let a running snapshot finish - interrupting it would close the file channel mid-write
+        snapshotter.shutdown();
+        try {
+            snapshotter.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            snapshot();
+        } finally {
+            log.close();
+        }
+    }
+
+    /**
+     * Load the latest snapshot, then replay the log records written after it
+     *
+     * @return The last log sequence applied
+     */
+    private long recover() throws IOException {
+        long start = System.nanoTime();
+        int restored = 0;
+
+        Path snapshotFile = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshotFile)) {
+            SnapshotStore.Contents contents = SnapshotStore.read(snapshotFile);
+            snapshotSequence = contents.getSequence();
+            restored = contents.getFlights().size();
+            // Already in ID order - a single bulk insert builds the whole catalog
+            catalog.addFlights(contents.getFlights());
+        }
+
+        List<Flight> replayed = new ArrayList<>();
+        int[] replayCount = new int[1];
+        long lastSequence = WriteAheadLog.replay(directory, snapshotSequence, (operation, flight) -> {
+            if (operation == WriteAheadLog.OP_REMOVE) {
+                // Adds logged before the removal must land first
+                if (!replayed.isEmpty()) {
+                    catalog.addFlights(replayed);
+                    replayed.clear();
+                }
+                catalog.removeFlight(flight.getFlightId());
+                replayCount[0]++;
+                return;
+            }
+            if (operation != WriteAheadLog.OP_ADD) {
+                throw new IllegalStateException("Unknown log operation: " + operation);
+            }
+            replayed.add(flight);
+            replayCount[0]++;
+            if (replayed.size() == REPLAY_BATCH_SIZE) {
+                catalog.addFlights(replayed);
+                replayed.clear();
+            }
+        });
+        if (!replayed.isEmpty()) {
+            catalog.addFlights(replayed);
+        }
+
+        logger.info("Recovered {} flights from snapshot and {} from the log in {} ms", restored, replayCount[0],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return lastSequence;
+    }
+
+    private long append(byte operation, Flight flight) {
+        try {
+            return log.append(operation, flight);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not log flight " + flight.getFlightId(), e);
+        }
+    }
+
+    private void awaitDurable(long sequence) {
+        try {
+            log.awaitDurable(sequence);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not make flight changes durable", e);
+        }
+    }
+
+    /**
+     * Start a background snapshot once enough records have been logged since the last one
+     */
+    private void snapshotIfDue() {
+        boolean due;
+        synchronized (writeLock) {
+            due = recordsSinceSnapshot >= snapshotAfterRecords;
+        }
+        if (due && !snapshotRunning.get()) {
+            snapshotter.execute(this::snapshotQuietly);
+        }
+    }
+
+    /**
+     * A logged change to one flight awaiting its turn in the catalog - the new version, or
+     * null for a removal. Compared by identity, so a writer only clears its own change.
+     */
+    private static final class PendingChange {
+        private final Flight flight;
+
+        PendingChange(Flight flight) {
+            this.flight = flight;
+        }
+    }
+
+    private void snapshotQuietly() {
+        try {
+            snapshot();
+        } catch (IOException e) {
+            logger.error("Snapshot failed", e);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable index of flights ordered by flight ID.
+ * Flights are kept in small sorted chunks so an update copies one chunk and the
+ * chunk directory instead of the whole catalog (path copying).
+ *
+ * Each entry records the ID, route and date the flight was indexed under. Flight has
+ * setters, so a stored instance may since have been changed in place; the recorded
+ * values still say where it sits, and find it again in O(log n).
+ */
+final class FlightIdIndex {
+
+    static final FlightIdIndex EMPTY = new FlightIdIndex(new Entry[0][], 0);
+
+    // Chunks are split in half once they grow past this size
+    private static final int MAX_CHUNK_SIZE = 512;
+
+    // Chunk size used by bulk inserts - leaves room for later single inserts before a split
+    private static final int BULK_CHUNK_SIZE = 384;
+
+    // Sorted, non-empty chunks - every ID in chunk i is less than every ID in chunk i + 1
+    private final Entry[][] chunks;
+    private final int size;
+
+    private FlightIdIndex(Entry[][] chunks, int size) {
+        this.chunks = chunks;
+        this.size = size;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Look up a flight by ID - O(log n)
+     */
+    Flight get(String flightId) {
+        Entry entry = entry(flightId);
+        return entry == null ? null : entry.flight;
+    }
+
+    /**
+     * Look up a flight's entry by ID, or null - O(log n)
+     */
+    Entry entry(String flightId) {
+        if (chunks.length == 0) {
+            return null;
+        }
+        Entry[] chunk = chunks[chunkFor(flightId)];
+        int pos = indexOf(chunk, flightId);
+        return pos >= 0 ? chunk[pos] : null;
+    }
+
+    /**
+     * Returns a new index containing the entry, replacing any entry with the same ID
+     */
+    FlightIdIndex put(Entry flight) {
+        String flightId = flight.flightId;
+        if (chunks.length == 0) {
+            return new FlightIdIndex(new Entry[][] { { flight } }, 1);
+        }
+
+        int chunkIndex = chunkFor(flightId);
+        Entry[] chunk = chunks[chunkIndex];
+        int pos = indexOf(chunk, flightId);
+
+        if (pos >= 0) {
+            // Same ID - swap the entry, structure is unchanged
+            Entry[] copy = chunk.clone();
+            copy[pos] = flight;
+            Entry[][] directory = chunks.clone();
+            directory[chunkIndex] = copy;
+            return new FlightIdIndex(directory, size);
+        }
+
+        int insertAt = -pos - 1;
+        Entry[] grown = new Entry[chunk.length + 1];
+        System.arraycopy(chunk, 0, grown, 0, insertAt);
+        grown[insertAt] = flight;
+        System.arraycopy(chunk, insertAt, grown, insertAt + 1, chunk.length - insertAt);
+
+        if (grown.length <= MAX_CHUNK_SIZE) {
+            Entry[][] directory = chunks.clone();
+            directory[chunkIndex] = grown;
+            return new FlightIdIndex(directory, size + 1);
+        }
+
+        // Split the full chunk in two
+        int half = grown.length / 2;
+        Entry[][] directory = new Entry[chunks.length + 1][];
+        System.arraycopy(chunks, 0, directory, 0, chunkIndex);
+        directory[chunkIndex] = Arrays.copyOfRange(grown, 0, half);
+        directory[chunkIndex + 1] = Arrays.copyOfRange(grown, half, grown.length);
+        System.arraycopy(chunks, chunkIndex + 1, directory, chunkIndex + 2, chunks.length - chunkIndex - 1);
+        return new FlightIdIndex(directory, size + 1);
+    }
+
+    /**
+     * Returns a new index without the flight with the given ID, or this index if there is none
+     */
+    FlightIdIndex remove(String flightId) {
+        if (chunks.length == 0) {
+            return this;
+        }
+        int chunkIndex = chunkFor(flightId);
+        Entry[] chunk = chunks[chunkIndex];
+        int pos = indexOf(chunk, flightId);
+        if (pos < 0) {
+            return this;
+        }
+
+        if (chunk.length == 1) {
+            // Last flight of its chunk - drop the chunk, chunks are never empty
+            Entry[][] directory = new Entry[chunks.length - 1][];
+            System.arraycopy(chunks, 0, directory, 0, chunkIndex);
+            System.arraycopy(chunks, chunkIndex + 1, directory, chunkIndex, chunks.length - chunkIndex - 1);
+            return new FlightIdIndex(directory, size - 1);
+        }
+        Entry[] shrunk = new Entry[chunk.length - 1];
+        System.arraycopy(chunk, 0, shrunk, 0, pos);
+        System.arraycopy(chunk, pos + 1, shrunk, pos, chunk.length - pos - 1);
+        Entry[][] directory = chunks.clone();
+        directory[chunkIndex] = shrunk;
+        return new FlightIdIndex(directory, size - 1);
+    }
+
+    /**
+     * Returns a new index containing all the flights, replacing flights with the same IDs.
+     * One merge pass over the touched chunks - untouched chunks are shared.
+     *
+     * @param sorted   Entries sorted by flight ID, without duplicate IDs
+     * @param replaced Receives the entries that were replaced - found during the merge,
+     *                 so no separate lookup is needed
+     */
+    FlightIdIndex putAll(Entry[] sorted, List<Entry> replaced) {
+        List<Entry[]> directory = new ArrayList<>(chunks.length + sorted.length / BULK_CHUNK_SIZE + 1);
+        int added = 0;
+        int next = 0;
+
+        for (int c = 0; c < chunks.length; c++) {
+            Entry[] chunk = chunks[c];
+            // New flights up to this chunk's last ID belong here; the last chunk takes the rest
+            int end = c == chunks.length - 1
+                    ? sorted.length
+                    : upperBound(sorted, next, chunk[chunk.length - 1].flightId);
+
+            if (end == next) {
+                directory.add(chunk);
+                continue;
+            }
+
+            Entry[] merged = new Entry[chunk.length + end - next];
+            int length = 0;
+            int i = 0;
+            while (i < chunk.length || next < end) {
+                int cmp = i == chunk.length ? 1
+                        : next == end ? -1
+                        : chunk[i].flightId.compareTo(sorted[next].flightId);
+                if (cmp < 0) {
+                    merged[length++] = chunk[i++];
+                } else if (cmp > 0) {
+                    merged[length++] = sorted[next++];
+                    added++;
+                } else {
+                    // Same ID - the new flight replaces the old one
+                    replaced.add(chunk[i++]);
+                    merged[length++] = sorted[next++];
+                }
+            }
+            addChunks(directory, merged, length);
+        }
+
+        if (chunks.length == 0) {
+            addChunks(directory, sorted, sorted.length);
+            added = sorted.length;
+        }
+
+        return new FlightIdIndex(directory.toArray(new Entry[0][]), size + added);
+    }
+
+    /**
+     * All flights in flight ID order
+     */
+    List<Flight> toList() {
+        List<Flight> flights = new ArrayList<>(size);
+        for (Entry[] chunk : chunks) {
+            for (Entry entry : chunk) {
+                flights.add(entry.flight);
+            }
+        }
+        return flights;
+    }
+
+    /**
+     * Up to limit flights with IDs strictly after the cursor, in flight ID order.
+     * A null cursor starts from the first flight. Cost is O(log n + limit).
+     */
+    List<Flight> page(String afterFlightId, int limit) {
+        List<Flight> flights = new ArrayList<>(Math.min(limit, size));
+        if (chunks.length == 0) {
+            return flights;
+        }
+
+        int chunkIndex = 0;
+        int pos = 0;
+        if (afterFlightId != null) {
+            chunkIndex = chunkFor(afterFlightId);
+            pos = indexOf(chunks[chunkIndex], afterFlightId);
+            pos = pos >= 0 ? pos + 1 : -pos - 1;
+        }
+
+        for (; chunkIndex < chunks.length && flights.size() < limit; chunkIndex++, pos = 0) {
+            Entry[] chunk = chunks[chunkIndex];
+            int end = Math.min(chunk.length, pos + limit - flights.size());
+            for (int i = pos; i < end; i++) {
+                flights.add(chunk[i].flight);
+            }
+        }
+        return flights;
+    }
+
+    /**
+     * Adds the first length flights as one chunk, or as bulk-sized chunks if too large
+     */
+    private static void addChunks(List<Entry[]> directory, Entry[] flights, int length) {
+        if (length <= MAX_CHUNK_SIZE) {
+            directory.add(length == flights.length ? flights : Arrays.copyOf(flights, length));
+            return;
+        }
+        for (int from = 0; from < length; from += BULK_CHUNK_SIZE) {
+            directory.add(Arrays.copyOfRange(flights, from, Math.min(length, from + BULK_CHUNK_SIZE)));
+        }
+    }
+
+    /**
+     * First index in [from, sorted.length) whose ID is greater than flightId
+     */
+    private static int upperBound(Entry[] sorted, int from, String flightId) {
+        int low = from;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid].flightId.compareTo(flightId) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Finds the chunk that holds (or would hold) the given ID
+     */
+    private int chunkFor(String flightId) {
+        int low = 0;
+        int high = chunks.length - 1;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            Entry[] chunk = chunks[mid];
+            if (chunk[chunk.length - 1].flightId.compareTo(flightId) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Binary search within a chunk, same contract as Arrays.binarySearch
+     */
+    private static int indexOf(Entry[] chunk, String flightId) {
+        int low = 0;
+        int high = chunk.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = chunk[mid].flightId.compareTo(flightId);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * A stored flight with the ID, route and date bucket it was indexed under
+     */
+    static final class Entry {
+        final String flightId;
+        final Flight flight;
+        final long routeKey;
+        final LocalDate date;
+
+        Entry(Flight flight, long routeKey) {
+            this.flightId = flight.getFlightId();
+            this.flight = flight;
+            this.routeKey = routeKey;
+            this.date = flight.getJourneyDate();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Merges flight lists that are each in flight ID order, for repositories that split the
+ * catalog and answer catalog-wide reads from all of their parts
+ */
+final class FlightIdMerge {
+
+    private FlightIdMerge() {
+    }
+
+    /**
+     * K-way merge of lists sorted by flight ID, keeping the first limit flights
+     */
+    static List<Flight> merge(List<List<Flight>> sorted, int limit) {
+        long total = 0;
+        List<Flight> only = null;
+        int nonEmpty = 0;
+        for (List<Flight> flights : sorted) {
+            total += flights.size();
+            if (!flights.isEmpty()) {
+                only = flights;
+                nonEmpty++;
+            }
+        }
+        // One partition holds everything (or there is only one) - its list is already the answer
+        if (nonEmpty == 1 && only.size() <= limit) {
+            return only;
+        }
+        List<Flight> merged = new ArrayList<>((int) Math.min(total, limit));
+
+        // Heap entries are {list, position}, ordered by the flight ID at the position
+        PriorityQueue<int[]> heads = new PriorityQueue<>(Math.max(1, sorted.size()),
+                (a, b) -> RouteSchedule.BY_FLIGHT_ID.compare(sorted.get(a[0]).get(a[1]), sorted.get(b[0]).get(b[1])));
+        for (int i = 0; i < sorted.size(); i++) {
+            if (!sorted.get(i).isEmpty()) {
+                heads.add(new int[] { i, 0 });
+            }
+        }
+        while (merged.size() < limit && !heads.isEmpty()) {
+            int[] head = heads.poll();
+            List<Flight> flights = sorted.get(head[0]);
+            merged.add(flights.get(head[1]));
+            if (++head[1] < flights.size()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+}
@@ -0,0 +1,32 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Binary encoding of a single flight, shared by the write-ahead log and snapshots.
+ */
+final class FlightRecordCodec {
+
+    private FlightRecordCodec() {
+    }
+
+    static void write(DataOutput out, Flight flight) throws IOException {
+        out.writeUTF(flight.getFlightId());
+        out.writeUTF(flight.getAirlines());
+        out.writeUTF(flight.getSource());
+        out.writeUTF(flight.getDestination());
+        out.writeDouble(flight.getFare());
+        out.writeInt((int) flight.getJourneyDate().toEpochDay());
+        out.writeInt(flight.getSeatCount());
+    }
+
+    static Flight read(DataInput in) throws IOException {
+        return new Flight(in.readUTF(), in.readUTF(), in.readUTF(), in.readUTF(), in.readDouble(),
+                LocalDate.ofEpochDay(in.readInt()), in.readInt());
+    }
+}
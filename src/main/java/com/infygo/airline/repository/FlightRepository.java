@@ -1,8 +1,14 @@
 package com.infygo.airline.repository;
 
 import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
 
 /**
  * Repository interface for flight data operations.
@@ -10,26 +16,111 @@ import java.util.List;
  */
 public interface FlightRepository {
     /**
-     * Add a new flight to the system
+     * Add a new flight to the system. A stored flight with the same ID is replaced,
+     * in every index, as with updateFlight.
      * 
      * @param flight The flight to add
      */
     void addFlight(Flight flight);
 
+    /**
+     * Add a batch of flights in one operation. Stored flights with the same IDs are
+     * replaced; within the batch the last flight with an ID wins.
+     * 
+     * @param flights The flights to add
+     */
+    void addFlights(Collection<Flight> flights);
+
+    /**
+     * Add or replace a batch of flights in one operation, as addFlights
+     * 
+     * @param flights The flights to add or replace
+     * @return The flights that were displaced: the previously stored versions and
+     *         earlier flights of the batch with the same ID, in no particular order
+     */
+    List<Flight> upsertFlights(Collection<Flight> flights);
+
+    /**
+     * Replace a stored flight with a new version - route, date and fare may all change
+     * 
+     * @param flight The new version; its flight ID names the flight to replace
+     * @return The replaced version, or empty (and nothing stored) if no flight has this ID
+     */
+    Optional<Flight> updateFlight(Flight flight);
+
+    /**
+     * Remove a flight from the system
+     * 
+     * @param flightId The flight ID
+     * @return The removed flight, or empty if no flight has this ID
+     */
+    Optional<Flight> removeFlight(String flightId);
+
+    /**
+     * Look up a flight by its ID
+     * 
+     * @param flightId The flight ID
+     * @return The flight, or empty if no flight has this ID
+     */
+    Optional<Flight> findFlight(String flightId);
+
     /**
      * Search for flights based on route and date
      * 
      * @param source      Origin city
      * @param destination Destination city
      * @param journeyDate Date of travel
-     * @return List of matching flights
+     * @return Unmodifiable list of matching flights, sorted by flight ID
      */
     List<Flight> searchFlights(String source, String destination, LocalDate journeyDate);
 
+    /**
+     * Search for flights on a route over a range of dates
+     * 
+     * @param source      Origin city
+     * @param destination Destination city
+     * @param fromDate    First date of travel (inclusive)
+     * @param toDate      Last date of travel (inclusive)
+     * @return Unmodifiable map of date to flights on that date, ordered by date;
+     *         days without flights are absent
+     */
+    NavigableMap<LocalDate, List<Flight>> searchFlightsBetween(String source, String destination,
+            LocalDate fromDate, LocalDate toDate);
+
+    /**
+     * Run a filtered, ranked query and return only the best matches
+     * 
+     * @param query          Route, dates, filters, sort order and limit
+     * @param availableSeats Seats still available on a flight, used by the minimum
+     *                       seats filter and the seats sort order
+     * @return At most query.getLimit() flights, best first
+     */
+    List<Flight> queryFlights(FlightQuery query, ToIntFunction<Flight> availableSeats);
+
     /**
      * Get all flights in the system
      * 
      * @return List of all available flights
      */
     List<Flight> getAllFlights();
+
+    /**
+     * Get one page of flights in flight ID order
+     * 
+     * @param afterFlightId Cursor - the last flight ID of the previous page, or null
+     *                      for the first page
+     * @param limit         Maximum number of flights to return
+     * @return Flights with IDs after the cursor; fewer than limit on the last page
+     */
+    List<Flight> getFlights(String afterFlightId, int limit);
+
+    /**
+     * Register the callback for flights the repository drops by itself, such as departed
+     * flights, so that state kept about them elsewhere can go too. Called on the thread that
+     * dropped them, after they are gone. Repositories that never drop flights ignore it.
+     * 
+     * @param listener Receives each batch of dropped flights
+     */
+    default void setExpiryListener(Consumer<List<Flight>> listener) {
+    }
 }
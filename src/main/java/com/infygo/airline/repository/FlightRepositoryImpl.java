@@ -1,66 +1,266 @@
 package com.infygo.airline.repository;
 
 import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.ToIntFunction;
 
 /**
  * In-memory implementation of the FlightRepository interface.
  * Uses optimized data structures for improved search performance.
+ *
+ * Safe for concurrent use: readers work on an immutable catalog snapshot and never
+ * block, while writers build the next snapshot and publish it atomically.
  */
 @Repository
+@ConditionalOnProperty(name = "infygo.repository.mode", havingValue = "memory", matchIfMissing = true)
 public class FlightRepositoryImpl implements FlightRepository {
 
-    // Primary storage for all flights - O(1) lookup by ID
-    private final Map<String, Flight> flightMap = new HashMap<>();
+    // Latest published catalog version - read without locking
+    private final AtomicReference<CatalogSnapshot> catalog = new AtomicReference<>(CatalogSnapshot.EMPTY);
 
-    // Index for faster route-based search - O(1) lookup for source-destination
-    // pairs
-    private final Map<String, List<Flight>> routeIndex = new HashMap<>();
+    // Serializes writers so every change produces exactly one new version
+    private final Object writeLock = new Object();
 
     @Override
     public void addFlight(Flight flight) {
-        // Add to main storage
-        flightMap.put(flight.getFlightId(), flight);
+        store(flight);
+    }
+
+    /**
+     * Store a flight, replacing the stored flight with its ID - the previous version
+     * leaves its route/date bucket in the same new catalog version
+     *
+     * @return The replaced flight, or null
+     */
+    private Flight store(Flight flight) {
+        synchronized (writeLock) {
+            CatalogSnapshot current = catalog.get();
+            Flight previous = current.getFlightsById().get(flight.getFlightId());
+            catalog.set(current.withFlight(flight, previous));
+            return previous;
+        }
+    }
+
+    @Override
+    public void addFlights(Collection<Flight> flights) {
+        upsertFlights(flights);
+    }
+
+    @Override
+    public List<Flight> upsertFlights(Collection<Flight> flights) {
+        if (flights.size() == 1) {
+            Flight previous = store(flights.iterator().next());
+            return previous == null ? new ArrayList<>() : new ArrayList<>(List.of(previous));
+        }
+
+        // Prepare the batch outside the lock - sorted for the ID index, grouped for the route index
+        Flight[] sorted = flights.toArray(new Flight[0]);
+        Arrays.sort(sorted, RouteSchedule.BY_FLIGHT_ID);
+
+        // Stable sort keeps duplicates in arrival order - the last one wins, as with addFlight
+        List<Flight> displaced = new ArrayList<>();
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct > 0 && sorted[distinct - 1].getFlightId().equals(sorted[i].getFlightId())) {
+                displaced.add(sorted[distinct - 1]);
+                sorted[distinct - 1] = sorted[i];
+            } else {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        sorted = Arrays.copyOf(sorted, distinct);
+
+        // Grouped in ID order, so each date bucket arrives presorted and its sort is a single pass
+        Map<RouteKey, List<Flight>> byRoute = new HashMap<>();
+        for (Flight flight : sorted) {
+            byRoute.computeIfAbsent(new RouteKey(flight.getSource(), flight.getDestination()),
+                    k -> new ArrayList<>()).add(flight);
+        }
 
-        // Update route index for faster searching
-        String routeKey = createRouteKey(flight.getSource(), flight.getDestination());
-        routeIndex.computeIfAbsent(routeKey, k -> new ArrayList<>()).add(flight);
+        // Stored versions the batch replaces are found by the ID merge itself
+        List<Flight> replaced = new ArrayList<>();
+        synchronized (writeLock) {
+            catalog.set(catalog.get().withFlights(sorted, byRoute.values(), replaced));
+        }
+        displaced.addAll(replaced);
+        return displaced;
+    }
+
+    @Override
+    public Optional<Flight> updateFlight(Flight flight) {
+        synchronized (writeLock) {
+            CatalogSnapshot current = catalog.get();
+            Flight previous = current.getFlightsById().get(flight.getFlightId());
+            if (previous != null) {
+                catalog.set(current.withFlight(flight, previous));
+            }
+            return Optional.ofNullable(previous);
+        }
+    }
+
+    @Override
+    public Optional<Flight> removeFlight(String flightId) {
+        synchronized (writeLock) {
+            CatalogSnapshot current = catalog.get();
+            Flight previous = current.getFlightsById().get(flightId);
+            if (previous != null) {
+                catalog.set(current.withoutFlight(previous));
+            }
+            return Optional.ofNullable(previous);
+        }
+    }
+
+    @Override
+    public Optional<Flight> findFlight(String flightId) {
+        return Optional.ofNullable(catalog.get().getFlightsById().get(flightId));
     }
 
     @Override
     public List<Flight> searchFlights(String source, String destination, LocalDate journeyDate) {
-        // Use the route index for faster lookup - O(n) where n is only flights on this
-        // route
-        String routeKey = createRouteKey(source, destination);
-        List<Flight> routeFlights = routeIndex.getOrDefault(routeKey, new ArrayList<>());
+        // Route + date index - direct lookup of a bucket that is already sorted by flight ID
+        return catalog.get().getRoute(source, destination).getFlights(journeyDate);
+    }
+
+    @Override
+    public NavigableMap<LocalDate, List<Flight>> searchFlightsBetween(String source, String destination,
+            LocalDate fromDate, LocalDate toDate) {
+        // Range view over the route's ordered date index - only days with flights are visited
+        return catalog.get().getRoute(source, destination).getFlightsBetween(fromDate, toDate);
+    }
 
-        // Filter by date - this is now much faster as we're only searching relevant
-        // flights
-        return routeFlights.stream()
-                .filter(flight -> flight.getJourneyDate().equals(journeyDate))
-                .sorted((f1, f2) -> f1.getFlightId().compareTo(f2.getFlightId())) // Sort by flight ID
-                .collect(Collectors.toList());
+    @Override
+    public List<Flight> queryFlights(FlightQuery query, ToIntFunction<Flight> availableSeats) {
+        // Filters run inside the route/date buckets and only the best K are ever kept
+        TopKFlights topK = new TopKFlights(query, availableSeats);
+        for (List<Flight> bucket : catalog.get().getRoute(query.getSource(), query.getDestination())
+                .getFlightsBetween(query.getFromDate(), query.getToDate()).values()) {
+            for (Flight flight : bucket) {
+                topK.offer(flight);
+            }
+        }
+        return topK.results();
     }
 
     @Override
     public List<Flight> getAllFlights() {
-        // Return a new sorted list to prevent external modification of our storage
-        return flightMap.values().stream()
-                .sorted((f1, f2) -> f1.getFlightId().compareTo(f2.getFlightId())) // Sort by flight ID
-                .collect(Collectors.toList());
+        // The ID index is already sorted - copy it so callers cannot modify our storage
+        return catalog.get().getFlightsById().toList();
+    }
+
+    @Override
+    public List<Flight> getFlights(String afterFlightId, int limit) {
+        // Cursor lookup in the ID index - cost depends on the page size, not the catalog size
+        return catalog.get().getFlightsById().page(afterFlightId, limit);
+    }
+
+    /**
+     * Version of the currently published catalog, incremented on every change
+     */
+    public long getCatalogVersion() {
+        return catalog.get().getVersion();
+    }
+
+    /**
+     * Checks one published version against itself: the flight stored under the ID is in its
+     * route/date bucket, and every flight in that bucket is the one stored under its own ID.
+     * For stress checks under concurrent writers.
+     *
+     * @return The flight stored under the ID, or null
+     * @throws IllegalStateException If the ID index and the route index disagree
+     */
+    public Flight checkConsistency(String flightId) {
+        CatalogSnapshot snapshot = catalog.get();
+        Flight flight = snapshot.getFlightsById().get(flightId);
+        if (flight != null) {
+            List<Flight> bucket = checkBucket(snapshot, flight.getSource(), flight.getDestination(),
+                    flight.getJourneyDate());
+            if (bucket.stream().noneMatch(stored -> stored == flight)) {
+                throw new IllegalStateException("Version " + snapshot.getVersion() + ": flight " + flightId
+                        + " is in the ID index but not in its route/date bucket");
+            }
+        }
+        return flight;
+    }
+
+    /**
+     * Checks one published version's route/date bucket: every flight in it is the one stored
+     * under its own ID. For stress checks under concurrent writers.
+     *
+     * @return The number of flights in the bucket
+     * @throws IllegalStateException If the ID index and the route index disagree
+     */
+    public int checkConsistency(String source, String destination, LocalDate journeyDate) {
+        return checkBucket(catalog.get(), source, destination, journeyDate).size();
+    }
+
+    private static List<Flight> checkBucket(CatalogSnapshot snapshot, String source, String destination,
+            LocalDate journeyDate) {
+        List<Flight> bucket = snapshot.getRoute(source, destination).getFlights(journeyDate);
+        for (Flight flight : bucket) {
+            if (snapshot.getFlightsById().get(flight.getFlightId()) != flight) {
+                throw new IllegalStateException("Version " + snapshot.getVersion() + ": flight "
+                        + flight.getFlightId() + " in the " + source + "-" + destination + " bucket for "
+                        + journeyDate + " is not the one in the ID index");
+            }
+        }
+        return bucket;
     }
 
     /**
-     * Creates a unique key for route indexing
+     * The currently published catalog version, for callers that need a consistent view
      */
-    private String createRouteKey(String source, String destination) {
-        return source.toLowerCase() + "-" + destination.toLowerCase();
+    CatalogSnapshot currentSnapshot() {
+        return catalog.get();
+    }
+
+    /**
+     * Route of a batch flight, matching city names ignoring case - groups a batch before
+     * the write lock is taken without building lowercased copies of the names
+     */
+    private static final class RouteKey {
+        private final String source;
+        private final String destination;
+        private final int hash;
+
+        RouteKey(String source, String destination) {
+            this.source = source;
+            this.destination = destination;
+            this.hash = foldedHash(source) * 31 + foldedHash(destination);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RouteKey)) {
+                return false;
+            }
+            RouteKey other = (RouteKey) o;
+            return source.equalsIgnoreCase(other.source) && destination.equalsIgnoreCase(other.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        private static int foldedHash(String value) {
+            int h = 0;
+            for (int i = 0; i < value.length(); i++) {
+                h = 31 * h + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+            }
+            return h;
+        }
     }
 }
@@ -0,0 +1,49 @@
+package com.infygo.airline.repository;
+
+import java.util.Arrays;
+
+/**
+ * Codes for airline or city names, for stores that keep names as ints.
+ * Each distinct spelling gets a name code, used to show the name as it was entered;
+ * spellings that differ only in case share a key code, used for matching.
+ *
+ * Not thread-safe - callers guard it with their own lock.
+ */
+final class NameDictionary {
+
+    private final StringDictionary names = new StringDictionary(false);
+    private final StringDictionary keys = new StringDictionary(true);
+
+    // Name code -> key code
+    private int[] keyOf = new int[16];
+
+    /**
+     * Name code of the spelling, adding it if it is new
+     */
+    int intern(String name) {
+        int code = names.intern(name);
+        if (code == keyOf.length) {
+            keyOf = Arrays.copyOf(keyOf, code * 2);
+        }
+        keyOf[code] = keys.intern(name);
+        return code;
+    }
+
+    String get(int code) {
+        return names.get(code);
+    }
+
+    /**
+     * Key code shared by every spelling of the name code
+     */
+    int keyOf(int code) {
+        return keyOf[code];
+    }
+
+    /**
+     * Key code of the name in any case, or StringDictionary.NOT_FOUND - allocates nothing
+     */
+    int findKey(String name) {
+        return keys.find(name);
+    }
+}
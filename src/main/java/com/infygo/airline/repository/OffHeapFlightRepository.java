@@ -0,0 +1,551 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntBinaryOperator;
+import java.util.function.ToIntFunction;
+
+/**
+ * Off-heap implementation of the FlightRepository interface.
+ *
+ * Flights are fixed-width records in direct memory (see OffHeapRecords), and every index
+ * over them is off-heap too: a chained hash table from flight ID to record, an
+ * open-addressing table from (route, day) to the first record of a chain kept in flight
+ * ID order, and an array of records in flight ID order for paging. The indexes are paged
+ * (see OffHeapInts) and grow by adding pages, never by reallocating. Only the airline and
+ * city dictionaries and the Flight objects handed to callers live on the Java heap, so
+ * GC work does not grow with the catalog. Size -XX:MaxDirectMemorySize for about
+ * 80 bytes per flight.
+ *
+ * Reads share a read lock; writes take the write lock.
+ */
+@Repository
+@ConditionalOnProperty(name = "infygo.repository.mode", havingValue = "offheap")
+public class OffHeapFlightRepository implements FlightRepository {
+
+    // Route/day table slot, in ints: source key + 1 (0 = empty slot), destination key, day, first record + 1
+    private static final int SLOT_SIZE = 4;
+    private static final int SLOT_DESTINATION = 1;
+    private static final int SLOT_DAY = 2;
+    private static final int SLOT_FIRST = 3;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final OffHeapRecords records = new OffHeapRecords();
+
+    // Airline and city name codes - the only per-name data on the heap
+    private final NameDictionary airlines = new NameDictionary();
+    private final NameDictionary cities = new NameDictionary();
+
+    // Flight ID hash buckets: first record + 1, chained through the records
+    private final OffHeapInts idBuckets = new OffHeapInts(1024);
+    private int idBucketCount = 1024;
+
+    // Route/day -> chain of records sorted by flight ID. Growing rehashes into the spare
+    // table and keeps the old one as the next spare, so neither is ever reallocated.
+    private OffHeapInts routeDays = new OffHeapInts(SLOT_SIZE * 1024);
+    private OffHeapInts spareRouteDays = new OffHeapInts(0);
+    private int routeDaySlots = 1024;
+    private int routeDayCount;
+
+    // Records in flight ID order, merged in place; records added since the last merge are appended lazily on read
+    private final OffHeapInts byId = new OffHeapInts(0);
+    private int sortedCount;
+
+    // Range of journey days stored, so date range scans stay within it
+    private int minDay = Integer.MAX_VALUE;
+    private int maxDay = Integer.MIN_VALUE;
+
+    // Order of a batch before linking: route, day, then flight ID
+    private final IntBinaryOperator linkOrder = (a, b) -> {
+        int cmp = Integer.compare(cities.keyOf(records.getSource(a)), cities.keyOf(records.getSource(b)));
+        if (cmp == 0) {
+            cmp = Integer.compare(cities.keyOf(records.getDestination(a)), cities.keyOf(records.getDestination(b)));
+        }
+        if (cmp == 0) {
+            cmp = Integer.compare(records.getDay(a), records.getDay(b));
+        }
+        return cmp != 0 ? cmp : records.compareIds(a, b);
+    };
+
+    @Override
+    public void addFlight(Flight flight) {
+        OffHeapRecords.checkId(flight.getFlightId());
+        lock.writeLock().lock();
+        try {
+            int record = store(flight, new ArrayList<>());
+            link(new int[] { record }, 0, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void addFlights(Collection<Flight> flights) {
+        upsertFlights(flights);
+    }
+
+    @Override
+    public List<Flight> upsertFlights(Collection<Flight> flights) {
+        for (Flight flight : flights) {
+            OffHeapRecords.checkId(flight.getFlightId());
+        }
+        lock.writeLock().lock();
+        try {
+            List<Flight> displaced = new ArrayList<>();
+            int[] batch = new int[flights.size()];
+            int count = 0;
+            for (Flight flight : flights) {
+                batch[count++] = store(flight, displaced);
+            }
+
+            // Sort once, then merge each route/day group into its chain in a single pass
+            RowSort.sort(batch, 0, count, linkOrder);
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                // A repeated ID is one record stored twice - link it once
+                if (distinct == 0 || batch[distinct - 1] != batch[i]) {
+                    batch[distinct++] = batch[i];
+                }
+            }
+            for (int from = 0; from < distinct;) {
+                int to = from + 1;
+                while (to < distinct && sameRouteDay(batch[from], batch[to])) {
+                    to++;
+                }
+                link(batch, from, to);
+                from = to;
+            }
+            return displaced;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Flight> updateFlight(Flight flight) {
+        OffHeapRecords.checkId(flight.getFlightId());
+        lock.writeLock().lock();
+        try {
+            if (find(flight.getFlightId()) < 0) {
+                return Optional.empty();
+            }
+            List<Flight> displaced = new ArrayList<>(1);
+            int record = store(flight, displaced);
+            link(new int[] { record }, 0, 1);
+            return Optional.of(displaced.get(0));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Flight> removeFlight(String flightId) {
+        lock.writeLock().lock();
+        try {
+            int record = find(flightId);
+            if (record < 0) {
+                return Optional.empty();
+            }
+            Flight previous = toFlight(record);
+            unlink(record);
+            records.setFlags(record, OffHeapRecords.FLAG_REMOVED);
+            return Optional.of(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Optional<Flight> findFlight(String flightId) {
+        lock.readLock().lock();
+        try {
+            int record = find(flightId);
+            return record < 0 ? Optional.empty() : Optional.of(toFlight(record));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> searchFlights(String source, String destination, LocalDate journeyDate) {
+        lock.readLock().lock();
+        try {
+            int sourceKey = cities.findKey(source);
+            int destinationKey = cities.findKey(destination);
+            if (sourceKey == StringDictionary.NOT_FOUND || destinationKey == StringDictionary.NOT_FOUND) {
+                return Collections.emptyList();
+            }
+            return chainToList(firstRecord(sourceKey, destinationKey, (int) journeyDate.toEpochDay()));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public NavigableMap<LocalDate, List<Flight>> searchFlightsBetween(String source, String destination,
+            LocalDate fromDate, LocalDate toDate) {
+        lock.readLock().lock();
+        try {
+            NavigableMap<LocalDate, List<Flight>> flightsByDate = new TreeMap<>();
+            int sourceKey = cities.findKey(source);
+            int destinationKey = cities.findKey(destination);
+            if (sourceKey != StringDictionary.NOT_FOUND && destinationKey != StringDictionary.NOT_FOUND) {
+                int lastDay = (int) Math.min(maxDay, toDate.toEpochDay());
+                for (int day = (int) Math.max(minDay, fromDate.toEpochDay()); day <= lastDay; day++) {
+                    int first = firstRecord(sourceKey, destinationKey, day);
+                    if (first >= 0) {
+                        flightsByDate.put(LocalDate.ofEpochDay(day), chainToList(first));
+                    }
+                }
+            }
+            return Collections.unmodifiableNavigableMap(flightsByDate);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> queryFlights(FlightQuery query, ToIntFunction<Flight> availableSeats) {
+        lock.readLock().lock();
+        try {
+            int sourceKey = cities.findKey(query.getSource());
+            int destinationKey = cities.findKey(query.getDestination());
+            int airlineKey = query.getAirlines() == null ? StringDictionary.NOT_FOUND
+                    : airlines.findKey(query.getAirlines());
+            if (sourceKey == StringDictionary.NOT_FOUND || destinationKey == StringDictionary.NOT_FOUND
+                    || (query.getAirlines() != null && airlineKey == StringDictionary.NOT_FOUND)) {
+                return Collections.emptyList();
+            }
+
+            // Fare and airline are read from the records; a Flight is built only for a likely result
+            double maxFare = query.getMaxFare() == null ? Double.POSITIVE_INFINITY : query.getMaxFare();
+            TopKFlights topK = new TopKFlights(query, availableSeats);
+            int lastDay = (int) Math.min(maxDay, query.getToDate().toEpochDay());
+            for (int day = (int) Math.max(minDay, query.getFromDate().toEpochDay()); day <= lastDay; day++) {
+                for (int record = firstRecord(sourceKey, destinationKey, day); record >= 0;
+                        record = records.getNextOnRoute(record)) {
+                    double fare = records.getFare(record);
+                    if (fare > maxFare || (airlineKey != StringDictionary.NOT_FOUND
+                            && airlines.keyOf(records.getAirline(record)) != airlineKey)) {
+                        continue;
+                    }
+                    if (topK.mayAccept(fare)) {
+                        topK.offer(toFlight(record));
+                    }
+                }
+            }
+            return topK.results();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> getAllFlights() {
+        mergeIdOrder();
+        lock.readLock().lock();
+        try {
+            List<Flight> flights = new ArrayList<>(sortedCount);
+            for (int i = 0; i < sortedCount; i++) {
+                int record = byId.get(i);
+                if ((records.getFlags(record) & OffHeapRecords.FLAG_REMOVED) == 0) {
+                    flights.add(toFlight(record));
+                }
+            }
+            return flights;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Flight> getFlights(String afterFlightId, int limit) {
+        mergeIdOrder();
+        lock.readLock().lock();
+        try {
+            int from = 0;
+            if (afterFlightId != null) {
+                // First record with an ID after the cursor
+                int low = 0;
+                int high = sortedCount;
+                while (low < high) {
+                    int mid = (low + high) >>> 1;
+                    if (records.compareId(byId.get(mid), afterFlightId) <= 0) {
+                        low = mid + 1;
+                    } else {
+                        high = mid;
+                    }
+                }
+                from = low;
+            }
+
+            List<Flight> flights = new ArrayList<>(Math.max(0, Math.min(limit, sortedCount - from)));
+            for (int i = from; i < sortedCount && flights.size() < limit; i++) {
+                int record = byId.get(i);
+                if ((records.getFlags(record) & OffHeapRecords.FLAG_REMOVED) == 0) {
+                    flights.add(toFlight(record));
+                }
+            }
+            return flights;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Write a flight into its record - a new record for a new ID, the existing record (taken
+     * off its route chain first) for a known one. The caller links the record to its route.
+     *
+     * @param displaced Receives the flight previously in the record, if it was not removed
+     */
+    private int store(Flight flight, List<Flight> displaced) {
+        int record = findStored(flight.getFlightId());
+        if (record < 0) {
+            record = records.add(flight.getFlightId());
+            addToIdBuckets(record);
+        } else if ((records.getFlags(record) & OffHeapRecords.FLAG_REMOVED) != 0) {
+            records.setFlags(record, 0);
+        } else {
+            // Also an earlier flight of the same batch, stored but not linked yet
+            displaced.add(toFlight(record));
+            if ((records.getFlags(record) & OffHeapRecords.FLAG_LINKED) != 0) {
+                unlink(record);
+            }
+        }
+
+        int day = (int) flight.getJourneyDate().toEpochDay();
+        records.setDetails(record, airlines.intern(flight.getAirlines()), cities.intern(flight.getSource()),
+                cities.intern(flight.getDestination()), day, flight.getSeatCount(), flight.getFare());
+        minDay = Math.min(minDay, day);
+        maxDay = Math.max(maxDay, day);
+        return record;
+    }
+
+    /**
+     * Record of the live flight with the ID, or -1
+     */
+    private int find(String flightId) {
+        int record = findStored(flightId);
+        return record < 0 || (records.getFlags(record) & OffHeapRecords.FLAG_REMOVED) != 0 ? -1 : record;
+    }
+
+    /**
+     * Record with the flight ID, removed or not, or -1
+     */
+    private int findStored(String flightId) {
+        int bucket = OffHeapRecords.hash(flightId) & (idBucketCount - 1);
+        for (int record = idBuckets.get(bucket) - 1; record >= 0;
+                record = records.getNextInBucket(record)) {
+            if (records.compareId(record, flightId) == 0) {
+                return record;
+            }
+        }
+        return -1;
+    }
+
+    private void addToIdBuckets(int record) {
+        if (records.size() > idBucketCount) {
+            // Double the bucket array in place and re-chain every record
+            idBuckets.clear(0, idBucketCount);
+            idBucketCount *= 2;
+            idBuckets.ensureCapacity(idBucketCount);
+            for (int r = 0; r < records.size(); r++) {
+                pushToBucket(r);
+            }
+        } else {
+            pushToBucket(record);
+        }
+    }
+
+    private void pushToBucket(int record) {
+        int bucket = records.idHash(record) & (idBucketCount - 1);
+        records.setNextInBucket(record, idBuckets.get(bucket) - 1);
+        idBuckets.set(bucket, record + 1);
+    }
+
+    /**
+     * Merge records[from, to) - one route and day, sorted by flight ID - into their chain
+     */
+    private void link(int[] batch, int from, int to) {
+        int first = batch[from];
+        int slot = routeDaySlot(cities.keyOf(records.getSource(first)), cities.keyOf(records.getDestination(first)),
+                records.getDay(first), true);
+
+        int previous = -1;
+        int current = routeDays.get(slot + SLOT_FIRST) - 1;
+        for (int i = from; i < to; i++) {
+            int record = batch[i];
+            while (current >= 0 && records.compareIds(current, record) < 0) {
+                previous = current;
+                current = records.getNextOnRoute(current);
+            }
+            records.setNextOnRoute(record, current);
+            if (previous < 0) {
+                routeDays.set(slot + SLOT_FIRST, record + 1);
+            } else {
+                records.setNextOnRoute(previous, record);
+            }
+            records.setFlags(record, records.getFlags(record) | OffHeapRecords.FLAG_LINKED);
+            previous = record;
+        }
+    }
+
+    /**
+     * Take a record off its route chain, before its route or day changes
+     */
+    private void unlink(int record) {
+        int slot = routeDaySlot(cities.keyOf(records.getSource(record)),
+                cities.keyOf(records.getDestination(record)), records.getDay(record), false);
+        int previous = -1;
+        int current = routeDays.get(slot + SLOT_FIRST) - 1;
+        while (current != record) {
+            previous = current;
+            current = records.getNextOnRoute(current);
+        }
+        int next = records.getNextOnRoute(record);
+        if (previous < 0) {
+            routeDays.set(slot + SLOT_FIRST, next + 1);
+        } else {
+            records.setNextOnRoute(previous, next);
+        }
+        records.setFlags(record, records.getFlags(record) & ~OffHeapRecords.FLAG_LINKED);
+    }
+
+    /**
+     * First record of the route/day chain, or -1
+     */
+    private int firstRecord(int sourceKey, int destinationKey, int day) {
+        int slot = routeDaySlot(sourceKey, destinationKey, day, false);
+        return slot < 0 ? -1 : routeDays.get(slot + SLOT_FIRST) - 1;
+    }
+
+    /**
+     * Index of the route/day slot's first int; -1 if absent and create is false
+     */
+    private int routeDaySlot(int sourceKey, int destinationKey, int day, boolean create) {
+        if (create && (routeDayCount + 1) * 2 > routeDaySlots) {
+            growRouteDays();
+        }
+        int mask = routeDaySlots - 1;
+        int h = (sourceKey * 31 + destinationKey) * 0x9E3779B9 + day * 0x85EBCA6B;
+        for (int index = (h ^ (h >>> 16)) & mask;; index = (index + 1) & mask) {
+            int slot = index * SLOT_SIZE;
+            int storedSource = routeDays.get(slot) - 1;
+            if (storedSource < 0) {
+                if (!create) {
+                    return -1;
+                }
+                routeDays.set(slot, sourceKey + 1);
+                routeDays.set(slot + SLOT_DESTINATION, destinationKey);
+                routeDays.set(slot + SLOT_DAY, day);
+                routeDayCount++;
+                return slot;
+            }
+            if (storedSource == sourceKey && routeDays.get(slot + SLOT_DESTINATION) == destinationKey
+                    && routeDays.get(slot + SLOT_DAY) == day) {
+                return slot;
+            }
+        }
+    }
+
+    private void growRouteDays() {
+        OffHeapInts old = routeDays;
+        int oldSlots = routeDaySlots;
+        routeDaySlots *= 2;
+        routeDays = spareRouteDays;
+        routeDays.ensureCapacity(SLOT_SIZE * routeDaySlots);
+        routeDays.clear(0, SLOT_SIZE * routeDaySlots);
+        spareRouteDays = old;
+        routeDayCount = 0;
+        for (int index = 0; index < oldSlots; index++) {
+            int slot = index * SLOT_SIZE;
+            if (old.get(slot) != 0) {
+                int newSlot = routeDaySlot(old.get(slot) - 1, old.get(slot + SLOT_DESTINATION),
+                        old.get(slot + SLOT_DAY), true);
+                routeDays.set(newSlot + SLOT_FIRST, old.get(slot + SLOT_FIRST));
+            }
+        }
+    }
+
+    private boolean sameRouteDay(int a, int b) {
+        return records.getDay(a) == records.getDay(b)
+                && cities.keyOf(records.getSource(a)) == cities.keyOf(records.getSource(b))
+                && cities.keyOf(records.getDestination(a)) == cities.keyOf(records.getDestination(b));
+    }
+
+    private List<Flight> chainToList(int first) {
+        if (first < 0) {
+            return Collections.emptyList();
+        }
+        List<Flight> flights = new ArrayList<>();
+        for (int record = first; record >= 0; record = records.getNextOnRoute(record)) {
+            flights.add(toFlight(record));
+        }
+        return Collections.unmodifiableList(flights);
+    }
+
+    /**
+     * Build the Flight object for a record - only done for results
+     */
+    private Flight toFlight(int record) {
+        return new Flight(records.getFlightId(record), airlines.get(records.getAirline(record)),
+                cities.get(records.getSource(record)), cities.get(records.getDestination(record)),
+                records.getFare(record), LocalDate.ofEpochDay(records.getDay(record)), records.getSeats(record));
+    }
+
+    /**
+     * Bring records added since the last call into the ID ordering
+     */
+    private void mergeIdOrder() {
+        lock.readLock().lock();
+        try {
+            if (sortedCount == records.size()) {
+                return;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        lock.writeLock().lock();
+        try {
+            int total = records.size();
+            int added = total - sortedCount;
+            if (added == 0) {
+                return;
+            }
+            int[] newRecords = new int[added];
+            for (int i = 0; i < added; i++) {
+                newRecords[i] = sortedCount + i;
+            }
+            RowSort.sort(newRecords, 0, added, records::compareIds);
+
+            // Merge from the back, so the existing order is extended in place
+            byId.ensureCapacity(total);
+            int i = sortedCount - 1;
+            int j = added - 1;
+            for (int k = total - 1; j >= 0; k--) {
+                if (i >= 0 && records.compareIds(byId.get(i), newRecords[j]) > 0) {
+                    byId.set(k, byId.get(i--));
+                } else {
+                    byId.set(k, newRecords[j--]);
+                }
+            }
+            sortedCount = total;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
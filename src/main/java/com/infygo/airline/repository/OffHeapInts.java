@@ -0,0 +1,58 @@
+package com.infygo.airline.repository;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Growable array of ints in direct (off-heap) memory.
+ *
+ * The ints live in fixed-size pages like OffHeapRecords, so growing adds pages and never
+ * copies or drops the ones already allocated: no full-size buffer is left behind for the
+ * GC to free, and direct memory use only ever steps up one page at a time.
+ *
+ * Not thread-safe - callers guard it with their own lock.
+ */
+final class OffHeapInts {
+
+    // 16K ints, 64 KB per page
+    private static final int PAGE_SHIFT = 14;
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+
+    private ByteBuffer[] pages = new ByteBuffer[16];
+    private int capacity;
+
+    OffHeapInts(int capacity) {
+        ensureCapacity(capacity);
+    }
+
+    int get(int index) {
+        return pages[index >>> PAGE_SHIFT].getInt((index & PAGE_MASK) * Integer.BYTES);
+    }
+
+    void set(int index, int value) {
+        pages[index >>> PAGE_SHIFT].putInt((index & PAGE_MASK) * Integer.BYTES, value);
+    }
+
+    /**
+     * Make indexes below size usable - new pages start zeroed
+     */
+    void ensureCapacity(int size) {
+        while (capacity < size) {
+            int page = capacity >>> PAGE_SHIFT;
+            if (page == pages.length) {
+                pages = Arrays.copyOf(pages, page * 2);
+            }
+            pages[page] = ByteBuffer.allocateDirect(Integer.BYTES << PAGE_SHIFT);
+            capacity += 1 << PAGE_SHIFT;
+        }
+    }
+
+    /**
+     * Zero indexes [from, to)
+     */
+    void clear(int from, int to) {
+        for (int i = from; i < to; i++) {
+            set(i, 0);
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package com.infygo.airline.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Fixed-width flight records in direct (off-heap) memory.
+ *
+ * Records are addressed by number and live in pages of direct ByteBuffers, so the Java
+ * heap only holds the page array however many flights are stored. Record layout:
+ *
+ * <pre>
+ *  0  byte    flight ID length      1..22  flight ID (ASCII)
+ * 23  byte    flags                 24  int  airline name code
+ * 28  int     source name code      32  int  destination name code
+ * 36  int     journey date (epoch day)      40  int  seat count
+ * 44  int     next record on the same route and day, plus one (0 = end)
+ * 48  double  fare
+ * 56  int     next record in the same ID hash bucket, plus one (0 = end)
+ * 60  unused
+ * </pre>
+ *
+ * Not thread-safe - callers guard it with their own lock.
+ */
+final class OffHeapRecords {
+
+    static final int MAX_ID_LENGTH = 22;
+
+    // Record is linked into its route/day chain
+    static final int FLAG_LINKED = 1;
+    // Flight was removed - the record stays in its ID bucket and is reused if the ID returns
+    static final int FLAG_REMOVED = 2;
+
+    private static final int RECORD_SIZE = 64;
+    private static final int RECORD_SHIFT = 6;
+    private static final int PAGE_SHIFT = 15;
+    private static final int PAGE_MASK = (1 << PAGE_SHIFT) - 1;
+
+    private static final int ID_LENGTH = 0;
+    private static final int ID = 1;
+    private static final int FLAGS = 23;
+    private static final int AIRLINE = 24;
+    private static final int SOURCE = 28;
+    private static final int DESTINATION = 32;
+    private static final int DAY = 36;
+    private static final int SEATS = 40;
+    private static final int NEXT_ON_ROUTE = 44;
+    private static final int FARE = 48;
+    private static final int NEXT_IN_BUCKET = 56;
+
+    private ByteBuffer[] pages = new ByteBuffer[16];
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Allocate a new, zeroed record holding the flight ID
+     *
+     * @return The record number
+     */
+    int add(String flightId) {
+        checkId(flightId);
+        int page = size >>> PAGE_SHIFT;
+        if (page == pages.length) {
+            pages = Arrays.copyOf(pages, page * 2);
+        }
+        if (pages[page] == null) {
+            pages[page] = ByteBuffer.allocateDirect(RECORD_SIZE << PAGE_SHIFT);
+        }
+
+        int record = size++;
+        ByteBuffer buffer = pages[page];
+        int base = offset(record);
+        buffer.put(base + ID_LENGTH, (byte) flightId.length());
+        for (int i = 0; i < flightId.length(); i++) {
+            buffer.put(base + ID + i, (byte) flightId.charAt(i));
+        }
+        return record;
+    }
+
+    /**
+     * Rejects IDs that do not fit the fixed-width ID field
+     */
+    static void checkId(String flightId) {
+        if (flightId.isEmpty() || flightId.length() > MAX_ID_LENGTH) {
+            throw new IllegalArgumentException(
+                    "Flight ID must be 1 to " + MAX_ID_LENGTH + " characters for the off-heap store: " + flightId);
+        }
+        for (int i = 0; i < flightId.length(); i++) {
+            if (flightId.charAt(i) > 0x7F) {
+                throw new IllegalArgumentException("Flight ID must be ASCII for the off-heap store: " + flightId);
+            }
+        }
+    }
+
+    String getFlightId(int record) {
+        ByteBuffer buffer = page(record);
+        int base = offset(record);
+        byte[] id = new byte[buffer.get(base + ID_LENGTH)];
+        buffer.get(base + ID, id);
+        return new String(id, StandardCharsets.US_ASCII);
+    }
+
+    /**
+     * Compares the record's ID with a string, in String.compareTo order, without allocating
+     */
+    int compareId(int record, String flightId) {
+        ByteBuffer buffer = page(record);
+        int base = offset(record);
+        int length = buffer.get(base + ID_LENGTH);
+        int common = Math.min(length, flightId.length());
+        for (int i = 0; i < common; i++) {
+            int cmp = (buffer.get(base + ID + i) & 0xFF) - flightId.charAt(i);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - flightId.length();
+    }
+
+    int compareIds(int a, int b) {
+        ByteBuffer bufferA = page(a);
+        ByteBuffer bufferB = page(b);
+        int baseA = offset(a);
+        int baseB = offset(b);
+        int lengthA = bufferA.get(baseA + ID_LENGTH);
+        int lengthB = bufferB.get(baseB + ID_LENGTH);
+        int common = Math.min(lengthA, lengthB);
+        for (int i = 0; i < common; i++) {
+            int cmp = (bufferA.get(baseA + ID + i) & 0xFF) - (bufferB.get(baseB + ID + i) & 0xFF);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return lengthA - lengthB;
+    }
+
+    /**
+     * Hash of the record's ID - equal to hash(String) of the same ID
+     */
+    int idHash(int record) {
+        ByteBuffer buffer = page(record);
+        int base = offset(record);
+        int length = buffer.get(base + ID_LENGTH);
+        int h = 0;
+        for (int i = 0; i < length; i++) {
+            h = 31 * h + (buffer.get(base + ID + i) & 0xFF);
+        }
+        return h ^ (h >>> 16);
+    }
+
+    static int hash(String flightId) {
+        int h = flightId.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    int getFlags(int record) {
+        return page(record).get(offset(record) + FLAGS);
+    }
+
+    void setFlags(int record, int flags) {
+        page(record).put(offset(record) + FLAGS, (byte) flags);
+    }
+
+    int getAirline(int record) {
+        return page(record).getInt(offset(record) + AIRLINE);
+    }
+
+    int getSource(int record) {
+        return page(record).getInt(offset(record) + SOURCE);
+    }
+
+    int getDestination(int record) {
+        return page(record).getInt(offset(record) + DESTINATION);
+    }
+
+    int getDay(int record) {
+        return page(record).getInt(offset(record) + DAY);
+    }
+
+    int getSeats(int record) {
+        return page(record).getInt(offset(record) + SEATS);
+    }
+
+    double getFare(int record) {
+        return page(record).getDouble(offset(record) + FARE);
+    }
+
+    /**
+     * Overwrite the flight details of a record
+     */
+    void setDetails(int record, int airline, int source, int destination, int day, int seats, double fare) {
+        ByteBuffer buffer = page(record);
+        int base = offset(record);
+        buffer.putInt(base + AIRLINE, airline);
+        buffer.putInt(base + SOURCE, source);
+        buffer.putInt(base + DESTINATION, destination);
+        buffer.putInt(base + DAY, day);
+        buffer.putInt(base + SEATS, seats);
+        buffer.putDouble(base + FARE, fare);
+    }
+
+    /**
+     * Next record on the same route and day, or -1
+     */
+    int getNextOnRoute(int record) {
+        return page(record).getInt(offset(record) + NEXT_ON_ROUTE) - 1;
+    }
+
+    void setNextOnRoute(int record, int next) {
+        page(record).putInt(offset(record) + NEXT_ON_ROUTE, next + 1);
+    }
+
+    /**
+     * Next record in the same ID hash bucket, or -1
+     */
+    int getNextInBucket(int record) {
+        return page(record).getInt(offset(record) + NEXT_IN_BUCKET) - 1;
+    }
+
+    void setNextInBucket(int record, int next) {
+        page(record).putInt(offset(record) + NEXT_IN_BUCKET, next + 1);
+    }
+
+    private ByteBuffer page(int record) {
+        return pages[record >>> PAGE_SHIFT];
+    }
+
+    private static int offset(int record) {
+        return (record & PAGE_MASK) << RECORD_SHIFT;
+    }
+}
@@ -0,0 +1,647 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+
+import jakarta.annotation.PreDestroy;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * FlightRepository split by route into independent partitions.
+ *
+ * A route always hashes to the same partition, so route searches and queries go to
+ * exactly one partition. Each partition has its own indexes and is only ever written by
+ * its own writer thread: writes to different partitions never contend, and a batch is
+ * applied to all its partitions in parallel. Catalog-wide reads (getAllFlights and
+ * getFlights) ask every partition in parallel and merge their ID-ordered results.
+ *
+ * A partition is any FlightRepository - in-process FlightRepositoryImpl instances, or
+ * RemoteFlightRepository for partitions kept by other processes.
+ *
+ * A directory from flight ID to partition keeps IDs unique across routes: findFlight goes
+ * straight to the flight's partition, and a change that moves a flight to a route in
+ * another partition removes it from the old one. The directory is split into shards by
+ * ID hash, each with its own lock, so writes to different flights rarely meet on one.
+ * A write claims its IDs under their shards' locks and queues its partition writes
+ * before releasing them, so two changes to one flight always apply in the order they
+ * were claimed; the directory itself moves a flight only once its partition has stored
+ * it, and a flight whose move fails goes back to its old partition. The directory is
+ * read from all partitions in parallel on first use.
+ */
+@Repository
+@ConditionalOnProperty(name = "infygo.repository.mode", havingValue = "partitioned")
+public class PartitionedFlightRepository implements FlightRepository {
+
+    // Page size used when reading the ID directory from the partitions
+    private static final int DIRECTORY_PAGE_SIZE = 10_000;
+
+    // Directory shards, a power of two - writes to flights in different shards never contend
+    private static final int DIRECTORY_SHARDS = 64;
+
+    // Location of a flight that is in no partition
+    private static final int NOWHERE = -1;
+
+    private final FlightRepository[] partitions;
+
+    // One single-thread executor per partition - the only thread that writes to it
+    private final ExecutorService[] writers;
+
+    // Runs the per-partition parts of catalog-wide reads in parallel
+    private final ExecutorService readers;
+
+    // Flight ID -> partition holding it, in shards by ID hash; loaded on first use
+    private final DirectoryShard[] shards;
+    private final Object directoryLoad = new Object();
+    private volatile boolean directoryLoaded;
+
+    /**
+     * @param localPartitions     In-process partitions, 0 for one per core
+     * @param remoteUrls          Addresses of processes serving further partitions
+     * @param remoteTimeoutMillis Longest wait for a remote partition to answer
+     */
+    @Autowired
+    public PartitionedFlightRepository(@Value("${infygo.partitioned.partitions:0}") int localPartitions,
+            @Value("${infygo.partitioned.remote-urls:}") String[] remoteUrls,
+            @Value("${infygo.partitioned.remote-timeout-millis:5000}") long remoteTimeoutMillis) {
+        this(createPartitions(localPartitions, remoteUrls, remoteTimeoutMillis));
+    }
+
+    /**
+     * Partitioned repository over the given partitions. The order of the partitions
+     * decides which routes each one holds, so keep it when reopening the same partitions.
+     */
+    public PartitionedFlightRepository(List<FlightRepository> partitions) {
+        if (partitions.isEmpty()) {
+            throw new IllegalArgumentException("A partitioned repository needs at least one partition");
+        }
+        this.partitions = partitions.toArray(new FlightRepository[0]);
+        this.writers = new ExecutorService[partitions.size()];
+        for (int i = 0; i < writers.length; i++) {
+            String name = "partition-writer-" + i;
+            writers[i] = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, name));
+        }
+        this.shards = new DirectoryShard[DIRECTORY_SHARDS];
+        for (int i = 0; i < shards.length; i++) {
+            shards[i] = new DirectoryShard();
+        }
+        AtomicInteger readerNumber = new AtomicInteger();
+        this.readers = Executors.newFixedThreadPool(partitions.size(),
+                runnable -> daemon(runnable, "partition-reader-" + readerNumber.incrementAndGet()));
+    }
+
+    private static List<FlightRepository> createPartitions(int localPartitions, String[] remoteUrls,
+            long remoteTimeoutMillis) {
+        if (localPartitions < 0 || remoteTimeoutMillis <= 0) {
+            throw new IllegalArgumentException("Invalid partitioned repository settings");
+        }
+        int local = localPartitions == 0 && remoteUrls.length == 0
+                ? Runtime.getRuntime().availableProcessors()
+                : localPartitions;
+        List<FlightRepository> partitions = new ArrayList<>();
+        for (int i = 0; i < local; i++) {
+            partitions.add(new FlightRepositoryImpl());
+        }
+        for (String url : remoteUrls) {
+            partitions.add(new RemoteFlightRepository(url.trim(), Duration.ofMillis(remoteTimeoutMillis)));
+        }
+        return partitions;
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    public int getPartitionCount() {
+        return partitions.length;
+    }
+
+    @Override
+    public void addFlight(Flight flight) {
+        upsertFlights(List.of(flight));
+    }
+
+    @Override
+    public void addFlights(Collection<Flight> flights) {
+        upsertFlights(flights);
+    }
+
+    @Override
+    public List<Flight> upsertFlights(Collection<Flight> flights) {
+        // Last flight with an ID wins, as in one partition
+        List<Flight> displaced = new ArrayList<>();
+        Map<String, Flight> latest = new LinkedHashMap<>();
+        for (Flight flight : flights) {
+            Flight earlier = latest.put(flight.getFlightId(), flight);
+            if (earlier != null) {
+                displaced.add(earlier);
+            }
+        }
+        loadDirectory();
+
+        List<List<Flight>> byPartition = new ArrayList<>(partitions.length);
+        List<List<String>> movedAway = new ArrayList<>(partitions.length);
+        for (int i = 0; i < partitions.length; i++) {
+            byPartition.add(new ArrayList<>());
+            movedAway.add(new ArrayList<>());
+        }
+
+        // Only the directory shards of the batch's IDs are locked, in shard order
+        boolean[] touched = new boolean[shards.length];
+        for (String flightId : latest.keySet()) {
+            touched[shardIndex(flightId)] = true;
+        }
+        Map<String, Claim> claims = new LinkedHashMap<>();
+        List<Future<PartitionWrite>> writes = new ArrayList<>();
+        int[] writePartitions = new int[partitions.length];
+        lockShards(touched);
+        try {
+            for (Flight flight : latest.values()) {
+                int partition = partitionOf(flight.getSource(), flight.getDestination());
+                DirectoryShard shard = shardOf(flight.getFlightId());
+                int previous = shard.location(flight.getFlightId());
+                if (previous != NOWHERE && previous != partition) {
+                    movedAway.get(previous).add(flight.getFlightId());
+                }
+                claims.put(flight.getFlightId(), shard.claim(flight.getFlightId(), partition));
+                byPartition.get(partition).add(flight);
+            }
+
+            for (int i = 0; i < partitions.length; i++) {
+                List<Flight> batch = byPartition.get(i);
+                List<String> removals = movedAway.get(i);
+                if (batch.isEmpty() && removals.isEmpty()) {
+                    continue;
+                }
+                FlightRepository partition = partitions[i];
+                writePartitions[writes.size()] = i;
+                writes.add(writers[i].submit(() -> {
+                    PartitionWrite write = new PartitionWrite();
+                    for (String flightId : removals) {
+                        partition.removeFlight(flightId).ifPresent(write.movedOut::add);
+                    }
+                    if (!batch.isEmpty()) {
+                        write.replaced.addAll(partition.upsertFlights(batch));
+                    }
+                    return write;
+                }));
+            }
+        } finally {
+            unlockShards(touched);
+        }
+
+        // A flight's directory entry moves only once the partition it went to has stored it
+        Outcome<PartitionWrite> outcome = awaitEach(writes);
+        boolean[] stored = new boolean[partitions.length];
+        for (int i = 0; i < writes.size(); i++) {
+            stored[writePartitions[i]] = outcome.succeeded(i);
+        }
+        if (outcome.failure != null) {
+            // Flights that left their old partition but were not stored in the new one go back
+            Map<Integer, List<Flight>> strays = new HashMap<>();
+            for (int i = 0; i < writes.size(); i++) {
+                if (outcome.succeeded(i)) {
+                    for (Flight flight : outcome.results.get(i).movedOut) {
+                        if (!stored[claims.get(flight.getFlightId()).partition]) {
+                            strays.computeIfAbsent(writePartitions[i], k -> new ArrayList<>()).add(flight);
+                        }
+                    }
+                }
+            }
+            restore(strays, claims, touched);
+        }
+        for (Map.Entry<String, Claim> entry : claims.entrySet()) {
+            shardOf(entry.getKey()).settle(entry.getKey(), entry.getValue(), stored[entry.getValue().partition]);
+        }
+        for (PartitionWrite write : outcome.results()) {
+            displaced.addAll(write.movedOut);
+            displaced.addAll(write.replaced);
+        }
+        return displaced;
+    }
+
+    /**
+     * Put flights back into the partitions they were moved out of, unless a newer write has
+     * claimed them since - its own changes are queued and decide where they end up
+     */
+    private void restore(Map<Integer, List<Flight>> strays, Map<String, Claim> claims, boolean[] touched) {
+        if (strays.isEmpty()) {
+            return;
+        }
+        List<Future<List<Flight>>> restores = new ArrayList<>();
+        lockShards(touched);
+        try {
+            for (Map.Entry<Integer, List<Flight>> entry : strays.entrySet()) {
+                List<Flight> unclaimed = new ArrayList<>();
+                for (Flight flight : entry.getValue()) {
+                    if (shardOf(flight.getFlightId()).isLatest(flight.getFlightId(),
+                            claims.get(flight.getFlightId()))) {
+                        unclaimed.add(flight);
+                    }
+                }
+                FlightRepository partition = partitions[entry.getKey()];
+                if (!unclaimed.isEmpty()) {
+                    restores.add(writers[entry.getKey()].submit(() -> partition.upsertFlights(unclaimed)));
+                }
+            }
+        } finally {
+            unlockShards(touched);
+        }
+        awaitEach(restores);
+    }
+
+    @Override
+    public Optional<Flight> updateFlight(Flight flight) {
+        String flightId = flight.getFlightId();
+        int partition = partitionOf(flight.getSource(), flight.getDestination());
+        loadDirectory();
+        DirectoryShard shard = shardOf(flightId);
+        Claim claim;
+        Future<Optional<Flight>> update;
+        Future<?> add = null;
+        int previous;
+        shard.lock.lock();
+        try {
+            previous = shard.location(flightId);
+            if (previous == NOWHERE) {
+                return Optional.empty();
+            }
+            claim = shard.claim(flightId, partition);
+            if (previous == partition) {
+                update = writers[partition].submit(() -> partitions[partition].updateFlight(flight));
+            } else {
+                // Moved to a route in another partition
+                FlightRepository old = partitions[previous];
+                update = writers[previous].submit(() -> old.removeFlight(flightId));
+                add = writers[partition].submit(() -> partitions[partition].addFlight(flight));
+            }
+        } finally {
+            shard.lock.unlock();
+        }
+
+        List<Future<?>> writes = new ArrayList<>(2);
+        writes.add(update);
+        if (add != null) {
+            writes.add(add);
+        }
+        Outcome<Object> outcome = awaitEach(writes);
+        boolean stored = outcome.succeeded(writes.size() - 1);
+        if (add != null && !stored && outcome.succeeded(0)) {
+            // Left its old partition but was not stored in the new one - it goes back
+            Optional<Flight> movedOut = await(update);
+            if (movedOut.isPresent()) {
+                boolean[] touched = new boolean[shards.length];
+                touched[shardIndex(flightId)] = true;
+                restore(Map.of(previous, List.of(movedOut.get())), Map.of(flightId, claim), touched);
+            }
+        }
+        shard.settle(flightId, claim, stored);
+        outcome.results();
+        return await(update);
+    }
+
+    @Override
+    public Optional<Flight> removeFlight(String flightId) {
+        loadDirectory();
+        DirectoryShard shard = shardOf(flightId);
+        Claim claim;
+        Future<Optional<Flight>> removal;
+        shard.lock.lock();
+        try {
+            int partition = shard.location(flightId);
+            if (partition == NOWHERE) {
+                return Optional.empty();
+            }
+            claim = shard.claim(flightId, NOWHERE);
+            FlightRepository holder = partitions[partition];
+            removal = writers[partition].submit(() -> holder.removeFlight(flightId));
+        } finally {
+            shard.lock.unlock();
+        }
+        Outcome<Optional<Flight>> outcome = awaitEach(List.of(removal));
+        shard.settle(flightId, claim, outcome.succeeded(0));
+        return outcome.results().get(0);
+    }
+
+    @Override
+    public Optional<Flight> findFlight(String flightId) {
+        loadDirectory();
+        Integer partition = shardOf(flightId).locations.get(flightId);
+        return partition == null ? Optional.empty() : partitions[partition].findFlight(flightId);
+    }
+
+    /**
+     * Read the ID directory from the partitions the first time it is needed - a remote
+     * partition may already hold flights from an earlier run. The partitions are paged in
+     * parallel, and no directory shard is locked meanwhile.
+     */
+    private void loadDirectory() {
+        if (directoryLoaded) {
+            return;
+        }
+        synchronized (directoryLoad) {
+            if (directoryLoaded) {
+                return;
+            }
+            List<Future<Void>> reads = new ArrayList<>(partitions.length);
+            for (int i = 0; i < partitions.length; i++) {
+                int partition = i;
+                reads.add(readers.submit(() -> {
+                    String cursor = null;
+                    List<Flight> page;
+                    while (!(page = partitions[partition].getFlights(cursor, DIRECTORY_PAGE_SIZE)).isEmpty()) {
+                        for (Flight flight : page) {
+                            shardOf(flight.getFlightId()).locations.put(flight.getFlightId(), partition);
+                        }
+                        cursor = page.get(page.size() - 1).getFlightId();
+                    }
+                    return null;
+                }));
+            }
+            awaitAll(reads);
+            directoryLoaded = true;
+        }
+    }
+
+    private DirectoryShard shardOf(String flightId) {
+        return shards[shardIndex(flightId)];
+    }
+
+    private int shardIndex(String flightId) {
+        int h = flightId.hashCode();
+        return (h ^ (h >>> 16)) & (shards.length - 1);
+    }
+
+    private void lockShards(boolean[] touched) {
+        for (int i = 0; i < shards.length; i++) {
+            if (touched[i]) {
+                shards[i].lock.lock();
+            }
+        }
+    }
+
+    private void unlockShards(boolean[] touched) {
+        for (int i = shards.length - 1; i >= 0; i--) {
+            if (touched[i]) {
+                shards[i].lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * One slice of the ID directory, by hash of the flight ID, with its own lock.
+     *
+     * Locations only ever name partitions that have stored the flight. A write first
+     * claims its IDs - later writes to the same flight decide on the claim, so queued
+     * changes apply in claim order - and settles each claim once its partition answers:
+     * the location moves if the write succeeded, and stays if it failed.
+     */
+    private static final class DirectoryShard {
+        private final ReentrantLock lock = new ReentrantLock();
+
+        // Flight ID -> partition holding it; read without the lock
+        private final Map<String, Integer> locations = new ConcurrentHashMap<>();
+
+        // Latest unsettled claim per flight ID - guarded by lock
+        private final Map<String, Claim> claims = new HashMap<>();
+
+        /**
+         * Where the flight will be once the claimed writes land, or NOWHERE - caller holds lock
+         */
+        int location(String flightId) {
+            Claim claim = claims.get(flightId);
+            if (claim != null) {
+                return claim.partition;
+            }
+            Integer partition = locations.get(flightId);
+            return partition == null ? NOWHERE : partition;
+        }
+
+        /**
+         * Claim the flight for a partition, or NOWHERE for a removal - caller holds lock
+         */
+        Claim claim(String flightId, int partition) {
+            Claim claim = new Claim(partition);
+            claims.put(flightId, claim);
+            return claim;
+        }
+
+        /**
+         * Whether the claim is still the newest on the flight - caller holds lock
+         */
+        boolean isLatest(String flightId, Claim claim) {
+            return claims.get(flightId) == claim;
+        }
+
+        /**
+         * Settle a claim once its write has finished. Only the latest claim on a flight
+         * updates its location - an earlier one would overwrite a newer state.
+         */
+        void settle(String flightId, Claim claim, boolean stored) {
+            lock.lock();
+            try {
+                if (!claims.remove(flightId, claim) || !stored) {
+                    return;
+                }
+                if (claim.partition == NOWHERE) {
+                    locations.remove(flightId);
+                } else {
+                    locations.put(flightId, claim.partition);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * What one partition write took out: flights moved to other partitions, and stored
+     * versions the batch replaced
+     */
+    private static final class PartitionWrite {
+        private final List<Flight> movedOut = new ArrayList<>();
+        private final List<Flight> replaced = new ArrayList<>();
+    }
+
+    /**
+     * A write's intended location for one flight - compared by identity
+     */
+    private static final class Claim {
+        private final int partition;
+
+        Claim(int partition) {
+            this.partition = partition;
+        }
+    }
+
+    @Override
+    public List<Flight> searchFlights(String source, String destination, LocalDate journeyDate) {
+        return partitions[partitionOf(source, destination)].searchFlights(source, destination, journeyDate);
+    }
+
+    @Override
+    public NavigableMap<LocalDate, List<Flight>> searchFlightsBetween(String source, String destination,
+            LocalDate fromDate, LocalDate toDate) {
+        return partitions[partitionOf(source, destination)].searchFlightsBetween(source, destination, fromDate,
+                toDate);
+    }
+
+    @Override
+    public List<Flight> queryFlights(FlightQuery query, ToIntFunction<Flight> availableSeats) {
+        return partitions[partitionOf(query.getSource(), query.getDestination())].queryFlights(query,
+                availableSeats);
+    }
+
+    @Override
+    public List<Flight> getAllFlights() {
+        List<Future<List<Flight>>> reads = new ArrayList<>(partitions.length);
+        for (FlightRepository partition : partitions) {
+            reads.add(readers.submit(partition::getAllFlights));
+        }
+        return FlightIdMerge.merge(awaitAll(reads), Integer.MAX_VALUE);
+    }
+
+    @Override
+    public List<Flight> getFlights(String afterFlightId, int limit) {
+        // Every partition's next page - the merged page can draw on any of them
+        List<Future<List<Flight>>> reads = new ArrayList<>(partitions.length);
+        for (FlightRepository partition : partitions) {
+            reads.add(readers.submit((Callable<List<Flight>>) () -> partition.getFlights(afterFlightId, limit)));
+        }
+        return FlightIdMerge.merge(awaitAll(reads), limit);
+    }
+
+    /**
+     * The partition holding a route. Depends only on the case-folded city names, so every
+     * process computes the same partition for a route.
+     */
+    int partitionOf(String source, String destination) {
+        int h = foldedHash(source) * 31 + foldedHash(destination);
+        h ^= h >>> 16;
+        return Math.floorMod(h, partitions.length);
+    }
+
+    /**
+     * String hash with the same case folding as equalsIgnoreCase
+     */
+    private static int foldedHash(String value) {
+        int h = 0;
+        for (int i = 0; i < value.length(); i++) {
+            h = 31 * h + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+        }
+        return h;
+    }
+
+    private static <T> T await(Future<T> future) {
+        return awaitAll(List.of(future)).get(0);
+    }
+
+    /**
+     * Results of all tasks in order; the first failure is rethrown once every task has finished
+     */
+    private static <T> List<T> awaitAll(List<? extends Future<? extends T>> futures) {
+        return PartitionedFlightRepository.<T>awaitEach(futures).results();
+    }
+
+    /**
+     * Wait for every task, recording which ones failed. Writes are waited for even when
+     * interrupted, so their directory claims can be settled.
+     */
+    private static <T> Outcome<T> awaitEach(List<? extends Future<? extends T>> futures) {
+        Outcome<T> outcome = new Outcome<>(futures.size());
+        boolean interrupted = false;
+        for (Future<? extends T> future : futures) {
+            while (true) {
+                try {
+                    outcome.results.add(future.get());
+                    break;
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    if (cause instanceof Error) {
+                        throw (Error) cause;
+                    }
+                    outcome.fail(outcome.results.size(), cause instanceof RuntimeException ? (RuntimeException) cause
+                            : new IllegalStateException("Partition operation failed", cause));
+                    outcome.results.add(null);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        return outcome;
+    }
+
+    /**
+     * Results of a group of partition tasks, and which of them failed
+     */
+    private static final class Outcome<T> {
+        private final List<T> results;
+        private final boolean[] failed;
+        private RuntimeException failure;
+
+        Outcome(int tasks) {
+            this.results = new ArrayList<>(tasks);
+            this.failed = new boolean[tasks];
+        }
+
+        void fail(int task, RuntimeException cause) {
+            failed[task] = true;
+            if (failure == null) {
+                failure = cause;
+            }
+        }
+
+        boolean succeeded(int task) {
+            return !failed[task];
+        }
+
+        /**
+         * Results in task order, or the first failure
+         */
+        List<T> results() {
+            if (failure != null) {
+                throw failure;
+            }
+            return results;
+        }
+    }
+
+    /**
+     * Stop the partition threads once the writes already submitted are applied
+     */
+    @PreDestroy
+    public void close() {
+        for (ExecutorService writer : writers) {
+            writer.shutdown();
+        }
+        readers.shutdown();
+    }
+}
@@ -0,0 +1,265 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+import com.infygo.airline.json.JsonReader;
+import com.infygo.airline.json.JsonWriter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * FlightRepository kept by another InfyGo process and reached over HTTP, so a shard of a
+ * PartitionedFlightRepository can live in a separate JVM. The other process runs the
+ * HTTP API with infygo.api.partition-enabled=true and stores the flights in its own
+ * repository.
+ *
+ * Filtered queries fetch the route's flights for the date range and rank them here,
+ * because seat availability is only known to the calling process.
+ */
+public class RemoteFlightRepository implements FlightRepository {
+
+    // Flights per page request - the default page limit of the API
+    private static final int PAGE_SIZE = 1000;
+
+    // Flights per add request, so a large import is sent as bounded bodies
+    private static final int ADD_BATCH_SIZE = 10_000;
+
+    private final String baseUrl;
+    private final Duration timeout;
+    private final HttpClient client;
+
+    /**
+     * @param baseUrl Address of the other process, e.g. http://localhost:8081
+     * @param timeout Longest wait for one response
+     */
+    public RemoteFlightRepository(String baseUrl, Duration timeout) {
+        URI uri = URI.create(baseUrl);
+        if (!"http".equals(uri.getScheme()) || uri.getHost() == null) {
+            throw new IllegalArgumentException("Remote partition must be an http:// address: " + baseUrl);
+        }
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.timeout = timeout;
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(timeout)
+                .build();
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    public void addFlight(Flight flight) {
+        addFlights(List.of(flight));
+    }
+
+    @Override
+    public void addFlights(Collection<Flight> flights) {
+        List<Flight> all = flights instanceof List ? (List<Flight>) flights : new ArrayList<>(flights);
+        for (int from = 0; from < all.size(); from += ADD_BATCH_SIZE) {
+            List<Flight> batch = all.subList(from, Math.min(all.size(), from + ADD_BATCH_SIZE));
+            JsonWriter json = JsonWriter.forFlights(batch.size()).flights(batch);
+            HttpRequest request = request("/api/partition/flights")
+                    .header("Content-Type", "application/json; charset=utf-8")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(json.buffer(), 0, json.length()))
+                    .build();
+            send(request);
+        }
+    }
+
+    @Override
+    public List<Flight> upsertFlights(Collection<Flight> flights) {
+        List<Flight> all = flights instanceof List ? (List<Flight>) flights : new ArrayList<>(flights);
+        List<Flight> displaced = new ArrayList<>();
+        for (int from = 0; from < all.size(); from += ADD_BATCH_SIZE) {
+            List<Flight> batch = all.subList(from, Math.min(all.size(), from + ADD_BATCH_SIZE));
+            JsonWriter json = JsonWriter.forFlights(batch.size()).flights(batch);
+            HttpRequest request = request("/api/partition/flights")
+                    .header("Content-Type", "application/json; charset=utf-8")
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(json.buffer(), 0, json.length()))
+                    .build();
+            displaced.addAll(flights(send(request).body()));
+        }
+        return displaced;
+    }
+
+    @Override
+    public Optional<Flight> updateFlight(Flight flight) {
+        JsonWriter json = JsonWriter.forFlights(1).flight(flight);
+        HttpRequest request = request("/api/partition/flights/" + encodePath(flight.getFlightId()))
+                .header("Content-Type", "application/json; charset=utf-8")
+                .PUT(HttpRequest.BodyPublishers.ofByteArray(json.buffer(), 0, json.length()))
+                .build();
+        return optionalFlight(send(request, 404));
+    }
+
+    @Override
+    public Optional<Flight> removeFlight(String flightId) {
+        return optionalFlight(send(request("/api/partition/flights/" + encodePath(flightId)).DELETE().build(), 404));
+    }
+
+    @Override
+    public Optional<Flight> findFlight(String flightId) {
+        return optionalFlight(send(request("/api/partition/flights/" + encodePath(flightId)).build(), 404));
+    }
+
+    /**
+     * The flight in a response, or empty for 404
+     */
+    private static Optional<Flight> optionalFlight(HttpResponse<String> response) {
+        if (response.statusCode() == 404) {
+            return Optional.empty();
+        }
+        return Optional.of(JsonReader.toFlight(JsonReader.parseObject(response.body())));
+    }
+
+    @Override
+    public List<Flight> searchFlights(String source, String destination, LocalDate journeyDate) {
+        return Collections.unmodifiableList(search(source, destination, journeyDate, journeyDate));
+    }
+
+    @Override
+    public NavigableMap<LocalDate, List<Flight>> searchFlightsBetween(String source, String destination,
+            LocalDate fromDate, LocalDate toDate) {
+        // Flights arrive ordered by date and then ID - cut the list into one run per day
+        List<Flight> flights = search(source, destination, fromDate, toDate);
+        TreeMap<LocalDate, List<Flight>> byDate = new TreeMap<>();
+        int start = 0;
+        for (int i = 1; i <= flights.size(); i++) {
+            if (i == flights.size() || !flights.get(i).getJourneyDate().equals(flights.get(start).getJourneyDate())) {
+                byDate.put(flights.get(start).getJourneyDate(), Collections.unmodifiableList(flights.subList(start, i)));
+                start = i;
+            }
+        }
+        return Collections.unmodifiableNavigableMap(byDate);
+    }
+
+    @Override
+    public List<Flight> queryFlights(FlightQuery query, ToIntFunction<Flight> availableSeats) {
+        TopKFlights topK = new TopKFlights(query, availableSeats);
+        for (Flight flight : search(query.getSource(), query.getDestination(), query.getFromDate(),
+                query.getToDate())) {
+            topK.offer(flight);
+        }
+        return topK.results();
+    }
+
+    @Override
+    public List<Flight> getAllFlights() {
+        List<Flight> all = new ArrayList<>();
+        String after = null;
+        while (true) {
+            List<Flight> page = page(after, PAGE_SIZE);
+            all.addAll(page);
+            if (page.size() < PAGE_SIZE) {
+                return all;
+            }
+            after = page.get(page.size() - 1).getFlightId();
+        }
+    }
+
+    @Override
+    public List<Flight> getFlights(String afterFlightId, int limit) {
+        List<Flight> flights = new ArrayList<>(Math.min(limit, PAGE_SIZE));
+        String after = afterFlightId;
+        while (flights.size() < limit) {
+            int wanted = Math.min(PAGE_SIZE, limit - flights.size());
+            List<Flight> page = page(after, wanted);
+            flights.addAll(page);
+            if (page.size() < wanted) {
+                break;
+            }
+            after = page.get(page.size() - 1).getFlightId();
+        }
+        return flights;
+    }
+
+    private List<Flight> page(String afterFlightId, int limit) {
+        String path = "/api/partition/flights?limit=" + limit
+                + (afterFlightId == null ? "" : "&after=" + encodeQuery(afterFlightId));
+        return flights(send(request(path).build()).body());
+    }
+
+    private List<Flight> search(String source, String destination, LocalDate fromDate, LocalDate toDate) {
+        String path = "/api/partition/search?source=" + encodeQuery(source)
+                + "&destination=" + encodeQuery(destination) + "&from=" + fromDate + "&to=" + toDate;
+        return flights(send(request(path).build()).body());
+    }
+
+    private static List<Flight> flights(String json) {
+        List<Map<String, String>> objects = JsonReader.parseArray(json);
+        List<Flight> flights = new ArrayList<>(objects.size());
+        for (Map<String, String> object : objects) {
+            flights.add(JsonReader.toFlight(object));
+        }
+        return flights;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).timeout(timeout);
+    }
+
+    /**
+     * Send a request and turn an error status into the exception the local repository would throw
+     *
+     * @param allowedStatus A non-2xx status the caller handles itself, or 0
+     */
+    private HttpResponse<String> send(HttpRequest request, int allowedStatus) {
+        HttpResponse<String> response;
+        try {
+            response = client.send(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Remote partition " + baseUrl + " is unreachable", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for remote partition " + baseUrl, e);
+        }
+
+        int status = response.statusCode();
+        if (status / 100 == 2 || status == allowedStatus) {
+            return response;
+        }
+        String message = "Remote partition " + baseUrl + " answered HTTP " + status;
+        try {
+            message = JsonReader.parseObject(response.body()).getOrDefault("error", message);
+        } catch (IllegalArgumentException e) {
+            // Not one of our error bodies - keep the status message
+        }
+        if (status == 400) {
+            throw new IllegalArgumentException(message);
+        }
+        throw new IllegalStateException(message);
+    }
+
+    private HttpResponse<String> send(HttpRequest request) {
+        return send(request, 0);
+    }
+
+    private static String encodeQuery(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String encodePath(String value) {
+        // URLEncoder targets query strings - a space must be %20 in a path
+        return encodeQuery(value).replace("+", "%20");
+    }
+}
@@ -0,0 +1,169 @@
+package com.infygo.airline.repository;
+
+/**
+ * Route schedules keyed by a pair of city codes, for CatalogSnapshot.
+ *
+ * Immutable hash trie: each level takes five bits of the mixed key, and a node keeps
+ * its routes and child nodes in arrays compacted by bitmaps. Setting a route copies only
+ * the nodes on the path to it (at most 13, each of at most 32 entries), so a write costs
+ * the same with ten routes as with a million, and every other node is shared with the
+ * index readers are using. A lookup neither allocates nor boxes a key.
+ */
+final class RouteIndex {
+
+    static final RouteIndex EMPTY = new RouteIndex(Node.EMPTY);
+
+    // Key bits consumed per trie level
+    private static final int BITS = 5;
+    private static final int FRAGMENT_MASK = (1 << BITS) - 1;
+
+    private final Node root;
+
+    private RouteIndex(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Key of the route between two city codes
+     */
+    static long key(int sourceCode, int destinationCode) {
+        return ((long) sourceCode << 32) | (destinationCode & 0xFFFFFFFFL);
+    }
+
+    /**
+     * The route's schedule, or an empty schedule - never null
+     */
+    RouteSchedule get(long key) {
+        long hash = hash(key);
+        Node node = root;
+        for (int shift = 0;; shift += BITS) {
+            int bit = bit(hash, shift);
+            if ((node.dataMap & bit) != 0) {
+                int index = index(node.dataMap, bit);
+                return node.keys[index] == key ? node.values[index] : RouteSchedule.EMPTY;
+            }
+            if ((node.nodeMap & bit) == 0) {
+                return RouteSchedule.EMPTY;
+            }
+            node = node.children[index(node.nodeMap, bit)];
+        }
+    }
+
+    /**
+     * Returns a new index with the route's schedule set; this index is unchanged
+     */
+    RouteIndex with(long key, RouteSchedule schedule) {
+        return new RouteIndex(put(root, key, hash(key), schedule, 0));
+    }
+
+    private static Node put(Node node, long key, long hash, RouteSchedule schedule, int shift) {
+        int bit = bit(hash, shift);
+        if ((node.dataMap & bit) != 0) {
+            int index = index(node.dataMap, bit);
+            if (node.keys[index] == key) {
+                RouteSchedule[] values = node.values.clone();
+                values[index] = schedule;
+                return new Node(node.dataMap, node.nodeMap, node.keys, values, node.children);
+            }
+            // Two routes share the fragment - both move down into a new child
+            Node child = pair(node.keys[index], hash(node.keys[index]), node.values[index], key, hash, schedule,
+                    shift + BITS);
+            return node.withDataMovedToChild(bit, index, child);
+        }
+        if ((node.nodeMap & bit) != 0) {
+            int index = index(node.nodeMap, bit);
+            Node[] children = node.children.clone();
+            children[index] = put(children[index], key, hash, schedule, shift + BITS);
+            return new Node(node.dataMap, node.nodeMap, node.keys, node.values, children);
+        }
+        return node.withData(bit, index(node.dataMap, bit), key, schedule);
+    }
+
+    /**
+     * Node holding two routes whose hashes agree below the shift
+     */
+    private static Node pair(long key1, long hash1, RouteSchedule value1, long key2, long hash2,
+            RouteSchedule value2, int shift) {
+        int bit1 = bit(hash1, shift);
+        int bit2 = bit(hash2, shift);
+        if (bit1 == bit2) {
+            // The mix is a bijection, so distinct keys part ways before the bits run out
+            return new Node(0, bit1, Node.NO_KEYS, Node.NO_VALUES,
+                    new Node[] { pair(key1, hash1, value1, key2, hash2, value2, shift + BITS) });
+        }
+        // Bit 31 is negative as an int, so compare unsigned
+        return Integer.compareUnsigned(bit1, bit2) < 0
+                ? new Node(bit1 | bit2, 0, new long[] { key1, key2 }, new RouteSchedule[] { value1, value2 },
+                        Node.NO_CHILDREN)
+                : new Node(bit1 | bit2, 0, new long[] { key2, key1 }, new RouteSchedule[] { value2, value1 },
+                        Node.NO_CHILDREN);
+    }
+
+    /**
+     * Spreads the city codes over all 64 bits - a bijection, so no two keys share a hash
+     */
+    private static long hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private static int bit(long hash, int shift) {
+        return 1 << (int) ((hash >>> shift) & FRAGMENT_MASK);
+    }
+
+    private static int index(int bitmap, int bit) {
+        return Integer.bitCount(bitmap & (bit - 1));
+    }
+
+    /**
+     * One trie node - routes stored here and child nodes, each in bitmap order
+     */
+    private static final class Node {
+        static final long[] NO_KEYS = new long[0];
+        static final RouteSchedule[] NO_VALUES = new RouteSchedule[0];
+        static final Node[] NO_CHILDREN = new Node[0];
+        static final Node EMPTY = new Node(0, 0, NO_KEYS, NO_VALUES, NO_CHILDREN);
+
+        final int dataMap;
+        final int nodeMap;
+        final long[] keys;
+        final RouteSchedule[] values;
+        final Node[] children;
+
+        Node(int dataMap, int nodeMap, long[] keys, RouteSchedule[] values, Node[] children) {
+            this.dataMap = dataMap;
+            this.nodeMap = nodeMap;
+            this.keys = keys;
+            this.values = values;
+            this.children = children;
+        }
+
+        Node withData(int bit, int index, long key, RouteSchedule value) {
+            long[] nextKeys = new long[keys.length + 1];
+            RouteSchedule[] nextValues = new RouteSchedule[values.length + 1];
+            System.arraycopy(keys, 0, nextKeys, 0, index);
+            System.arraycopy(values, 0, nextValues, 0, index);
+            nextKeys[index] = key;
+            nextValues[index] = value;
+            System.arraycopy(keys, index, nextKeys, index + 1, keys.length - index);
+            System.arraycopy(values, index, nextValues, index + 1, values.length - index);
+            return new Node(dataMap | bit, nodeMap, nextKeys, nextValues, children);
+        }
+
+        Node withDataMovedToChild(int bit, int dataIndex, Node child) {
+            long[] nextKeys = new long[keys.length - 1];
+            RouteSchedule[] nextValues = new RouteSchedule[values.length - 1];
+            System.arraycopy(keys, 0, nextKeys, 0, dataIndex);
+            System.arraycopy(values, 0, nextValues, 0, dataIndex);
+            System.arraycopy(keys, dataIndex + 1, nextKeys, dataIndex, keys.length - dataIndex - 1);
+            System.arraycopy(values, dataIndex + 1, nextValues, dataIndex, values.length - dataIndex - 1);
+
+            int childIndex = index(nodeMap, bit);
+            Node[] nextChildren = new Node[children.length + 1];
+            System.arraycopy(children, 0, nextChildren, 0, childIndex);
+            nextChildren[childIndex] = child;
+            System.arraycopy(children, childIndex, nextChildren, childIndex + 1, children.length - childIndex);
+            return new Node(dataMap & ~bit, nodeMap | bit, nextKeys, nextValues, nextChildren);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Immutable date index for a single route.
+ * Each date bucket is sorted by flight ID at insert time, so a search returns the
+ * bucket directly without filtering or sorting.
+ *
+ * A change copies the route's date map (O(dates on the route), which the schedule
+ * horizon keeps to a few hundred) and rebuilds only the touched date buckets.
+ */
+final class RouteSchedule {
+
+    static final RouteSchedule EMPTY = new RouteSchedule(Collections.emptyNavigableMap());
+
+    static final Comparator<Flight> BY_FLIGHT_ID = Comparator.comparing(Flight::getFlightId);
+
+    private final NavigableMap<LocalDate, List<Flight>> flightsByDate;
+
+    private RouteSchedule(NavigableMap<LocalDate, List<Flight>> flightsByDate) {
+        this.flightsByDate = flightsByDate;
+    }
+
+    /**
+     * Flights on the given date sorted by flight ID - never null
+     */
+    List<Flight> getFlights(LocalDate journeyDate) {
+        return flightsByDate.getOrDefault(journeyDate, Collections.emptyList());
+    }
+
+    /**
+     * Date buckets from fromDate to toDate inclusive, as a view of the ordered index
+     */
+    NavigableMap<LocalDate, List<Flight>> getFlightsBetween(LocalDate fromDate, LocalDate toDate) {
+        return flightsByDate.subMap(fromDate, true, toDate, true);
+    }
+
+    /**
+     * Returns a new schedule with the flight inserted into its date bucket
+     */
+    RouteSchedule withFlight(Flight flight) {
+        List<Flight> bucket = getFlights(flight.getJourneyDate());
+        Flight[] sorted = bucket.toArray(new Flight[bucket.size() + 1]);
+
+        // Binary search for the insert position, keeping the bucket in flight ID order
+        int pos = Collections.binarySearch(bucket, flight, BY_FLIGHT_ID);
+        int insertAt = pos >= 0 ? pos + 1 : -pos - 1;
+        System.arraycopy(sorted, insertAt, sorted, insertAt + 1, bucket.size() - insertAt);
+        sorted[insertAt] = flight;
+
+        NavigableMap<LocalDate, List<Flight>> dates = new TreeMap<>(flightsByDate);
+        dates.put(flight.getJourneyDate(), Collections.unmodifiableList(Arrays.asList(sorted)));
+        return new RouteSchedule(Collections.unmodifiableNavigableMap(dates));
+    }
+
+    /**
+     * Returns a new schedule with all the flights inserted - the date index is copied once
+     * and each touched bucket is re-sorted once, however many flights land in it
+     */
+    RouteSchedule withFlights(List<Flight> flights) {
+        return withChanges(flights, Collections.emptyList());
+    }
+
+    /**
+     * Returns a new schedule with flights removed and others inserted, copying the date
+     * index once and rebuilding each touched bucket once
+     *
+     * @param added   Flights to insert, with IDs not already on the route
+     * @param removed Flights on the route to take out, in flight ID order
+     */
+    RouteSchedule withChanges(List<Flight> added, List<Flight> removed) {
+        return withChanges(added, groupByDate(removed));
+    }
+
+    /**
+     * Returns a new schedule with flights removed from the given date buckets and others inserted
+     *
+     * @param added         Flights to insert, with IDs not already on the route
+     * @param removedByDate Flights to take out of each date bucket, in flight ID order
+     */
+    RouteSchedule withChanges(List<Flight> added, Map<LocalDate, List<Flight>> removedByDate) {
+        Map<LocalDate, List<Flight>> addedByDate = groupByDate(added);
+
+        NavigableMap<LocalDate, List<Flight>> dates = new TreeMap<>(flightsByDate);
+        for (LocalDate date : removedByDate.keySet()) {
+            rebuildBucket(dates, date, addedByDate.getOrDefault(date, Collections.emptyList()),
+                    removedByDate.get(date));
+        }
+        for (Map.Entry<LocalDate, List<Flight>> entry : addedByDate.entrySet()) {
+            if (!removedByDate.containsKey(entry.getKey())) {
+                rebuildBucket(dates, entry.getKey(), entry.getValue(), Collections.emptyList());
+            }
+        }
+        return dates.isEmpty() ? EMPTY : new RouteSchedule(Collections.unmodifiableNavigableMap(dates));
+    }
+
+    private void rebuildBucket(NavigableMap<LocalDate, List<Flight>> dates, LocalDate date, List<Flight> added,
+            List<Flight> removed) {
+        List<Flight> bucket = getFlights(date);
+        Flight[] sorted = new Flight[bucket.size() + added.size()];
+        int length = 0;
+
+        // Bucket and removed flights are both in ID order - drop the removed ones in one pass
+        int next = 0;
+        for (Flight flight : bucket) {
+            while (next < removed.size() && BY_FLIGHT_ID.compare(removed.get(next), flight) < 0) {
+                next++;
+            }
+            if (next < removed.size() && removed.get(next).getFlightId().equals(flight.getFlightId())) {
+                next++;
+                continue;
+            }
+            sorted[length++] = flight;
+        }
+        for (Flight flight : added) {
+            sorted[length++] = flight;
+        }
+
+        if (length == 0) {
+            dates.remove(date);
+            return;
+        }
+        // Added flights usually arrive in ID order, so this merges two sorted runs
+        Arrays.sort(sorted, 0, length, BY_FLIGHT_ID);
+        dates.put(date, Collections.unmodifiableList(Arrays.asList(
+                length == sorted.length ? sorted : Arrays.copyOf(sorted, length))));
+    }
+
+    private static Map<LocalDate, List<Flight>> groupByDate(List<Flight> flights) {
+        if (flights.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Map<LocalDate, List<Flight>> byDate = new HashMap<>();
+        for (Flight flight : flights) {
+            byDate.computeIfAbsent(flight.getJourneyDate(), d -> new ArrayList<>()).add(flight);
+        }
+        return byDate;
+    }
+}
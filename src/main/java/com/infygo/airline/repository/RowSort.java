@@ -0,0 +1,42 @@
+package com.infygo.airline.repository;
+
+import java.util.function.IntBinaryOperator;
+
+/**
+ * Sorting for arrays of row or record numbers whose order is defined by stored columns.
+ * Works on int[] directly, so sorting millions of rows boxes nothing.
+ */
+final class RowSort {
+
+    private RowSort() {
+    }
+
+    /**
+     * Stable bottom-up merge sort of rows[from, to)
+     */
+    static void sort(int[] rows, int from, int to, IntBinaryOperator order) {
+        int[] buffer = new int[to - from];
+        for (int width = 1; width < to - from; width *= 2) {
+            for (int left = from; left < to - width; left += 2 * width) {
+                int mid = left + width;
+                int right = Math.min(mid + width, to);
+                if (order.applyAsInt(rows[mid - 1], rows[mid]) <= 0) {
+                    continue; // already in order
+                }
+                int i = left;
+                int j = mid;
+                int k = 0;
+                while (i < mid && j < right) {
+                    buffer[k++] = order.applyAsInt(rows[i], rows[j]) <= 0 ? rows[i++] : rows[j++];
+                }
+                while (i < mid) {
+                    buffer[k++] = rows[i++];
+                }
+                while (j < right) {
+                    buffer[k++] = rows[j++];
+                }
+                System.arraycopy(buffer, 0, rows, left, k);
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes binary catalog snapshots.
+ *
+ * Layout: magic, format version, log sequence covered, flight count, then one record per
+ * flight in flight ID order. Airline and city names repeat across millions of flights, so
+ * they are written once and referenced by dictionary index afterwards.
+ */
+final class SnapshotStore {
+
+    private static final int MAGIC = 0x494E4647; // "INFG"
+    private static final int FORMAT_VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private SnapshotStore() {
+    }
+
+    /**
+     * Flights read from a snapshot and the log sequence they cover
+     */
+    static final class Contents {
+        private final long sequence;
+        private final List<Flight> flights;
+
+        Contents(long sequence, List<Flight> flights) {
+            this.sequence = sequence;
+            this.flights = flights;
+        }
+
+        long getSequence() {
+            return sequence;
+        }
+
+        List<Flight> getFlights() {
+            return flights;
+        }
+    }
+
+    /**
+     * Write a snapshot atomically - readers see the old file or the complete new one
+     *
+     * @param flights Flights in flight ID order
+     */
+    static void write(Path file, long sequence, List<Flight> flights) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            OutputStream stream = Channels.newOutputStream(channel);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream, BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sequence);
+            out.writeInt(flights.size());
+
+            Map<String, Integer> dictionary = new HashMap<>();
+            for (Flight flight : flights) {
+                out.writeUTF(flight.getFlightId());
+                writeName(out, dictionary, flight.getAirlines());
+                writeName(out, dictionary, flight.getSource());
+                writeName(out, dictionary, flight.getDestination());
+                out.writeDouble(flight.getFare());
+                out.writeInt((int) flight.getJourneyDate().toEpochDay());
+                out.writeInt(flight.getSeatCount());
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a snapshot; the flights come back in flight ID order
+     */
+    static Contents read(Path file) throws IOException {
+        try (InputStream stream = Files.newInputStream(file)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(stream, BUFFER_SIZE));
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Not a flight catalog snapshot: " + file);
+            }
+            long sequence = in.readLong();
+            int count = in.readInt();
+
+            List<String> dictionary = new ArrayList<>();
+            List<Flight> flights = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                flights.add(new Flight(in.readUTF(), readName(in, dictionary), readName(in, dictionary),
+                        readName(in, dictionary), in.readDouble(), LocalDate.ofEpochDay(in.readInt()), in.readInt()));
+            }
+            return new Contents(sequence, flights);
+        }
+    }
+
+    /**
+     * Dictionary index; an index equal to the dictionary size introduces a new name
+     */
+    private static void writeName(DataOutputStream out, Map<String, Integer> dictionary, String name)
+            throws IOException {
+        Integer index = dictionary.get(name);
+        if (index != null) {
+            out.writeInt(index);
+            return;
+        }
+        out.writeInt(dictionary.size());
+        out.writeUTF(name);
+        dictionary.put(name, dictionary.size());
+    }
+
+    private static String readName(DataInputStream in, List<String> dictionary) throws IOException {
+        int index = in.readInt();
+        if (index < dictionary.size()) {
+            return dictionary.get(index);
+        }
+        String name = in.readUTF();
+        dictionary.add(name);
+        return name;
+    }
+}
@@ -0,0 +1,139 @@
+package com.infygo.airline.repository;
+
+import java.util.Arrays;
+
+/**
+ * Assigns dense int codes to strings, in order of first appearance.
+ * An open-addressing hash table over the code array: lookups hash the string in place
+ * and allocate nothing, which matters when every search starts with two city lookups.
+ *
+ * Not thread-safe - callers guard it with their own lock.
+ */
+final class StringDictionary {
+
+    static final int NOT_FOUND = -1;
+
+    // Keep the table at most half full so probe chains stay short
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final boolean ignoreCase;
+    private String[] values = new String[INITIAL_CAPACITY];
+    private int size;
+
+    // Slots hold code + 1; 0 marks an empty slot
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+
+    /**
+     * @param ignoreCase True to treat strings that differ only in case as the same entry
+     */
+    StringDictionary(boolean ignoreCase) {
+        this.ignoreCase = ignoreCase;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * An independent copy - lets a published, read-only dictionary gain entries through
+     * a copy while readers keep using the original
+     */
+    StringDictionary copy() {
+        StringDictionary copy = new StringDictionary(ignoreCase);
+        copy.values = values.clone();
+        copy.table = table.clone();
+        copy.size = size;
+        return copy;
+    }
+
+    /**
+     * The string for a code - the spelling it was first added with
+     */
+    String get(int code) {
+        return values[code];
+    }
+
+    /**
+     * Code of the string, or NOT_FOUND
+     */
+    int find(String value) {
+        int mask = table.length - 1;
+        for (int slot = hash(value) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int code = table[slot] - 1;
+            if (matches(values[code], value)) {
+                return code;
+            }
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Code of the string, adding it with the next free code if it is new
+     */
+    int intern(String value) {
+        int mask = table.length - 1;
+        int slot = hash(value) & mask;
+        for (; table[slot] != 0; slot = (slot + 1) & mask) {
+            int code = table[slot] - 1;
+            if (matches(values[code], value)) {
+                return code;
+            }
+        }
+
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size + (size >> 1));
+        }
+        int code = size++;
+        values[code] = value;
+        table[slot] = code + 1;
+
+        if (size * 2 > table.length) {
+            rehash();
+        }
+        return code;
+    }
+
+    private boolean matches(String stored, String value) {
+        return ignoreCase ? stored.equalsIgnoreCase(value) : stored.equals(value);
+    }
+
+    /**
+     * String hash, folded to one case when ignoring case, spread so the low bits vary
+     */
+    private int hash(String value) {
+        int h;
+        if (ignoreCase) {
+            h = 0;
+            for (int i = 0; i < value.length(); i++) {
+                h = 31 * h + fold(value.charAt(i));
+            }
+        } else {
+            h = value.hashCode();
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Same folding as String.equalsIgnoreCase, so equal strings hash equally - with a
+     * shortcut for ASCII, which city names almost always are
+     */
+    private static int fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? c + ('a' - 'A') : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private void rehash() {
+        int[] grown = new int[table.length * 2];
+        int mask = grown.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = hash(values[code]) & mask;
+            while (grown[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            grown[slot] = code + 1;
+        }
+        table = grown;
+    }
+}
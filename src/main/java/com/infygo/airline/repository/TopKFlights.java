@@ -0,0 +1,150 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Applies a FlightQuery's filters to candidate flights and keeps only the best K.
+ * Candidates are held in a bounded binary max-heap over primitive sort keys, so the
+ * work per candidate is O(log K) and nothing beyond the K results is allocated. The heap
+ * starts small and doubles as candidates are kept, so a large limit costs nothing until
+ * that many flights actually match.
+ */
+final class TopKFlights {
+
+    // Heap slots allocated up front - grown on demand up to the limit
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final FlightQuery query;
+    private final ToIntFunction<Flight> availableSeats;
+
+    // Max-heap ordered by (key, flightId) - the worst kept flight sits at index 0
+    private double[] keys;
+    private Flight[] flights;
+    private int size;
+    private final int limit;
+
+    TopKFlights(FlightQuery query, ToIntFunction<Flight> availableSeats) {
+        this.query = query;
+        this.availableSeats = availableSeats;
+        this.limit = query.getLimit();
+        this.keys = new double[Math.min(limit, INITIAL_CAPACITY)];
+        this.flights = new Flight[keys.length];
+    }
+
+    /**
+     * Filter a candidate and keep it if it ranks among the best K so far
+     */
+    void offer(Flight flight) {
+        // Cheap filters first - seat availability may need a lookup
+        if (query.getMaxFare() != null && flight.getFare() > query.getMaxFare()) {
+            return;
+        }
+        if (query.getAirlines() != null && !query.getAirlines().equalsIgnoreCase(flight.getAirlines())) {
+            return;
+        }
+
+        int seats = 0;
+        if (query.getMinSeats() > 0 || query.getSortBy() == FlightQuery.SortBy.SEATS) {
+            seats = availableSeats.applyAsInt(flight);
+            if (seats < query.getMinSeats()) {
+                return;
+            }
+        }
+
+        // Lower key ranks first: cheapest fare, or most seats
+        double key = query.getSortBy() == FlightQuery.SortBy.SEATS ? -seats : flight.getFare();
+
+        if (size < limit) {
+            if (size == keys.length) {
+                grow();
+            }
+            keys[size] = key;
+            flights[size] = flight;
+            siftUp(size++);
+        } else if (worse(keys[0], flights[0], key, flight)) {
+            keys[0] = key;
+            flights[0] = flight;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Cheap pre-check for callers that hold fares outside Flight objects: false only when a
+     * flight with this fare certainly could not be kept, so no Flight needs to be built
+     */
+    boolean mayAccept(double fare) {
+        return query.getSortBy() != FlightQuery.SortBy.FARE || size < limit || fare <= keys[0];
+    }
+
+    /**
+     * The kept flights, best first
+     */
+    List<Flight> results() {
+        Flight[] ordered = new Flight[size];
+        // Pop the worst repeatedly, filling the result from the back
+        for (int last = size - 1; last >= 0; last--) {
+            ordered[last] = flights[0];
+            size--;
+            keys[0] = keys[size];
+            flights[0] = flights[size];
+            flights[size] = null;
+            siftDown(0);
+        }
+        return Arrays.asList(ordered);
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(limit, 2L * keys.length);
+        keys = Arrays.copyOf(keys, capacity);
+        flights = Arrays.copyOf(flights, capacity);
+    }
+
+    /**
+     * True if entry a ranks after entry b
+     */
+    private static boolean worse(double keyA, Flight flightA, double keyB, Flight flightB) {
+        int cmp = Double.compare(keyA, keyB);
+        return cmp > 0 || (cmp == 0 && flightA.getFlightId().compareTo(flightB.getFlightId()) > 0);
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!worse(keys[index], flights[index], keys[parent], flights[parent])) {
+                return;
+            }
+            swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int right = left + 1;
+            int worst = right < size && worse(keys[right], flights[right], keys[left], flights[left]) ? right : left;
+            if (!worse(keys[worst], flights[worst], keys[index], flights[index])) {
+                return;
+            }
+            swap(index, worst);
+            index = worst;
+        }
+    }
+
+    private void swap(int i, int j) {
+        double key = keys[i];
+        keys[i] = keys[j];
+        keys[j] = key;
+        Flight flight = flights[i];
+        flights[i] = flights[j];
+        flights[j] = flight;
+    }
+}
@@ -0,0 +1,353 @@
+package com.infygo.airline.repository;
+
+import com.infygo.airline.domain.Flight;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of catalog mutations with group commit.
+ *
+ * Writers append records to an in-memory buffer and receive a sequence number; a single
+ * committer thread writes everything buffered so far and fsyncs once for the whole group,
+ * then wakes the writers waiting on it. The log is split into segments named after their
+ * first sequence number, so segments fully covered by a snapshot can be deleted.
+ *
+ * Record layout: payload length, sequence, payload (operation + flight), CRC32 of
+ * sequence and payload. A torn record at the end of a segment is discarded on replay.
+ */
+final class WriteAheadLog implements Closeable {
+
+    // Add or replace a flight
+    static final byte OP_ADD = 1;
+    // Remove a flight - logged with the removed flight, of which replay only needs the ID
+    static final byte OP_REMOVE = 2;
+
+    private static final String SEGMENT_PREFIX = "wal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * Receives replayed records in log order
+     */
+    interface Replayer {
+        void apply(byte operation, Flight flight);
+    }
+
+    private final Path directory;
+    private final long groupCommitNanos;
+
+    // Guards everything below except the channel, which only the committer touches
+    private final Object lock = new Object();
+    private final ByteArrayOutputStream pending = new ByteArrayOutputStream(1 << 16);
+    private final DataOutputStream pendingOut = new DataOutputStream(pending);
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+    private final DataOutputStream recordOut = new DataOutputStream(record);
+    private final CRC32 crc = new CRC32();
+    private final List<Long> segmentStarts = new ArrayList<>();
+    private long appendedSequence;
+    private long durableSequence;
+    private long rotationsRequested;
+    private long rotationsCompleted;
+    private boolean closed;
+    private IOException failure;
+
+    private FileChannel channel;
+    private final Thread committer;
+
+    /**
+     * Open the log for appending after the given sequence, starting a new segment
+     */
+    WriteAheadLog(Path directory, long lastSequence, long groupCommitNanos) throws IOException {
+        this.directory = directory;
+        this.groupCommitNanos = groupCommitNanos;
+        this.appendedSequence = lastSequence;
+        this.durableSequence = lastSequence;
+
+        segmentStarts.addAll(listSegments(directory));
+        openSegment(lastSequence + 1);
+
+        committer = new Thread(this::commitLoop, "flight-wal-committer");
+        committer.setDaemon(true);
+        committer.start();
+    }
+
+    /**
+     * Buffer a record; it is durable once awaitDurable returns for its sequence
+     *
+     * @return The record's sequence number
+     */
+    long append(byte operation, Flight flight) throws IOException {
+        synchronized (lock) {
+            if (closed || failure != null) {
+                throw new IOException("Write-ahead log is not writable", failure);
+            }
+
+            long sequence = ++appendedSequence;
+            record.reset();
+            recordOut.writeByte(operation);
+            FlightRecordCodec.write(recordOut, flight);
+
+            crc.reset();
+            crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+            crc.update(record.toByteArray());
+
+            pendingOut.writeInt(record.size());
+            pendingOut.writeLong(sequence);
+            record.writeTo(pendingOut);
+            pendingOut.writeInt((int) crc.getValue());
+
+            lock.notifyAll();
+            return sequence;
+        }
+    }
+
+    /**
+     * Block until every record up to the sequence has been fsynced
+     */
+    void awaitDurable(long sequence) throws IOException {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (durableSequence < sequence && failure == null) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (durableSequence < sequence) {
+                throw new IOException("Write-ahead log commit failed", failure);
+            }
+        }
+    }
+
+    long getAppendedSequence() {
+        synchronized (lock) {
+            return appendedSequence;
+        }
+    }
+
+    /**
+     * Start a new segment at the next commit, so the current one can be retired
+     *
+     * @return Ticket to pass to awaitRotation
+     */
+    long requestRotation() {
+        synchronized (lock) {
+            lock.notifyAll();
+            return ++rotationsRequested;
+        }
+    }
+
+    /**
+     * Block until the requested rotation has happened - every record appended before the
+     * request is then in a segment that is no longer written to
+     */
+    void awaitRotation(long ticket) throws IOException {
+        synchronized (lock) {
+            boolean interrupted = false;
+            while (rotationsCompleted < ticket && failure == null && !closed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            if (rotationsCompleted < ticket) {
+                throw new IOException("Write-ahead log rotation failed", failure);
+            }
+        }
+    }
+
+    /**
+     * Delete segments whose records are all at or below the sequence (covered by a snapshot)
+     */
+    void deleteSegmentsUpTo(long sequence) throws IOException {
+        List<Long> obsolete = new ArrayList<>();
+        synchronized (lock) {
+            // A segment ends just before the next one starts; the newest segment is never deleted
+            while (segmentStarts.size() > 1 && segmentStarts.get(1) - 1 <= sequence) {
+                obsolete.add(segmentStarts.remove(0));
+            }
+        }
+        for (long start : obsolete) {
+            Files.deleteIfExists(segmentPath(directory, start));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            committer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        channel.close();
+    }
+
+    /**
+     * Committer thread: write and fsync whatever has been buffered, one group at a time
+     */
+    private void commitLoop() {
+        try {
+            while (true) {
+                synchronized (lock) {
+                    while (pending.size() == 0 && rotationsCompleted == rotationsRequested && !closed) {
+                        lock.wait();
+                    }
+                    if (closed && pending.size() == 0) {
+                        return;
+                    }
+                }
+
+                // Give concurrent writers a moment to join this group
+                if (groupCommitNanos > 0 && !closed) {
+                    LockSupport.parkNanos(groupCommitNanos);
+                }
+
+                byte[] group;
+                long groupSequence;
+                long rotation;
+                synchronized (lock) {
+                    group = pending.toByteArray();
+                    pending.reset();
+                    groupSequence = appendedSequence;
+                    rotation = rotationsRequested;
+                }
+
+                ByteBuffer buffer = ByteBuffer.wrap(group);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                channel.force(false);
+
+                boolean rotate = rotation > rotationsCompleted;
+                if (rotate) {
+                    channel.close();
+                    openSegment(groupSequence + 1);
+                }
+
+                synchronized (lock) {
+                    durableSequence = groupSequence;
+                    rotationsCompleted = rotation;
+                    lock.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void openSegment(long firstSequence) throws IOException {
+        channel = FileChannel.open(segmentPath(directory, firstSequence), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        synchronized (lock) {
+            if (segmentStarts.isEmpty() || segmentStarts.get(segmentStarts.size() - 1) != firstSequence) {
+                segmentStarts.add(firstSequence);
+            }
+        }
+    }
+
+    /**
+     * Replay every record after the given sequence, oldest first
+     *
+     * @return The highest sequence found in the log, or afterSequence if there is none
+     */
+    static long replay(Path directory, long afterSequence, Replayer replayer) throws IOException {
+        long lastSequence = afterSequence;
+        CRC32 crc = new CRC32();
+
+        for (long start : listSegments(directory)) {
+            Path segment = segmentPath(directory, start);
+            long validBytes = 0;
+
+            try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                InputStream stream = Channels.newInputStream(channel);
+                DataInputStream in = new DataInputStream(new BufferedInputStream(stream, 1 << 20));
+                while (true) {
+                    byte[] payload;
+                    long sequence;
+                    try {
+                        int length = in.readInt();
+                        sequence = in.readLong();
+                        payload = new byte[length];
+                        in.readFully(payload);
+                        int checksum = in.readInt();
+
+                        crc.reset();
+                        crc.update(ByteBuffer.allocate(Long.BYTES).putLong(0, sequence));
+                        crc.update(payload);
+                        if ((int) crc.getValue() != checksum) {
+                            break; // torn or corrupt record - the rest of the segment is unusable
+                        }
+                        validBytes += Integer.BYTES + Long.BYTES + length + Integer.BYTES;
+                    } catch (EOFException | NegativeArraySizeException e) {
+                        break;
+                    }
+
+                    if (sequence > afterSequence) {
+                        DataInputStream record = new DataInputStream(new ByteArrayInputStream(payload));
+                        replayer.apply(record.readByte(), FlightRecordCodec.read(record));
+                    }
+                    lastSequence = Math.max(lastSequence, sequence);
+                }
+
+                // Drop the torn tail so later appends are never hidden behind it
+                if (channel.size() > validBytes) {
+                    channel.truncate(validBytes);
+                }
+            }
+        }
+        return lastSequence;
+    }
+
+    private static List<Long> listSegments(Path directory) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                starts.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        starts.sort(null);
+        return starts;
+    }
+
+    private static Path segmentPath(Path directory, long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+    }
+}
@@ -0,0 +1,80 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Booking;
+import com.infygo.airline.domain.SeatHold;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Service interface for seat booking operations.
+ */
+public interface BookingService {
+    /**
+     * Book seats for one or more passengers on a flight
+     * 
+     * @param flightId       The flight to book
+     * @param passengerCount Number of seats to book
+     * @return The confirmed booking
+     */
+    Booking bookSeats(String flightId, int passengerCount);
+
+    /**
+     * Book the same passengers on every flight of an itinerary.
+     * Either every flight is booked or none is.
+     * 
+     * @param flightIds      Flights of the itinerary
+     * @param passengerCount Number of seats to book on each flight
+     * @return One booking per flight, in itinerary order
+     */
+    List<Booking> bookItinerary(List<String> flightIds, int passengerCount);
+
+    /**
+     * Cancel a booking and return its seats to the flight
+     * 
+     * @param bookingId The booking to cancel
+     */
+    void cancelBooking(String bookingId);
+
+    /**
+     * Set seats aside on a flight for the default hold time. Held seats are not available
+     * to anyone else until the hold is confirmed, released or expires.
+     * 
+     * @param flightId       The flight to hold seats on
+     * @param passengerCount Number of seats to hold
+     * @return The hold, with the time it expires
+     */
+    SeatHold holdSeats(String flightId, int passengerCount);
+
+    /**
+     * Set seats aside on a flight for the given time
+     * 
+     * @param flightId       The flight to hold seats on
+     * @param passengerCount Number of seats to hold
+     * @param ttl            How long the seats are held
+     * @return The hold, with the time it expires
+     */
+    SeatHold holdSeats(String flightId, int passengerCount, Duration ttl);
+
+    /**
+     * Turn a hold into a booking of its seats
+     * 
+     * @param holdId The hold to confirm
+     * @return The confirmed booking
+     */
+    Booking confirmHold(String holdId);
+
+    /**
+     * Give up a hold and return its seats to the flight
+     * 
+     * @param holdId The hold to release
+     */
+    void releaseHold(String holdId);
+
+    /**
+     * Get the number of seats still available on a flight
+     * 
+     * @param flightId The flight ID
+     * @return Seat count minus seats already booked
+     */
+    int getAvailableSeats(String flightId);
+}
@@ -0,0 +1,276 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Booking;
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.SeatHold;
+import com.infygo.airline.repository.FlightRepository;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Implementation of the BookingService interface.
+ * Seats are taken from the SeatInventory with lock-free compare-and-set, so a popular
+ * flight can never be overbooked no matter how many threads book it at once.
+ *
+ * Held seats are taken from the inventory the same way, and each hold has a state that
+ * leaves "held" exactly once, by compare-and-set: confirmed, released or expired. Only
+ * the release or expiry that wins returns the seats, so they are never returned twice.
+ * Expiry is scheduled on a hashed timing wheel and cancelled when the hold is confirmed
+ * or released, both O(1) however many holds are outstanding.
+ */
+@Service
+public class BookingServiceImpl implements BookingService {
+
+    private final FlightRepository flightRepository;
+    private final SeatInventory seatInventory;
+
+    // Confirmed bookings by booking ID
+    private final Map<String, Booking> bookings = new ConcurrentHashMap<>();
+    private final AtomicLong bookingIdGenerator = new AtomicLong(5000);
+
+    // Outstanding holds by hold ID
+    private final Map<String, Hold> holds = new ConcurrentHashMap<>();
+    private final AtomicLong holdIdGenerator = new AtomicLong(7000);
+    private final Duration defaultHoldTime;
+    private final Duration maxHoldTime;
+    private final TimingWheel holdExpiry;
+
+    private final LongAdder expiredHolds = new LongAdder();
+
+    /**
+     * @param holdSeconds       Hold time when the caller does not give one
+     * @param maxHoldSeconds    Longest hold time a caller may ask for
+     * @param expiryTickMillis  Resolution of hold expiry - a hold expires up to this much late
+     * @param expiryWheelSize   Slots of the expiry timing wheel
+     */
+    @Autowired
+    public BookingServiceImpl(FlightRepository flightRepository, SeatInventory seatInventory,
+            @Value("${infygo.holds.hold-seconds:600}") long holdSeconds,
+            @Value("${infygo.holds.max-hold-seconds:3600}") long maxHoldSeconds,
+            @Value("${infygo.holds.expiry-tick-millis:100}") long expiryTickMillis,
+            @Value("${infygo.holds.expiry-wheel-size:1024}") int expiryWheelSize) {
+        if (holdSeconds <= 0 || maxHoldSeconds < holdSeconds) {
+            throw new IllegalArgumentException("Invalid seat hold settings");
+        }
+        this.flightRepository = flightRepository;
+        this.seatInventory = seatInventory;
+        this.defaultHoldTime = Duration.ofSeconds(holdSeconds);
+        this.maxHoldTime = Duration.ofSeconds(maxHoldSeconds);
+        this.holdExpiry = new TimingWheel(expiryTickMillis, expiryWheelSize, "seat-hold-expiry");
+    }
+
+    @Override
+    public Booking bookSeats(String flightId, int passengerCount) {
+        validatePassengerCount(passengerCount);
+        Flight flight = getFlight(flightId);
+        reserve(flight, passengerCount);
+        return confirm(flight.getFlightId(), passengerCount);
+    }
+
+    @Override
+    public List<Booking> bookItinerary(List<String> flightIds, int passengerCount) {
+        if (flightIds == null || flightIds.isEmpty()) {
+            throw new IllegalArgumentException("Itinerary must contain at least one flight");
+        }
+        validatePassengerCount(passengerCount);
+
+        // Resolve every flight before touching any inventory
+        List<Flight> flights = new ArrayList<>(flightIds.size());
+        for (String flightId : flightIds) {
+            flights.add(getFlight(flightId));
+        }
+
+        // Reserve leg by leg, rolling back the legs already taken if one fails
+        int reserved = 0;
+        try {
+            for (Flight flight : flights) {
+                reserve(flight, passengerCount);
+                reserved++;
+            }
+        } finally {
+            if (reserved < flights.size()) {
+                for (int i = 0; i < reserved; i++) {
+                    seatInventory.release(flights.get(i).getFlightId(), passengerCount);
+                }
+            }
+        }
+
+        List<Booking> itinerary = new ArrayList<>(flights.size());
+        for (Flight flight : flights) {
+            itinerary.add(confirm(flight.getFlightId(), passengerCount));
+        }
+        return itinerary;
+    }
+
+    @Override
+    public void cancelBooking(String bookingId) {
+        // Removing the booking first guarantees its seats are released only once
+        Booking booking = bookingId == null ? null : bookings.remove(bookingId);
+        if (booking == null) {
+            throw new IllegalArgumentException("Booking not found: " + bookingId);
+        }
+        seatInventory.release(booking.getFlightId(), booking.getPassengerCount());
+    }
+
+    @Override
+    public SeatHold holdSeats(String flightId, int passengerCount) {
+        return holdSeats(flightId, passengerCount, defaultHoldTime);
+    }
+
+    @Override
+    public SeatHold holdSeats(String flightId, int passengerCount, Duration ttl) {
+        validatePassengerCount(passengerCount);
+        if (ttl == null || ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxHoldTime) > 0) {
+            throw new IllegalArgumentException("Hold time must be between 1 and " + maxHoldTime.getSeconds()
+                    + " seconds");
+        }
+        Flight flight = getFlight(flightId);
+        reserve(flight, passengerCount);
+
+        Hold hold = new Hold(new SeatHold("HLD" + holdIdGenerator.incrementAndGet(), flight.getFlightId(),
+                passengerCount, Instant.now().plus(ttl)));
+        holds.put(hold.seatHold.getHoldId(), hold);
+        hold.expiry = holdExpiry.schedule(() -> expire(hold), ttl.toNanos(), TimeUnit.NANOSECONDS);
+        return hold.seatHold;
+    }
+
+    @Override
+    public Booking confirmHold(String holdId) {
+        Hold hold = getHold(holdId);
+        // Expiry runs up to a tick late - a hold past its time cannot be confirmed meanwhile
+        if (!Instant.now().isBefore(hold.seatHold.getExpiresAt())) {
+            expire(hold);
+        }
+        if (!hold.state.compareAndSet(HoldState.HELD, HoldState.CONFIRMED)) {
+            throw new IllegalStateException("Seat hold is no longer active: " + holdId);
+        }
+        holds.remove(hold.seatHold.getHoldId());
+        cancelExpiry(hold);
+        // The held seats become the booking's seats
+        return confirm(hold.seatHold.getFlightId(), hold.seatHold.getPassengerCount());
+    }
+
+    @Override
+    public void releaseHold(String holdId) {
+        Hold hold = getHold(holdId);
+        if (!hold.state.compareAndSet(HoldState.HELD, HoldState.RELEASED)) {
+            throw new IllegalStateException("Seat hold is no longer active: " + holdId);
+        }
+        holds.remove(hold.seatHold.getHoldId());
+        cancelExpiry(hold);
+        seatInventory.release(hold.seatHold.getFlightId(), hold.seatHold.getPassengerCount());
+    }
+
+    /**
+     * Return the seats of a hold that ran out of time, unless it was confirmed or released first
+     */
+    private void expire(Hold hold) {
+        if (hold.state.compareAndSet(HoldState.HELD, HoldState.EXPIRED)) {
+            holds.remove(hold.seatHold.getHoldId());
+            seatInventory.release(hold.seatHold.getFlightId(), hold.seatHold.getPassengerCount());
+            expiredHolds.increment();
+        }
+    }
+
+    private void cancelExpiry(Hold hold) {
+        // Null only if the hold is settled before holdSeats stored its timeout - it then expires as a no-op
+        TimingWheel.Timeout expiry = hold.expiry;
+        if (expiry != null) {
+            expiry.cancel();
+        }
+    }
+
+    private Hold getHold(String holdId) {
+        Hold hold = holdId == null ? null : holds.get(holdId.trim());
+        if (hold == null) {
+            throw new IllegalArgumentException("Seat hold not found: " + holdId);
+        }
+        return hold;
+    }
+
+    /**
+     * Holds not yet confirmed, released or expired
+     */
+    public int getActiveHolds() {
+        return holds.size();
+    }
+
+    /**
+     * Holds whose seats went back to the flight because they ran out of time
+     */
+    public long getExpiredHolds() {
+        return expiredHolds.sum();
+    }
+
+    /**
+     * Stop expiring holds
+     */
+    @PreDestroy
+    public void close() {
+        holdExpiry.close();
+    }
+
+    @Override
+    public int getAvailableSeats(String flightId) {
+        return seatInventory.getAvailableSeats(getFlight(flightId));
+    }
+
+    /**
+     * Take seats from the flight's inventory or fail without changing it
+     */
+    private void reserve(Flight flight, int passengerCount) {
+        if (!seatInventory.tryReserve(flight.getFlightId(), flight.getSeatCount(), passengerCount)) {
+            throw new IllegalStateException("Not enough seats available on flight " + flight.getFlightId());
+        }
+    }
+
+    private Booking confirm(String flightId, int passengerCount) {
+        Booking booking = new Booking("BKG" + bookingIdGenerator.incrementAndGet(), flightId, passengerCount);
+        bookings.put(booking.getBookingId(), booking);
+        return booking;
+    }
+
+    private Flight getFlight(String flightId) {
+        if (flightId == null) {
+            throw new IllegalArgumentException("Flight ID is required");
+        }
+        return flightRepository.findFlight(flightId.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+    }
+
+    private void validatePassengerCount(int passengerCount) {
+        if (passengerCount <= 0) {
+            throw new IllegalArgumentException("Passenger count must be greater than zero");
+        }
+    }
+
+    private enum HoldState {
+        HELD, CONFIRMED, RELEASED, EXPIRED
+    }
+
+    /**
+     * A hold and its state, which changes from HELD at most once
+     */
+    private static final class Hold {
+        private final SeatHold seatHold;
+        private final AtomicReference<HoldState> state = new AtomicReference<>(HoldState.HELD);
+        private volatile TimingWheel.Timeout expiry;
+
+        Hold(SeatHold seatHold) {
+            this.seatHold = seatHold;
+        }
+    }
+}
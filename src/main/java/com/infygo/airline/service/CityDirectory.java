@@ -0,0 +1,199 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.repository.FlightRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Canonical city and airline names of the catalog, with aliases, autocomplete and typo lookup.
+ *
+ * The names come from the flights themselves: the existing catalog is scanned once and
+ * every added flight is reported as a catalog listener. Aliases (e.g. Bengaluru for
+ * Bangalore, or an airport code) are configured and only apply to names the catalog
+ * actually contains - a city that is a real name in the catalog is never redirected.
+ *
+ * Lookups read an immutable NameIndex and take no lock. The index is rebuilt only when a
+ * flight brings a name that has not been seen before, which after the initial load is rare.
+ * Names stay when their flights are removed - a city served today is usually served again.
+ */
+@Component
+public class CityDirectory implements FlightCatalogListener {
+
+    // Page size used when reading names from an existing catalog
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    private final Map<String, String> cityAliases;
+    private final Map<String, String> airlineAliases;
+
+    // Every name seen so far - guarded by this; the published indexes are rebuilt from them
+    private final List<String> cityNames = new ArrayList<>();
+    private final List<String> airlineNames = new ArrayList<>();
+
+    private volatile NameIndex cities = NameIndex.EMPTY;
+    private volatile NameIndex airlines = NameIndex.EMPTY;
+
+    /**
+     * @param cityAliases    Comma separated alias:City pairs, e.g. Bengaluru:Bangalore,BLR:Bangalore
+     * @param airlineAliases Comma separated alias:Airline pairs, e.g. 6E:IndiGo
+     */
+    @Autowired
+    public CityDirectory(FlightRepository flightRepository,
+            @Value("${infygo.cities.aliases:}") String cityAliases,
+            @Value("${infygo.airlines.aliases:}") String airlineAliases) {
+        this.cityAliases = parseAliases(cityAliases);
+        this.airlineAliases = parseAliases(airlineAliases);
+
+        // Pick up names that are already in the repository, then build both indexes once.
+        // Exact sets are enough here - the index merges names that differ only in case.
+        Set<String> existingCities = new HashSet<>();
+        Set<String> existingAirlines = new HashSet<>();
+        String cursor = null;
+        List<Flight> page;
+        while (!(page = flightRepository.getFlights(cursor, SCAN_PAGE_SIZE)).isEmpty()) {
+            for (Flight flight : page) {
+                existingCities.add(flight.getSource());
+                existingCities.add(flight.getDestination());
+                existingAirlines.add(flight.getAirlines());
+            }
+            cursor = page.get(page.size() - 1).getFlightId();
+        }
+        cityNames.addAll(existingCities);
+        airlineNames.addAll(existingAirlines);
+        cities = new NameIndex(cityNames, this.cityAliases);
+        airlines = new NameIndex(airlineNames, this.airlineAliases);
+    }
+
+    @Override
+    public void onFlightAdded(Flight flight) {
+        onFlightsAdded(List.of(flight));
+    }
+
+    @Override
+    public void onFlightsAdded(Collection<Flight> flights) {
+        // Lock-free check first: almost every flight uses names that are already indexed
+        NameIndex currentCities = cities;
+        NameIndex currentAirlines = airlines;
+        boolean newNames = false;
+        for (Flight flight : flights) {
+            if (!currentCities.contains(flight.getSource()) || !currentCities.contains(flight.getDestination())
+                    || !currentAirlines.contains(flight.getAirlines())) {
+                newNames = true;
+                break;
+            }
+        }
+        if (newNames) {
+            addNames(flights);
+        }
+    }
+
+    private synchronized void addNames(Collection<Flight> flights) {
+        // Collect only the new names; the index dedupes them ignoring case
+        NameIndex knownCities = cities;
+        NameIndex knownAirlines = airlines;
+        int cityCount = cityNames.size();
+        int airlineCount = airlineNames.size();
+        for (Flight flight : flights) {
+            if (!knownCities.contains(flight.getSource())) {
+                cityNames.add(flight.getSource());
+            }
+            if (!knownCities.contains(flight.getDestination())) {
+                cityNames.add(flight.getDestination());
+            }
+            if (!knownAirlines.contains(flight.getAirlines())) {
+                airlineNames.add(flight.getAirlines());
+            }
+        }
+
+        if (cityNames.size() > cityCount) {
+            cities = new NameIndex(cityNames, cityAliases);
+            // A batch may repeat a new name - keep one spelling of each
+            cityNames.clear();
+            cityNames.addAll(cities.names());
+        }
+        if (airlineNames.size() > airlineCount) {
+            airlines = new NameIndex(airlineNames, airlineAliases);
+            airlineNames.clear();
+            airlineNames.addAll(airlines.names());
+        }
+    }
+
+    /**
+     * Canonical spelling of a city name or alias, ignoring case; null if unknown.
+     * Does not allocate - searches call this on every request.
+     */
+    public String resolveCity(String name) {
+        return cities.resolve(name);
+    }
+
+    /**
+     * Cities whose name or alias starts with the prefix, ignoring case, in alphabetical order
+     */
+    public List<String> completeCities(String prefix, int limit) {
+        return cities.complete(prefix, limit);
+    }
+
+    /**
+     * Cities within one typing mistake of the name - a wrong, missing, extra or swapped letter
+     */
+    public List<String> suggestCities(String name) {
+        return cities.similar(name);
+    }
+
+    public int getCityCount() {
+        return cities.size();
+    }
+
+    /**
+     * Canonical spelling of an airline name or alias, ignoring case; null if unknown
+     */
+    public String resolveAirline(String name) {
+        return airlines.resolve(name);
+    }
+
+    /**
+     * Airlines whose name or alias starts with the prefix, ignoring case, in alphabetical order
+     */
+    public List<String> completeAirlines(String prefix, int limit) {
+        return airlines.complete(prefix, limit);
+    }
+
+    /**
+     * Airlines within one typing mistake of the name
+     */
+    public List<String> suggestAirlines(String name) {
+        return airlines.similar(name);
+    }
+
+    public int getAirlineCount() {
+        return airlines.size();
+    }
+
+    /**
+     * Parses "alias:Name,alias:Name" into an alias to name map
+     */
+    private static Map<String, String> parseAliases(String aliases) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        if (aliases == null || aliases.isBlank()) {
+            return parsed;
+        }
+
+        for (String entry : aliases.split(",")) {
+            String[] fields = entry.trim().split(":");
+            if (fields.length != 2 || fields[0].isBlank() || fields[1].isBlank()) {
+                throw new IllegalArgumentException("Invalid alias: " + entry);
+            }
+            parsed.put(fields[0].trim(), fields[1].trim());
+        }
+        return parsed;
+    }
+}
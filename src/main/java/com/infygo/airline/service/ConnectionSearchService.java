@@ -0,0 +1,33 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Itinerary;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service interface for multi-leg (connecting flight) searches.
+ */
+public interface ConnectionSearchService {
+
+    /**
+     * Ranking applied to connection search results
+     */
+    enum SortBy {
+        TOTAL_FARE,
+        TRAVEL_TIME
+    }
+
+    /**
+     * Find itineraries of up to maxLegs flights between two cities
+     * 
+     * @param source      Origin city
+     * @param destination Destination city
+     * @param journeyDate Date of the first flight
+     * @param maxLegs     Maximum number of flights in an itinerary
+     * @param sortBy      Ranking of the results
+     * @param limit       Maximum number of itineraries to return
+     * @return Best itineraries first
+     */
+    List<Itinerary> searchConnections(String source, String destination, LocalDate journeyDate, int maxLegs,
+            SortBy sortBy, int limit);
+}
@@ -0,0 +1,253 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.Itinerary;
+import com.infygo.airline.repository.FlightRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Implementation of the ConnectionSearchService interface.
+ * Walks a precomputed city graph depth-first, fetching legs from the repository's
+ * route/date index and pruning any branch that cannot reach the destination within
+ * the remaining legs or cannot beat the results already found.
+ */
+@Service
+public class ConnectionSearchServiceImpl implements ConnectionSearchService, FlightCatalogListener {
+
+    // Page size used when building the graph from an existing catalog
+    private static final int SCAN_PAGE_SIZE = 1000;
+
+    private static final Comparator<Itinerary> BY_FARE = Comparator.comparingDouble(Itinerary::getTotalFare)
+            .thenComparingLong(Itinerary::getTravelDays)
+            .thenComparingInt(itinerary -> itinerary.getLegs().size());
+
+    private static final Comparator<Itinerary> BY_TRAVEL_TIME = Comparator.comparingLong(Itinerary::getTravelDays)
+            .thenComparingDouble(Itinerary::getTotalFare)
+            .thenComparingInt(itinerary -> itinerary.getLegs().size());
+
+    private final FlightRepository flightRepository;
+    private final RouteGraph routeGraph = new RouteGraph();
+
+    // Allowed layover between legs, in days - flights carry a journey date but no times
+    private final int minConnectionDays;
+    private final int maxConnectionDays;
+
+    @Autowired
+    public ConnectionSearchServiceImpl(FlightRepository flightRepository,
+            @Value("${infygo.connections.min-connection-days:0}") int minConnectionDays,
+            @Value("${infygo.connections.max-connection-days:1}") int maxConnectionDays) {
+        this.flightRepository = flightRepository;
+        this.minConnectionDays = minConnectionDays;
+        this.maxConnectionDays = maxConnectionDays;
+
+        // Pick up flights that are already in the repository. Most flights repeat a route
+        // already seen, so they are counted per exact name pair and the graph updated once per pair.
+        Map<String, Map<String, Integer>> counts = new HashMap<>();
+        String cursor = null;
+        List<Flight> page;
+        while (!(page = flightRepository.getFlights(cursor, SCAN_PAGE_SIZE)).isEmpty()) {
+            countRoutes(page, counts);
+            cursor = page.get(page.size() - 1).getFlightId();
+        }
+        forEachRoute(counts, routeGraph::addFlights);
+    }
+
+    @Override
+    public void onFlightAdded(Flight flight) {
+        routeGraph.addFlights(flight.getSource(), flight.getDestination(), 1);
+    }
+
+    @Override
+    public void onFlightsAdded(Collection<Flight> flights) {
+        forEachRoute(countRoutes(flights, new HashMap<>()), routeGraph::addFlights);
+    }
+
+    @Override
+    public void onFlightRemoved(Flight flight) {
+        routeGraph.removeFlights(flight.getSource(), flight.getDestination(), 1);
+    }
+
+    @Override
+    public void onFlightsRemoved(Collection<Flight> flights) {
+        forEachRoute(countRoutes(flights, new HashMap<>()), routeGraph::removeFlights);
+    }
+
+    @Override
+    public void onFlightUpdated(Flight previous, Flight flight) {
+        // A change of fare or date keeps the route - only a move touches the graph
+        if (!previous.getSource().equals(flight.getSource())
+                || !previous.getDestination().equals(flight.getDestination())) {
+            onFlightAdded(flight);
+            onFlightRemoved(previous);
+        }
+    }
+
+    /**
+     * Add the flights to per source, per destination counts
+     */
+    private static Map<String, Map<String, Integer>> countRoutes(Collection<Flight> flights,
+            Map<String, Map<String, Integer>> counts) {
+        for (Flight flight : flights) {
+            counts.computeIfAbsent(flight.getSource(), city -> new HashMap<>())
+                    .merge(flight.getDestination(), 1, Integer::sum);
+        }
+        return counts;
+    }
+
+    /**
+     * Receives a route and its number of flights
+     */
+    @FunctionalInterface
+    private interface RouteCount {
+        void accept(String source, String destination, int flights);
+    }
+
+    private static void forEachRoute(Map<String, Map<String, Integer>> counts, RouteCount action) {
+        for (Map.Entry<String, Map<String, Integer>> source : counts.entrySet()) {
+            for (Map.Entry<String, Integer> destination : source.getValue().entrySet()) {
+                action.accept(source.getKey(), destination.getKey(), destination.getValue());
+            }
+        }
+    }
+
+    @Override
+    public List<Itinerary> searchConnections(String source, String destination, LocalDate journeyDate,
+            int maxLegs, SortBy sortBy, int limit) {
+        // Validate search parameters
+        if (source == null || destination == null || journeyDate == null || sortBy == null) {
+            throw new IllegalArgumentException("Search parameters cannot be null");
+        }
+
+        if (maxLegs <= 0 || limit <= 0) {
+            throw new IllegalArgumentException("Maximum legs and result limit must be greater than zero");
+        }
+
+        Search search = new Search(RouteGraph.normalize(destination), maxLegs,
+                sortBy == SortBy.TOTAL_FARE ? BY_FARE : BY_TRAVEL_TIME, limit);
+
+        String origin = RouteGraph.normalize(source);
+        search.visited.add(origin);
+        search.extend(origin, journeyDate, journeyDate, maxLegs, 0);
+        return search.results();
+    }
+
+    /**
+     * State of a single connection search
+     */
+    private final class Search {
+        private final String destination;
+        private final Comparator<Itinerary> ranking;
+        private final int limit;
+
+        // Minimum legs from each city to the destination; unreachable cities are absent
+        private final Map<String, Integer> legsToDestination;
+
+        // Worst result on top, so it can be replaced once the queue is full
+        private final PriorityQueue<Itinerary> best;
+
+        private final Deque<Flight> path = new ArrayDeque<>();
+        private final Set<String> visited = new HashSet<>();
+
+        Search(String destination, int maxLegs, Comparator<Itinerary> ranking, int limit) {
+            this.destination = destination;
+            this.ranking = ranking;
+            this.limit = limit;
+            this.legsToDestination = routeGraph.legsTo(destination, maxLegs);
+            this.best = new PriorityQueue<>(limit, ranking.reversed());
+        }
+
+        /**
+         * Try every next leg from the city departing between earliest and latest
+         */
+        void extend(String city, LocalDate earliest, LocalDate latest, int legsLeft, double fareSoFar) {
+            for (String next : routeGraph.getDestinations(city)) {
+                Integer needed = legsToDestination.get(next);
+                if (needed == null || needed > legsLeft - 1 || visited.contains(next)) {
+                    continue;
+                }
+
+                for (Map.Entry<LocalDate, List<Flight>> day : flightRepository
+                        .searchFlightsBetween(city, next, earliest, latest).entrySet()) {
+                    // Flights on the same route and day only differ by fare, so the cheapest dominates
+                    Flight leg = cheapest(day.getValue());
+                    if (leg == null) {
+                        continue;
+                    }
+
+                    double fare = fareSoFar + leg.getFare();
+                    if (cannotImprove(fare, day.getKey())) {
+                        continue;
+                    }
+
+                    path.addLast(leg);
+                    if (next.equals(destination)) {
+                        offer(new Itinerary(new ArrayList<>(path)));
+                    } else {
+                        visited.add(next);
+                        extend(next, day.getKey().plusDays(minConnectionDays),
+                                day.getKey().plusDays(maxConnectionDays), legsLeft - 1, fare);
+                        visited.remove(next);
+                    }
+                    path.removeLast();
+                }
+            }
+        }
+
+        /**
+         * Both fare and travel time only grow as legs are added, so a partial
+         * itinerary already worse than the current worst result can be dropped
+         */
+        private boolean cannotImprove(double fare, LocalDate arrival) {
+            if (best.size() < limit) {
+                return false;
+            }
+            Itinerary worst = best.peek();
+            if (ranking == BY_FARE) {
+                return fare > worst.getTotalFare();
+            }
+            long days = path.isEmpty() ? 0 : ChronoUnit.DAYS.between(path.getFirst().getJourneyDate(), arrival);
+            return days > worst.getTravelDays();
+        }
+
+        private void offer(Itinerary itinerary) {
+            if (best.size() < limit) {
+                best.add(itinerary);
+            } else if (ranking.compare(itinerary, best.peek()) < 0) {
+                best.poll();
+                best.add(itinerary);
+            }
+        }
+
+        List<Itinerary> results() {
+            List<Itinerary> results = new ArrayList<>(best);
+            results.sort(ranking);
+            return results;
+        }
+    }
+
+    private static Flight cheapest(List<Flight> flights) {
+        Flight cheapest = null;
+        for (Flight flight : flights) {
+            if (cheapest == null || flight.getFare() < cheapest.getFare()) {
+                cheapest = flight;
+            }
+        }
+        return cheapest;
+    }
+}
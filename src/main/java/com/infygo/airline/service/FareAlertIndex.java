@@ -0,0 +1,438 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.FareAlert;
+import com.infygo.airline.domain.Flight;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index of fare alerts: a flight finds the alerts it satisfies without looking
+ * at any other alert.
+ *
+ * Alerts are grouped by route; each route keeps an array with one row per day, and each
+ * row one bucket per airline, the first for alerts on any airline. An alert is listed in
+ * the bucket of every day of its window. Buckets are sorted by fare ceiling, so the alerts
+ * a flight satisfies are the tail of its two buckets from its fare upwards - one lookup of
+ * the route, two array reads and two binary searches, then only matches. Each route also
+ * keeps the highest ceiling of each day, so a flight no alert allows is turned away after
+ * one array read. Memory is about 12 bytes per alert per day of its window.
+ *
+ * Routes are immutable and replaced on change, so matching takes no lock; changes are
+ * serialized and batched per route, so subscribing many alerts copies each bucket once.
+ */
+class FareAlertIndex {
+
+    // Airline slot of alerts for any airline
+    private static final int ANY_AIRLINE = 0;
+
+    private final Map<RouteKey, RouteAlerts> routes = new ConcurrentHashMap<>();
+
+    // Day entries over all routes - guarded by this
+    private long entries;
+
+    /**
+     * List alerts under every day of their windows
+     */
+    synchronized void add(Collection<FareAlert> alerts) {
+        Map<RouteKey, List<FareAlert>> byRoute = new HashMap<>();
+        for (FareAlert alert : alerts) {
+            byRoute.computeIfAbsent(new RouteKey(alert.getSource(), alert.getDestination()), k -> new ArrayList<>())
+                    .add(alert);
+        }
+        for (Map.Entry<RouteKey, List<FareAlert>> entry : byRoute.entrySet()) {
+            RouteAlerts current = routes.getOrDefault(entry.getKey(), RouteAlerts.EMPTY);
+            RouteAlerts updated = current.with(entry.getValue());
+            routes.put(entry.getKey(), updated);
+            entries += updated.size - current.size;
+        }
+    }
+
+    /**
+     * Take an alert out of every day of its window
+     */
+    synchronized void remove(FareAlert alert) {
+        RouteKey key = new RouteKey(alert.getSource(), alert.getDestination());
+        RouteAlerts current = routes.get(key);
+        if (current == null) {
+            return;
+        }
+        RouteAlerts updated = current.without(alert);
+        if (updated.size == 0) {
+            routes.remove(key);
+        } else {
+            routes.put(key, updated);
+        }
+        entries -= current.size - updated.size;
+    }
+
+    /**
+     * Drop the days before the given one, whole
+     */
+    synchronized void removeBefore(LocalDate date) {
+        long firstDay = date.toEpochDay();
+        Iterator<Map.Entry<RouteKey, RouteAlerts>> iterator = routes.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<RouteKey, RouteAlerts> entry = iterator.next();
+            RouteAlerts current = entry.getValue();
+            RouteAlerts updated = current.from(firstDay);
+            if (updated == current) {
+                continue;
+            }
+            if (updated.size == 0) {
+                iterator.remove();
+            } else {
+                entry.setValue(updated);
+            }
+            entries -= current.size - updated.size;
+        }
+    }
+
+    /**
+     * Alerts the flight satisfies whose fare ceiling is below the given limit - pass the
+     * fare of a previous version of the flight to find only the alerts it did not satisfy
+     *
+     * @param into Receives the matching alerts
+     */
+    void match(Flight flight, double belowFare, List<FareAlert> into) {
+        if (routes.isEmpty()) {
+            return;
+        }
+        RouteAlerts route = routes.get(new RouteKey(flight.getSource(), flight.getDestination()));
+        if (route == null) {
+            return;
+        }
+        double fare = flight.getFare();
+        Bucket[] row = route.row(flight.getJourneyDate().toEpochDay(), fare);
+        if (row == null) {
+            return;
+        }
+        if (row[ANY_AIRLINE] != null) {
+            row[ANY_AIRLINE].match(fare, belowFare, into);
+        }
+        int slot = route.slot(flight.getAirlines());
+        if (slot > ANY_AIRLINE && slot < row.length && row[slot] != null) {
+            row[slot].match(fare, belowFare, into);
+        }
+    }
+
+    /**
+     * Alerts listed over all days, one per alert and day
+     */
+    synchronized long getEntryCount() {
+        return entries;
+    }
+
+    int getRouteCount() {
+        return routes.size();
+    }
+
+    /**
+     * Route of alerts and flights, matched ignoring case like the repository. Compared in
+     * place rather than lowercased, so a lookup allocates only the key.
+     */
+    private static final class RouteKey {
+        private final String source;
+        private final String destination;
+        private final int hash;
+
+        RouteKey(String source, String destination) {
+            this.source = source;
+            this.destination = destination;
+            this.hash = foldedHash(source) * 31 + foldedHash(destination);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof RouteKey)) {
+                return false;
+            }
+            RouteKey other = (RouteKey) o;
+            return hash == other.hash && source.equalsIgnoreCase(other.source)
+                    && destination.equalsIgnoreCase(other.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * String hash with the same case folding as equalsIgnoreCase
+         */
+        private static int foldedHash(String value) {
+            int h = 0;
+            for (int i = 0; i < value.length(); i++) {
+                h = 31 * h + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+            }
+            return h;
+        }
+    }
+
+    /**
+     * Alerts of one route: a row of buckets per day from firstDay, one bucket per airline
+     * slot. Rows are only as long as their last used slot, and null on days without alerts.
+     */
+    private static final class RouteAlerts {
+        static final RouteAlerts EMPTY = new RouteAlerts(new String[] { null }, 0, new Bucket[0][], 0);
+
+        // Airline of each slot; slot 0, for any airline, has none
+        private final String[] airlines;
+        private final long firstDay;
+        private final Bucket[][] days;
+        private final long size;
+
+        // Highest fare ceiling of each day - most flights are turned away here, without
+        // reading the buckets
+        private final double[] ceilings;
+
+        private RouteAlerts(String[] airlines, long firstDay, Bucket[][] days, long size) {
+            this.airlines = airlines;
+            this.firstDay = firstDay;
+            this.days = days;
+            this.size = size;
+            this.ceilings = new double[days.length];
+            for (int i = 0; i < days.length; i++) {
+                ceilings[i] = -1;
+                if (days[i] != null) {
+                    for (Bucket bucket : days[i]) {
+                        if (bucket != null) {
+                            ceilings[i] = Math.max(ceilings[i], bucket.ceiling());
+                        }
+                    }
+                }
+            }
+        }
+
+        /**
+         * The buckets of the day, or null if no alert of the day allows the fare
+         */
+        Bucket[] row(long day, double fare) {
+            long offset = day - firstDay;
+            if (offset < 0 || offset >= days.length || ceilings[(int) offset] < fare) {
+                return null;
+            }
+            return days[(int) offset];
+        }
+
+        /**
+         * Slot of the airline, or -1 if no alert of this route names it
+         */
+        int slot(String airline) {
+            for (int i = 1; i < airlines.length; i++) {
+                if (airlines[i].equalsIgnoreCase(airline)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        RouteAlerts with(List<FareAlert> alerts) {
+            // New airlines get the next slots
+            List<String> names = new ArrayList<>(Arrays.asList(airlines));
+            long from = days.length == 0 ? Long.MAX_VALUE : firstDay;
+            long to = days.length == 0 ? Long.MIN_VALUE : firstDay + days.length - 1;
+            for (FareAlert alert : alerts) {
+                if (alert.getAirlines() != null && slotIn(names, alert.getAirlines()) < 0) {
+                    names.add(alert.getAirlines());
+                }
+                from = Math.min(from, alert.getFromDate().toEpochDay());
+                to = Math.max(to, alert.getToDate().toEpochDay());
+            }
+
+            Bucket[][] rows = new Bucket[(int) (to - from + 1)][];
+            if (days.length > 0) {
+                System.arraycopy(days, 0, rows, (int) (firstDay - from), days.length);
+            }
+
+            // Collect each bucket's new alerts, then merge each bucket once
+            Map<Long, List<FareAlert>> added = new HashMap<>();
+            for (FareAlert alert : alerts) {
+                long slot = alert.getAirlines() == null ? ANY_AIRLINE : slotIn(names, alert.getAirlines());
+                for (long day = alert.getFromDate().toEpochDay(); day <= alert.getToDate().toEpochDay(); day++) {
+                    added.computeIfAbsent((day - from) * names.size() + slot, k -> new ArrayList<>()).add(alert);
+                }
+            }
+            Bucket[][] copied = new Bucket[rows.length][];
+            long entries = size;
+            for (Map.Entry<Long, List<FareAlert>> entry : added.entrySet()) {
+                int offset = (int) (entry.getKey() / names.size());
+                int slot = (int) (entry.getKey() % names.size());
+                if (copied[offset] == null || copied[offset].length <= slot) {
+                    Bucket[] row = rows[offset] == null ? new Bucket[0] : rows[offset];
+                    copied[offset] = Arrays.copyOf(row, Math.max(row.length, slot + 1));
+                    rows[offset] = copied[offset];
+                }
+                Bucket bucket = Bucket.of(entry.getValue());
+                Bucket current = rows[offset][slot];
+                rows[offset][slot] = current == null ? bucket : current.merge(bucket);
+                entries += bucket.size();
+            }
+            return new RouteAlerts(names.toArray(new String[0]), from, rows, entries);
+        }
+
+        RouteAlerts without(FareAlert alert) {
+            int slot = alert.getAirlines() == null ? ANY_AIRLINE : slot(alert.getAirlines());
+            if (slot < 0) {
+                return this;
+            }
+            Bucket[][] rows = days.clone();
+            long entries = size;
+            for (long day = alert.getFromDate().toEpochDay(); day <= alert.getToDate().toEpochDay(); day++) {
+                long offset = day - firstDay;
+                if (offset < 0 || offset >= rows.length) {
+                    continue;
+                }
+                Bucket[] row = rows[(int) offset];
+                if (row == null || slot >= row.length || row[slot] == null) {
+                    continue;
+                }
+                Bucket remaining = row[slot].without(alert);
+                if (remaining != row[slot]) {
+                    row = row.clone();
+                    row[slot] = remaining;
+                    rows[(int) offset] = row;
+                    entries--;
+                }
+            }
+            return new RouteAlerts(airlines, firstDay, rows, entries);
+        }
+
+        /**
+         * The alerts of the given day onwards
+         */
+        RouteAlerts from(long day) {
+            if (day <= firstDay || days.length == 0) {
+                return this;
+            }
+            int dropped = (int) Math.min(day - firstDay, days.length);
+            long entries = size;
+            for (int i = 0; i < dropped; i++) {
+                if (days[i] != null) {
+                    for (Bucket bucket : days[i]) {
+                        entries -= bucket == null ? 0 : bucket.size();
+                    }
+                }
+            }
+            return new RouteAlerts(airlines, day, Arrays.copyOfRange(days, dropped, days.length), entries);
+        }
+
+        private static int slotIn(List<String> names, String airline) {
+            for (int i = 1; i < names.size(); i++) {
+                if (names.get(i).equalsIgnoreCase(airline)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+
+    /**
+     * Alerts of one bucket in ascending order of fare ceiling, with the ceilings alongside
+     * so a search reads one primitive array
+     */
+    private static final class Bucket {
+        private static final Comparator<FareAlert> BY_FARE = Comparator.comparingDouble(FareAlert::getMaxFare);
+
+        private final double[] maxFares;
+        private final FareAlert[] alerts;
+
+        private Bucket(double[] maxFares, FareAlert[] alerts) {
+            this.maxFares = maxFares;
+            this.alerts = alerts;
+        }
+
+        static Bucket of(List<FareAlert> alerts) {
+            FareAlert[] sorted = alerts.toArray(new FareAlert[0]);
+            Arrays.sort(sorted, BY_FARE);
+            double[] maxFares = new double[sorted.length];
+            for (int i = 0; i < sorted.length; i++) {
+                maxFares[i] = sorted[i].getMaxFare();
+            }
+            return new Bucket(maxFares, sorted);
+        }
+
+        int size() {
+            return alerts.length;
+        }
+
+        double ceiling() {
+            return maxFares[maxFares.length - 1];
+        }
+
+        /**
+         * Both buckets' alerts in one, merged in a single pass
+         */
+        Bucket merge(Bucket other) {
+            int size = alerts.length + other.alerts.length;
+            double[] mergedFares = new double[size];
+            FareAlert[] merged = new FareAlert[size];
+            int i = 0;
+            int j = 0;
+            for (int k = 0; k < size; k++) {
+                if (j == other.alerts.length || (i < alerts.length && maxFares[i] <= other.maxFares[j])) {
+                    mergedFares[k] = maxFares[i];
+                    merged[k] = alerts[i++];
+                } else {
+                    mergedFares[k] = other.maxFares[j];
+                    merged[k] = other.alerts[j++];
+                }
+            }
+            return new Bucket(mergedFares, merged);
+        }
+
+        /**
+         * The bucket without the alert - itself if the alert is not in it, null if nothing is left
+         */
+        Bucket without(FareAlert alert) {
+            // Only alerts with the same ceiling need to be compared
+            for (int i = lowerBound(alert.getMaxFare()); i < alerts.length && maxFares[i] == alert.getMaxFare(); i++) {
+                if (alerts[i] == alert) {
+                    if (alerts.length == 1) {
+                        return null;
+                    }
+                    double[] fares = new double[alerts.length - 1];
+                    FareAlert[] remaining = new FareAlert[alerts.length - 1];
+                    System.arraycopy(maxFares, 0, fares, 0, i);
+                    System.arraycopy(alerts, 0, remaining, 0, i);
+                    System.arraycopy(maxFares, i + 1, fares, i, alerts.length - i - 1);
+                    System.arraycopy(alerts, i + 1, remaining, i, alerts.length - i - 1);
+                    return new Bucket(fares, remaining);
+                }
+            }
+            return this;
+        }
+
+        void match(double fare, double belowFare, List<FareAlert> into) {
+            int end = belowFare == Double.POSITIVE_INFINITY ? alerts.length : lowerBound(belowFare);
+            for (int i = lowerBound(fare); i < end; i++) {
+                into.add(alerts[i]);
+            }
+        }
+
+        /**
+         * First index whose ceiling is at least the fare
+         */
+        private int lowerBound(double fare) {
+            int low = 0;
+            int high = maxFares.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (maxFares[middle] < fare) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.FareAlert;
+import com.infygo.airline.domain.Flight;
+
+/**
+ * Delivers fare alert notifications, e.g. by e-mail or push message. Any bean
+ * implementing this interface is called by the FareAlertService for every match, on its
+ * delivery thread - never on the thread that added the flight.
+ */
+public interface FareAlertNotifier {
+    /**
+     * Called when a flight satisfying an alert has been added or re-priced
+     * 
+     * @param alert  The alert that matched
+     * @param flight The flight that satisfies it
+     */
+    void onFareAlert(FareAlert alert, Flight flight);
+}
@@ -0,0 +1,49 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.FareAlert;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Service interface for fare alerts - standing requests to be notified when a flight
+ * appears on a route within a date window at or below a fare.
+ */
+public interface FareAlertService {
+    /**
+     * Start watching for flights that satisfy an alert
+     * 
+     * @param alert The alert; any ID it carries is ignored
+     * @return The alert as stored, with its assigned ID
+     */
+    FareAlert subscribe(FareAlert alert);
+
+    /**
+     * Subscribe a batch of alerts at once. Either every alert is valid and subscribed,
+     * or none is.
+     * 
+     * @param alerts The alerts; any IDs they carry are ignored
+     * @return The alerts as stored, in the same order
+     */
+    List<FareAlert> subscribeAll(Collection<FareAlert> alerts);
+
+    /**
+     * Stop watching for an alert
+     * 
+     * @param alertId The alert ID
+     * @return The alert that was removed
+     */
+    FareAlert unsubscribe(String alertId);
+
+    /**
+     * Get an active alert
+     * 
+     * @param alertId The alert ID
+     * @return The alert
+     */
+    FareAlert getAlert(String alertId);
+
+    /**
+     * Get the number of active alerts
+     */
+    int getAlertCount();
+}
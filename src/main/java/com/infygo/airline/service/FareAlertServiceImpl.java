@@ -0,0 +1,405 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.FareAlert;
+import com.infygo.airline.domain.Flight;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Implementation of the FareAlertService interface.
+ *
+ * Alerts live in a FareAlertIndex, and every added, changed or re-priced flight is matched
+ * as a catalog listener on the thread that stored it. That costs two hash lookups when no
+ * alert watches the flight's route and day, however many alerts there are. A re-priced
+ * flight only notifies the alerts its old fare did not already satisfy, so storing a flight
+ * again unchanged - as a batch upsert of the same schedule does - notifies nothing.
+ *
+ * Matches are handed to a bounded queue and delivered by a background thread, to the log
+ * and to every FareAlertNotifier. When the queue is full the storing thread waits for room,
+ * so a burst of matches slows writers down instead of losing notifications; a deployment
+ * that prefers fast writes can configure a full queue to drop and count them instead.
+ * Alerts whose dates have all passed are removed by the delivery thread once a day, busy
+ * or idle. Alerts may only watch dates up to a horizon ahead, which bounds the days the
+ * index keeps per route.
+ */
+@Service
+public class FareAlertServiceImpl implements FareAlertService, FlightCatalogListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(FareAlertServiceImpl.class);
+
+    // How long the delivery thread waits for a match before checking for shutdown and expired alerts
+    private static final long POLL_MILLIS = 100;
+
+    private final CityDirectory cityDirectory;
+    private final List<FareAlertNotifier> notifiers;
+    private final int maxWindowDays;
+    private final int horizonDays;
+    private final boolean dropWhenFull;
+
+    private final FareAlertIndex index = new FareAlertIndex();
+    private final Map<String, FareAlert> alerts = new ConcurrentHashMap<>();
+    private final AtomicLong alertIdGenerator = new AtomicLong(1000);
+
+    private final BlockingQueue<Delivery> deliveries;
+    private final Thread deliverer;
+    private volatile boolean closed;
+
+    private final LongAdder matched = new LongAdder();
+    private final LongAdder delivered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    // Delivery thread only
+    private LocalDate purgedOn;
+    private long droppedReported;
+
+    /**
+     * @param queueSize     Flights with matches that can wait for delivery
+     * @param maxWindowDays Most journey dates one alert may cover
+     * @param horizonDays   How many days ahead of today an alert may watch
+     * @param dropWhenFull  Drop matches when the queue is full instead of waiting for room
+     */
+    @Autowired
+    public FareAlertServiceImpl(CityDirectory cityDirectory, ObjectProvider<FareAlertNotifier> notifiers,
+            @Value("${infygo.alerts.queue-size:10000}") int queueSize,
+            @Value("${infygo.alerts.max-window-days:31}") int maxWindowDays,
+            @Value("${infygo.alerts.horizon-days:365}") int horizonDays,
+            @Value("${infygo.alerts.drop-when-full:false}") boolean dropWhenFull) {
+        if (queueSize <= 0 || maxWindowDays <= 0 || horizonDays <= 0) {
+            throw new IllegalArgumentException("Invalid fare alert settings");
+        }
+        this.cityDirectory = cityDirectory;
+        this.notifiers = notifiers.orderedStream().collect(Collectors.toList());
+        this.maxWindowDays = maxWindowDays;
+        this.horizonDays = horizonDays;
+        this.dropWhenFull = dropWhenFull;
+        this.deliveries = new ArrayBlockingQueue<>(queueSize);
+        this.deliverer = new Thread(this::deliverLoop, "fare-alert-delivery");
+        deliverer.setDaemon(true);
+        deliverer.start();
+    }
+
+    @Override
+    public FareAlert subscribe(FareAlert alert) {
+        return subscribeAll(List.of(alert)).get(0);
+    }
+
+    @Override
+    public List<FareAlert> subscribeAll(Collection<FareAlert> requests) {
+        if (requests == null) {
+            throw new IllegalArgumentException("Alerts cannot be null");
+        }
+
+        // Validate the whole batch before storing any of it
+        LocalDate today = LocalDate.now();
+        List<FareAlert> subscribed = new ArrayList<>(requests.size());
+        for (FareAlert request : requests) {
+            validateAlert(request, today);
+            subscribed.add(new FareAlert("ALT" + alertIdGenerator.incrementAndGet(), request.getSubscriber().trim(),
+                    canonicalCity(request.getSource()), canonicalCity(request.getDestination()),
+                    request.getFromDate(), request.getToDate(), request.getMaxFare(),
+                    canonicalAirline(request.getAirlines())));
+        }
+
+        synchronized (this) {
+            for (FareAlert alert : subscribed) {
+                alerts.put(alert.getAlertId(), alert);
+            }
+            index.add(subscribed);
+        }
+        return subscribed;
+    }
+
+    @Override
+    public FareAlert unsubscribe(String alertId) {
+        if (alertId == null) {
+            throw new IllegalArgumentException("Alert ID is required");
+        }
+        synchronized (this) {
+            FareAlert alert = alerts.remove(alertId.trim());
+            if (alert == null) {
+                throw new IllegalArgumentException("Alert not found: " + alertId);
+            }
+            index.remove(alert);
+            return alert;
+        }
+    }
+
+    @Override
+    public FareAlert getAlert(String alertId) {
+        FareAlert alert = alertId == null ? null : alerts.get(alertId.trim());
+        if (alert == null) {
+            throw new IllegalArgumentException("Alert not found: " + alertId);
+        }
+        return alert;
+    }
+
+    @Override
+    public int getAlertCount() {
+        return alerts.size();
+    }
+
+    @Override
+    public void onFlightAdded(Flight flight) {
+        match(flight, Double.POSITIVE_INFINITY);
+    }
+
+    @Override
+    public void onFlightUpdated(Flight previous, Flight flight) {
+        // Alerts the previous version already satisfied were told about it
+        boolean sameBuckets = previous.getJourneyDate().equals(flight.getJourneyDate())
+                && previous.getSource().equalsIgnoreCase(flight.getSource())
+                && previous.getDestination().equalsIgnoreCase(flight.getDestination())
+                && previous.getAirlines().equalsIgnoreCase(flight.getAirlines());
+        if (sameBuckets && flight.getFare() >= previous.getFare()) {
+            // Unchanged or dearer, as when a schedule is imported again - nothing new to tell
+            return;
+        }
+        match(flight, sameBuckets ? previous.getFare() : Double.POSITIVE_INFINITY);
+    }
+
+    private void match(Flight flight, double previousFare) {
+        List<FareAlert> matches = new ArrayList<>();
+        index.match(flight, previousFare, matches);
+        if (matches.isEmpty()) {
+            return;
+        }
+        if (enqueue(new Delivery(flight, matches))) {
+            matched.add(matches.size());
+        } else {
+            dropped.add(matches.size());
+        }
+    }
+
+    /**
+     * Queue matches for delivery, waiting for room unless configured to drop. Gives up only
+     * once the service is closing, or when called from a notifier on the delivery thread,
+     * which would otherwise wait for itself.
+     */
+    private boolean enqueue(Delivery delivery) {
+        if (deliveries.offer(delivery)) {
+            return true;
+        }
+        if (dropWhenFull || Thread.currentThread() == deliverer) {
+            return false;
+        }
+        try {
+            while (!closed) {
+                if (deliveries.offer(delivery, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    return true;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    /**
+     * Notifications queued for delivery
+     */
+    public long getMatched() {
+        return matched.sum();
+    }
+
+    /**
+     * Notifications handed to the log and the notifiers
+     */
+    public long getDelivered() {
+        return delivered.sum();
+    }
+
+    /**
+     * Notifications lost because the delivery queue was full
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Flights with matches waiting for delivery
+     */
+    public int getQueuedDeliveries() {
+        return deliveries.size();
+    }
+
+    /**
+     * Alerts listed in the index, one per alert and day of its window
+     */
+    public long getIndexEntries() {
+        return index.getEntryCount();
+    }
+
+    /**
+     * Stop the delivery thread after it has delivered everything already queued
+     */
+    @PreDestroy
+    public void close() {
+        closed = true;
+        try {
+            deliverer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void deliverLoop() {
+        long nextHousekeeping = System.nanoTime();
+        while (true) {
+            // Read before polling, so matches queued before close are still delivered
+            boolean stopping = closed;
+            Delivery delivery;
+            try {
+                delivery = deliveries.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (delivery != null) {
+                deliver(delivery);
+            } else if (stopping) {
+                return;
+            }
+
+            // On the clock rather than when idle, so a queue that never drains still gets purged
+            if (System.nanoTime() - nextHousekeeping >= 0) {
+                reportDropped();
+                purgeExpired();
+                nextHousekeeping = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(POLL_MILLIS);
+            }
+        }
+    }
+
+    private void deliver(Delivery delivery) {
+        Flight flight = delivery.flight;
+        for (FareAlert alert : delivery.alerts) {
+            logger.info("event=fare_alert alertId={} subscriber={} flightId={} source={} destination={} date={} "
+                    + "fare={} maxFare={}", alert.getAlertId(), alert.getSubscriber(), flight.getFlightId(),
+                    flight.getSource(), flight.getDestination(), flight.getJourneyDate(), flight.getFare(),
+                    alert.getMaxFare());
+            for (FareAlertNotifier notifier : notifiers) {
+                try {
+                    notifier.onFareAlert(alert, flight);
+                } catch (RuntimeException e) {
+                    // One failing channel must not stop the others or the thread
+                    logger.error("Fare alert notifier failed for alert {}", alert.getAlertId(), e);
+                }
+            }
+            delivered.increment();
+        }
+    }
+
+    private void reportDropped() {
+        long lost = dropped.sum();
+        if (lost != droppedReported) {
+            logger.warn("event=fare_alerts_dropped count={} total={}", lost - droppedReported, lost);
+            droppedReported = lost;
+        }
+    }
+
+    /**
+     * Once a day, forget the days that have passed and the alerts left with none
+     */
+    private void purgeExpired() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(purgedOn)) {
+            return;
+        }
+        int removed;
+        synchronized (this) {
+            index.removeBefore(today);
+            int before = alerts.size();
+            alerts.values().removeIf(alert -> alert.getToDate().isBefore(today));
+            removed = before - alerts.size();
+        }
+        purgedOn = today;
+        if (removed > 0) {
+            logger.info("Removed {} fare alerts whose dates have passed", removed);
+        }
+    }
+
+    /**
+     * Validates an alert before subscribing it
+     */
+    private void validateAlert(FareAlert alert, LocalDate today) {
+        if (alert == null) {
+            throw new IllegalArgumentException("Alert cannot be null");
+        }
+        if (alert.getSubscriber() == null || alert.getSubscriber().isBlank()) {
+            throw new IllegalArgumentException("Subscriber is required");
+        }
+        if (alert.getSource() == null || alert.getSource().isBlank()
+                || alert.getDestination() == null || alert.getDestination().isBlank()) {
+            throw new IllegalArgumentException("Source and destination are required");
+        }
+        if (alert.getSource().trim().equalsIgnoreCase(alert.getDestination().trim())) {
+            throw new IllegalArgumentException("Source and destination cannot be the same");
+        }
+        if (alert.getFromDate() == null || alert.getToDate() == null) {
+            throw new IllegalArgumentException("Alert dates are required");
+        }
+        if (alert.getFromDate().isAfter(alert.getToDate())) {
+            throw new IllegalArgumentException("From date must not be after to date");
+        }
+        if (alert.getToDate().isBefore(today)) {
+            throw new IllegalArgumentException("Alert dates cannot all be in the past");
+        }
+        if (alert.getToDate().isAfter(today.plusDays(horizonDays))) {
+            throw new IllegalArgumentException("Alert dates cannot be more than " + horizonDays + " days ahead");
+        }
+        if (ChronoUnit.DAYS.between(alert.getFromDate(), alert.getToDate()) >= maxWindowDays) {
+            throw new IllegalArgumentException("An alert cannot cover more than " + maxWindowDays + " days");
+        }
+        if (!(alert.getMaxFare() > 0) || Double.isInfinite(alert.getMaxFare())) {
+            throw new IllegalArgumentException("Maximum fare must be greater than zero");
+        }
+        if (alert.getAirlines() != null && alert.getAirlines().isBlank()) {
+            throw new IllegalArgumentException("Airlines name cannot be blank");
+        }
+    }
+
+    private String canonicalCity(String name) {
+        String trimmed = name.trim();
+        String canonical = cityDirectory.resolveCity(trimmed);
+        return canonical != null ? canonical : trimmed;
+    }
+
+    private String canonicalAirline(String name) {
+        if (name == null) {
+            return null;
+        }
+        String trimmed = name.trim();
+        String canonical = cityDirectory.resolveAirline(trimmed);
+        return canonical != null ? canonical : trimmed;
+    }
+
+    /**
+     * A flight and the alerts it satisfies, waiting for the delivery thread
+     */
+    private static final class Delivery {
+        private final Flight flight;
+        private final List<FareAlert> alerts;
+
+        Delivery(Flight flight, List<FareAlert> alerts) {
+            this.flight = flight;
+            this.alerts = alerts;
+        }
+    }
+}
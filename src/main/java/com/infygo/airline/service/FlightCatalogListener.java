@@ -0,0 +1,61 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Flight;
+import java.util.Collection;
+
+/**
+ * Callback for components that keep their own view of the flight catalog up to date.
+ * Any bean implementing this interface is notified by the FlightService after each
+ * change has been stored in the repository.
+ */
+public interface FlightCatalogListener {
+    /**
+     * Called after a flight has been added to the repository
+     * 
+     * @param flight The flight that was added
+     */
+    void onFlightAdded(Flight flight);
+
+    /**
+     * Called after a batch of flights has been added to the repository
+     * 
+     * @param flights The flights that were added
+     */
+    default void onFlightsAdded(Collection<Flight> flights) {
+        for (Flight flight : flights) {
+            onFlightAdded(flight);
+        }
+    }
+
+    /**
+     * Called after a stored flight has been replaced by a new version, whose route,
+     * date or fare may differ. By default reported as a removal and an addition.
+     * 
+     * @param previous The version that was replaced
+     * @param flight   The version now stored
+     */
+    default void onFlightUpdated(Flight previous, Flight flight) {
+        onFlightRemoved(previous);
+        onFlightAdded(flight);
+    }
+
+    /**
+     * Called after a flight has been removed from the repository
+     * 
+     * @param flight The flight that was removed
+     */
+    default void onFlightRemoved(Flight flight) {
+    }
+
+    /**
+     * Called after a batch change has removed or replaced flights - each one is a version
+     * that is no longer stored; the versions that replaced them were reported as added
+     * 
+     * @param flights The flights that were removed
+     */
+    default void onFlightsRemoved(Collection<Flight> flights) {
+        for (Flight flight : flights) {
+            onFlightRemoved(flight);
+        }
+    }
+}
@@ -1,7 +1,10 @@
 package com.infygo.airline.service;
 
+import com.infygo.airline.domain.FareCalendarDay;
 import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 /**
@@ -9,26 +12,105 @@ import java.util.List;
  */
 public interface FlightService {
     /**
-     * Add a new flight to the system
+     * Add a new flight to the system. A flight with the same ID is replaced.
      * 
      * @param flight The flight to add
      */
     void addFlight(Flight flight);
 
+    /**
+     * Add a batch of flights in one operation.
+     * The whole batch is validated first; nothing is stored if any flight is invalid.
+     * Flights with the IDs of stored flights replace them.
+     * 
+     * @param flights The flights to add
+     */
+    void addFlights(Collection<Flight> flights);
+
+    /**
+     * Add or replace a batch of flights in one operation - a schedule change feed.
+     * The whole batch is validated first; nothing is stored if any flight is invalid.
+     * 
+     * @param flights The new and changed flights
+     * @return The versions that were replaced
+     */
+    List<Flight> upsertFlights(Collection<Flight> flights);
+
+    /**
+     * Replace an existing flight, e.g. when it is rescheduled or moved to another route.
+     * Bookings stay with the flight ID.
+     * 
+     * @param flight The new version of the flight
+     * @return The version that was replaced
+     */
+    Flight updateFlight(Flight flight);
+
+    /**
+     * Remove a flight from the system, e.g. when it is cancelled.
+     * Existing bookings on it are kept and can still be cancelled.
+     * 
+     * @param flightId The flight ID
+     * @return The flight that was removed
+     */
+    Flight removeFlight(String flightId);
+
     /**
      * Search for flights based on route and date
      * 
      * @param source      Origin city
      * @param destination Destination city
      * @param journeyDate Date of travel
-     * @return List of matching flights
+     * @return Unmodifiable list of matching flights, sorted by flight ID
      */
     List<Flight> searchFlights(String source, String destination, LocalDate journeyDate);
 
+    /**
+     * Build a fare calendar for a route over a range of dates
+     * 
+     * @param source      Origin city
+     * @param destination Destination city
+     * @param fromDate    First date of travel (inclusive)
+     * @param toDate      Last date of travel (inclusive)
+     * @return One entry per day that has flights, ordered by date
+     */
+    List<FareCalendarDay> searchFlightsBetween(String source, String destination, LocalDate fromDate,
+            LocalDate toDate);
+
+    /**
+     * Build a fare calendar for a route around a date
+     * 
+     * @param source      Origin city
+     * @param destination Destination city
+     * @param journeyDate Preferred date of travel
+     * @param flexDays    Number of days to search either side of the preferred date
+     * @return One entry per day that has flights, ordered by date
+     */
+    List<FareCalendarDay> searchFlexibleDates(String source, String destination, LocalDate journeyDate,
+            int flexDays);
+
+    /**
+     * Find the best flights matching a query, e.g. the K cheapest flights of an
+     * airline with at least N seats left
+     * 
+     * @param query Route, dates, filters, sort order and limit
+     * @return At most query.getLimit() flights, best first
+     */
+    List<Flight> queryFlights(FlightQuery query);
+
     /**
      * Get all flights in the system
      * 
      * @return List of all available flights
      */
     List<Flight> getAllFlights();
+
+    /**
+     * Get one page of flights in flight ID order
+     * 
+     * @param afterFlightId Cursor - the last flight ID of the previous page, or null
+     *                      for the first page
+     * @param limit         Maximum number of flights to return
+     * @return Flights with IDs after the cursor; fewer than limit on the last page
+     */
+    List<Flight> getFlights(String afterFlightId, int limit);
 }
@@ -1,12 +1,25 @@
 package com.infygo.airline.service;
 
+import com.infygo.airline.domain.FareCalendarDay;
 import com.infygo.airline.domain.Flight;
+import com.infygo.airline.domain.FlightQuery;
 import com.infygo.airline.repository.FlightRepository;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.stream.Collectors;
 
 /**
  * Implementation of the FlightService interface.
@@ -16,17 +29,154 @@ import java.util.List;
 public class FlightServiceImpl implements FlightService {
 
     private final FlightRepository flightRepository;
+    private final SeatInventory seatInventory;
+    private final SearchResultCache searchCache;
+
+    // Canonical city and airline names - resolves aliases such as Bengaluru for Bangalore
+    private final CityDirectory cityDirectory;
+
+    // Components that keep derived views of the catalog (route graph, caches, ...)
+    private final List<FlightCatalogListener> catalogListeners;
+
+    // Largest result limit a query may ask for
+    private final int maxQueryResults;
 
     @Autowired
-    public FlightServiceImpl(FlightRepository flightRepository) {
+    public FlightServiceImpl(FlightRepository flightRepository, SeatInventory seatInventory,
+            SearchResultCache searchCache, CityDirectory cityDirectory,
+            ObjectProvider<FlightCatalogListener> catalogListeners,
+            @Value("${infygo.query.max-results:1000}") int maxQueryResults) {
+        if (maxQueryResults <= 0) {
+            throw new IllegalArgumentException("Invalid query result limit");
+        }
+        this.maxQueryResults = maxQueryResults;
         this.flightRepository = flightRepository;
+        this.seatInventory = seatInventory;
+        this.searchCache = searchCache;
+        this.cityDirectory = cityDirectory;
+        this.catalogListeners = catalogListeners.orderedStream().collect(Collectors.toList());
+        flightRepository.setExpiryListener(this::onFlightsExpired);
+    }
+
+    /**
+     * Flights the repository dropped on its own, once departed - forgotten everywhere else too
+     */
+    private void onFlightsExpired(List<Flight> expired) {
+        for (FlightCatalogListener listener : catalogListeners) {
+            listener.onFlightsRemoved(expired);
+        }
+        for (Flight flight : expired) {
+            seatInventory.forget(flight.getFlightId());
+        }
     }
 
     @Override
     public void addFlight(Flight flight) {
         // Validate flight before adding
         validateFlight(flight);
-        flightRepository.addFlight(flight);
+        checkCapacity(flight);
+        List<Flight> replaced = flightRepository.upsertFlights(List.of(flight));
+
+        for (FlightCatalogListener listener : catalogListeners) {
+            if (replaced.isEmpty()) {
+                listener.onFlightAdded(flight);
+            } else {
+                listener.onFlightUpdated(replaced.get(0), flight);
+            }
+        }
+    }
+
+    @Override
+    public void addFlights(Collection<Flight> flights) {
+        upsertFlights(flights);
+    }
+
+    @Override
+    public List<Flight> upsertFlights(Collection<Flight> flights) {
+        if (flights == null) {
+            throw new IllegalArgumentException("Flights cannot be null");
+        }
+
+        // Validate the whole batch before storing any of it
+        for (Flight flight : flights) {
+            validateFlight(flight);
+            checkCapacity(flight);
+        }
+        List<Flight> replaced = flightRepository.upsertFlights(flights);
+
+        if (replaced.isEmpty()) {
+            for (FlightCatalogListener listener : catalogListeners) {
+                listener.onFlightsAdded(flights);
+            }
+            return replaced;
+        }
+        notifyUpserted(flights, replaced);
+        return replaced;
+    }
+
+    /**
+     * Report a batch that replaced flights: new IDs as added, and each replaced ID as one
+     * update from the version that was stored to the version now stored. Reporting the
+     * replaced versions as a separate removal would let listeners that key on flight ID
+     * drop the version that replaced them.
+     */
+    private void notifyUpserted(Collection<Flight> flights, List<Flight> replaced) {
+        // Later duplicates in the batch win, as in the repository
+        Map<String, Flight> stored = new LinkedHashMap<>();
+        Map<Flight, Boolean> inBatch = new IdentityHashMap<>();
+        for (Flight flight : flights) {
+            stored.put(flight.getFlightId(), flight);
+            inBatch.put(flight, Boolean.TRUE);
+        }
+        // Replaced also lists batch duplicates that were never stored - those are not updates
+        Map<String, Flight> previousById = new HashMap<>();
+        for (Flight flight : replaced) {
+            if (!inBatch.containsKey(flight)) {
+                previousById.put(flight.getFlightId(), flight);
+            }
+        }
+
+        List<Flight> added = new ArrayList<>(stored.size() - previousById.size());
+        for (Flight flight : stored.values()) {
+            if (!previousById.containsKey(flight.getFlightId())) {
+                added.add(flight);
+            }
+        }
+        for (FlightCatalogListener listener : catalogListeners) {
+            if (!added.isEmpty()) {
+                listener.onFlightsAdded(Collections.unmodifiableList(added));
+            }
+            for (Map.Entry<String, Flight> entry : previousById.entrySet()) {
+                listener.onFlightUpdated(entry.getValue(), stored.get(entry.getKey()));
+            }
+        }
+    }
+
+    @Override
+    public Flight updateFlight(Flight flight) {
+        validateFlight(flight);
+        checkCapacity(flight);
+        Flight previous = flightRepository.updateFlight(flight)
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flight.getFlightId()));
+
+        for (FlightCatalogListener listener : catalogListeners) {
+            listener.onFlightUpdated(previous, flight);
+        }
+        return previous;
+    }
+
+    @Override
+    public Flight removeFlight(String flightId) {
+        if (flightId == null || flightId.isBlank()) {
+            throw new IllegalArgumentException("Flight ID is required");
+        }
+        Flight removed = flightRepository.removeFlight(flightId.trim())
+                .orElseThrow(() -> new IllegalArgumentException("Flight not found: " + flightId));
+
+        for (FlightCatalogListener listener : catalogListeners) {
+            listener.onFlightRemoved(removed);
+        }
+        return removed;
     }
 
     @Override
@@ -36,11 +186,91 @@ public class FlightServiceImpl implements FlightService {
             throw new IllegalArgumentException("Search parameters cannot be null");
         }
 
-        // City names should be case-insensitive for better user experience
-        String normalizedSource = source.trim();
-        String normalizedDestination = destination.trim();
+        // City names are case-insensitive, and aliases map to the name the catalog uses
+        String normalizedSource = canonicalCity(source);
+        String normalizedDestination = canonicalCity(destination);
+
+        // Popular route/date pairs are answered from the cache; the cache is a catalog listener,
+        // so adding a flight drops exactly the entry it affects
+        SearchResultCache.Key key = new SearchResultCache.Key(normalizedSource, normalizedDestination, journeyDate);
+        List<Flight> flights = searchCache.get(key);
+        if (flights != null) {
+            return flights;
+        }
+
+        long epoch = searchCache.getEpoch(key);
+        flights = flightRepository.searchFlights(normalizedSource, normalizedDestination, journeyDate);
+        searchCache.put(key, flights, epoch);
+        return flights;
+    }
+
+    @Override
+    public List<FareCalendarDay> searchFlightsBetween(String source, String destination, LocalDate fromDate,
+            LocalDate toDate) {
+        // Validate search parameters
+        if (source == null || destination == null || fromDate == null || toDate == null) {
+            throw new IllegalArgumentException("Search parameters cannot be null");
+        }
+
+        if (fromDate.isAfter(toDate)) {
+            throw new IllegalArgumentException("From date cannot be after to date");
+        }
 
-        return flightRepository.searchFlights(normalizedSource, normalizedDestination, journeyDate);
+        NavigableMap<LocalDate, List<Flight>> flightsByDate = flightRepository.searchFlightsBetween(
+                canonicalCity(source), canonicalCity(destination), fromDate, toDate);
+
+        // Single pass over the date buckets, picking the cheapest flight of each day
+        List<FareCalendarDay> calendar = new ArrayList<>(flightsByDate.size());
+        for (Map.Entry<LocalDate, List<Flight>> day : flightsByDate.entrySet()) {
+            List<Flight> flights = day.getValue();
+            if (flights.isEmpty()) {
+                continue;
+            }
+
+            Flight cheapest = flights.get(0);
+            for (int i = 1; i < flights.size(); i++) {
+                Flight flight = flights.get(i);
+                if (flight.getFare() < cheapest.getFare()) {
+                    cheapest = flight;
+                }
+            }
+            calendar.add(new FareCalendarDay(day.getKey(), flights, cheapest));
+        }
+        return calendar;
+    }
+
+    @Override
+    public List<FareCalendarDay> searchFlexibleDates(String source, String destination, LocalDate journeyDate,
+            int flexDays) {
+        if (journeyDate == null) {
+            throw new IllegalArgumentException("Search parameters cannot be null");
+        }
+
+        if (flexDays < 0) {
+            throw new IllegalArgumentException("Flexible days cannot be negative");
+        }
+
+        return searchFlightsBetween(source, destination, journeyDate.minusDays(flexDays),
+                journeyDate.plusDays(flexDays));
+    }
+
+    @Override
+    public List<Flight> queryFlights(FlightQuery query) {
+        // Validate query parameters
+        if (query == null || query.getSource() == null || query.getDestination() == null
+                || query.getFromDate() == null || query.getToDate() == null || query.getSortBy() == null) {
+            throw new IllegalArgumentException("Search parameters cannot be null");
+        }
+
+        if (query.getFromDate().isAfter(query.getToDate())) {
+            throw new IllegalArgumentException("From date cannot be after to date");
+        }
+
+        if (query.getLimit() <= 0 || query.getLimit() > maxQueryResults) {
+            throw new IllegalArgumentException("Result limit must be between 1 and " + maxQueryResults);
+        }
+
+        return flightRepository.queryFlights(canonicalQuery(query), seatInventory::getAvailableSeats);
     }
 
     @Override
@@ -48,32 +278,67 @@ public class FlightServiceImpl implements FlightService {
         return flightRepository.getAllFlights();
     }
 
+    @Override
+    public List<Flight> getFlights(String afterFlightId, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page size must be greater than zero");
+        }
+        return flightRepository.getFlights(afterFlightId, limit);
+    }
+
     /**
-     * Validates flight data before persistence
+     * The catalog's spelling of a city name or alias; unknown names are only trimmed
      */
-    private void validateFlight(Flight flight) {
-        if (flight == null) {
-            throw new IllegalArgumentException("Flight cannot be null");
-        }
+    private String canonicalCity(String name) {
+        String trimmed = name.trim();
+        String canonical = cityDirectory.resolveCity(trimmed);
+        return canonical != null ? canonical : trimmed;
+    }
 
-        if (flight.getFlightId() == null || flight.getFlightId().trim().isEmpty()) {
-            throw new IllegalArgumentException("Flight ID is required");
+    /**
+     * The query with aliases of its cities and airline replaced - the query itself if
+     * there are none, since the repository already ignores case
+     */
+    private FlightQuery canonicalQuery(FlightQuery query) {
+        String source = canonicalCity(query.getSource());
+        String destination = canonicalCity(query.getDestination());
+        String airlines = query.getAirlines();
+        String canonicalAirlines = airlines == null ? null : cityDirectory.resolveAirline(airlines.trim());
+        if (canonicalAirlines == null) {
+            canonicalAirlines = airlines;
         }
-
-        if (flight.getSource() == null || flight.getDestination() == null) {
-            throw new IllegalArgumentException("Source and destination are required");
+        if (source.equalsIgnoreCase(query.getSource()) && destination.equalsIgnoreCase(query.getDestination())
+                && (airlines == null || canonicalAirlines.equalsIgnoreCase(airlines))) {
+            return query;
         }
 
-        if (flight.getSource().equalsIgnoreCase(flight.getDestination())) {
-            throw new IllegalArgumentException("Source and destination cannot be the same");
-        }
+        FlightQuery canonical = new FlightQuery(source, destination, query.getFromDate(), query.getToDate());
+        canonical.setAirlines(canonicalAirlines);
+        canonical.setMaxFare(query.getMaxFare());
+        canonical.setMinSeats(query.getMinSeats());
+        canonical.setSortBy(query.getSortBy());
+        canonical.setLimit(query.getLimit());
+        return canonical;
+    }
 
-        if (flight.getFare() == null || flight.getFare() <= 0) {
-            throw new IllegalArgumentException("Fare must be greater than zero");
+    /**
+     * Validates flight data before persistence
+     */
+    private void validateFlight(Flight flight) {
+        String problem = FlightValidator.findProblem(flight);
+        if (problem != null) {
+            throw new IllegalArgumentException(problem);
         }
+    }
 
-        if (flight.getSeatCount() == null || flight.getSeatCount() <= 0) {
-            throw new IllegalArgumentException("Seat count must be greater than zero");
+    /**
+     * A new version of a flight must keep room for the seats already booked on it
+     */
+    private void checkCapacity(Flight flight) {
+        int booked = seatInventory.getBookedSeats(flight.getFlightId());
+        if (flight.getSeatCount() < booked) {
+            throw new IllegalArgumentException("Seat count cannot be below the " + booked
+                    + " seats already booked on flight " + flight.getFlightId());
         }
     }
 }
@@ -0,0 +1,52 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Flight;
+
+/**
+ * Validation rules for flight data.
+ * Returns the problem instead of throwing, so bulk loaders can reject a row and
+ * carry on while the service turns the problem into an exception.
+ */
+public final class FlightValidator {
+
+    private FlightValidator() {
+    }
+
+    /**
+     * Check a flight against the business rules
+     * 
+     * @param flight The flight to check
+     * @return Description of the first problem found, or null if the flight is valid
+     */
+    public static String findProblem(Flight flight) {
+        if (flight == null) {
+            return "Flight cannot be null";
+        }
+
+        if (flight.getFlightId() == null || flight.getFlightId().trim().isEmpty()) {
+            return "Flight ID is required";
+        }
+
+        if (flight.getSource() == null || flight.getDestination() == null) {
+            return "Source and destination are required";
+        }
+
+        if (flight.getSource().equalsIgnoreCase(flight.getDestination())) {
+            return "Source and destination cannot be the same";
+        }
+
+        if (flight.getFare() == null || flight.getFare() <= 0) {
+            return "Fare must be greater than zero";
+        }
+
+        if (flight.getJourneyDate() == null) {
+            return "Journey date is required";
+        }
+
+        if (flight.getSeatCount() == null || flight.getSeatCount() <= 0) {
+            return "Seat count must be greater than zero";
+        }
+
+        return null;
+    }
+}
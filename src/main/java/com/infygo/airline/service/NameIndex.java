@@ -0,0 +1,309 @@
+package com.infygo.airline.service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable sorted-array index of names and their aliases, matched ignoring case.
+ *
+ * Every name and alias is one entry in an array sorted by its case-folded spelling, so the
+ * completions of a prefix are the contiguous run of entries starting with it. Exact lookups,
+ * made on every search, go through a hash table over the same entries that hashes and
+ * compares in place and allocates nothing.
+ *
+ * Typo lookup finds names within one edit (insert, delete, replace or swap of adjacent
+ * characters). One edit leaves either the first or the last (length - 1) / 2 characters
+ * of the input untouched, so the candidates are the entries sharing that prefix - a run of
+ * the sorted array - plus those sharing that suffix - a run of a second array sorted by
+ * reversed spelling. Only the candidates are compared in full.
+ */
+final class NameIndex {
+
+    static final NameIndex EMPTY = new NameIndex(List.of(), Map.of());
+
+    // Shortest input checked for typos - shorter ones share no characters worth narrowing on
+    private static final int MIN_TYPO_LENGTH = 3;
+
+    private static final Comparator<String> FOLDED_ORDER = NameIndex::compareFolded;
+
+    // Canonical names, in the spelling first seen
+    private final String[] names;
+
+    // Entries sorted by folded spelling; targets[i] is the name that keys[i] stands for
+    private final String[] keys;
+    private final int[] targets;
+
+    // Open-addressing table over the entries, at most half full; slots hold entry + 1
+    private final int[] table;
+
+    // The same entries spelled backwards, for the suffix half of the typo lookup
+    private final String[] reversedKeys;
+    private final int[] reversedTargets;
+
+    /**
+     * @param names   Canonical names; names that differ only in case count once
+     * @param aliases Alias to canonical name. Aliases of unknown names, and aliases that are
+     *                themselves names, are ignored - a real name always wins.
+     */
+    NameIndex(Collection<String> names, Map<String, String> aliases) {
+        List<String> unique = new ArrayList<>(names);
+        unique.sort(FOLDED_ORDER);
+        int count = 0;
+        for (String name : unique) {
+            if (count == 0 || compareFolded(unique.get(count - 1), name) != 0) {
+                unique.set(count++, name);
+            }
+        }
+        this.names = unique.subList(0, count).toArray(new String[0]);
+
+        List<String[]> entries = new ArrayList<>(count + aliases.size());
+        for (String name : this.names) {
+            entries.add(new String[] { name, name });
+        }
+        for (Map.Entry<String, String> alias : aliases.entrySet()) {
+            if (find(this.names, alias.getKey()) < 0 && find(this.names, alias.getValue()) >= 0) {
+                entries.add(new String[] { alias.getKey(), this.names[find(this.names, alias.getValue())] });
+            }
+        }
+
+        entries.sort((a, b) -> compareFolded(a[0], b[0]));
+        this.keys = new String[entries.size()];
+        this.targets = new int[entries.size()];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = fold(entries.get(i)[0]);
+            targets[i] = find(this.names, entries.get(i)[1]);
+        }
+
+        this.table = new int[Math.max(16, Integer.highestOneBit(Math.max(1, keys.length)) * 4)];
+        int mask = table.length - 1;
+        for (int i = 0; i < keys.length; i++) {
+            int slot = foldedHash(keys[i]) & mask;
+            while (table[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = i + 1;
+        }
+
+        Integer[] byReversedKey = new Integer[keys.length];
+        String[] reversed = new String[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            byReversedKey[i] = i;
+            reversed[i] = reverse(keys[i]);
+        }
+        Arrays.sort(byReversedKey, (x, y) -> compareFolded(reversed[x], reversed[y]));
+        this.reversedKeys = new String[keys.length];
+        this.reversedTargets = new int[keys.length];
+        for (int i = 0; i < keys.length; i++) {
+            reversedKeys[i] = reversed[byReversedKey[i]];
+            reversedTargets[i] = targets[byReversedKey[i]];
+        }
+    }
+
+    /**
+     * Number of canonical names
+     */
+    int size() {
+        return names.length;
+    }
+
+    /**
+     * Canonical names in alphabetical order
+     */
+    List<String> names() {
+        return Arrays.asList(names);
+    }
+
+    /**
+     * True if the name is a canonical name, ignoring case - aliases do not count
+     */
+    boolean contains(String name) {
+        return find(names, name) >= 0;
+    }
+
+    /**
+     * Canonical spelling of a name or alias, or null if it is neither
+     */
+    String resolve(String name) {
+        int mask = table.length - 1;
+        for (int slot = foldedHash(name) & mask; table[slot] != 0; slot = (slot + 1) & mask) {
+            int entry = table[slot] - 1;
+            if (compareFolded(keys[entry], name) == 0) {
+                return names[targets[entry]];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Canonical names with a name or alias starting with the prefix, in alphabetical order
+     */
+    List<String> complete(String prefix, int limit) {
+        List<String> matches = new ArrayList<>(Math.min(limit, 16));
+        for (int i = lowerBound(keys, prefix); i < keys.length && matches.size() < limit; i++) {
+            if (!startsWithFolded(keys[i], prefix)) {
+                break;
+            }
+            addOnce(matches, names[targets[i]]);
+        }
+        matches.sort(FOLDED_ORDER);
+        return matches;
+    }
+
+    /**
+     * Canonical names with a name or alias within one edit of the input, in alphabetical order
+     */
+    List<String> similar(String name) {
+        List<String> matches = new ArrayList<>();
+        if (name.length() < MIN_TYPO_LENGTH) {
+            return matches;
+        }
+
+        String folded = fold(name);
+        int anchor = (folded.length() - 1) / 2;
+        collectSimilar(keys, targets, folded, folded.substring(0, anchor), matches);
+        String reversed = reverse(folded);
+        collectSimilar(reversedKeys, reversedTargets, reversed, reversed.substring(0, anchor), matches);
+        matches.sort(FOLDED_ORDER);
+        return matches;
+    }
+
+    private void collectSimilar(String[] sortedKeys, int[] sortedTargets, String folded, String anchor,
+            List<String> matches) {
+        for (int i = lowerBound(sortedKeys, anchor); i < sortedKeys.length; i++) {
+            String key = sortedKeys[i];
+            if (!key.startsWith(anchor)) {
+                break;
+            }
+            if (Math.abs(key.length() - folded.length()) <= 1 && withinOneEdit(key, folded)) {
+                addOnce(matches, names[sortedTargets[i]]);
+            }
+        }
+    }
+
+    private static void addOnce(List<String> matches, String name) {
+        // Result lists are short - a linear check beats a set
+        if (!matches.contains(name)) {
+            matches.add(name);
+        }
+    }
+
+    /**
+     * True if a and b differ by at most one insert, delete, replace or adjacent swap
+     */
+    private static boolean withinOneEdit(String a, String b) {
+        int lengthDifference = a.length() - b.length();
+        if (lengthDifference < 0) {
+            return withinOneEdit(b, a);
+        }
+        if (lengthDifference > 1) {
+            return false;
+        }
+
+        int first = 0;
+        while (first < b.length() && a.charAt(first) == b.charAt(first)) {
+            first++;
+        }
+        if (lengthDifference == 1) {
+            // Skipping the extra character of a must line up the rest
+            return a.regionMatches(first + 1, b, first, b.length() - first);
+        }
+        if (first == a.length()) {
+            return true;
+        }
+        if (a.regionMatches(first + 1, b, first + 1, a.length() - first - 1)) {
+            return true;
+        }
+        return first + 1 < a.length()
+                && a.charAt(first) == b.charAt(first + 1) && a.charAt(first + 1) == b.charAt(first)
+                && a.regionMatches(first + 2, b, first + 2, a.length() - first - 2);
+    }
+
+    /**
+     * Index of the key equal to the name ignoring case, or a negative number
+     */
+    private static int find(String[] sortedKeys, String name) {
+        int index = lowerBound(sortedKeys, name);
+        return index < sortedKeys.length && compareFolded(sortedKeys[index], name) == 0 ? index : -1;
+    }
+
+    /**
+     * Index of the first key not ordered before the value
+     */
+    private static int lowerBound(String[] sortedKeys, String value) {
+        int low = 0;
+        int high = sortedKeys.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (compareFolded(sortedKeys[middle], value) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * String hash of the folded spelling, computed without building it
+     */
+    private static int foldedHash(String value) {
+        int h = 0;
+        for (int i = 0; i < value.length(); i++) {
+            h = 31 * h + fold(value.charAt(i));
+        }
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean startsWithFolded(String key, String prefix) {
+        if (key.length() < prefix.length()) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length(); i++) {
+            if (fold(key.charAt(i)) != fold(prefix.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares ignoring case, character by character, without building folded copies
+     */
+    private static int compareFolded(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        for (int i = 0; i < length; i++) {
+            char x = fold(a.charAt(i));
+            char y = fold(b.charAt(i));
+            if (x != y) {
+                return x - y;
+            }
+        }
+        return a.length() - b.length();
+    }
+
+    /**
+     * Same folding as equalsIgnoreCase, with a shortcut for ASCII
+     */
+    private static char fold(char c) {
+        if (c < 128) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(Character.toUpperCase(c));
+    }
+
+    private static String fold(String value) {
+        char[] chars = value.toCharArray();
+        for (int i = 0; i < chars.length; i++) {
+            chars[i] = fold(chars[i]);
+        }
+        return new String(chars);
+    }
+
+    private static String reverse(String value) {
+        return new StringBuilder(value).reverse().toString();
+    }
+}
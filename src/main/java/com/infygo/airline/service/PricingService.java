@@ -0,0 +1,36 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Flight;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Service interface for dynamic fare pricing.
+ * The price of a flight is its base fare multiplied by the configured season,
+ * day-of-week, days-before-departure and load factor rules.
+ */
+public interface PricingService {
+    /**
+     * Price a single flight
+     * 
+     * @param flight The flight to price
+     * @return The fare the customer pays today
+     */
+    double price(Flight flight);
+
+    /**
+     * Price a whole result list in one pass
+     * 
+     * @param flights The flights to price
+     * @return Prices in the same order as the flights
+     */
+    double[] priceAll(List<Flight> flights);
+
+    /**
+     * Get the seasonal multiplier for a date, e.g. 1.2 for a 20% festival surcharge
+     * 
+     * @param journeyDate Date of travel
+     * @return 1.0 outside any configured season
+     */
+    double getSeasonMultiplier(LocalDate journeyDate);
+}
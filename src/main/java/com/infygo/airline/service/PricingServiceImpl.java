@@ -0,0 +1,215 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Flight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.MonthDay;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Implementation of the PricingService interface.
+ * Date-based rules (season, day of week, days before departure) are folded into a
+ * multiplier table indexed by days from today, rebuilt once a day, so pricing a
+ * flight is a table lookup plus the load factor tier - no allocation per flight.
+ */
+@Service
+public class PricingServiceImpl implements PricingService {
+
+    private final SeatInventory seatInventory;
+
+    // Parsed rules - season ranges may wrap around the new year
+    private final MonthDay[] seasonStarts;
+    private final MonthDay[] seasonEnds;
+    private final double[] seasonMultipliers;
+    private final double[] dayOfWeekMultipliers = new double[7];
+    private final int[] advanceDays;
+    private final double[] advanceMultipliers;
+    private final double[] loadFactors;
+    private final double[] loadFactorMultipliers;
+    private final int horizonDays;
+
+    // Multipliers for the next horizonDays days, starting today
+    private volatile DateTable dateTable;
+
+    @Autowired
+    public PricingServiceImpl(SeatInventory seatInventory,
+            @Value("${infygo.pricing.seasons:}") String seasons,
+            @Value("${infygo.pricing.day-of-week:}") String dayOfWeek,
+            @Value("${infygo.pricing.advance-purchase:}") String advancePurchase,
+            @Value("${infygo.pricing.load-factor:}") String loadFactor,
+            @Value("${infygo.pricing.horizon-days:400}") int horizonDays) {
+        this.seatInventory = seatInventory;
+        this.horizonDays = horizonDays;
+
+        // Seasons: MM-dd:MM-dd:multiplier
+        String[][] seasonRules = parseRules(seasons, 3);
+        seasonStarts = new MonthDay[seasonRules.length];
+        seasonEnds = new MonthDay[seasonRules.length];
+        seasonMultipliers = new double[seasonRules.length];
+        for (int i = 0; i < seasonRules.length; i++) {
+            seasonStarts[i] = MonthDay.parse("--" + seasonRules[i][0]);
+            seasonEnds[i] = MonthDay.parse("--" + seasonRules[i][1]);
+            seasonMultipliers[i] = parseMultiplier(seasonRules[i][2]);
+        }
+
+        // Day of week: DAY:multiplier
+        Arrays.fill(dayOfWeekMultipliers, 1.0);
+        for (String[] rule : parseRules(dayOfWeek, 2)) {
+            dayOfWeekMultipliers[DayOfWeek.valueOf(rule[0].toUpperCase()).ordinal()] = parseMultiplier(rule[1]);
+        }
+
+        // Days before departure: days:multiplier - the tightest matching tier wins
+        String[][] advanceRules = parseRules(advancePurchase, 2);
+        advanceDays = new int[advanceRules.length];
+        advanceMultipliers = new double[advanceRules.length];
+        for (int i = 0; i < advanceRules.length; i++) {
+            advanceDays[i] = Integer.parseInt(advanceRules[i][0]);
+            advanceMultipliers[i] = parseMultiplier(advanceRules[i][1]);
+        }
+
+        // Load factor: booked/total threshold:multiplier - the highest reached tier wins
+        String[][] loadRules = parseRules(loadFactor, 2);
+        loadFactors = new double[loadRules.length];
+        loadFactorMultipliers = new double[loadRules.length];
+        for (int i = 0; i < loadRules.length; i++) {
+            loadFactors[i] = Double.parseDouble(loadRules[i][0]);
+            loadFactorMultipliers[i] = parseMultiplier(loadRules[i][1]);
+        }
+    }
+
+    @Override
+    public double price(Flight flight) {
+        return price(flight, currentTable());
+    }
+
+    @Override
+    public double[] priceAll(List<Flight> flights) {
+        // One table lookup for the whole batch
+        DateTable table = currentTable();
+        double[] prices = new double[flights.size()];
+        for (int i = 0; i < prices.length; i++) {
+            prices[i] = price(flights.get(i), table);
+        }
+        return prices;
+    }
+
+    @Override
+    public double getSeasonMultiplier(LocalDate journeyDate) {
+        MonthDay day = MonthDay.from(journeyDate);
+        double multiplier = 1.0;
+        for (int i = 0; i < seasonMultipliers.length; i++) {
+            boolean inSeason = seasonStarts[i].isAfter(seasonEnds[i])
+                    ? !day.isBefore(seasonStarts[i]) || !day.isAfter(seasonEnds[i]) // wraps the new year
+                    : !day.isBefore(seasonStarts[i]) && !day.isAfter(seasonEnds[i]);
+            if (inSeason) {
+                multiplier *= seasonMultipliers[i];
+            }
+        }
+        return multiplier;
+    }
+
+    private double price(Flight flight, DateTable table) {
+        long offset = flight.getJourneyDate().toEpochDay() - table.startEpochDay;
+        double dateMultiplier = offset >= 0 && offset < table.multipliers.length
+                ? table.multipliers[(int) offset]
+                : dateMultiplier(flight.getJourneyDate(), offset);
+        return flight.getFare() * dateMultiplier * loadFactorMultiplier(flight);
+    }
+
+    /**
+     * Combined season, day-of-week and advance purchase multiplier for a date
+     */
+    private double dateMultiplier(LocalDate journeyDate, long daysBeforeDeparture) {
+        double multiplier = getSeasonMultiplier(journeyDate)
+                * dayOfWeekMultipliers[journeyDate.getDayOfWeek().ordinal()];
+
+        int tightest = Integer.MAX_VALUE;
+        double advanceMultiplier = 1.0;
+        for (int i = 0; i < advanceDays.length; i++) {
+            if (daysBeforeDeparture <= advanceDays[i] && advanceDays[i] < tightest) {
+                tightest = advanceDays[i];
+                advanceMultiplier = advanceMultipliers[i];
+            }
+        }
+        return multiplier * advanceMultiplier;
+    }
+
+    private double loadFactorMultiplier(Flight flight) {
+        if (loadFactors.length == 0) {
+            return 1.0;
+        }
+
+        double load = (double) seatInventory.getBookedSeats(flight.getFlightId()) / flight.getSeatCount();
+        double highest = -1;
+        double multiplier = 1.0;
+        for (int i = 0; i < loadFactors.length; i++) {
+            if (load >= loadFactors[i] && loadFactors[i] > highest) {
+                highest = loadFactors[i];
+                multiplier = loadFactorMultipliers[i];
+            }
+        }
+        return multiplier;
+    }
+
+    /**
+     * Today's multiplier table, rebuilt when the date changes
+     */
+    private DateTable currentTable() {
+        long today = LocalDate.now().toEpochDay();
+        DateTable table = dateTable;
+        if (table == null || table.startEpochDay != today) {
+            double[] multipliers = new double[horizonDays];
+            for (int i = 0; i < horizonDays; i++) {
+                multipliers[i] = dateMultiplier(LocalDate.ofEpochDay(today + i), i);
+            }
+            table = new DateTable(today, multipliers);
+            dateTable = table;
+        }
+        return table;
+    }
+
+    /**
+     * Splits "a:b:c,d:e:f" into rules of the expected number of fields
+     */
+    private static String[][] parseRules(String rules, int fields) {
+        if (rules == null || rules.isBlank()) {
+            return new String[0][];
+        }
+
+        String[] entries = rules.split(",");
+        String[][] parsed = new String[entries.length][];
+        for (int i = 0; i < entries.length; i++) {
+            parsed[i] = entries[i].trim().split(":");
+            if (parsed[i].length != fields) {
+                throw new IllegalArgumentException("Invalid pricing rule: " + entries[i]);
+            }
+        }
+        return parsed;
+    }
+
+    private static double parseMultiplier(String value) {
+        double multiplier = Double.parseDouble(value);
+        if (multiplier <= 0) {
+            throw new IllegalArgumentException("Pricing multiplier must be greater than zero: " + value);
+        }
+        return multiplier;
+    }
+
+    /**
+     * Date multipliers for consecutive days starting at startEpochDay
+     */
+    private static final class DateTable {
+        private final long startEpochDay;
+        private final double[] multipliers;
+
+        DateTable(long startEpochDay, double[] multipliers) {
+            this.startEpochDay = startEpochDay;
+            this.multipliers = multipliers;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.infygo.airline.service;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Directed graph of cities connected by at least one flight.
+ * Adjacency is kept in both directions and updated incrementally as flights are added
+ * and removed, so connection searches never have to rebuild it. Each edge counts its
+ * flights and disappears with the last one. City names are stored lowercased.
+ *
+ * Searches read the adjacency sets without locking; changes are serialized.
+ */
+class RouteGraph {
+
+    private final Map<String, Set<String>> outbound = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> inbound = new ConcurrentHashMap<>();
+
+    // Flights per edge, source -> destination -> count - guarded by this
+    private final Map<String, Map<String, Integer>> flightCounts = new HashMap<>();
+
+    /**
+     * Record that flights exist from source to destination
+     */
+    synchronized void addFlights(String source, String destination, int count) {
+        String from = normalize(source);
+        String to = normalize(destination);
+        if (flightCounts.computeIfAbsent(from, k -> new HashMap<>()).merge(to, count, Integer::sum) == count) {
+            outbound.computeIfAbsent(from, k -> ConcurrentHashMap.newKeySet()).add(to);
+            inbound.computeIfAbsent(to, k -> ConcurrentHashMap.newKeySet()).add(from);
+        }
+    }
+
+    /**
+     * Record that flights from source to destination are gone; the edge goes with the last one
+     */
+    synchronized void removeFlights(String source, String destination, int count) {
+        String from = normalize(source);
+        String to = normalize(destination);
+        Map<String, Integer> counts = flightCounts.get(from);
+        if (counts == null || counts.computeIfPresent(to, (k, flights) -> flights > count ? flights - count : null)
+                != null) {
+            return;
+        }
+        if (counts.isEmpty()) {
+            flightCounts.remove(from);
+        }
+        outbound.getOrDefault(from, Collections.emptySet()).remove(to);
+        inbound.getOrDefault(to, Collections.emptySet()).remove(from);
+    }
+
+    /**
+     * Cities with a direct flight from the given city
+     */
+    Set<String> getDestinations(String city) {
+        return outbound.getOrDefault(normalize(city), Collections.emptySet());
+    }
+
+    /**
+     * Minimum number of legs from each city to the destination, up to maxLegs.
+     * Breadth-first search over the reverse edges; cities that cannot reach the
+     * destination in time are absent, which lets the search prune them up front.
+     */
+    Map<String, Integer> legsTo(String destination, int maxLegs) {
+        String target = normalize(destination);
+        Map<String, Integer> legs = new HashMap<>();
+        legs.put(target, 0);
+
+        Queue<String> queue = new ArrayDeque<>();
+        queue.add(target);
+        while (!queue.isEmpty()) {
+            String city = queue.poll();
+            int distance = legs.get(city);
+            if (distance == maxLegs) {
+                continue;
+            }
+            for (String previous : inbound.getOrDefault(city, Collections.emptySet())) {
+                if (legs.putIfAbsent(previous, distance + 1) == null) {
+                    queue.add(previous);
+                }
+            }
+        }
+        return legs;
+    }
+
+    static String normalize(String city) {
+        return city.trim().toLowerCase();
+    }
+}
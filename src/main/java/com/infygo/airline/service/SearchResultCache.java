@@ -0,0 +1,283 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Flight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of route/date search results.
+ *
+ * Entries are spread over independently locked LRU segments, each holding an equal share
+ * of the size limit, and expire after a fixed time to live. When a flight is added,
+ * changed or removed only its own route/date entries are dropped, so hot searches on
+ * other routes stay cached.
+ *
+ * A search that started before a change must not cache what it read: each segment has an
+ * epoch that every invalidation advances, and a result is only stored if its segment's
+ * epoch has not moved since the search began.
+ */
+@Component
+public class SearchResultCache implements FlightCatalogListener {
+
+    private static final int SEGMENT_COUNT = 16;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final long timeToLiveNanos;
+    private final boolean enabled;
+
+    // Counters are striped so concurrent searches do not contend on them
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @Autowired
+    public SearchResultCache(@Value("${infygo.cache.max-entries:10000}") int maxEntries,
+            @Value("${infygo.cache.ttl-seconds:60}") long timeToLiveSeconds) {
+        if (maxEntries < 0 || timeToLiveSeconds <= 0) {
+            throw new IllegalArgumentException("Invalid search cache settings");
+        }
+        this.enabled = maxEntries > 0;
+        this.timeToLiveNanos = TimeUnit.SECONDS.toNanos(timeToLiveSeconds);
+        int segmentCapacity = Math.max(1, (maxEntries + SEGMENT_COUNT - 1) / SEGMENT_COUNT);
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment(segmentCapacity);
+        }
+    }
+
+    /**
+     * Identifies a search; city names are matched ignoring case, as in the repository.
+     * Compared in place rather than lowercased, so building a key allocates only the key.
+     */
+    public static final class Key {
+        private final String source;
+        private final String destination;
+        private final LocalDate journeyDate;
+        private final int hash;
+
+        public Key(String source, String destination, LocalDate journeyDate) {
+            this.source = source;
+            this.destination = destination;
+            this.journeyDate = journeyDate;
+            this.hash = (foldedHash(source) * 31 + foldedHash(destination)) * 31 + journeyDate.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return hash == other.hash && journeyDate.equals(other.journeyDate)
+                    && source.equalsIgnoreCase(other.source) && destination.equalsIgnoreCase(other.destination);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        /**
+         * String hash with the same case folding as equalsIgnoreCase
+         */
+        private static int foldedHash(String value) {
+            int h = 0;
+            for (int i = 0; i < value.length(); i++) {
+                h = 31 * h + Character.toLowerCase(Character.toUpperCase(value.charAt(i)));
+            }
+            return h;
+        }
+    }
+
+    /**
+     * Cached result for the search, or null on a miss
+     */
+    public List<Flight> get(Key key) {
+        if (!enabled) {
+            return null;
+        }
+        List<Flight> flights = segmentFor(key).get(key, System.nanoTime());
+        if (flights == null) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+        return flights;
+    }
+
+    /**
+     * Epoch to pass to put; read it before running the search
+     */
+    public long getEpoch(Key key) {
+        return segmentFor(key).epoch;
+    }
+
+    /**
+     * Store a search result, unless the catalog changed since the epoch was read
+     */
+    public void put(Key key, List<Flight> flights, long epoch) {
+        if (enabled) {
+            segmentFor(key).put(key, flights, epoch, System.nanoTime() + timeToLiveNanos);
+        }
+    }
+
+    /**
+     * Drop the cached result for one route and date
+     */
+    public void invalidate(String source, String destination, LocalDate journeyDate) {
+        Key key = new Key(source, destination, journeyDate);
+        segmentFor(key).invalidate(key);
+        invalidations.increment();
+    }
+
+    @Override
+    public void onFlightAdded(Flight flight) {
+        invalidate(flight.getSource(), flight.getDestination(), flight.getJourneyDate());
+    }
+
+    @Override
+    public void onFlightsAdded(Collection<Flight> flights) {
+        // A batch usually lands many flights on the same route/date - invalidate each once
+        Set<Key> keys = new HashSet<>();
+        for (Flight flight : flights) {
+            keys.add(new Key(flight.getSource(), flight.getDestination(), flight.getJourneyDate()));
+        }
+        for (Key key : keys) {
+            segmentFor(key).invalidate(key);
+        }
+        invalidations.add(keys.size());
+    }
+
+    @Override
+    public void onFlightRemoved(Flight flight) {
+        onFlightAdded(flight);
+    }
+
+    @Override
+    public void onFlightsRemoved(Collection<Flight> flights) {
+        onFlightsAdded(flights);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * Entries dropped to stay within the size limit
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * Entries dropped because their time to live ran out
+     */
+    public long getExpirations() {
+        return expirations.sum();
+    }
+
+    /**
+     * Route/date entries dropped because a flight on them changed
+     */
+    public long getInvalidations() {
+        return invalidations.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(Key key) {
+        int h = key.hashCode();
+        return segments[(h ^ (h >>> 16)) & (SEGMENT_COUNT - 1)];
+    }
+
+    /**
+     * Cached result and the time it expires
+     */
+    private static final class Entry {
+        private final List<Flight> flights;
+        private final long expiresAt;
+
+        Entry(List<Flight> flights, long expiresAt) {
+            this.flights = flights;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * One LRU segment, guarded by its own monitor
+     */
+    private final class Segment {
+        private final LinkedHashMap<Key, Entry> entries;
+
+        // Advanced by every invalidation in this segment - read without locking by getEpoch
+        private volatile long epoch;
+
+        Segment(int capacity) {
+            // Access order - the eldest entry is the least recently used one
+            entries = new LinkedHashMap<Key, Entry>(capacity * 2, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized List<Flight> get(Key key, long now) {
+            Entry entry = entries.get(key);
+            if (entry == null) {
+                return null;
+            }
+            if (entry.expiresAt - now <= 0) {
+                entries.remove(key);
+                expirations.increment();
+                return null;
+            }
+            return entry.flights;
+        }
+
+        synchronized void put(Key key, List<Flight> flights, long searchEpoch, long expiresAt) {
+            // A change landed while the search ran - its result may already be stale
+            if (epoch == searchEpoch) {
+                entries.put(key, new Entry(flights, expiresAt));
+            }
+        }
+
+        synchronized void invalidate(Key key) {
+            epoch++;
+            entries.remove(key);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.infygo.airline.service;
+
+import com.infygo.airline.domain.Flight;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-flight seat counters.
+ * Each flight has its own atomic counter of booked seats updated with compare-and-set,
+ * so bookings on different flights never contend and there is no global lock.
+ * The flight's seat count is its capacity; a reservation never takes the counter past it.
+ * The service refuses to shrink a flight below its booked seats, but a booking racing such
+ * a change can still leave more booked than the new capacity. Such a flight shows no seats
+ * available and takes no bookings until enough are cancelled - it never shows a negative count.
+ */
+@Component
+public class SeatInventory {
+
+    // Booked seats per flight ID - created on first booking
+    private final ConcurrentHashMap<String, AtomicInteger> bookedSeats = new ConcurrentHashMap<>();
+
+    /**
+     * Atomically reserve seats if enough are left
+     *
+     * @return true if the seats were reserved, false if the flight does not have enough seats
+     */
+    public boolean tryReserve(String flightId, int capacity, int seats) {
+        AtomicInteger booked = bookedSeats.computeIfAbsent(flightId, id -> new AtomicInteger());
+        while (true) {
+            int current = booked.get();
+            if (current + seats > capacity) {
+                return false;
+            }
+            if (booked.compareAndSet(current, current + seats)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Return previously reserved seats to the flight. A flight whose counter was forgotten
+     * has no seats left to return, so its bookings and holds can still be let go.
+     */
+    public void release(String flightId, int seats) {
+        AtomicInteger booked = bookedSeats.get(flightId);
+        if (booked == null) {
+            return;
+        }
+        while (true) {
+            int current = booked.get();
+            if (current < seats) {
+                throw new IllegalStateException("Cannot release more seats than reserved on flight " + flightId);
+            }
+            if (booked.compareAndSet(current, current - seats)) {
+                return;
+            }
+        }
+    }
+
+    public int getBookedSeats(String flightId) {
+        AtomicInteger booked = bookedSeats.get(flightId);
+        return booked == null ? 0 : booked.get();
+    }
+
+    public int getAvailableSeats(Flight flight) {
+        return Math.max(0, flight.getSeatCount() - getBookedSeats(flight.getFlightId()));
+    }
+
+    /**
+     * Drop the counter of a flight that has left the catalog for good, such as a departed one.
+     * Seats released on it afterwards are ignored.
+     */
+    public void forget(String flightId) {
+        bookedSeats.remove(flightId);
+    }
+}
@@ -0,0 +1,291 @@
+package com.infygo.airline.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Hashed timing wheel for large numbers of timeouts that are mostly cancelled.
+ *
+ * The wheel is a ring of buckets, one per tick. A timeout goes into the bucket of the
+ * tick it falls due in, with the number of full turns of the wheel still to wait, so
+ * scheduling is O(1) whatever the delay. Cancelling is a compare-and-set and the worker
+ * unlinks the timeout from its bucket in O(1). Each tick the worker only visits one
+ * bucket: the timeouts due run, the others count down one turn. There is no scan of all
+ * timeouts and no per-timeout scheduled task.
+ *
+ * Callers never touch the buckets: new and cancelled timeouts are handed over through
+ * lock-free queues and the worker thread, started on first use, owns the wheel. Timeouts
+ * run on the worker up to one tick late, so tasks must be short.
+ */
+final class TimingWheel {
+
+    private static final Logger logger = LoggerFactory.getLogger(TimingWheel.class);
+
+    // Most new timeouts moved into the wheel per tick, so a burst cannot stall expiry
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private static final int NEW = 0;
+    private static final int STARTED = 1;
+    private static final int STOPPED = 2;
+
+    private final long tickNanos;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final String threadName;
+
+    private final Queue<Timeout> added = new ConcurrentLinkedQueue<>();
+    private final Queue<Timeout> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicInteger state = new AtomicInteger(NEW);
+    private final CountDownLatch startTimeSet = new CountDownLatch(1);
+
+    // Deadlines are kept relative to this, so they never overflow
+    private volatile long startTime;
+    private volatile Thread worker;
+
+    // Worker thread only - ticks since the start
+    private long tick;
+
+    /**
+     * @param tickMillis Resolution of the wheel; timeouts run up to one tick late
+     * @param wheelSize  Buckets, rounded up to a power of two
+     * @param threadName Name of the worker thread
+     */
+    TimingWheel(long tickMillis, int wheelSize, String threadName) {
+        if (tickMillis <= 0 || wheelSize <= 0 || wheelSize > 1 << 20) {
+            throw new IllegalArgumentException("Invalid timing wheel settings");
+        }
+        int size = Integer.highestOneBit(wheelSize - 1) << 1;
+        if (size == 0) {
+            size = 1;
+        }
+        this.tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMillis);
+        this.wheel = new Bucket[size];
+        for (int i = 0; i < size; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = size - 1;
+        this.threadName = threadName;
+    }
+
+    /**
+     * Run the task once the delay has passed, unless the returned timeout is cancelled first
+     */
+    Timeout schedule(Runnable task, long delay, TimeUnit unit) {
+        start();
+        Timeout timeout = new Timeout(task, System.nanoTime() + unit.toNanos(delay) - startTime);
+        pending.incrementAndGet();
+        added.add(timeout);
+        return timeout;
+    }
+
+    /**
+     * Timeouts scheduled that have neither run nor been cancelled
+     */
+    long getPending() {
+        return pending.get();
+    }
+
+    /**
+     * Stop the worker; timeouts that have not run yet never will
+     */
+    void close() {
+        if (state.getAndSet(STOPPED) == STARTED) {
+            Thread thread = worker;
+            LockSupport.unpark(thread);
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private void start() {
+        if (state.get() == NEW && state.compareAndSet(NEW, STARTED)) {
+            Thread thread = new Thread(this::run, threadName);
+            thread.setDaemon(true);
+            worker = thread;
+            thread.start();
+        } else if (state.get() == STOPPED) {
+            throw new IllegalStateException("Timing wheel is stopped");
+        }
+        // Deadlines are relative to the start time the worker sets
+        try {
+            startTimeSet.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while starting the timing wheel", e);
+        }
+    }
+
+    private void run() {
+        startTime = System.nanoTime();
+        startTimeSet.countDown();
+        while (state.get() == STARTED) {
+            long now = waitForNextTick();
+            if (now < 0) {
+                return;
+            }
+            unlinkCancelled();
+            transferAdded();
+            wheel[(int) (tick & mask)].expire(now);
+            tick++;
+        }
+    }
+
+    /**
+     * Sleep until the current tick ends
+     *
+     * @return Time since the start, or -1 if the wheel was stopped meanwhile
+     */
+    private long waitForNextTick() {
+        long deadline = tickNanos * (tick + 1);
+        while (true) {
+            long now = System.nanoTime() - startTime;
+            if (now >= deadline) {
+                return now;
+            }
+            LockSupport.parkNanos(this, deadline - now);
+            if (state.get() != STARTED) {
+                return -1;
+            }
+        }
+    }
+
+    private void unlinkCancelled() {
+        Timeout timeout;
+        while ((timeout = cancelled.poll()) != null) {
+            if (timeout.bucket != null) {
+                timeout.bucket.remove(timeout);
+            }
+        }
+    }
+
+    private void transferAdded() {
+        for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+            Timeout timeout = added.poll();
+            if (timeout == null) {
+                return;
+            }
+            if (timeout.state.get() != Timeout.WAITING) {
+                continue;
+            }
+            long dueTick = timeout.deadline / tickNanos;
+            timeout.remainingRounds = (dueTick - tick) / wheel.length;
+            // Already due - run it on this tick rather than a turn later
+            wheel[(int) (Math.max(dueTick, tick) & mask)].add(timeout);
+        }
+    }
+
+    /**
+     * A scheduled task that can be cancelled until it runs
+     */
+    final class Timeout {
+        private static final int WAITING = 0;
+        private static final int CANCELLED = 1;
+        private static final int EXPIRED = 2;
+
+        private final Runnable task;
+        private final long deadline;
+        private final AtomicInteger state = new AtomicInteger(WAITING);
+
+        // Worker thread only - position in the wheel
+        private long remainingRounds;
+        private Bucket bucket;
+        private Timeout next;
+        private Timeout previous;
+
+        private Timeout(Runnable task, long deadline) {
+            this.task = task;
+            this.deadline = deadline;
+        }
+
+        /**
+         * @return False if the task already ran or was cancelled before
+         */
+        boolean cancel() {
+            if (!state.compareAndSet(WAITING, CANCELLED)) {
+                return false;
+            }
+            pending.decrementAndGet();
+            cancelled.add(this);
+            return true;
+        }
+
+        private void expire() {
+            if (!state.compareAndSet(WAITING, EXPIRED)) {
+                return;
+            }
+            pending.decrementAndGet();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                // One failing task must not stop the wheel
+                logger.error("Timing wheel task failed", e);
+            }
+        }
+    }
+
+    /**
+     * Doubly linked list of the timeouts in one slot of the wheel - worker thread only
+     */
+    private static final class Bucket {
+        private Timeout head;
+        private Timeout tail;
+
+        void add(Timeout timeout) {
+            timeout.bucket = this;
+            if (head == null) {
+                head = tail = timeout;
+            } else {
+                tail.next = timeout;
+                timeout.previous = tail;
+                tail = timeout;
+            }
+        }
+
+        void remove(Timeout timeout) {
+            if (timeout.previous != null) {
+                timeout.previous.next = timeout.next;
+            } else {
+                head = timeout.next;
+            }
+            if (timeout.next != null) {
+                timeout.next.previous = timeout.previous;
+            } else {
+                tail = timeout.previous;
+            }
+            timeout.next = null;
+            timeout.previous = null;
+            timeout.bucket = null;
+        }
+
+        /**
+         * Run the timeouts due by now; the rest wait another turn
+         */
+        void expire(long now) {
+            Timeout timeout = head;
+            while (timeout != null) {
+                Timeout next = timeout.next;
+                if (timeout.state.get() != Timeout.WAITING) {
+                    remove(timeout);
+                } else if (timeout.remainingRounds <= 0 && timeout.deadline <= now) {
+                    remove(timeout);
+                    timeout.expire();
+                } else if (timeout.remainingRounds > 0) {
+                    timeout.remainingRounds--;
+                }
+                timeout = next;
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.infygo.airline.startup;
+
+import com.infygo.airline.domain.Flight;
+import com.infygo.airline.repository.CatalogImage;
+import com.infygo.airline.repository.FlightRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Restores a prebuilt catalog image (infygo.startup.catalog-image) into the repository.
+ *
+ * The image is loaded the moment the repository bean is created, before any service,
+ * catalog listener or the HTTP API can use it - components that scan the catalog when
+ * they are built see every flight, and the first search already finds them. The flights
+ * go into the repository as one batch, so its indexes are built once, without the
+ * per-flight validation, listeners and aspects of FlightService.
+ *
+ * A repository that already holds flights, e.g. durable storage recovered from its own
+ * files, is left as it is.
+ */
+@Component
+public class CatalogImageLoader implements BeanPostProcessor, Ordered {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogImageLoader.class);
+
+    private final String catalogImage;
+    private final ObjectProvider<StartupTimings> startupTimings;
+    private final AtomicBoolean loaded = new AtomicBoolean();
+
+    /**
+     * @param catalogImage Path of the image to restore, blank for none
+     */
+    @Autowired
+    public CatalogImageLoader(@Value("${infygo.startup.catalog-image:}") String catalogImage,
+            ObjectProvider<StartupTimings> startupTimings) {
+        this.catalogImage = catalogImage.trim();
+        this.startupTimings = startupTimings;
+    }
+
+    @Override
+    public int getOrder() {
+        // After the metrics proxy is applied, so the load shows up as one addFlights call
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof FlightRepository && !catalogImage.isEmpty() && loaded.compareAndSet(false, true)) {
+            load((FlightRepository) bean, Paths.get(catalogImage));
+        }
+        return bean;
+    }
+
+    private void load(FlightRepository repository, Path image) {
+        if (!Files.exists(image)) {
+            logger.warn("Catalog image {} not found - starting with the repository as it is", image);
+            return;
+        }
+        if (!repository.getFlights(null, 1).isEmpty()) {
+            logger.info("Repository already holds flights - catalog image {} not loaded", image);
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<Flight> flights;
+        try {
+            flights = CatalogImage.read(image);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read catalog image " + image, e);
+        }
+        long read = System.nanoTime();
+        repository.addFlights(flights);
+        long built = System.nanoTime();
+
+        startupTimings.ifAvailable(timings -> {
+            timings.record("Catalog image read", read - start);
+            timings.record("Index build", built - read);
+        });
+        logger.info("Loaded {} flights from catalog image {} in {} ms", flights.size(), image,
+                (built - start) / 1_000_000);
+    }
+}
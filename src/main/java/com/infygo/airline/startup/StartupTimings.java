@@ -0,0 +1,122 @@
+package com.infygo.airline.startup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.event.ApplicationStartedEvent;
+import org.springframework.boot.context.event.SpringApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Phase-by-phase startup timing, logged once the catalog can be searched.
+ *
+ * Created in main() before Spring starts, registered as an application listener to time
+ * the context and as a singleton bean so the components that load data can add their
+ * own phases. Phases recorded while the context starts are shown nested under it; with
+ * lazy initialization most of the work happens after it, when the first bean needs it.
+ *
+ * With infygo.startup.exit-after-start=true the application exits as soon as the context
+ * has started - a training run for a class data sharing archive (see README).
+ */
+public class StartupTimings implements ApplicationListener<SpringApplicationEvent> {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimings.class);
+
+    private static final String EXIT_AFTER_START_PROPERTY = "infygo.startup.exit-after-start";
+
+    // JVM launch to main(): class loading and JIT before any application code runs
+    private final long mainUptimeMillis = ManagementFactory.getRuntimeMXBean().getUptime();
+    private final long mainNanos = System.nanoTime();
+
+    // Phases in the order they finished - guarded by this
+    private final List<String> phases = new ArrayList<>();
+    private final List<Long> phaseNanos = new ArrayList<>();
+    private long contextNanos = -1;
+    private long lastEndNanos = mainNanos;
+    private int phasesInContext;
+    private boolean reported;
+
+    /**
+     * Record a finished phase
+     */
+    public synchronized void record(String phase, long nanos) {
+        phases.add(phase);
+        phaseNanos.add(nanos);
+        lastEndNanos = System.nanoTime();
+    }
+
+    /**
+     * Record a phase that ran from the end of the previous phase until now
+     */
+    public synchronized void end(String phase) {
+        record(phase, System.nanoTime() - lastEndNanos);
+    }
+
+    @Override
+    public void onApplicationEvent(SpringApplicationEvent event) {
+        if (event instanceof ApplicationStartedEvent) {
+            contextStarted(((ApplicationStartedEvent) event).getApplicationContext());
+        } else if (event instanceof ApplicationReadyEvent) {
+            // Headless runs have no menu to report once the data is loaded - report here
+            report();
+        }
+    }
+
+    private void contextStarted(ConfigurableApplicationContext context) {
+        synchronized (this) {
+            lastEndNanos = System.nanoTime();
+            contextNanos = lastEndNanos - mainNanos;
+            phasesInContext = phases.size();
+        }
+        if (context.getEnvironment().getProperty(EXIT_AFTER_START_PROPERTY, Boolean.class, false)) {
+            report();
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    /**
+     * Log the timing breakdown - only the first call logs, later ones do nothing
+     */
+    public void report() {
+        StringBuilder report = new StringBuilder("Startup timing:");
+        long readyNanos = TimeUnit.MILLISECONDS.toNanos(mainUptimeMillis) + System.nanoTime() - mainNanos;
+        synchronized (this) {
+            if (reported) {
+                return;
+            }
+            reported = true;
+
+            long accounted = TimeUnit.MILLISECONDS.toNanos(mainUptimeMillis);
+            line(report, "JVM start to main", accounted, false);
+            int next = 0;
+            if (contextNanos >= 0) {
+                line(report, "Spring context", contextNanos, false);
+                accounted += contextNanos;
+                for (; next < phasesInContext; next++) {
+                    line(report, phases.get(next), phaseNanos.get(next), true);
+                }
+            }
+            for (; next < phases.size(); next++) {
+                line(report, phases.get(next), phaseNanos.get(next), false);
+                accounted += phaseNanos.get(next);
+            }
+            // Bean creation and other work between the recorded phases
+            line(report, "Other", Math.max(0, readyNanos - accounted), false);
+        }
+        report.append(String.format("%n  %-28s %6d ms after JVM start", "Ready for searches",
+                TimeUnit.NANOSECONDS.toMillis(readyNanos)));
+        logger.info(report.toString());
+    }
+
+    private static void line(StringBuilder report, String phase, long nanos, boolean nested) {
+        report.append(String.format("%n  %-28s %6d ms", (nested ? "  " : "") + phase,
+                TimeUnit.NANOSECONDS.toMillis(nanos)));
+    }
+}